@@ -0,0 +1,44 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.io.IOException;
+import java.util.List;
+
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * Writes contacts, one at a time, in a given export format.
+ * Implementations must not keep references to written records,
+ * so memory stays constant no matter how many contacts are exported.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public interface ContactExportWriter {
+	
+	/**
+	 * Writes whatever the format requires before the first contact.
+	 * 
+	 * @throws IOException
+	 */
+	public default void begin() throws IOException {
+	}
+	
+	/**
+	 * Writes a contact, with its addresses and phones.
+	 * 
+	 * @param contact	the contact.
+	 * @param addresses	the contact addresses.
+	 * @param phones	the contact phones.
+	 * @throws IOException
+	 */
+	public void write(Contact contact, List<Address> addresses, List<Phone> phones) throws IOException;
+	
+	/**
+	 * Writes whatever the format requires after the last contact, and flushes the output.
+	 * 
+	 * @throws IOException
+	 */
+	public void end() throws IOException;
+}
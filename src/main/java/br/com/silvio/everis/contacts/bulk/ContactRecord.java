@@ -0,0 +1,104 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * A contact together with its addresses and phones, as a single record
+ * of bulk files. HATEOAS links are not part of the record.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ContactRecord {
+	
+	@JsonUnwrapped
+	@JsonIgnoreProperties("links")
+	private Contact contact;
+	
+	@JsonIgnoreProperties("links")
+	private List<Address> addresses;
+	
+	@JsonIgnoreProperties("links")
+	private List<Phone> phones;
+	
+	/**
+	 * Class constructor, for deserialization.
+	 */
+	public ContactRecord() {
+		this.contact = new Contact();
+	}
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param contact	the contact.
+	 * @param addresses	the contact addresses.
+	 * @param phones	the contact phones.
+	 */
+	public ContactRecord(Contact contact, List<Address> addresses, List<Phone> phones) {
+		this.contact = contact;
+		this.addresses = addresses;
+		this.phones = phones;
+	}
+
+	/**
+	 * Gets the contact.
+	 * 
+	 * @return	the contact.
+	 */
+	public Contact getContact() {
+		return contact;
+	}
+
+	/**
+	 * Sets the contact.
+	 * 
+	 * @param contact	the contact.
+	 */
+	public void setContact(Contact contact) {
+		this.contact = contact;
+	}
+
+	/**
+	 * Gets the contact addresses.
+	 * 
+	 * @return	a list of addresses.
+	 */
+	public List<Address> getAddresses() {
+		return addresses;
+	}
+
+	/**
+	 * Sets the contact addresses.
+	 * 
+	 * @param addresses	a list of addresses.
+	 */
+	public void setAddresses(List<Address> addresses) {
+		this.addresses = addresses;
+	}
+
+	/**
+	 * Gets the contact phones.
+	 * 
+	 * @return	a list of phones.
+	 */
+	public List<Phone> getPhones() {
+		return phones;
+	}
+
+	/**
+	 * Sets the contact phones.
+	 * 
+	 * @param phones	a list of phones.
+	 */
+	public void setPhones(List<Phone> phones) {
+		this.phones = phones;
+	}
+}
@@ -0,0 +1,27 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import br.com.silvio.everis.contacts.exceptions.InvalidInput;
+
+/**
+ * Reads contact records, one at a time, from a bulk file,
+ * so the file is never entirely loaded in memory.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public interface ContactRecordReader extends Closeable {
+	
+	/**
+	 * Reads the next contact record.
+	 * A record that can not be parsed raises an exception, but the reader
+	 * goes on with the following records whenever the format allows it.
+	 * 
+	 * @return	the record, or null if there are no more records.
+	 * @throws	InvalidInput.
+	 * @throws	IOException
+	 */
+	public ContactRecord next() throws IOException;
+}
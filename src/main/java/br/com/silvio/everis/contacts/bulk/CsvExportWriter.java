@@ -0,0 +1,112 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.TimeZone;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * Writes contacts as CSV, with typed rows: each contact row ("C") is followed
+ * by its address rows ("A") and phone rows ("P"). The layout of each row type
+ * is described by the comment rows ("#") at the beginning of the file.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class CsvExportWriter implements ContactExportWriter {
+	
+	public static final String CONTACT_ROW = "C";
+	
+	public static final String ADDRESS_ROW = "A";
+	
+	public static final String PHONE_ROW = "P";
+	
+	public static final String DATE_FORMAT = "dd-MM-yyyy";
+	
+	public static final String[] CONTACT_HEADER = {
+			"#" + CONTACT_ROW, "id", "name", "birthdate", "cpf"};
+	
+	public static final String[] ADDRESS_HEADER = {
+			"#" + ADDRESS_ROW, "id", "addressType", "streetType", "street", "number",
+			"complement", "neighborhood", "city", "zipCode"};
+	
+	public static final String[] PHONE_HEADER = {
+			"#" + PHONE_ROW, "id", "phoneType", "ddi", "ddd", "number", "extension"};
+	
+	private final SequenceWriter writer;
+	
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param out	the output stream.
+	 * @throws IOException
+	 */
+	public CsvExportWriter(OutputStream out) throws IOException {
+		var mapper = new CsvMapper();
+		
+		// same time zone Jackson uses for birth dates
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		this.writer = mapper.writer(CsvSchema.emptySchema())
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+				.writeValues(out);
+	}
+	
+	/**
+	 * Converts a value to its CSV cell text.
+	 * 
+	 * @param value	the value.
+	 * @return	the cell text (empty for null values).
+	 */
+	private static String cell(Object value) {
+		return (value != null) ? value.toString() : "";
+	}
+	
+	@Override
+	public void begin() throws IOException {
+		writer.write(CONTACT_HEADER);
+		writer.write(ADDRESS_HEADER);
+		writer.write(PHONE_HEADER);
+	}
+
+	@Override
+	public void write(Contact contact, List<Address> addresses, List<Phone> phones) throws IOException {
+		var birthdate = contact.getBirthdate();
+		
+		writer.write(new String[] {
+				CONTACT_ROW, cell(contact.getId()), cell(contact.getName()),
+				(birthdate != null) ? dateFormat.format(birthdate) : "", cell(contact.getCpf())});
+		
+		for (var address : addresses) {
+			writer.write(new String[] {
+					ADDRESS_ROW, cell(address.getId()), cell(address.getAddressType()),
+					cell(address.getStreetType()), cell(address.getStreet()), cell(address.getNumber()),
+					cell(address.getComplement()), cell(address.getNeighborhood()),
+					cell(address.getCity()), cell(address.getZipCode())});
+		}
+		
+		for (var phone : phones) {
+			writer.write(new String[] {
+					PHONE_ROW, cell(phone.getId()), cell(phone.getPhoneType()), cell(phone.getDdi()),
+					cell(phone.getDdd()), cell(phone.getNumber()), cell(phone.getExtension())});
+		}
+	}
+
+	@Override
+	public void end() throws IOException {
+		writer.close();
+	}
+}
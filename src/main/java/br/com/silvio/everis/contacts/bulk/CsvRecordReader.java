@@ -0,0 +1,261 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.TimeZone;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+
+import br.com.silvio.everis.contacts.enums.AddressType;
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.enums.StreetType;
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * Reads contact records from CSV, in the same typed rows layout written by
+ * {@link CsvExportWriter}, with Jackson streaming CSV parser: a contact row
+ * ("C") followed by its address rows ("A") and phone rows ("P").
+ * Rows whose first cell starts with "#" are headers, and are skipped.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class CsvRecordReader implements ContactRecordReader {
+	
+	private final MappingIterator<String[]> rows;
+	
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat(CsvExportWriter.DATE_FORMAT);
+	
+	private String[] pending;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param in	the input stream.
+	 * @throws IOException
+	 */
+	public CsvRecordReader(InputStream in) throws IOException {
+		var mapper = new CsvMapper();
+		
+		mapper.enable(CsvParser.Feature.WRAP_AS_ARRAY);
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		dateFormat.setLenient(false);
+		this.rows = mapper.readerFor(String[].class).readValues(in);
+	}
+	
+	/**
+	 * Gets a cell of a row.
+	 * 
+	 * @param row	the row.
+	 * @param index	the cell index.
+	 * @return	the cell text, or null if it is empty or missing.
+	 */
+	private static String cell(String[] row, int index) {
+		return ((index < row.length) && (!row[index].isEmpty())) ? row[index] : null;
+	}
+	
+	/**
+	 * Gets a cell of a row as an enumerated, by its description.
+	 * 
+	 * @param <E>	the enumerated type.
+	 * @param values	the enumerated values.
+	 * @param row	the row.
+	 * @param index	the cell index.
+	 * @param element	the element name, for the error message.
+	 * @return	the enumerated, or null if the cell is empty.
+	 * @throws	Invalid.
+	 */
+	private static <E extends Enum<E>> E enumCell(E[] values, String[] row, int index, String element) {
+		var text = cell(row, index);
+		
+		if (text == null) {
+			return null;
+		}
+		
+		for (var value : values) {
+			if (value.toString().equals(text)) {
+				return value;
+			}
+		}
+		
+		throw new Invalid(element);
+	}
+	
+	/**
+	 * Gets a cell of a row as an ID.
+	 * 
+	 * @param row	the row.
+	 * @param element	the element name, for the error message.
+	 * @return	the ID, or null if the cell is empty.
+	 * @throws	Invalid.
+	 */
+	private static Long idCell(String[] row, String element) {
+		var text = cell(row, 1);
+		
+		try {
+			return (text != null) ? Long.valueOf(text) : null;
+		} catch (NumberFormatException e) {
+			throw new Invalid(element.concat(" ID"));
+		}
+	}
+	
+	/**
+	 * Reads the next row that is not a header.
+	 * 
+	 * @return	the row, or null if there are no more rows.
+	 * @throws IOException
+	 */
+	private String[] nextRow() throws IOException {
+		while (rows.hasNextValue()) {
+			var row = rows.nextValue();
+			
+			if ((row.length > 0) && (!row[0].startsWith("#"))) {
+				return row;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Converts a contact row.
+	 * 
+	 * @param row	the row.
+	 * @return	the contact.
+	 * @throws	Invalid.
+	 */
+	private Contact toContact(String[] row) {
+		var contact = new Contact();
+		var birthdate = cell(row, 3);
+		
+		contact.setId(idCell(row, "contact"));
+		contact.setName(cell(row, 2));
+		contact.setCpf(cell(row, 4));
+		
+		if (birthdate != null) {
+			try {
+				contact.setBirthdate(dateFormat.parse(birthdate));
+			} catch (ParseException e) {
+				throw new Invalid("contact birthdate");
+			}
+		}
+		
+		return contact;
+	}
+	
+	/**
+	 * Converts an address row.
+	 * 
+	 * @param row	the row.
+	 * @return	the address.
+	 * @throws	Invalid.
+	 */
+	private static Address toAddress(String[] row) {
+		var address = new Address();
+		
+		address.setId(idCell(row, "address"));
+		address.setAddressType(enumCell(AddressType.values(), row, 2, "address type"));
+		address.setStreetType(enumCell(StreetType.values(), row, 3, "address street type"));
+		address.setStreet(cell(row, 4));
+		address.setNumber(cell(row, 5));
+		address.setComplement(cell(row, 6));
+		address.setNeighborhood(cell(row, 7));
+		address.setCity(cell(row, 8));
+		address.setZipCode(cell(row, 9));
+		
+		return address;
+	}
+	
+	/**
+	 * Converts a phone row.
+	 * 
+	 * @param row	the row.
+	 * @return	the phone.
+	 * @throws	Invalid.
+	 */
+	private static Phone toPhone(String[] row) {
+		var phone = new Phone();
+		
+		phone.setId(idCell(row, "phone"));
+		phone.setPhoneType(enumCell(PhoneType.values(), row, 2, "phone type"));
+		phone.setDdi(cell(row, 3));
+		phone.setDdd(cell(row, 4));
+		phone.setNumber(cell(row, 5));
+		phone.setExtension(cell(row, 6));
+		
+		return phone;
+	}
+
+	@Override
+	public ContactRecord next() throws IOException {
+		try {
+			var row = (pending != null) ? pending : nextRow();
+			
+			pending = null;
+			
+			if (row == null) {
+				return null;
+			}
+			
+			if (!CsvExportWriter.CONTACT_ROW.equals(row[0])) {
+				// orphan address or phone rows are skipped up to the next contact row
+				do {
+					row = nextRow();
+				} while ((row != null) && (!CsvExportWriter.CONTACT_ROW.equals(row[0])));
+				
+				pending = row;
+				throw new Invalid("CSV record (address or phone row without a contact row)");
+			}
+			
+			var addresses = new ArrayList<Address>();
+			var phones = new ArrayList<Phone>();
+			Contact contact = null;
+			Invalid invalid = null;
+			
+			try {
+				contact = toContact(row);
+			} catch (Invalid e) {
+				invalid = e;
+			}
+			
+			while (((row = nextRow()) != null) && (!CsvExportWriter.CONTACT_ROW.equals(row[0]))) {
+				try {
+					if (CsvExportWriter.ADDRESS_ROW.equals(row[0])) {
+						addresses.add(toAddress(row));
+					} else if (CsvExportWriter.PHONE_ROW.equals(row[0])) {
+						phones.add(toPhone(row));
+					} else {
+						throw new Invalid("CSV row type");
+					}
+				} catch (Invalid e) {
+					// the whole record is rejected, but only after all its rows are consumed
+					invalid = (invalid != null) ? invalid : e;
+				}
+			}
+			
+			pending = row;
+			
+			if (invalid != null) {
+				throw invalid;
+			}
+			
+			return new ContactRecord(contact, addresses, phones);
+		} catch (JsonProcessingException e) {
+			throw new Invalid("CSV row (" + e.getOriginalMessage() + ")");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		rows.close();
+	}
+}
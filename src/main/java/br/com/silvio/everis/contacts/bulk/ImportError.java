@@ -0,0 +1,43 @@
+package br.com.silvio.everis.contacts.bulk;
+
+/**
+ * An error found in a record of a bulk import.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ImportError {
+	
+	private final long record;
+	
+	private final String message;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param record	the record number (starting at 1).
+	 * @param message	the error message.
+	 */
+	public ImportError(long record, String message) {
+		this.record = record;
+		this.message = message;
+	}
+
+	/**
+	 * Gets the record number.
+	 * 
+	 * @return	the record number (starting at 1).
+	 */
+	public long getRecord() {
+		return record;
+	}
+
+	/**
+	 * Gets the error message.
+	 * 
+	 * @return	the error message.
+	 */
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,134 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.hateoas.RepresentationModel;
+
+/**
+ * Report of a bulk import: how many records were read, imported and
+ * rejected, the errors of the rejected ones, and the import throughput.
+ * Only the first errors are listed, up to a configured maximum.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ImportReport extends RepresentationModel<ImportReport> {
+	
+	private long records;
+	
+	private long imported;
+	
+	private long rejected;
+	
+	private long elapsedMs;
+	
+	private long rowsPerSecond;
+	
+	private final List<ImportError> errors = new ArrayList<>();
+	
+	private final int maxErrors;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param maxErrors	the maximum number of errors listed.
+	 */
+	public ImportReport(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+	
+	/**
+	 * Counts a record read.
+	 */
+	public void addRecord() {
+		records++;
+	}
+	
+	/**
+	 * Counts imported records.
+	 * 
+	 * @param count	the number of records imported.
+	 */
+	public void addImported(long count) {
+		imported += count;
+	}
+	
+	/**
+	 * Counts a rejected record, listing its error.
+	 * 
+	 * @param record	the record number.
+	 * @param message	the error message.
+	 */
+	public void addError(long record, String message) {
+		rejected++;
+		
+		if (errors.size() < maxErrors) {
+			errors.add(new ImportError(record, message));
+		}
+	}
+	
+	/**
+	 * Finishes the report, computing the throughput.
+	 * 
+	 * @param elapsedMs	the import elapsed time, in milliseconds.
+	 */
+	public void finish(long elapsedMs) {
+		this.elapsedMs = elapsedMs;
+		this.rowsPerSecond = records * 1000L / Math.max(1L, elapsedMs);
+	}
+
+	/**
+	 * Gets the number of records read.
+	 * 
+	 * @return	the number of records.
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	/**
+	 * Gets the number of records imported.
+	 * 
+	 * @return	the number of records.
+	 */
+	public long getImported() {
+		return imported;
+	}
+
+	/**
+	 * Gets the number of records rejected.
+	 * 
+	 * @return	the number of records.
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * Gets the import elapsed time.
+	 * 
+	 * @return	the elapsed time, in milliseconds.
+	 */
+	public long getElapsedMs() {
+		return elapsedMs;
+	}
+
+	/**
+	 * Gets the import throughput.
+	 * 
+	 * @return	the number of records read per second.
+	 */
+	public long getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	/**
+	 * Gets the errors of the rejected records (up to the maximum listed).
+	 * 
+	 * @return	a list of errors.
+	 */
+	public List<ImportError> getErrors() {
+		return errors;
+	}
+}
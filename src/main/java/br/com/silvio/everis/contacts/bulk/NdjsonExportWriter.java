@@ -0,0 +1,53 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * Writes contacts as newline delimited JSON, one contact record per line.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class NdjsonExportWriter implements ContactExportWriter {
+	
+	private final JsonGenerator generator;
+	
+	private final ObjectWriter writer;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param mapper	the object mapper.
+	 * @param out	the output stream.
+	 * @throws IOException
+	 */
+	public NdjsonExportWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+		this.generator = mapper.getFactory().createGenerator(out)
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		this.generator.setRootValueSeparator(null);
+		this.writer = mapper.writerFor(ContactRecord.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	@Override
+	public void write(Contact contact, List<Address> addresses, List<Phone> phones) throws IOException {
+		writer.writeValue(generator, new ContactRecord(contact, addresses, phones));
+		generator.writeRaw('\n');
+	}
+
+	@Override
+	public void end() throws IOException {
+		generator.close();
+	}
+}
@@ -0,0 +1,54 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+/**
+ * Reads contact records from newline delimited JSON, with Jackson streaming
+ * parser, binding one record at a time.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class NdjsonRecordReader implements ContactRecordReader {
+	
+	private final MappingIterator<ContactRecord> records;
+	
+	private boolean broken;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param mapper	the object mapper.
+	 * @param in	the input stream.
+	 * @throws IOException
+	 */
+	public NdjsonRecordReader(ObjectMapper mapper, InputStream in) throws IOException {
+		this.records = mapper.readerFor(ContactRecord.class).readValues(in);
+	}
+
+	@Override
+	public ContactRecord next() throws IOException {
+		try {
+			return (!broken && records.hasNextValue()) ? records.nextValue() : null;
+		} catch (JsonParseException e) {
+			// malformed JSON leaves the parser lost, so nothing else can be read
+			broken = true;
+			throw new Invalid("JSON record (" + e.getOriginalMessage() + ")");
+		} catch (JsonMappingException e) {
+			throw new Invalid("record (" + e.getOriginalMessage() + ")");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		records.close();
+	}
+}
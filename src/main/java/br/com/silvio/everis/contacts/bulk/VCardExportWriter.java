@@ -0,0 +1,149 @@
+package br.com.silvio.everis.contacts.bulk;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.TimeZone;
+
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * Writes contacts as vCard 3.0 (RFC 2426), one card per contact.
+ * The CPF, which has no standard vCard property, goes in X-CPF.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class VCardExportWriter implements ContactExportWriter {
+	
+	private static final String CRLF = "\r\n";
+	
+	private final Writer writer;
+	
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param out	the output stream.
+	 */
+	public VCardExportWriter(OutputStream out) {
+		// same time zone Jackson uses for birth dates
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Escapes a vCard text value.
+	 * 
+	 * @param value	the value.
+	 * @return	the escaped value (empty for null values).
+	 */
+	private static String escape(Object value) {
+		if (value == null) {
+			return "";
+		}
+		
+		var text = value.toString();
+		var escaped = new StringBuilder(text.length() + 8);
+		
+		for (var i = 0; i < text.length(); i++) {
+			var c = text.charAt(i);
+			
+			switch (c) {
+				case '\\':
+				case ',':
+				case ';':
+					escaped.append('\\').append(c);
+					break;
+				case '\n':
+					escaped.append("\\n");
+					break;
+				case '\r':
+					break;
+				default:
+					escaped.append(c);
+			}
+		}
+		
+		return escaped.toString();
+	}
+	
+	/**
+	 * Writes a vCard content line.
+	 * 
+	 * @param line	the content line, already escaped.
+	 * @throws IOException
+	 */
+	private void line(String line) throws IOException {
+		writer.write(line);
+		writer.write(CRLF);
+	}
+
+	@Override
+	public void write(Contact contact, List<Address> addresses, List<Phone> phones) throws IOException {
+		line("BEGIN:VCARD");
+		line("VERSION:3.0");
+		line("UID:contact-" + contact.getId());
+		line("FN:" + escape(contact.getName()));
+		line("N:" + escape(contact.getName()) + ";;;;");
+		
+		if (contact.getBirthdate() != null) {
+			line("BDAY:" + dateFormat.format(contact.getBirthdate()));
+		}
+		
+		if (contact.getCpf() != null) {
+			line("X-CPF:" + escape(contact.getCpf()));
+		}
+		
+		for (var address : addresses) {
+			var street = new StringBuilder();
+			
+			if (address.getStreetType() != null) {
+				street.append(address.getStreetType()).append(' ');
+			}
+			
+			street.append(address.getStreet() != null ? address.getStreet() : "");
+			
+			if (address.getNumber() != null) {
+				street.append(", ").append(address.getNumber());
+			}
+			
+			var extended = new StringBuilder(address.getComplement() != null ? address.getComplement() : "");
+			
+			if (address.getNeighborhood() != null) {
+				extended.append((extended.length() > 0) ? " - " : "").append(address.getNeighborhood());
+			}
+			
+			// ADR: post office box; extended address; street; locality; region; postal code; country
+			line("ADR:;" + escape(extended) + ";" + escape(street) + ";" + escape(address.getCity())
+					+ ";;" + escape(address.getZipCode()) + ";BR");
+		}
+		
+		for (var phone : phones) {
+			var type = (phone.getPhoneType() == PhoneType.MOBILE) ? "CELL" : "VOICE";
+			var number = "+" + phone.getDdi() + " " + phone.getDdd() + " " + phone.getNumber();
+			
+			if (phone.getExtension() != null) {
+				number = number + ";ext=" + phone.getExtension();
+			}
+			
+			line("TEL;TYPE=" + type + ":" + number);
+		}
+		
+		line("END:VCARD");
+	}
+
+	@Override
+	public void end() throws IOException {
+		writer.flush();
+	}
+}
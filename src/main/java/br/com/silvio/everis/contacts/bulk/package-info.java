@@ -0,0 +1,8 @@
+/**
+ * Bulk (export and import) package
+ */
+/**
+ * @author silvio.araujo
+ *
+ */
+package br.com.silvio.everis.contacts.bulk;
@@ -1,29 +1,69 @@
 package br.com.silvio.everis.contacts.controller;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
+import br.com.silvio.everis.contacts.bulk.ImportReport;
+import br.com.silvio.everis.contacts.enums.ContactExpansion;
+import br.com.silvio.everis.contacts.enums.ContactSort;
+import br.com.silvio.everis.contacts.enums.ExportFormat;
+import br.com.silvio.everis.contacts.enums.ImportFormat;
+import br.com.silvio.everis.contacts.exceptions.InvalidFields;
 import br.com.silvio.everis.contacts.exceptions.ResourceNotFound;
-import br.com.silvio.everis.contacts.exceptions.SuppliedDoesNotBelongTo;
+import br.com.silvio.everis.contacts.metrics.RequestMetricsFilter;
 import br.com.silvio.everis.contacts.model.Address;
 import br.com.silvio.everis.contacts.model.Contact;
 import br.com.silvio.everis.contacts.model.Phone;
+import br.com.silvio.everis.contacts.paging.ContactCursor;
+import br.com.silvio.everis.contacts.search.ContactSearch;
+import br.com.silvio.everis.contacts.service.ContactExportService;
+import br.com.silvio.everis.contacts.service.ContactImportService;
 import br.com.silvio.everis.contacts.service.ContactService;
+import br.com.silvio.everis.contacts.web.ContactBatchModel;
+import br.com.silvio.everis.contacts.web.ETags;
+import br.com.silvio.everis.contacts.web.ResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static net.logstash.logback.argument.StructuredArguments.v;
 
 /**
  * Contacts controller class.
@@ -39,81 +79,286 @@ public class ContactsController {
 	@Autowired
 	ContactService service;
 	
+	@Autowired
+	ContactExportService exportService;
+	
+	@Autowired
+	ContactImportService importService;
+	
+	@Autowired
+	ResponseCache responseCache;
+	
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	@Value("${contacts.logging.payload.sample-rate}")
+	double payloadSampleRate;
+	
 	private static final Logger logger = LoggerFactory.getLogger(ContactsController.class);
-
+	
+	private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+	
+	private static final String DELETED_COUNT_HEADER = "X-Deleted-Count";
+	
+	private static final String EXCEPTIONS_COUNTER = "contacts.exceptions";
+	
+	private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+	
 	/**
-	 * Treats exceptions, logging message and returning the same exception,
-	 * due to be rethrown.
+	 * Treats exceptions, logging them as structured error events, counting
+	 * them by type and method, and returning the same exception, due to be
+	 * rethrown.
 	 * 
 	 * @param methodName	the name of the method where exception was thrown.
 	 * @param e	the original exception to be treated.
 	 * @return	the same original exception, just to be rethrown.
 	 */
 	private RuntimeException treatRTE(String methodName, RuntimeException e) {
-		logger.error(String.format("%s fails: %s", methodName, e.getMessage()));
+		final var exception = e.getClass().getSimpleName();
+		
+		if (e instanceof InvalidFields) {
+			logger.error("{} fails: {}", v("method", methodName), v("error", e.getMessage()), kv("exception", exception),
+					kv("durationMs", elapsedMs()), kv("fields", ((InvalidFields) e).getErrors().size()));
+		} else {
+			logger.error("{} fails: {}", v("method", methodName), v("error", e.getMessage()), kv("exception", exception),
+					kv("durationMs", elapsedMs()));
+		}
+		
+		meterRegistry.counter(EXCEPTIONS_COUNTER, "exception", exception, "method", methodName).increment();
 		return e;
 	}
 	
 	/**
-	 * Logs success message, formatted and parameterized as used in String.format
+	 * Logs a success event, as a message and structured fields (ids, counts),
+	 * plus the method and the request duration. The payload is only written
+	 * at DEBUG, or for a sample of the events ("contacts.logging.payload.sample-rate"),
+	 * and only then turned into a string.
+	 * 
+	 * @param methodName	the name of the method.
+	 * @param message	the event message.
+	 * @param payload	the loaded or saved object(s), or null.
+	 * @param fields	the structured fields, as StructuredArguments.kv.
+	 */
+	private void logSuccess(String methodName, String message, Object payload, Object... fields) {
+		if (!logger.isInfoEnabled()) {
+			return;
+		}
+		
+		final var withPayload = (payload != null)
+				&& (logger.isDebugEnabled() || (ThreadLocalRandom.current().nextDouble() < payloadSampleRate));
+		final var arguments = new Object[fields.length + (withPayload ? 3 : 2)];
+		
+		arguments[0] = v("method", methodName);
+		arguments[1] = kv("durationMs", elapsedMs());
+		System.arraycopy(fields, 0, arguments, 2, fields.length);
+		
+		if (withPayload) {
+			arguments[arguments.length - 1] = kv("payload", payload.toString());
+		}
+		
+		logger.info("{}: " + message, arguments);
+	}
+	
+	/**
+	 * Gets the time elapsed since the request started.
 	 * 
-	 * @param format	the format string to be used in String.format
-	 * @param args	the list of object arguments for String.format
+	 * @return	the elapsed milliseconds, or -1 out of a request.
 	 */
-	private void logSuccess(String format, Object... args) {
-		logger.info(String.format(format, args));
+	private static long elapsedMs() {
+		final var attributes = RequestContextHolder.getRequestAttributes();
+		final var start = (attributes != null)
+				? attributes.getAttribute(RequestMetricsFilter.START_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+				: null;
+		
+		return (start != null) ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - (Long) start) : -1;
 	}
 	
 	/**
-	 * Fills contact links, required by HATEOAS
+	 * Builds the strong ETag of a representation that depends on a contact version.
 	 * 
-	 * @param contact	the contact to be filled
+	 * @param version	the contact version.
+	 * @param expand	the children embedded in the representation.
+	 * @return	the quoted ETag.
 	 */
-	private void fillContactLinks(final Contact contact) {
-		final var contactId = contact.getId();
-		final var selfLink = linkTo(ContactsController.class).slash(contactId).withSelfRel();
+	private static String versionETag(Long version, Set<ContactExpansion> expand) {
+		final var eTag = new StringBuilder("\"").append(version);
 		
-		contact.add(selfLink);
+		expand.forEach(expansion -> eTag.append('-').append(expansion));
 		
-		if (service.loadContactAddresses(contactId).size() > 0) {
-			Link addressLink = linkTo(methodOn(ContactsController.class)
-					.getAddressesForContact(contactId)).withRel("addresses");
-			contact.add(addressLink);
-		}
+		return eTag.append('"').toString();
+	}
+	
+	/**
+	 * Loads a contact version, for conditional requests.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @return	the version.
+	 * @throws	ResourceNotFound.
+	 */
+	private Long loadContactVersion(final Long contactId) {
+		final var version = service.loadContactVersion(contactId);
 		
-		if (service.loadContactPhones(contactId).size() > 0) {
-			Link phoneLink = linkTo(methodOn(ContactsController.class)
-					.getPhonesForContact(contactId)).withRel("phones");
-			contact.add(phoneLink);
+		if (version == null) {
+			throw new ResourceNotFound(Contact.class, contactId);
 		}
+		
+		return version;
+	}
+	
+	/**
+	 * Fills contacts links, required by HATEOAS, and embeds the expanded
+	 * addresses and phones.
+	 * The existence of addresses and phones is checked, or they are loaded, for all
+	 * contacts at once, so the number of queries does not grow with the number of contacts.
+	 * 
+	 * @param contacts	the contacts to be filled
+	 * @param expand	the children to be embedded in the contacts.
+	 */
+	private void fillContactLinks(final List<Contact> contacts, final Set<ContactExpansion> expand) {
+		final var contactIds = contacts.stream()
+				.map(Contact::getId)
+				.collect(Collectors.toList());
+		final var addresses = expand.contains(ContactExpansion.ADDRESSES)
+				? service.loadAddressesByContactIds(contactIds) : null;
+		final var phones = expand.contains(ContactExpansion.PHONES)
+				? service.loadPhonesByContactIds(contactIds) : null;
+		final var withAddresses = (addresses != null)
+				? addresses.keySet() : service.loadContactIdsWithAddresses(contactIds);
+		final var withPhones = (phones != null)
+				? phones.keySet() : service.loadContactIdsWithPhones(contactIds);
+		
+		contacts.forEach(contact -> {
+			final var contactId = contact.getId();
+			final var selfLink = linkTo(ContactsController.class).slash(contactId).withSelfRel();
+			
+			contact.add(selfLink);
+			
+			if (withAddresses.contains(contactId)) {
+				Link addressLink = linkTo(ContactsController.class)
+						.slash(contactId).slash("addresses").withRel("addresses");
+				contact.add(addressLink);
+			}
+			
+			if (withPhones.contains(contactId)) {
+				Link phoneLink = linkTo(ContactsController.class)
+						.slash(contactId).slash("phones").withRel("phones");
+				contact.add(phoneLink);
+			}
+			
+			if (addresses != null) {
+				final var contactAddresses = addresses.getOrDefault(contactId, List.of());
+				
+				contactAddresses.forEach(address -> address.add(linkTo(ContactsController.class)
+						.slash(contactId).slash("address").slash(address.getId()).withSelfRel()));
+				contact.embed("addresses", contactAddresses);
+			}
+			
+			if (phones != null) {
+				final var contactPhones = phones.getOrDefault(contactId, List.of());
+				
+				contactPhones.forEach(phone -> phone.add(linkTo(ContactsController.class)
+						.slash(contactId).slash("phone").slash(phone.getId()).withSelfRel()));
+				contact.embed("phones", contactPhones);
+			}
+		});
 	}
 	
 	/**
-	 * Get all contacts from database.
+	 * Get a page of contacts from database, sorted by ID or by name.
+	 * The next page, if any, is linked as "next", through an opaque cursor.
 	 * 
-	 * URL (GET): http://localhost:8080/contacts
+	 * URL (GET): http://localhost:8080/contacts?sort={id|name}&limit={limit}&cursor={cursor}&count={true|false}&expand={addresses,phones}
 	 * 
+	 * @param cursor	the cursor of the wanted page, as linked by the previous one.
+	 * @param sort	the sort of the listing, "id" (default) or "name".
+	 * @param limit	the maximum number of contacts in the page.
+	 * @param count	if true, the total of contacts is returned in X-Total-Count header.
+	 * @param expand	the children embedded in each contact, "addresses" and/or "phones", comma separated.
 	 * @return	the response, filled with the collection model of contacts.
 	 * @throws	treatRTE.
 	 */
 	@GetMapping(value="",
 				produces={"application/hal+json"})
-	public ResponseEntity<CollectionModel<Contact>> getContacts() {
+	public ResponseEntity<CollectionModel<Contact>> getContacts(
+								@RequestParam(required=false) final String cursor,
+								@RequestParam(required=false) final String sort,
+								@RequestParam(required=false) final Integer limit,
+								@RequestParam(required=false) final Boolean count,
+								@RequestParam(required=false) final String expand) {
 		final var methodName = new Object() {}
 	      .getClass()
 	      .getEnclosingMethod()
 	      .getName();
 	      
 		try {
-			var contacts = service.loadContacts();
+			var page = service.loadContactPage(ContactSort.of(sort),
+					(cursor != null) ? ContactCursor.decode(cursor) : null, limit);
+			var contacts = page.getContacts();
 			
-			contacts.forEach(this::fillContactLinks);
+			fillContactLinks(contacts, ContactExpansion.of(expand));
 			
 			Link link = linkTo(ContactsController.class).withSelfRel();
 			var collectionModel = new CollectionModel<Contact>(contacts, link);
 			
-			logSuccess("%s: %d contact(s) loaded\n%s",
-					   methodName, contacts.size(), contacts.toString());
+			if (page.hasNext()) {
+				var nextUri = linkTo(ContactsController.class).toUriComponentsBuilder()
+						.queryParam("cursor", page.getNext().encode());
+				
+				if (limit != null) {
+					nextUri.queryParam("limit", limit);
+				}
+				
+				if (expand != null) {
+					nextUri.queryParam("expand", expand);
+				}
+				
+				collectionModel.add(new Link(nextUri.toUriString(), IanaLinkRelations.NEXT));
+			}
+			
+			var response = ResponseEntity.ok();
+			
+			if (Boolean.TRUE.equals(count)) {
+				response.header(TOTAL_COUNT_HEADER, String.valueOf(service.countContacts()));
+			}
+			
+			logSuccess(methodName, "contacts loaded", contacts, kv("count", contacts.size()));
+			
+			return response.body(collectionModel);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Suggest contacts for a partially typed name, best match first, ignoring
+	 * accents and case, and tolerating typos.
+	 * 
+	 * URL (GET): http://localhost:8080/contacts/suggest?q={name}&limit={limit}
+	 * 
+	 * @param q	the typed name.
+	 * @param limit	the maximum number of contacts.
+	 * @return	the response, filled with the collection model of contacts.
+	 * @throws	treatRTE.
+	 */
+	@GetMapping(value="/suggest",
+				produces={"application/hal+json"})
+	public ResponseEntity<CollectionModel<Contact>> suggestContacts(
+								@RequestParam(required=false) final String q,
+								@RequestParam(required=false) final Integer limit) {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var contacts = service.suggestContacts(q, limit);
+			
+			fillContactLinks(contacts, Set.of());
+			
+			Link link = new Link(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
+			var collectionModel = new CollectionModel<Contact>(contacts, link);
+			
+			logSuccess(methodName, "contacts suggested", null, kv("count", contacts.size()));
 			
 			return ResponseEntity.ok(collectionModel);
 		} catch (RuntimeException e) {
@@ -121,24 +366,271 @@ public class ContactsController {
 		}
 	}
 	
+	/**
+	 * Search contacts by name prefix, CPF, and address city, neighborhood,
+	 * zip code, zip code range and zip code prefix, sorted by ID. Each contact comes once, even if many of its
+	 * addresses match. The next page, if any, is linked as "next", through an opaque cursor.
+	 * 
+	 * URL (GET): http://localhost:8080/contacts/search?name={name}&cpf={cpf}&city={city}&neighborhood={neighborhood}&zipCode={zipCode}&cepFrom={cepFrom}&cepTo={cepTo}&cepPrefix={cepPrefix}&limit={limit}&cursor={cursor}&expand={addresses,phones}
+	 * 
+	 * @param name	the contact name prefix.
+	 * @param cpf	the contact CPF.
+	 * @param city	the city of some contact address.
+	 * @param neighborhood	the neighborhood of the same address.
+	 * @param zipCode	the zip code of the same address.
+	 * @param cepFrom	the first zip code of the range of the same address (99999-999).
+	 * @param cepTo	the last zip code of the range of the same address (99999-999).
+	 * @param cepPrefix	the first digits of the zip code of the same address.
+	 * @param cursor	the cursor of the wanted page, as linked by the previous one.
+	 * @param limit	the maximum number of contacts in the page.
+	 * @param expand	the children embedded in each contact, "addresses" and/or "phones", comma separated.
+	 * @return	the response, filled with the collection model of contacts.
+	 * @throws	treatRTE.
+	 */
+	@GetMapping(value="/search",
+				produces={"application/hal+json"})
+	public ResponseEntity<CollectionModel<Contact>> searchContacts(
+								@RequestParam(required=false) final String name,
+								@RequestParam(required=false) final String cpf,
+								@RequestParam(required=false) final String city,
+								@RequestParam(required=false) final String neighborhood,
+								@RequestParam(required=false) final String zipCode,
+								@RequestParam(required=false) final String cepFrom,
+								@RequestParam(required=false) final String cepTo,
+								@RequestParam(required=false) final String cepPrefix,
+								@RequestParam(required=false) final String cursor,
+								@RequestParam(required=false) final Integer limit,
+								@RequestParam(required=false) final String expand) {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var search = new ContactSearch();
+			
+			search.setName(name);
+			search.setCpf(cpf);
+			search.setCity(city);
+			search.setNeighborhood(neighborhood);
+			search.setZipCode(zipCode);
+			search.setCepFrom(cepFrom);
+			search.setCepTo(cepTo);
+			search.setCepPrefix(cepPrefix);
+			
+			var page = service.searchContacts(search, (cursor != null) ? ContactCursor.decode(cursor) : null, limit);
+			var contacts = page.getContacts();
+			
+			fillContactLinks(contacts, ContactExpansion.of(expand));
+			
+			var selfUri = ServletUriComponentsBuilder.fromCurrentRequest();
+			var collectionModel = new CollectionModel<Contact>(contacts, new Link(selfUri.toUriString()));
+			
+			if (page.hasNext()) {
+				var nextUri = selfUri.replaceQueryParam("cursor", page.getNext().encode());
+				
+				collectionModel.add(new Link(nextUri.toUriString(), IanaLinkRelations.NEXT));
+			}
+			
+			logSuccess(methodName, "contacts found", contacts, kv("count", contacts.size()));
+			
+			return ResponseEntity.ok(collectionModel);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Get many contacts by their IDs, in a single request.
+	 * 
+	 * URL (GET): http://localhost:8080/contacts?ids={contactId,contactId,...}&expand={addresses,phones}
+	 * 
+	 * @param ids	the contact IDs.
+	 * @param expand	the children embedded in each contact, "addresses" and/or "phones", comma separated.
+	 * @return	the response, filled with the collection model of the contacts found and the IDs missing.
+	 * @throws	treatRTE.
+	 */
+	@GetMapping(value="",
+				params="ids",
+				produces={"application/hal+json"})
+	public ResponseEntity<CollectionModel<Contact>> getContactsByIds(
+								@RequestParam final List<Long> ids,
+								@RequestParam(required=false) final String expand) {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			return ResponseEntity.ok(loadContactBatch(methodName, ids, expand));
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Get many contacts by their IDs, in a single request, for ID lists
+	 * too long for a query string.
+	 * 
+	 * URL (POST): http://localhost:8080/contacts/_mget?expand={addresses,phones}
+	 * 
+	 * @param ids	the contact IDs, as a JSON array.
+	 * @param expand	the children embedded in each contact, "addresses" and/or "phones", comma separated.
+	 * @return	the response, filled with the collection model of the contacts found and the IDs missing.
+	 * @throws	treatRTE.
+	 */
+	@PostMapping(value="/_mget",
+				 consumes={"application/json"},
+				 produces={"application/hal+json"})
+	public ResponseEntity<CollectionModel<Contact>> multiGetContacts(
+								@RequestBody final List<Long> ids,
+								@RequestParam(required=false) final String expand) {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			return ResponseEntity.ok(loadContactBatch(methodName, ids, expand));
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Loads many contacts by their IDs: the ones missing from the cache with
+	 * a single query, and their links or children with set-based queries, so the
+	 * number of queries does not grow with the number of IDs.
+	 * 
+	 * @param methodName	the name of the calling method, for logging.
+	 * @param ids	the contact IDs.
+	 * @param expand	the children embedded in each contact.
+	 * @return	the collection model of the contacts found, in the order of the IDs, and the IDs missing.
+	 */
+	private ContactBatchModel loadContactBatch(String methodName, List<Long> ids, String expand) {
+		var expansions = ContactExpansion.of(expand);
+		var found = service.loadContactsByIds(ids);
+		var contacts = new ArrayList<Contact>(found.values());
+		var missing = ids.stream()
+				.filter(id -> (id != null) && !found.containsKey(id))
+				.distinct()
+				.collect(Collectors.toList());
+		
+		fillContactLinks(contacts, expansions);
+		
+		logSuccess(methodName, "contacts loaded", contacts, kv("count", contacts.size()), kv("missing", missing.size()));
+		
+		return new ContactBatchModel(contacts, missing, linkTo(ContactsController.class).withSelfRel());
+	}
+	
+	/**
+	 * Exports all contacts, with their addresses and phones, streaming them
+	 * straight from database to the response. Without a format, it is chosen
+	 * by the Accept header (application/x-ndjson, text/csv or text/vcard).
+	 * 
+	 * URL (GET): http://localhost:8080/contacts/export?format={ndjson|csv|vcard}
+	 * 
+	 * @param format	the export format, "ndjson" (default), "csv" or "vcard".
+	 * @param accept	the Accept header, used when no format is supplied.
+	 * @return	the response, streaming the exported contacts.
+	 * @throws	treatRTE.
+	 */
+	@GetMapping(value="/export")
+	public ResponseEntity<StreamingResponseBody> exportContacts(
+								@RequestParam(required=false) final String format,
+								@RequestHeader(value=HttpHeaders.ACCEPT, required=false) final String accept) {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var exportFormat = ((format != null) && (!format.isBlank()))
+					? ExportFormat.of(format) : ExportFormat.accepted(accept);
+			StreamingResponseBody body = out -> exportService.exportContacts(exportFormat, out);
+			
+			logSuccess(methodName, "exporting contacts", null, kv("format", exportFormat));
+			
+			return ResponseEntity.ok()
+					.contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+					.header(HttpHeaders.CONTENT_DISPOSITION,
+							"attachment; filename=\"contacts." + exportFormat.getDescription() + "\"")
+					.body(body);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Imports contacts, with their addresses and phones, from a NDJSON or CSV body
+	 * (the same layouts of the export). Each record is accepted or rejected alone,
+	 * and the rejected ones are listed in the import report.
+	 * 
+	 * URL (POST): http://localhost:8080/contacts/import
+	 * 
+	 * @param contentType	the body content type, "application/x-ndjson" or "text/csv".
+	 * @param body	the body, read as a stream.
+	 * @return	the response, filled with the import report.
+	 * @throws	treatRTE.
+	 */
+	@PostMapping(value="/import",
+				 consumes={"application/x-ndjson", "text/csv"},
+				 produces={"application/hal+json"})
+	@Transactional(propagation=Propagation.NOT_SUPPORTED)
+	public ResponseEntity<ImportReport> importContacts(
+								@RequestHeader(HttpHeaders.CONTENT_TYPE) final String contentType,
+								final InputStream body) {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var report = importService.importContacts(ImportFormat.ofContentType(contentType), body);
+			
+			report.add(linkTo(ContactsController.class).withRel("contacts"));
+			
+			logSuccess(methodName, "contacts imported", null,
+					   kv("imported", report.getImported()), kv("rejected", report.getRejected()));
+			
+			return ResponseEntity.ok(report);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
 	/**
 	 * Get all addresses from a contact.
 	 * 
 	 * URL (GET): http://localhost:8080/contacts/{contactId}/addresses
 	 * 
+	 * The response carries the contact version as ETag, and a matching
+	 * If-None-Match is answered with 304, without loading the addresses.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param ifNoneMatch	the ETags of the client representations, if any.
 	 * @return	the response, filled with the collection model of contacts.
 	 * @throws	treatRTE.
 	 */
 	@GetMapping(value="/{contactId}/addresses",
 				produces={"application/hal+json"})
 	public ResponseEntity<CollectionModel<Address>> getAddressesForContact(
-								@PathVariable final Long contactId) {
+								@PathVariable final Long contactId,
+								@RequestHeader(value=HttpHeaders.IF_NONE_MATCH, required=false) final String ifNoneMatch) {
 		final var methodName = new Object() {}
 	      .getClass()
 	      .getEnclosingMethod()
 	      .getName();
 	      
 		try {
+			var eTag = versionETag(loadContactVersion(contactId), Set.of());
+			
+			if (ETags.notModified(ifNoneMatch, eTag)) {
+				logSuccess(methodName, "addresses not modified", null, kv("contactId", contactId));
+				
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+			}
+			
 			var addresses = service.loadContactAddresses(contactId);
 			
 			for (var address : addresses) {
@@ -147,37 +639,50 @@ public class ContactsController {
 				address.add(selfLink);
 			}
 			
-			Link link = linkTo(methodOn(ContactsController.class)
-					.getAddressesForContact(contactId)).withSelfRel();
+			Link link = linkTo(ContactsController.class).slash(contactId).slash("addresses").withSelfRel();
 			var collectionModel = new CollectionModel<Address>(addresses, link);
 			
-			logSuccess("%s: %d address(es) loaded\n%s",
-					   methodName, addresses.size(), addresses);
+			logSuccess(methodName, "addresses loaded", addresses,
+					   kv("contactId", contactId), kv("count", addresses.size()));
 			
-			return ResponseEntity.ok(collectionModel);
+			return ResponseEntity.ok().eTag(eTag).body(collectionModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Get all phones from a contact.
 	 * 
 	 * URL (GET): http://localhost:8080/contacts/{contactId}/phones
 	 * 
+	 * The response carries the contact version as ETag, and a matching
+	 * If-None-Match is answered with 304, without loading the phones.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param ifNoneMatch	the ETags of the client representations, if any.
 	 * @return	the response, filled with the collection model of phones.
 	 * @throws treatRTE.
 	 */
 	@GetMapping(value="/{contactId}/phones",
 				produces={"application/hal+json"})
 	public ResponseEntity<CollectionModel<Phone>> getPhonesForContact(
-							@PathVariable final Long contactId) {
+							@PathVariable final Long contactId,
+							@RequestHeader(value=HttpHeaders.IF_NONE_MATCH, required=false) final String ifNoneMatch) {
 		final var methodName = new Object() {}
 	      .getClass()
 	      .getEnclosingMethod()
 	      .getName();
 	      
 		try {
+			var eTag = versionETag(loadContactVersion(contactId), Set.of());
+			
+			if (ETags.notModified(ifNoneMatch, eTag)) {
+				logSuccess(methodName, "phones not modified", null, kv("contactId", contactId));
+				
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+			}
+			
 			var phones = service.loadContactPhones(contactId);
 			
 			for (var phone : phones) {
@@ -186,49 +691,64 @@ public class ContactsController {
 				phone.add(selfLink);
 			}
 			
-			Link link = linkTo(methodOn(ContactsController.class)
-					.getPhonesForContact(contactId)).withSelfRel();
+			Link link = linkTo(ContactsController.class).slash(contactId).slash("phones").withSelfRel();
 			var collectionModel = new CollectionModel<Phone>(phones, link);
 			
-			logSuccess("%s: %d phone(s) loaded\n%s",
-					   methodName, phones.size(), phones.toString());
-
-			return ResponseEntity.ok(collectionModel);
+			logSuccess(methodName, "phones loaded", phones,
+					   kv("contactId", contactId), kv("count", phones.size()));
+			
+			return ResponseEntity.ok().eTag(eTag).body(collectionModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Get a contact by its ID.
 	 * 
-	 * URL (GET): http://localhost:8080/contacts/{contactId}
+	 * URL (GET): http://localhost:8080/contacts/{contactId}?expand={addresses,phones}
 	 * 
+	 * The response carries the contact version as ETag, and a matching
+	 * If-None-Match is answered with 304, without loading the contact.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param expand	the children embedded in the contact, "addresses" and/or "phones", comma separated.
+	 * @param ifNoneMatch	the ETags of the client representations, if any.
 	 * @return	the response, filled with the collection model of phones.
 	 * @throws	treatRTE.
 	 */
 	@GetMapping(value="/{contactId}",
 				produces={"application/hal+json"})
 	public ResponseEntity<EntityModel<Contact>> getContactById(
-								@PathVariable final Long contactId)  {
+								@PathVariable final Long contactId,
+								@RequestParam(required=false) final String expand,
+								@RequestHeader(value=HttpHeaders.IF_NONE_MATCH, required=false) final String ifNoneMatch)  {
 		final var methodName = new Object() {}
 	      .getClass()
 	      .getEnclosingMethod()
 	      .getName();
 	      
 		try {
+			var expansions = ContactExpansion.of(expand);
+			var eTag = versionETag(loadContactVersion(contactId), expansions);
+			
+			if (ETags.notModified(ifNoneMatch, eTag)) {
+				logSuccess(methodName, "contact not modified", null, kv("contactId", contactId));
+				
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+			}
+			
 			var contact = service.loadContactById(contactId);
 			
 			if (contact != null) {
-				fillContactLinks(contact);
+				fillContactLinks(List.of(contact), expansions);
 				
-				Link link = linkTo(methodOn(ContactsController.class)
-						.getContactById(contactId)).withSelfRel();
+				Link link = linkTo(ContactsController.class).slash(contactId).withSelfRel();
 				var entityModel = new EntityModel<Contact>(contact, link);
 				
-				logSuccess("%s: contact loaded\n%s", methodName, contact.toString());
-
-				return ResponseEntity.ok(entityModel);
+				logSuccess(methodName, "contact loaded", contact, kv("contactId", contactId));
+				
+				return ResponseEntity.ok().eTag(versionETag(contact.getVersion(), expansions)).body(entityModel);
 			} else {
 				throw new ResourceNotFound(Contact.class, contactId);
 			}
@@ -237,6 +757,50 @@ public class ContactsController {
 		}
 	}
 	
+	/**
+	 * Get a contact by its CPF.
+	 * 
+	 * URL (GET): http://localhost:8080/contacts/by-cpf/{cpf}?expand={addresses,phones}
+	 * 
+	 * The CPF is unique, so at most one contact is found, through the CPF
+	 * unique index; the response links to the contact by its ID.
+	 * 
+	 * @param cpf	the CPF.
+	 * @param expand	the children embedded in the contact, "addresses" and/or "phones", comma separated.
+	 * @return	the response, filled with the entity model of contact.
+	 * @throws	treatRTE.
+	 */
+	@GetMapping(value="/by-cpf/{cpf}",
+				produces={"application/hal+json"})
+	public ResponseEntity<EntityModel<Contact>> getContactByCpf(
+								@PathVariable final String cpf,
+								@RequestParam(required=false) final String expand)  {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var expansions = ContactExpansion.of(expand);
+			var contact = service.loadContactByCpf(cpf);
+			
+			if (contact != null) {
+				fillContactLinks(List.of(contact), expansions);
+				
+				Link link = linkTo(ContactsController.class).slash(contact.getId()).withSelfRel();
+				var entityModel = new EntityModel<Contact>(contact, link);
+				
+				logSuccess(methodName, "contact loaded by CPF", contact, kv("contactId", contact.getId()));
+				
+				return ResponseEntity.ok().eTag(versionETag(contact.getVersion(), expansions)).body(entityModel);
+			} else {
+				throw new ResourceNotFound(Contact.class, "cpf", cpf);
+			}
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
 	/**
 	 * Get an address by its ID.
 	 * 
@@ -259,28 +823,19 @@ public class ContactsController {
 	      .getName();
 	      
 		try {
-			var address = service.loadAddressById(addressId);
-			
-			if (address != null) {
-				if (address.getContact().getId().equals(contactId)) {
-					Link link = linkTo(methodOn(ContactsController.class)
-							.getAddressById(contactId, addressId)).withSelfRel();
-					var entityModel = new EntityModel<Address>(address, link);
-					
-					logSuccess("%s: address loaded\n%s", methodName, address.toString());
-
-					return ResponseEntity.ok(entityModel);
-				} else {
-					throw new SuppliedDoesNotBelongTo("address ID", "contact ID");
-				}
-			} else {
-				throw new ResourceNotFound(Address.class, addressId);
-			}
+			var address = service.loadAddressById(contactId, addressId);
+			Link link = linkTo(methodOn(ContactsController.class)
+					.getAddressById(contactId, addressId)).withSelfRel();
+			var entityModel = new EntityModel<Address>(address, link);
+			
+			logSuccess(methodName, "address loaded", address, kv("contactId", contactId), kv("addressId", addressId));
+			
+			return ResponseEntity.ok(entityModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Get a phone by its ID.
 	 * 
@@ -303,19 +858,14 @@ public class ContactsController {
 	      .getName();
 	      
 		try {
-			var phone = service.loadPhoneById(phoneId);
+			var phone = service.loadPhoneById(contactId, phoneId);
+			Link link = linkTo(methodOn(ContactsController.class)
+					.getPhoneById(contactId, phoneId)).withSelfRel();
+			var entityModel = new EntityModel<Phone>(phone, link);
 			
-			if (phone != null) {
-				Link link = linkTo(methodOn(ContactsController.class)
-						.getPhoneById(contactId, phoneId)).withSelfRel();
-				var entityModel = new EntityModel<Phone>(phone, link);
-				
-				logSuccess("%s: phone loaded\n%s", methodName, phone.toString());
-
-				return ResponseEntity.ok(entityModel);
-			} else {
-				throw new ResourceNotFound(Phone.class, phoneId);
-			}
+			logSuccess(methodName, "phone loaded", phone, kv("contactId", contactId), kv("phoneId", phoneId));
+			
+			return ResponseEntity.ok(entityModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
@@ -343,12 +893,11 @@ public class ContactsController {
 		try {
 			var newContact = service.addContact(contact);
 	
-			Link link = linkTo(methodOn(ContactsController.class)
-					.getContactById(newContact.getId())).withSelfRel();
+			Link link = linkTo(ContactsController.class).slash(newContact.getId()).withSelfRel();
 			var entityModel = new EntityModel<Contact>(newContact, link);
 			
-			logSuccess("%s: contact added\n%s", methodName, contact.toString());
-
+			logSuccess(methodName, "contact added", contact, kv("contactId", contact.getId()));
+			
 			return ResponseEntity.ok(entityModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
@@ -383,12 +932,13 @@ public class ContactsController {
 				address.setContact(contact);
 				
 				var newAddress = service.addAddress(address);
+				responseCache.evictContact(contactId);
 				
 				Link link = linkTo(methodOn(ContactsController.class)
 						.getAddressById(contactId, newAddress.getId())).withSelfRel();
 				var entityModel = new EntityModel<Address>(newAddress, link);
-
-				logSuccess("%s: address added\n%s", methodName, address.toString());
+				
+				logSuccess(methodName, "address added", address, kv("contactId", contactId), kv("addressId", address.getId()));
 				
 				return ResponseEntity.ok(entityModel);
 			} else {
@@ -398,7 +948,7 @@ public class ContactsController {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Adds a new phone for a given contact.
 	 * 
@@ -427,12 +977,13 @@ public class ContactsController {
 				phone.setContact(contact);
 				
 				var newPhone = service.addPhone(phone);
+				responseCache.evictContact(contactId);
 				
 				Link link = linkTo(methodOn(ContactsController.class)
 						.getPhoneById(contactId, newPhone.getId())).withSelfRel();
 				var entityModel = new EntityModel<Phone>(newPhone, link);
 				
-				logSuccess("%s: phone added\n%s", methodName, phone.toString());
+				logSuccess(methodName, "phone added", phone, kv("contactId", contactId), kv("phoneId", phone.getId()));
 				
 				return ResponseEntity.ok(entityModel);
 			} else {
@@ -442,7 +993,7 @@ public class ContactsController {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Updates a contact.
 	 * 
@@ -464,19 +1015,19 @@ public class ContactsController {
 	      
 		try {
 			var updatedContact = service.updateContact(contact);
+			responseCache.evictContact(updatedContact.getId());
 	
-			Link link = linkTo(methodOn(ContactsController.class)
-					.getContactById(updatedContact.getId())).withSelfRel();
+			Link link = linkTo(ContactsController.class).slash(updatedContact.getId()).withSelfRel();
 			var entityModel = new EntityModel<Contact>(updatedContact, link);
 			
-			logSuccess("%s: contact updated\n%s", methodName, updatedContact.toString());
+			logSuccess(methodName, "contact updated", updatedContact, kv("contactId", updatedContact.getId()));
 			
 			return ResponseEntity.ok(entityModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Updates an address.
 	 * 
@@ -500,19 +1051,21 @@ public class ContactsController {
 	      
 		try {
 			var updatedAddress = service.updateAddress(contactId, address);
+			responseCache.evictContact(contactId);
 				
 			Link link = linkTo(methodOn(ContactsController.class)
 					.getAddressById(contactId, updatedAddress.getId())).withSelfRel();
 			var entityModel = new EntityModel<Address>(updatedAddress, link);
 				
-			logSuccess("%s: address updated\n%s", methodName, updatedAddress.toString());
+			logSuccess(methodName, "address updated", updatedAddress,
+					   kv("contactId", contactId), kv("addressId", updatedAddress.getId()));
 			
 			return ResponseEntity.ok(entityModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Updates a phone.
 	 * 
@@ -536,13 +1089,132 @@ public class ContactsController {
 	      
 		try {
 			var updatedPhone = service.updatePhone(contactId, phone);
+			responseCache.evictContact(contactId);
 			
 			Link link = linkTo(methodOn(ContactsController.class)
 					.getPhoneById(contactId, updatedPhone.getId())).withSelfRel();
 			var entityModel = new EntityModel<Phone>(updatedPhone, link);
 			
-			logSuccess("%s: phone updated\n%s", methodName, updatedPhone.toString());
-
+			logSuccess(methodName, "phone updated", updatedPhone,
+					   kv("contactId", contactId), kv("phoneId", updatedPhone.getId()));
+			
+			return ResponseEntity.ok(entityModel);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Patches a contact (JSON Merge Patch): only the fields present are
+	 * changed, null clearing them.
+	 * 
+	 * URL (PATCH): http://localhost:8080/contacts/{contactId}
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param patch	the patch.
+	 * @return	the response, filled with the entity model of contact.
+	 * @throws	treatRTE.
+	 */
+	@PatchMapping(value="/{contactId}",
+				  consumes={MERGE_PATCH_JSON, "application/json"},
+				  produces={"application/hal+json"})
+	public ResponseEntity<EntityModel<Contact>> patchContact(
+								@PathVariable final Long contactId,
+								@RequestBody final JsonNode patch) {
+	    final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var patchedContact = service.patchContact(contactId, patch);
+			responseCache.evictContact(contactId);
+	
+			Link link = linkTo(ContactsController.class).slash(contactId).withSelfRel();
+			var entityModel = new EntityModel<Contact>(patchedContact, link);
+			
+			logSuccess(methodName, "contact patched", patchedContact, kv("contactId", contactId));
+			
+			return ResponseEntity.ok(entityModel);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Patches an address (JSON Merge Patch): only the fields present are
+	 * changed, null clearing them.
+	 * 
+	 * URL (PATCH): http://localhost:8080/contacts/{contactId}/address/{addressId}
+	 * 
+	 * @param contactId	the contact ID of the owner of address.
+	 * @param addressId	the address ID.
+	 * @param patch	the patch.
+	 * @return	the response, filled with the entity model of address.
+	 * @throws	treatRTE.
+	 */
+	@PatchMapping(value="/{contactId}/address/{addressId}",
+				  consumes={MERGE_PATCH_JSON, "application/json"},
+				  produces={"application/hal+json"})
+	public ResponseEntity<EntityModel<Address>> patchAddress(
+								@PathVariable final Long contactId,
+								@PathVariable final Long addressId,
+								@RequestBody final JsonNode patch) {
+	    final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var patchedAddress = service.patchAddress(contactId, addressId, patch);
+			responseCache.evictContact(contactId);
+				
+			Link link = linkTo(methodOn(ContactsController.class)
+					.getAddressById(contactId, addressId)).withSelfRel();
+			var entityModel = new EntityModel<Address>(patchedAddress, link);
+				
+			logSuccess(methodName, "address patched", patchedAddress, kv("contactId", contactId), kv("addressId", addressId));
+			
+			return ResponseEntity.ok(entityModel);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Patches a phone (JSON Merge Patch): only the fields present are
+	 * changed, null clearing them.
+	 * 
+	 * URL (PATCH): http://localhost:8080/contacts/{contactId}/phone/{phoneId}
+	 * 
+	 * @param contactId	the contact ID of the owner of phone.
+	 * @param phoneId	the phone ID.
+	 * @param patch	the patch.
+	 * @return	the response, filled with the entity model of phone.
+	 * @throws	treatRTE.
+	 */
+	@PatchMapping(value="/{contactId}/phone/{phoneId}",
+				  consumes={MERGE_PATCH_JSON, "application/json"},
+				  produces={"application/hal+json"})
+	public ResponseEntity<EntityModel<Phone>> patchPhone(
+								@PathVariable final Long contactId,
+								@PathVariable final Long phoneId,
+								@RequestBody final JsonNode patch) {
+	    final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var patchedPhone = service.patchPhone(contactId, phoneId, patch);
+			responseCache.evictContact(contactId);
+			
+			Link link = linkTo(methodOn(ContactsController.class)
+					.getPhoneById(contactId, phoneId)).withSelfRel();
+			var entityModel = new EntityModel<Phone>(patchedPhone, link);
+			
+			logSuccess(methodName, "phone patched", patchedPhone, kv("contactId", contactId), kv("phoneId", phoneId));
+			
 			return ResponseEntity.ok(entityModel);
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
@@ -567,10 +1239,41 @@ public class ContactsController {
 	      
 		try {
 			service.deleteContact(contactId);
+			responseCache.evictContact(contactId);
+			
+			logSuccess(methodName, "contact deleted", null, kv("contactId", contactId));
+			
+			return ResponseEntity.ok().build();
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+	
+	/**
+	 * Deletes some contacts, with their addresses and phones, at once. IDs
+	 * of contacts that do not exist are ignored; the number of contacts
+	 * deleted is returned in X-Deleted-Count header.
+	 * 
+	 * URL (DELETE): http://localhost:8080/contacts?ids={contactId,contactId,...}
+	 * 
+	 * @param ids	the contacts to be deleted, comma separated.
+	 * @return	the response status.
+	 * @throws	treatRTE.
+	 */
+	@DeleteMapping(value="")
+	public ResponseEntity<Void> deleteContacts(@RequestParam final List<Long> ids) {
+	    final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+	      
+		try {
+			var deleted = service.deleteContacts(ids);
+			responseCache.evictContacts(ids);
 
-			logSuccess("%s: contact with ID = %d deleted\n", methodName, contactId);
+			logSuccess(methodName, "contacts deleted", null, kv("contactIds", ids.size()), kv("deleted", deleted));
 
-			return ResponseEntity.ok().build();
+			return ResponseEntity.ok().header(DELETED_COUNT_HEADER, String.valueOf(deleted)).build();
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
@@ -597,15 +1300,16 @@ public class ContactsController {
 	      
 		try {
 			service.deleteAddress(contactId, addressId);
-
-			logSuccess("%s: address with ID = %d deleted\n", methodName, addressId);
-
+			responseCache.evictContact(contactId);
+			
+			logSuccess(methodName, "address deleted", null, kv("contactId", contactId), kv("addressId", addressId));
+			
 			return ResponseEntity.ok().build();
 		} catch (RuntimeException e) {
 			throw treatRTE(methodName, e);
 		}
 	}
-
+	
 	/**
 	 * Deletes a phone.
 	 * 
@@ -621,20 +1325,19 @@ public class ContactsController {
 					@PathVariable final Long contactId,
 					@PathVariable final Long phoneId) {
 	    final var methodName = new Object() {}
-	    	.getClass().getEnclosingMethod()
 	      .getClass()
 	      .getEnclosingMethod()
 	      .getName();
 	      
 		try {
 			service.deletePhone(contactId, phoneId);
-
-			logSuccess("%s: phone with ID = %d deleted\n", methodName, phoneId);
-
+			responseCache.evictContact(contactId);
+			
+			logSuccess(methodName, "phone deleted", null, kv("contactId", contactId), kv("phoneId", phoneId));
+			
 			return ResponseEntity.ok().build();
 		} catch (RuntimeException e) {
-			logger.error("deletePhone fails: ".concat(e.getMessage()));
-			throw e;
+			throw treatRTE(methodName, e);
 		}
 	}
 }
@@ -0,0 +1,111 @@
+package br.com.silvio.everis.contacts.controller;
+
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.service.ContactService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * Phones controller class, for lookups across all contacts by phone.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@RestController
+@Transactional
+@RequestMapping(value="/phones")
+public class PhonesController {
+	
+	@Autowired
+	ContactService service;
+	
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	private static final Logger logger = LoggerFactory.getLogger(PhonesController.class);
+	
+	private static final String EXCEPTIONS_COUNTER = "contacts.exceptions";
+	
+	/**
+	 * Treats exceptions, logging them as structured error events, counting
+	 * them by type and method, and returning the same exception, due to be
+	 * rethrown.
+	 * 
+	 * @param methodName	the name of the method where exception was thrown.
+	 * @param e	the original exception to be treated.
+	 * @return	the same original exception, just to be rethrown.
+	 */
+	private RuntimeException treatRTE(String methodName, RuntimeException e) {
+		final var exception = e.getClass().getSimpleName();
+		
+		logger.error("{} fails: {}", v("method", methodName), v("error", e.getMessage()), kv("exception", exception));
+		meterRegistry.counter(EXCEPTIONS_COUNTER, "exception", exception, "method", methodName).increment();
+		return e;
+	}
+	
+	/**
+	 * Get the contacts that own a phone (who owns this number?), through the
+	 * in-memory phone index. Each contact links to itself, to its phones and,
+	 * if it has any, to its addresses.
+	 * 
+	 * URL (GET): http://localhost:8080/phones/lookup?e164={+5511987654321}
+	 * 
+	 * @param e164	the phone, in E.164 ("+" and separators allowed).
+	 * @return	the response, filled with the collection model of contacts.
+	 * @throws	treatRTE.
+	 */
+	@GetMapping(value="/lookup",
+				produces={"application/hal+json"})
+	public ResponseEntity<CollectionModel<Contact>> lookupPhoneOwners(
+								@RequestParam(required=false) final String e164) {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+		
+		try {
+			var contacts = service.loadContactsByPhone(e164);
+			var withAddresses = service.loadContactIdsWithAddresses(contacts.stream()
+					.map(Contact::getId)
+					.collect(Collectors.toList()));
+			
+			contacts.forEach(contact -> {
+				final var contactId = contact.getId();
+				
+				contact.add(linkTo(ContactsController.class).slash(contactId).withSelfRel());
+				contact.add(linkTo(ContactsController.class).slash(contactId).slash("phones").withRel("phones"));
+				
+				if (withAddresses.contains(contactId)) {
+					contact.add(linkTo(ContactsController.class).slash(contactId).slash("addresses").withRel("addresses"));
+				}
+			});
+			
+			Link link = new Link(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
+			var collectionModel = new CollectionModel<Contact>(contacts, link);
+			
+			logger.info("{}: phone owners found", v("method", methodName), kv("count", contacts.size()));
+			
+			return ResponseEntity.ok(collectionModel);
+		} catch (RuntimeException e) {
+			throw treatRTE(methodName, e);
+		}
+	}
+}
@@ -1,12 +1,57 @@
 package br.com.silvio.everis.contacts.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import br.com.silvio.everis.contacts.enums.AddressType;
+import br.com.silvio.everis.contacts.enums.StreetType;
 import br.com.silvio.everis.contacts.model.Address;
 import br.com.silvio.everis.contacts.model.Contact;
 
 public interface AddressDao extends JpaRepository<Address, Long> {
 	public List<Address> findAllByContact(Contact contact);
+	
+	@Query("select distinct a.contact.id from Address a where a.contact.id in :contactIds")
+	public Set<Long> findOwnerIdsIn(@Param("contactIds") Collection<Long> contactIds);
+	
+	@Query("select a.contact.id, a from Address a where a.contact.id in :contactIds order by a.contact.id, a.id")
+	public List<Object[]> findAllWithOwnerIdIn(@Param("contactIds") Collection<Long> contactIds);
+	
+	@Query("select c.id, a.contact.id, a.version from Contact c left join Address a on a.id = :addressId where c.id = :contactId")
+	public List<Object[]> findOwnership(@Param("contactId") Long contactId, @Param("addressId") Long addressId);
+	
+	@Query("select a from Address a where a.id = :addressId and a.contact.id = :contactId")
+	public Address findOwned(@Param("contactId") Long contactId, @Param("addressId") Long addressId);
+	
+	@Modifying
+	@Query("update Address a set "
+			+ "a.addressType = :addressType, a.streetType = :streetType, "
+			+ "a.street = :street, a.number = :number, "
+			+ "a.complement = :complement, a.neighborhood = :neighborhood, "
+			+ "a.city = :city, a.zipCode = :zipCode, a.cep = :cep, "
+			+ "a.version = a.version + 1 "
+			+ "where a.id = :addressId and a.contact.id = :contactId")
+	public int updateOwned(@Param("contactId") Long contactId, @Param("addressId") Long addressId,
+			@Param("addressType") AddressType addressType, @Param("streetType") StreetType streetType,
+			@Param("street") String street, @Param("number") String number,
+			@Param("complement") String complement, @Param("neighborhood") String neighborhood,
+			@Param("city") String city, @Param("zipCode") String zipCode, @Param("cep") Integer cep);
+	
+	@Modifying
+	@Query("delete from Address a where a.id = :addressId and a.contact.id = :contactId")
+	public int deleteOwned(@Param("contactId") Long contactId, @Param("addressId") Long addressId);
+	
+	@QueryHints(@QueryHint(name=org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value=ContactDao.STREAM_FETCH_SIZE))
+	@Query("select a.contact.id, a from Address a order by a.contact.id, a.id")
+	public Stream<Object[]> streamAllWithOwnerId();
 }
@@ -1,9 +1,65 @@
 package br.com.silvio.everis.contacts.dao;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import br.com.silvio.everis.contacts.model.Contact;
 
 public interface ContactDao extends JpaRepository<Contact, Long> {
+	public static final String STREAM_FETCH_SIZE = "1000";
+	
+	@Query("select c from Contact c where c.id > :lastId order by c.id")
+	public List<Contact> findPageById(@Param("lastId") Long lastId, Pageable pageable);
+	
+	@Query("select c from Contact c order by c.name, c.id")
+	public List<Contact> findFirstPageByName(Pageable pageable);
+	
+	@Query("select c from Contact c where c.name > :lastName or (c.name = :lastName and c.id > :lastId) order by c.name, c.id")
+	public List<Contact> findPageByName(@Param("lastName") String lastName, @Param("lastId") Long lastId, Pageable pageable);
+	
+	@Query("select c.id from Contact c where c.cpf = :cpf")
+	public Long findIdByCpf(@Param("cpf") String cpf);
+	
+	@Query("select count(c.cpf) from Contact c")
+	public long countCpfs();
 
+	@Query("select count(c.cpf) from Contact c where c.id in :contactIds")
+	public long countCpfsIn(@Param("contactIds") Collection<Long> contactIds);
+	
+	@Query("select c.version from Contact c where c.id = :contactId")
+	public Long findVersionById(@Param("contactId") Long contactId);
+	
+	@Modifying
+	@Query("update Contact c set c.version = c.version + 1 where c.id = :contactId")
+	public int incrementVersion(@Param("contactId") Long contactId);
+	
+	@Modifying
+	@Query("delete from Contact c where c.id = :contactId")
+	public int deleteKeyed(@Param("contactId") Long contactId);
+	
+	@Modifying
+	@Query("delete from Contact c where c.id in :contactIds")
+	public int deleteKeyedIn(@Param("contactIds") Collection<Long> contactIds);
+	
+	@QueryHints(@QueryHint(name=org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value=STREAM_FETCH_SIZE))
+	@Query("select c from Contact c order by c.id")
+	public Stream<Contact> streamAll();
+	
+	@QueryHints(@QueryHint(name=org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value=STREAM_FETCH_SIZE))
+	@Query("select c.id, c.name from Contact c")
+	public Stream<Object[]> streamNames();
+	
+	@QueryHints(@QueryHint(name=org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value=STREAM_FETCH_SIZE))
+	@Query("select c.cpf from Contact c where c.cpf is not null")
+	public Stream<String> streamCpfs();
 }
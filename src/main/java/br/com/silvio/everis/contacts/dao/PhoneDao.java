@@ -1,12 +1,61 @@
 package br.com.silvio.everis.contacts.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import br.com.silvio.everis.contacts.enums.PhoneType;
 import br.com.silvio.everis.contacts.model.Contact;
 import br.com.silvio.everis.contacts.model.Phone;
 
 public interface PhoneDao extends JpaRepository<Phone, Long> {
 	public List<Phone> findAllByContact(Contact contact);
+	
+	@Query("select distinct p.contact.id from Phone p where p.contact.id in :contactIds")
+	public Set<Long> findOwnerIdsIn(@Param("contactIds") Collection<Long> contactIds);
+	
+	@Query("select distinct p.contact.id from Phone p where p.e164 = :e164")
+	public Set<Long> findOwnerIdsByE164(@Param("e164") Long e164);
+	
+	@Query("select p.contact.id, p from Phone p where p.contact.id in :contactIds order by p.contact.id, p.id")
+	public List<Object[]> findAllWithOwnerIdIn(@Param("contactIds") Collection<Long> contactIds);
+	
+	@Query("select c.id, p.contact.id, p.version from Contact c left join Phone p on p.id = :phoneId where c.id = :contactId")
+	public List<Object[]> findOwnership(@Param("contactId") Long contactId, @Param("phoneId") Long phoneId);
+	
+	@Query("select p from Phone p where p.id = :phoneId and p.contact.id = :contactId")
+	public Phone findOwned(@Param("contactId") Long contactId, @Param("phoneId") Long phoneId);
+	
+	@Modifying
+	@Query("update Phone p set "
+			+ "p.phoneType = :phoneType, p.ddi = :ddi, "
+			+ "p.ddd = :ddd, p.number = :number, "
+			+ "p.extension = :extension, p.e164 = :e164, "
+			+ "p.version = p.version + 1 "
+			+ "where p.id = :phoneId and p.contact.id = :contactId")
+	public int updateOwned(@Param("contactId") Long contactId, @Param("phoneId") Long phoneId,
+			@Param("phoneType") PhoneType phoneType, @Param("ddi") String ddi,
+			@Param("ddd") String ddd, @Param("number") String number,
+			@Param("extension") String extension, @Param("e164") Long e164);
+	
+	@Modifying
+	@Query("delete from Phone p where p.id = :phoneId and p.contact.id = :contactId")
+	public int deleteOwned(@Param("contactId") Long contactId, @Param("phoneId") Long phoneId);
+	
+	@QueryHints(@QueryHint(name=org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value=ContactDao.STREAM_FETCH_SIZE))
+	@Query("select p.contact.id, p from Phone p order by p.contact.id, p.id")
+	public Stream<Object[]> streamAllWithOwnerId();
+	
+	@QueryHints(@QueryHint(name=org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value=ContactDao.STREAM_FETCH_SIZE))
+	@Query("select p.id, p.contact.id, p.e164 from Phone p where p.e164 is not null")
+	public Stream<Object[]> streamE164s();
 }
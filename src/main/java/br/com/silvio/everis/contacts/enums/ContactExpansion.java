@@ -0,0 +1,67 @@
+package br.com.silvio.everis.contacts.enums;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+public enum ContactExpansion {
+	ADDRESSES("addresses"),
+	PHONES("phones");
+	
+	private String description;
+	
+	ContactExpansion(String description) {
+		this.description = description;
+	}
+	
+	/**
+	 * Gets the expansions, given their comma separated descriptions (case insensitive).
+	 * 
+	 * @param descriptions	the expansion descriptions, or null for none.
+	 * @return	the expansions.
+	 * @throws	Invalid.
+	 */
+	public static Set<ContactExpansion> of(String descriptions) {
+		final var expansions = EnumSet.noneOf(ContactExpansion.class);
+		
+		if ((descriptions == null) || (descriptions.isBlank())) {
+			return expansions;
+		}
+		
+		for (var description : descriptions.split(",")) {
+			expansions.add(ofOne(description.trim()));
+		}
+		
+		return expansions;
+	}
+	
+	/**
+	 * Gets one expansion, given its description (case insensitive).
+	 * 
+	 * @param description	the expansion description.
+	 * @return	the expansion.
+	 * @throws	Invalid.
+	 */
+	private static ContactExpansion ofOne(String description) {
+		for (var expansion : values()) {
+			if (expansion.description.equalsIgnoreCase(description)) {
+				return expansion;
+			}
+		}
+		
+		throw new Invalid("contacts expand");
+	}
+	
+	@JsonValue
+	public String getDescription() {
+		return this.description;
+	}
+
+	@Override
+	public String toString() {
+		return this.getDescription();
+	}
+}
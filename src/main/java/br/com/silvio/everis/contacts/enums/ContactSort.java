@@ -0,0 +1,47 @@
+package br.com.silvio.everis.contacts.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+public enum ContactSort {
+	ID("id"),
+	NAME("name");
+	
+	private String description;
+	
+	ContactSort(String description) {
+		this.description = description;
+	}
+	
+	/**
+	 * Gets the sort, given its description (case insensitive).
+	 * 
+	 * @param description	the sort description, or null for the default sort.
+	 * @return	the sort.
+	 * @throws	Invalid.
+	 */
+	public static ContactSort of(String description) {
+		if ((description == null) || (description.isBlank())) {
+			return ID;
+		}
+		
+		for (var sort : values()) {
+			if (sort.description.equalsIgnoreCase(description.trim())) {
+				return sort;
+			}
+		}
+		
+		throw new Invalid("contacts sort");
+	}
+	
+	@JsonValue
+	public String getDescription() {
+		return this.description;
+	}
+
+	@Override
+	public String toString() {
+		return this.getDescription();
+	}
+}
@@ -0,0 +1,94 @@
+package br.com.silvio.everis.contacts.enums;
+
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+public enum ExportFormat {
+	NDJSON("ndjson", "application/x-ndjson"),
+	CSV("csv", "text/csv"),
+	VCARD("vcard", "text/vcard");
+	
+	private String description;
+	
+	private String mediaType;
+	
+	ExportFormat(String description, String mediaType) {
+		this.description = description;
+		this.mediaType = mediaType;
+	}
+	
+	/**
+	 * Gets the format, given its description (case insensitive).
+	 * 
+	 * @param description	the format description, or null for the default format.
+	 * @return	the format.
+	 * @throws	Invalid.
+	 */
+	public static ExportFormat of(String description) {
+		if ((description == null) || (description.isBlank())) {
+			return NDJSON;
+		}
+		
+		for (var format : values()) {
+			if (format.description.equalsIgnoreCase(description.trim())) {
+				return format;
+			}
+		}
+		
+		throw new Invalid("export format");
+	}
+	
+	/**
+	 * Gets the format for an Accept header: the first format one of its media
+	 * types includes, the most specific and preferred media types first.
+	 * 
+	 * @param accept	the Accept header, or null.
+	 * @return	the format, or the default format if none is accepted.
+	 * @throws	Invalid.
+	 */
+	public static ExportFormat accepted(String accept) {
+		if ((accept == null) || (accept.isBlank())) {
+			return NDJSON;
+		}
+		
+		List<MediaType> mediaTypes;
+		
+		try {
+			mediaTypes = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			throw new Invalid("export media type");
+		}
+		
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		
+		for (var mediaType : mediaTypes) {
+			for (var format : values()) {
+				if (mediaType.includes(MediaType.parseMediaType(format.mediaType))) {
+					return format;
+				}
+			}
+		}
+		
+		return NDJSON;
+	}
+	
+	@JsonValue
+	public String getDescription() {
+		return this.description;
+	}
+	
+	public String getMediaType() {
+		return this.mediaType;
+	}
+
+	@Override
+	public String toString() {
+		return this.getDescription();
+	}
+}
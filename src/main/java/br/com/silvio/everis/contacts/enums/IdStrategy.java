@@ -0,0 +1,48 @@
+package br.com.silvio.everis.contacts.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+public enum IdStrategy {
+	SEQUENCE("sequence"),
+	POOLED_LO("pooled-lo"),
+	SNOWFLAKE("snowflake");
+	
+	private String description;
+	
+	IdStrategy(String description) {
+		this.description = description;
+	}
+	
+	/**
+	 * Gets the strategy, given its description (case insensitive).
+	 * 
+	 * @param description	the strategy description, or null for the default strategy.
+	 * @return	the strategy.
+	 * @throws	Invalid.
+	 */
+	public static IdStrategy of(String description) {
+		if ((description == null) || (description.isBlank())) {
+			return POOLED_LO;
+		}
+		
+		for (var strategy : values()) {
+			if (strategy.description.equalsIgnoreCase(description.trim())) {
+				return strategy;
+			}
+		}
+		
+		throw new Invalid("ID strategy");
+	}
+	
+	@JsonValue
+	public String getDescription() {
+		return this.description;
+	}
+
+	@Override
+	public String toString() {
+		return this.getDescription();
+	}
+}
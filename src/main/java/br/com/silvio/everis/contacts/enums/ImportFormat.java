@@ -0,0 +1,60 @@
+package br.com.silvio.everis.contacts.enums;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+public enum ImportFormat {
+	NDJSON("ndjson", "application/x-ndjson"),
+	CSV("csv", "text/csv");
+	
+	private String description;
+	
+	private String mediaType;
+	
+	ImportFormat(String description, String mediaType) {
+		this.description = description;
+		this.mediaType = mediaType;
+	}
+	
+	/**
+	 * Gets the format, given the content type of a request.
+	 * 
+	 * @param contentType	the content type (parameters, like charset, are ignored).
+	 * @return	the format.
+	 * @throws	Invalid.
+	 */
+	public static ImportFormat ofContentType(String contentType) {
+		if (contentType != null) {
+			try {
+				var mediaType = MediaType.parseMediaType(contentType);
+				
+				for (var format : values()) {
+					if (MediaType.parseMediaType(format.mediaType).equalsTypeAndSubtype(mediaType)) {
+						return format;
+					}
+				}
+			} catch (IllegalArgumentException e) {
+				// falls through to the invalid format
+			}
+		}
+		
+		throw new Invalid("import format");
+	}
+	
+	@JsonValue
+	public String getDescription() {
+		return this.description;
+	}
+	
+	public String getMediaType() {
+		return this.mediaType;
+	}
+
+	@Override
+	public String toString() {
+		return this.getDescription();
+	}
+}
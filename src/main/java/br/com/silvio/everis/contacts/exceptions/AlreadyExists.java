@@ -0,0 +1,30 @@
+package br.com.silvio.everis.contacts.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Class to treat exceptions caused by resources that would repeat a
+ * unique field of another one.
+ * Aggregates "conflict" status too, so when raised inside controller,
+ * this exception returns this status to caller automatically.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class AlreadyExists extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param clazz	the class of resource.
+	 * @param field	the unique field.
+	 */
+	public AlreadyExists(Class<?> clazz, String field) {
+		super(String.format("Resource for %s with the supplied %s already exists",
+							clazz.getSimpleName(), field));
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * 
+ */
+package br.com.silvio.everis.contacts.exceptions;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Class that extends InvalidInput, mounting common exception message.
+ * Used when several fields of a record are invalid or missing at once,
+ * so all of them are reported together.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class InvalidFields extends InvalidInput {
+
+	private static final long serialVersionUID = 1L;
+	
+	private final List<InvalidInput> errors;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param errors	the errors of each field.
+	 */
+	public InvalidFields(List<InvalidInput> errors) {
+		super(errors.stream()
+				.map(InvalidInput::getWhatsWrong)
+				.collect(Collectors.joining(", ")));
+		this.errors = List.copyOf(errors);
+	}
+	
+	/**
+	 * Gets the errors of each field.
+	 * 
+	 * @return	the errors.
+	 */
+	public List<InvalidInput> getErrors() {
+		return errors;
+	}
+}
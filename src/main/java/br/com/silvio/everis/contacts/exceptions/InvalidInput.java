@@ -15,11 +15,23 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class InvalidInput extends RuntimeException {
 
 	private static final long serialVersionUID = 1L;
+	
+	private final String whatsWrong;
 
 	/**
 	 * Class constructor.
 	 */
 	public InvalidInput(String whatsWrong) {
 		super(String.format("Invalid input: %s", whatsWrong));
+		this.whatsWrong = whatsWrong;
+	}
+	
+	/**
+	 * Gets what is wrong in the input, without the common prefix.
+	 * 
+	 * @return	what is wrong.
+	 */
+	public String getWhatsWrong() {
+		return whatsWrong;
 	}
 }
@@ -26,4 +26,16 @@ public class ResourceNotFound extends RuntimeException {
 		super(String.format("Resource for %s with id = %d was not found",
 							clazz.getSimpleName(), id));
 	}
+	
+	/**
+	 * Class constructor, for a resource looked up by another unique field.
+	 * 
+	 * @param clazz	the class of resource.
+	 * @param field	the field name.
+	 * @param value	the field value.
+	 */
+	public ResourceNotFound(Class<?> clazz, String field, String value) {
+		super(String.format("Resource for %s with %s = %s was not found",
+							clazz.getSimpleName(), field, value));
+	}
 }
@@ -0,0 +1,136 @@
+package br.com.silvio.everis.contacts.id;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.ExportableProducer;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import br.com.silvio.everis.contacts.enums.IdStrategy;
+
+/**
+ * Hibernate ID generator of contacts, addresses and phones, whose strategy
+ * is chosen by configuration:
+ * 
+ * sequence	- one sequence call per row (the original behaviour);
+ * pooled-lo	- one sequence call per block of "contacts.id.block.size" rows;
+ * snowflake	- no database round trip at all, see {@link SnowflakeIdGenerator}.
+ * 
+ * The sequence is always mapped, so the schema does not change among
+ * strategies.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ContactsIdGenerator implements PersistentIdentifierGenerator, Configurable, ExportableProducer {
+	
+	public static final String STRATEGY = "contacts.id.strategy";
+	
+	public static final String BLOCK_SIZE = "contacts.id.block.size";
+	
+	public static final String NODE = "contacts.id.node";
+	
+	private final SequenceStyleGenerator sequence = new SequenceStyleGenerator();
+	
+	private SnowflakeIdGenerator snowflake;
+	
+	/**
+	 * Configures the generator from the entity parameters and the JPA properties.
+	 */
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		final var settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+		final var strategy = IdStrategy.of(setting(settings.get(STRATEGY)));
+		final var sequenceParams = new Properties();
+		
+		sequenceParams.putAll(params);
+		
+		if (strategy == IdStrategy.POOLED_LO) {
+			sequenceParams.setProperty(SequenceStyleGenerator.INCREMENT_PARAM, blockSize(settings.get(BLOCK_SIZE)));
+			sequenceParams.setProperty(SequenceStyleGenerator.OPT_PARAM, "pooled-lo");
+		} else {
+			sequenceParams.setProperty(SequenceStyleGenerator.INCREMENT_PARAM, "1");
+			sequenceParams.setProperty(SequenceStyleGenerator.OPT_PARAM, "none");
+		}
+		
+		sequence.configure(type, sequenceParams, serviceRegistry);
+		
+		if (strategy == IdStrategy.SNOWFLAKE) {
+			final var node = setting(settings.get(NODE));
+			
+			snowflake = SnowflakeIdGenerator.forNode(node == null ? 0 : Long.parseLong(node));
+		}
+	}
+	
+	/**
+	 * Gets the block size setting, which must be a positive integer.
+	 * 
+	 * @param value	the setting value.
+	 * @return	the block size.
+	 */
+	private static String blockSize(Object value) {
+		final var blockSize = setting(value);
+		
+		if ((blockSize == null) || (Integer.parseInt(blockSize) < 1)) {
+			throw new MappingException("Invalid " + BLOCK_SIZE + ": " + blockSize);
+		}
+		
+		return blockSize;
+	}
+	
+	/**
+	 * Gets a setting as a trimmed string.
+	 * 
+	 * @param value	the setting value.
+	 * @return	the string, or null.
+	 */
+	private static String setting(Object value) {
+		return value == null ? null : value.toString().trim();
+	}
+	
+	@Override
+	public void registerExportables(Database database) {
+		sequence.registerExportables(database);
+	}
+	
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+		if (snowflake != null) {
+			return snowflake.nextId();
+		}
+		
+		return sequence.generate(session, object);
+	}
+	
+	@Override
+	public Object generatorKey() {
+		return sequence.generatorKey();
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public String[] sqlCreateStrings(Dialect dialect) throws HibernateException {
+		return sequence.sqlCreateStrings(dialect);
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public String[] sqlDropStrings(Dialect dialect) throws HibernateException {
+		return sequence.sqlDropStrings(dialect);
+	}
+	
+	@Override
+	public boolean supportsJdbcBatchInserts() {
+		return true;
+	}
+}
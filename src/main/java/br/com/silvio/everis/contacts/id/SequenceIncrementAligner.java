@@ -0,0 +1,83 @@
+package br.com.silvio.everis.contacts.id;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.silvio.everis.contacts.enums.IdStrategy;
+
+/**
+ * Aligns the increment of the existing ID sequences with the configured
+ * strategy before Hibernate starts, since a pooled-lo block size differing
+ * from the sequence increment would either fail the startup or generate
+ * duplicated IDs. The sequence restarts after every ID already handed out.
+ * The snowflake strategy keeps the sequences mapped with increment 1, so
+ * they are aligned as well.
+ * 
+ * It runs after the schema migrations, which leave the sequences with the
+ * default block size; only another configured strategy or block size changes
+ * them here.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component(SequenceIncrementAligner.BEAN_NAME)
+@DependsOn("flywayInitializer")
+public class SequenceIncrementAligner implements InitializingBean {
+	
+	public static final String BEAN_NAME = "sequenceIncrementAligner";
+	
+	private static final Logger logger = LoggerFactory.getLogger(SequenceIncrementAligner.class);
+	
+	private static final Map<String, String> sequenceTables = Map.of("SEQCONTACTS", "CONTACT", "SEQADDRESSES", "ADDRESS", "SEQPHONES", "PHONE");
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Value("${contacts.id.strategy}")
+	private String strategy;
+	
+	@Value("${contacts.id.block.size}")
+	private Long blockSize;
+	
+	@Override
+	public void afterPropertiesSet() {
+		align(jdbcTemplate, (IdStrategy.of(strategy) == IdStrategy.POOLED_LO) ? blockSize : 1L);
+	}
+	
+	/**
+	 * Restarts the ID sequences whose increment differs from the given one
+	 * after every ID already handed out.
+	 * 
+	 * @param jdbcTemplate template of the database holding the sequences
+	 * @param increment increment of the sequences
+	 */
+	public static void align(JdbcTemplate jdbcTemplate, long increment) {
+		final var sequences = jdbcTemplate.queryForList(
+				"select SEQUENCE_NAME, CURRENT_VALUE, INCREMENT from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_SCHEMA = SCHEMA()");
+		
+		for (var sequence : sequences) {
+			final var name = (String) sequence.get("SEQUENCE_NAME");
+			final var table = sequenceTables.get(name);
+			final var currentIncrement = ((Number) sequence.get("INCREMENT")).longValue();
+			
+			if ((table == null) || (currentIncrement == increment)) {
+				continue;
+			}
+			
+			final var handedOut = ((Number) sequence.get("CURRENT_VALUE")).longValue() + currentIncrement;
+			final var maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+			final var restart = Math.max(handedOut, maxId + 1);
+			
+			jdbcTemplate.execute("alter sequence " + name + " restart with " + restart + " increment by " + increment);
+			logger.info("align: sequence {} restarted with {}, increment by {} (was {})", name, restart, increment, currentIncrement);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package br.com.silvio.everis.contacts.id;
+
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes the entity manager factory wait for the {@link SequenceIncrementAligner}.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class SequenceIncrementAlignerDependency extends EntityManagerFactoryDependsOnPostProcessor {
+	
+	/**
+	 * Class constructor.
+	 */
+	public SequenceIncrementAlignerDependency() {
+		super(SequenceIncrementAligner.BEAN_NAME);
+	}
+}
@@ -0,0 +1,80 @@
+package br.com.silvio.everis.contacts.id;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+/**
+ * Time ordered 64 bits ID generator ("snowflake" layout), that needs no
+ * coordination among instances, as long as each one has its own node ID:
+ * 41 bits of milliseconds since 2020-01-01 UTC, 10 bits of node ID and
+ * 12 bits of sequence inside the millisecond.
+ * 
+ * The timestamp and sequence are kept together in a single atomic value,
+ * so generation is lock free. When the 4096 IDs of a millisecond are
+ * exhausted, or the clock goes backwards, the generator keeps counting
+ * from its last value instead of waiting for the clock.
+ * 
+ * Notice these IDs do not fit in a JavaScript number (53 bits).
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class SnowflakeIdGenerator {
+	
+	public static final long EPOCH = 1577836800000L;
+	
+	public static final int NODE_BITS = 10;
+	
+	public static final int SEQUENCE_BITS = 12;
+	
+	public static final long MAX_NODE = (1L << NODE_BITS) - 1;
+	
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	
+	private static final ConcurrentHashMap<Long, SnowflakeIdGenerator> generators = new ConcurrentHashMap<>();
+	
+	private final long node;
+	
+	private final AtomicLong state = new AtomicLong();
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param node	the node ID, from 0 to 1023.
+	 * @throws	Invalid.
+	 */
+	public SnowflakeIdGenerator(long node) {
+		if ((node < 0) || (node > MAX_NODE)) {
+			throw new Invalid("snowflake node ID");
+		}
+		
+		this.node = node;
+	}
+	
+	/**
+	 * Gets the generator of a node, shared by all entities of this instance.
+	 * 
+	 * @param node	the node ID, from 0 to 1023.
+	 * @return	the generator.
+	 * @throws	Invalid.
+	 */
+	public static SnowflakeIdGenerator forNode(long node) {
+		return generators.computeIfAbsent(node, SnowflakeIdGenerator::new);
+	}
+	
+	/**
+	 * Generates the next ID.
+	 * 
+	 * @return	the ID.
+	 */
+	public long nextId() {
+		final var now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+		final var next = state.accumulateAndGet(now, (last, clock) -> Math.max(last + 1, clock));
+		
+		return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+				| (node << SEQUENCE_BITS)
+				| (next & SEQUENCE_MASK);
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * ID generation package
+ */
+/**
+ * @author silvio.araujo
+ *
+ */
+package br.com.silvio.everis.contacts.id;
@@ -0,0 +1,117 @@
+package br.com.silvio.everis.contacts.metrics;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Counts the JDBC statements, and their time, executed by the thread of
+ * each request, and by the thread streaming its asynchronous body.
+ * 
+ * The data source is wrapped by a datasource-proxy, which notifies every
+ * statement execution (a batch is a single one). It still unwraps to the
+ * Hikari pool, so the pool metrics are kept.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class QueryMetrics implements BeanPostProcessor, QueryExecutionListener {
+	
+	private static final ThreadLocal<Queries> current = new ThreadLocal<>();
+	
+	/**
+	 * Statements executed by a request.
+	 */
+	public static class Queries {
+		
+		private long count;
+		
+		private long nanos;
+		
+		private long startedAt;
+		
+		public long getCount() {
+			return count;
+		}
+		
+		public long getNanos() {
+			return nanos;
+		}
+	}
+	
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof DataSource) {
+			return ProxyDataSourceBuilder.create((DataSource) bean)
+					.name(beanName)
+					.listener(this)
+					.build();
+		}
+		
+		return bean;
+	}
+	
+	/**
+	 * Starts counting the statements of the current thread.
+	 * 
+	 * @return	the statements, counted until the stop.
+	 */
+	public Queries start() {
+		final var queries = new Queries();
+		
+		current.set(queries);
+		
+		return queries;
+	}
+	
+	/**
+	 * Goes on counting, on the current thread, statements started by another
+	 * thread of the same request.
+	 * 
+	 * @param queries	the statements started.
+	 */
+	public void resume(Queries queries) {
+		current.set(queries);
+	}
+	
+	/**
+	 * Stops counting the statements of the current thread.
+	 * 
+	 * @return	the statements executed since the start.
+	 */
+	public Queries stop() {
+		final var queries = current.get();
+		
+		current.remove();
+		
+		return (queries != null) ? queries : new Queries();
+	}
+	
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		final var queries = current.get();
+		
+		if (queries != null) {
+			queries.startedAt = System.nanoTime();
+		}
+	}
+	
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		final var queries = current.get();
+		
+		if (queries != null) {
+			queries.count++;
+			queries.nanos += System.nanoTime() - queries.startedAt;
+		}
+	}
+}
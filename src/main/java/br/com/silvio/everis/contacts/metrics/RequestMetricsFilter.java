@@ -0,0 +1,109 @@
+package br.com.silvio.everis.contacts.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the JDBC statements of each request, counted by {@link QueryMetrics}:
+ * their number, as "contacts.jdbc.queries", and their time, as
+ * "contacts.jdbc.time", tagged by method and URI like "http.server.requests".
+ * 
+ * A request whose body is streamed asynchronously (like the export) is
+ * recorded when it completes, counting the statements of the streaming
+ * thread as well.
+ * 
+ * It also keeps the request start, in {@link #START_ATTRIBUTE}, for the
+ * durations of the log events.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+	
+	public static final String QUERIES_SUMMARY = "contacts.jdbc.queries";
+	
+	public static final String QUERY_TIMER = "contacts.jdbc.time";
+	
+	public static final String START_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".start";
+	
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	@Autowired
+	QueryMetrics queryMetrics;
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+		
+		final var queries = queryMetrics.start();
+		
+		WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(QUERIES_SUMMARY, new CallableProcessingInterceptor() {
+			
+			@Override
+			public <T> void preProcess(NativeWebRequest webRequest, Callable<T> task) {
+				queryMetrics.resume(queries);
+			}
+			
+			@Override
+			public <T> void postProcess(NativeWebRequest webRequest, Callable<T> task, Object concurrentResult) {
+				queryMetrics.stop();
+			}
+			
+			@Override
+			public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+				record(request, response, queries);
+			}
+		});
+		
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			queryMetrics.stop();
+			
+			if (!isAsyncStarted(request)) {
+				record(request, response, queries);
+			}
+		}
+	}
+	
+	/**
+	 * Records the statements of a request.
+	 * 
+	 * @param request	the request.
+	 * @param response	the response.
+	 * @param queries	the statements executed by the request.
+	 */
+	private void record(HttpServletRequest request, HttpServletResponse response, QueryMetrics.Queries queries) {
+		final var tags = Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response));
+		
+		DistributionSummary.builder(QUERIES_SUMMARY).baseUnit("queries").tags(tags).register(meterRegistry)
+				.record(queries.getCount());
+		Timer.builder(QUERY_TIMER).tags(tags).register(meterRegistry)
+				.record(queries.getNanos(), TimeUnit.NANOSECONDS);
+	}
+}
@@ -0,0 +1,54 @@
+package br.com.silvio.everis.contacts.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every method of the services ({@link br.com.silvio.everis.contacts.service.ContactService}
+ * and the other *Service interfaces), as "contacts.service", tagged by
+ * service, method and exception ("none" on success).
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+	
+	public static final String SERVICE_TIMER = "contacts.service";
+	
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	/**
+	 * Times a service method.
+	 * 
+	 * @param joinPoint	the service method call.
+	 * @return	the method result.
+	 * @throws Throwable
+	 */
+	@Around("execution(public * br.com.silvio.everis.contacts.service.*Service.*(..))")
+	public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+		final var sample = Timer.start(meterRegistry);
+		var exception = "none";
+		
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			sample.stop(Timer.builder(SERVICE_TIMER)
+					.tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+					.tag("method", joinPoint.getSignature().getName())
+					.tag("exception", exception)
+					.register(meterRegistry));
+		}
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * Metrics package
+ */
+/**
+ * @author silvio.araujo
+ *
+ */
+package br.com.silvio.everis.contacts.metrics;
@@ -4,13 +4,15 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
-import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.hateoas.RepresentationModel;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -25,13 +27,24 @@ import br.com.silvio.everis.contacts.enums.StreetType;
  *
  */
 @Entity
-@Table(name="ADDRESS")
+@Table(name="ADDRESS", indexes={@Index(name="IDX_ADDRESS_CITY_OWNER", columnList="city, owner"),
+							   @Index(name="IDX_ADDRESS_NEIGHBORHOOD_OWNER", columnList="neighborhood, owner"),
+							   @Index(name="IDX_ADDRESS_ZIP_CODE_OWNER", columnList="zipCode, owner"),
+							   @Index(name="IDX_ADDRESS_CEP_OWNER", columnList="cep, owner")})
 public class Address extends RepresentationModel<Address> {
 	
+	private static final int CEP_DIGITS = 8;
+	
 	@Id
-	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="seq_addresses")
-	@SequenceGenerator(name="seq_addresses", sequenceName="seqaddresses", allocationSize=1)
+	@GeneratedValue(generator="seq_addresses")
+	@GenericGenerator(name="seq_addresses", strategy="br.com.silvio.everis.contacts.id.ContactsIdGenerator",
+			parameters=@Parameter(name="sequence_name", value="seqaddresses"))
 	private Long id;
+
+	@Version
+	@Column(columnDefinition="bigint default 0 not null")
+	@JsonIgnore
+	private Long version;
 	
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name="owner", nullable = false, updatable = true, insertable = true)
@@ -62,6 +75,10 @@ public class Address extends RepresentationModel<Address> {
 	@Column
 	private String zipCode;
 	
+	@Column
+	@JsonIgnore
+	private Integer cep;
+	
 	/**
 	 * Gets the address ID.
 	 * 
@@ -79,6 +96,24 @@ public class Address extends RepresentationModel<Address> {
 	public void setId(Long id) {
 		this.id = id;
 	}
+	
+	/**
+	 * Gets the address version, incremented on every change.
+	 * 
+	 * @return	the version.
+	 */
+	public Long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Sets the address version.
+	 * 
+	 * @param version	the version.
+	 */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 
 	/**
 	 * Gets the contact owner of this address.
@@ -239,6 +274,49 @@ public class Address extends RepresentationModel<Address> {
 	 */
 	public void setZipCode(String zipCode) {
 		this.zipCode = zipCode;
+		this.cep = packCep(zipCode);
+	}
+	
+	/**
+	 * Gets the zip code packed as an integer, kept by setZipCode, for range
+	 * and prefix searches.
+	 * 
+	 * @return	the packed CEP, or null.
+	 */
+	public Integer getCep() {
+		return cep;
+	}
+	
+	/**
+	 * Packs a zip code (CEP) as an integer: its 8 digits, read as a single
+	 * number, separators (spaces, dashes, dots) allowed.
+	 * 
+	 * @param zipCode	the zip code, or null.
+	 * @return	the packed CEP, or null if it is not 8 digits.
+	 */
+	public static Integer packCep(String zipCode) {
+		if (zipCode == null) {
+			return null;
+		}
+		
+		var packed = 0;
+		var digits = 0;
+		
+		for (var i = 0; i < zipCode.length(); i++) {
+			final var c = zipCode.charAt(i);
+			
+			if ((c >= '0') && (c <= '9')) {
+				if (++digits > CEP_DIGITS) {
+					return null;
+				}
+				
+				packed = packed * 10 + (c - '0');
+			} else if (" -.".indexOf(c) < 0) {
+				return null;
+			}
+		}
+		
+		return (digits == CEP_DIGITS) ? packed : null;
 	}
 
 	/**
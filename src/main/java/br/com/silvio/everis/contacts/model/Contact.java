@@ -1,38 +1,57 @@
 package br.com.silvio.everis.contacts.model;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
-import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.Parameter;
 import org.springframework.hateoas.RepresentationModel;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * Contact class.
+ * Its addresses and phones are deleted along with it by the database
+ * (ON DELETE CASCADE), never loaded to be deleted one by one.
+ * Its CPF, when supplied, is unique among all contacts.
  * 
  * @author silvio.araujo
  *
  */
 @Entity
-@Table(name="CONTACT")
+@Table(name="CONTACT", indexes={@Index(name="IDX_CONTACT_NAME_ID", columnList="name, id"),
+							   @Index(name="UK_CONTACT_CPF", columnList="cpf", unique=true)})
 public class Contact extends RepresentationModel<Contact> {
 	@Id
-	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="seq_contacts")
-	@SequenceGenerator(name="seq_contacts", sequenceName="seqcontacts", allocationSize=1)
+	@GeneratedValue(generator="seq_contacts")
+	@GenericGenerator(name="seq_contacts", strategy="br.com.silvio.everis.contacts.id.ContactsIdGenerator",
+			parameters=@Parameter(name="sequence_name", value="seqcontacts"))
 	private Long id;
 
+	@Version
+	@Column(columnDefinition="bigint default 0 not null")
+	@JsonIgnore
+	private Long version;
+
 	@Column
 	private String name;
 
@@ -44,13 +63,20 @@ public class Contact extends RepresentationModel<Contact> {
 	private String cpf;
 
 	@JsonIgnore
-	@OneToMany(mappedBy="contact", targetEntity=Address.class, fetch=FetchType.LAZY, cascade=CascadeType.ALL)
+	@OnDelete(action=OnDeleteAction.CASCADE)
+	@OneToMany(mappedBy="contact", targetEntity=Address.class, fetch=FetchType.LAZY, cascade={CascadeType.PERSIST, CascadeType.MERGE})
 	private List<Address> addresses;
 
 	@JsonIgnore
-	@OneToMany(mappedBy="contact", targetEntity=Phone.class, fetch=FetchType.LAZY, cascade=CascadeType.ALL)
+	@OnDelete(action=OnDeleteAction.CASCADE)
+	@OneToMany(mappedBy="contact", targetEntity=Phone.class, fetch=FetchType.LAZY, cascade={CascadeType.PERSIST, CascadeType.MERGE})
 	private List<Phone> phones;
 	
+	@Transient
+	@JsonProperty(value="_embedded", access=JsonProperty.Access.READ_ONLY)
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	private Map<String, List<? extends RepresentationModel<?>>> embedded;
+	
 	/**
 	 * Gets the contact ID field.
 	 * 
@@ -69,6 +95,24 @@ public class Contact extends RepresentationModel<Contact> {
 		this.id = id;
 	}
 	
+	/**
+	 * Gets the contact version, incremented on every change.
+	 * 
+	 * @return	the version.
+	 */
+	public Long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Sets the contact version.
+	 * 
+	 * @param version	the version.
+	 */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+	
 	/**
 	 * Gets the contact name.
 	 * 
@@ -158,6 +202,29 @@ public class Contact extends RepresentationModel<Contact> {
 		this.phones = phones;
 	}
 
+	/**
+	 * Gets the resources embedded in the contact representation, by relation.
+	 * 
+	 * @return	the embedded resources, or null if none.
+	 */
+	public Map<String, List<? extends RepresentationModel<?>>> getEmbedded() {
+		return embedded;
+	}
+	
+	/**
+	 * Embeds resources in the contact representation (HAL "_embedded").
+	 * 
+	 * @param rel	the relation of the resources.
+	 * @param resources	the resources.
+	 */
+	public void embed(String rel, List<? extends RepresentationModel<?>> resources) {
+		if (embedded == null) {
+			embedded = new LinkedHashMap<>();
+		}
+		
+		embedded.put(rel, resources);
+	}
+
 	/**
 	 * Converts all data in this class to a string.
 	 * 
@@ -4,13 +4,15 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
-import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.hateoas.RepresentationModel;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -19,18 +21,28 @@ import br.com.silvio.everis.contacts.enums.PhoneType;
 
 /**
  * Phone class.
+ * Its DDI, DDD and number are also kept packed in a single number, the
+ * digits of its E.164 form, indexed for reverse lookups.
  * 
  * @author silvio.araujo
  *
  */
 @Entity
-@Table(name="PHONE")
+@Table(name="PHONE", indexes=@Index(name="IDX_PHONE_E164_OWNER", columnList="e164, owner"))
 public class Phone extends RepresentationModel<Phone> {
 	
+	private static final int E164_MAX_DIGITS = 15;
+	
 	@Id
-	@GeneratedValue(strategy=GenerationType.SEQUENCE, generator="seq_phones")
-	@SequenceGenerator(name="seq_phones", sequenceName="seqphones", allocationSize=1)
+	@GeneratedValue(generator="seq_phones")
+	@GenericGenerator(name="seq_phones", strategy="br.com.silvio.everis.contacts.id.ContactsIdGenerator",
+			parameters=@Parameter(name="sequence_name", value="seqphones"))
 	private Long id;
+
+	@Version
+	@Column(columnDefinition="bigint default 0 not null")
+	@JsonIgnore
+	private Long version;
 	
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name="owner", nullable = false, updatable = true, insertable = true)
@@ -52,6 +64,10 @@ public class Phone extends RepresentationModel<Phone> {
 	@Column
 	private String extension;
 	
+	@Column
+	@JsonIgnore
+	private Long e164;
+	
 	/**
 	 * Gets phone ID.
 	 * 
@@ -70,6 +86,24 @@ public class Phone extends RepresentationModel<Phone> {
 		this.id = id;
 	}
 	
+	/**
+	 * Gets the phone version, incremented on every change.
+	 * 
+	 * @return	the version.
+	 */
+	public Long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Sets the phone version.
+	 * 
+	 * @param version	the version.
+	 */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+	
 	/**
 	 * Gets the contact owner of this phone.
 	 * 
@@ -122,6 +156,7 @@ public class Phone extends RepresentationModel<Phone> {
 	 */
 	public void setDdi(String ddi) {
 		this.ddi = ddi;
+		this.e164 = packE164(ddi, ddd, number);
 	}
 	
 	/**
@@ -140,6 +175,7 @@ public class Phone extends RepresentationModel<Phone> {
 	 */
 	public void setDdd(String ddd) {
 		this.ddd = ddd;
+		this.e164 = packE164(ddi, ddd, number);
 	}
 	
 	/**
@@ -158,6 +194,7 @@ public class Phone extends RepresentationModel<Phone> {
 	 */
 	public void setNumber(String number) {
 		this.number = number;
+		this.e164 = packE164(ddi, ddd, number);
 	}
 	
 	/**
@@ -177,4 +214,101 @@ public class Phone extends RepresentationModel<Phone> {
 	public void setExtension(String extension) {
 		this.extension = extension;
 	}
+	
+	/**
+	 * Gets the phone in E.164, packed as the number its digits make. It is
+	 * derived from DDI, DDD and number, and kept up to date by their setters.
+	 * 
+	 * @return	the packed E.164, or null if the phone has no DDI or number.
+	 */
+	public Long getE164() {
+		return e164;
+	}
+	
+	/**
+	 * Packs a phone in E.164: the DDI and DDD digits without leading zeros
+	 * (trunk prefixes), then the number digits, read as a single number. As
+	 * the DDI never starts with zero, the number keeps every digit.
+	 * 
+	 * @param ddi	the DDI.
+	 * @param ddd	the DDD, or null.
+	 * @param number	the number.
+	 * @return	the packed E.164, or null without DDI or number digits, or with more than 15 digits.
+	 */
+	public static Long packE164(String ddi, String ddd, String number) {
+		final var packed = new long[2];
+		
+		if (!packDigits(ddi, true, packed) || (packed[1] == 0) || !packDigits(ddd, true, packed)) {
+			return null;
+		}
+		
+		final var countryAndArea = packed[1];
+		
+		return (packDigits(number, false, packed) && (packed[1] > countryAndArea)) ? packed[0] : null;
+	}
+	
+	/**
+	 * Parses a phone in E.164, "+" and separators (spaces, dashes, dots,
+	 * parentheses) allowed, as packed by packE164.
+	 * 
+	 * @param text	the phone, as typed.
+	 * @return	the packed E.164, or null if it is not a valid E.164 phone.
+	 */
+	public static Long parseE164(String text) {
+		if (text == null) {
+			return null;
+		}
+		
+		var packed = 0L;
+		var digits = 0;
+		
+		for (var i = 0; i < text.length(); i++) {
+			final var c = text.charAt(i);
+			
+			if ((c >= '0') && (c <= '9')) {
+				if (((digits == 0) && (c == '0')) || (++digits > E164_MAX_DIGITS)) {
+					return null;
+				}
+				
+				packed = packed * 10 + (c - '0');
+			} else if (((c != '+') || (i > 0)) && (" -.()".indexOf(c) < 0)) {
+				return null;
+			}
+		}
+		
+		return (digits > 0) ? packed : null;
+	}
+	
+	/**
+	 * Appends the digits of a phone part to a packed E.164.
+	 * 
+	 * @param part	the phone part, or null.
+	 * @param stripZeros	whether leading zeros are skipped.
+	 * @param packed	the packed digits and their count, updated.
+	 * @return	false if the digits exceed E.164.
+	 */
+	private static boolean packDigits(String part, boolean stripZeros, long[] packed) {
+		if (part == null) {
+			return true;
+		}
+		
+		var leading = stripZeros;
+		
+		for (var i = 0; i < part.length(); i++) {
+			final var c = part.charAt(i);
+			
+			if ((c < '0') || (c > '9') || (leading && (c == '0'))) {
+				continue;
+			}
+			
+			leading = false;
+			packed[0] = packed[0] * 10 + (c - '0');
+			
+			if (++packed[1] > E164_MAX_DIGITS) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
 }
@@ -0,0 +1,120 @@
+package br.com.silvio.everis.contacts.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import br.com.silvio.everis.contacts.enums.ContactSort;
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+import br.com.silvio.everis.contacts.model.Contact;
+
+/**
+ * Keyset cursor for contacts pagination.
+ * Holds the sort keys of the last contact of a page, so the next page
+ * starts right after it, no matter how deep the client is in the listing.
+ * It is exposed to clients as an opaque Base64 (URL safe) string.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ContactCursor {
+	
+	private static final String SEPARATOR = ":";
+	
+	private final ContactSort sort;
+	
+	private final Long lastId;
+	
+	private final String lastName;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param sort	the sort of the listing.
+	 * @param lastId	the ID of the last contact already returned.
+	 * @param lastName	the name of the last contact already returned (only for name sort).
+	 */
+	public ContactCursor(ContactSort sort, Long lastId, String lastName) {
+		this.sort = sort;
+		this.lastId = lastId;
+		this.lastName = lastName;
+	}
+	
+	/**
+	 * Creates the cursor pointing right after a given contact.
+	 * 
+	 * @param sort	the sort of the listing.
+	 * @param contact	the last contact of a page.
+	 * @return	the cursor.
+	 */
+	public static ContactCursor after(ContactSort sort, Contact contact) {
+		return new ContactCursor(sort, contact.getId(),
+				(sort == ContactSort.NAME) ? contact.getName() : null);
+	}
+	
+	/**
+	 * Decodes an opaque cursor string.
+	 * 
+	 * @param encoded	the cursor, as received from client.
+	 * @return	the cursor.
+	 * @throws	Invalid.
+	 */
+	public static ContactCursor decode(String encoded) {
+		try {
+			var decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+			var parts = decoded.split(SEPARATOR, 3);
+			var sort = ContactSort.of(parts[0]);
+			var lastId = Long.valueOf(parts[1]);
+			
+			if (sort == ContactSort.NAME) {
+				return new ContactCursor(sort, lastId, parts[2]);
+			} else {
+				return new ContactCursor(sort, lastId, null);
+			}
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new Invalid("contacts cursor");
+		}
+	}
+	
+	/**
+	 * Encodes this cursor as an opaque string.
+	 * 
+	 * @return	the encoded cursor.
+	 */
+	public String encode() {
+		var plain = sort.getDescription().concat(SEPARATOR).concat(lastId.toString());
+		
+		if (sort == ContactSort.NAME) {
+			plain = plain.concat(SEPARATOR).concat(lastName);
+		}
+		
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Gets the sort of the listing.
+	 * 
+	 * @return	the sort.
+	 */
+	public ContactSort getSort() {
+		return sort;
+	}
+
+	/**
+	 * Gets the ID of the last contact already returned.
+	 * 
+	 * @return	the contact ID.
+	 */
+	public Long getLastId() {
+		return lastId;
+	}
+
+	/**
+	 * Gets the name of the last contact already returned.
+	 * 
+	 * @return	the contact name.
+	 */
+	public String getLastName() {
+		return lastName;
+	}
+}
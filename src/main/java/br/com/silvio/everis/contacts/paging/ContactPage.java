@@ -0,0 +1,56 @@
+package br.com.silvio.everis.contacts.paging;
+
+import java.util.List;
+
+import br.com.silvio.everis.contacts.model.Contact;
+
+/**
+ * A page of contacts, with the cursor for the next one.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ContactPage {
+	
+	private final List<Contact> contacts;
+	
+	private final ContactCursor next;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param contacts	the contacts in this page.
+	 * @param next	the cursor for the next page, or null if this is the last one.
+	 */
+	public ContactPage(List<Contact> contacts, ContactCursor next) {
+		this.contacts = contacts;
+		this.next = next;
+	}
+
+	/**
+	 * Gets the contacts in this page.
+	 * 
+	 * @return	a list of contacts.
+	 */
+	public List<Contact> getContacts() {
+		return contacts;
+	}
+
+	/**
+	 * Gets the cursor for the next page.
+	 * 
+	 * @return	the cursor, or null if this is the last page.
+	 */
+	public ContactCursor getNext() {
+		return next;
+	}
+	
+	/**
+	 * Tells if there is a page after this one.
+	 * 
+	 * @return	true if there is a next page.
+	 */
+	public boolean hasNext() {
+		return next != null;
+	}
+}
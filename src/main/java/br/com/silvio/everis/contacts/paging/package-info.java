@@ -0,0 +1,8 @@
+/**
+ * Paging package
+ */
+/**
+ * @author silvio.araujo
+ *
+ */
+package br.com.silvio.everis.contacts.paging;
@@ -0,0 +1,44 @@
+package br.com.silvio.everis.contacts.schema;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Recreates the foreign keys from addresses and phones to their owner with
+ * ON DELETE CASCADE, so that deleting a contact deletes its children in the
+ * database. The keys keep their names, which Hibernate generated for the
+ * databases created before the migrations.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class V1_2__Owner_cascade extends BaseJavaMigration {
+	
+	private static final Logger logger = LoggerFactory.getLogger(V1_2__Owner_cascade.class);
+	
+	// DatabaseMetaData.importedKeyCascade
+	private static final int CASCADE = 0;
+	
+	@Override
+	public void migrate(Context context) {
+		final var jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+		final var keys = jdbcTemplate.queryForList(
+				"select FK_NAME, FKTABLE_NAME from INFORMATION_SCHEMA.CROSS_REFERENCES "
+				+ "where FKTABLE_SCHEMA = SCHEMA() and FKTABLE_NAME in ('ADDRESS', 'PHONE') "
+				+ "and FKCOLUMN_NAME = 'OWNER' and PKTABLE_NAME = 'CONTACT' and DELETE_RULE <> " + CASCADE);
+		
+		for (var key : keys) {
+			final var name = (String) key.get("FK_NAME");
+			final var table = (String) key.get("FKTABLE_NAME");
+			
+			jdbcTemplate.execute("alter table " + table + " drop constraint " + name);
+			jdbcTemplate.execute("alter table " + table + " add constraint " + name
+					+ " foreign key (owner) references CONTACT (id) on delete cascade");
+			logger.info("migrate: foreign key {} of {} recreated with on delete cascade", name, table);
+		}
+	}
+}
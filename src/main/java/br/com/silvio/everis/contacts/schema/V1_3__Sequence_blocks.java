@@ -0,0 +1,27 @@
+package br.com.silvio.everis.contacts.schema;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import br.com.silvio.everis.contacts.id.SequenceIncrementAligner;
+
+/**
+ * Restarts the ID sequences with the increment of the default pooled-lo block
+ * size, after every ID already handed out. Another configured strategy or
+ * block size is applied at startup by the {@link SequenceIncrementAligner}.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class V1_3__Sequence_blocks extends BaseJavaMigration {
+	
+	// default of contacts.id.block.size
+	private static final long DEFAULT_BLOCK_SIZE = 50;
+	
+	@Override
+	public void migrate(Context context) {
+		SequenceIncrementAligner.align(new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true)), DEFAULT_BLOCK_SIZE);
+	}
+}
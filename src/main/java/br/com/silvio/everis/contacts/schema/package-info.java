@@ -0,0 +1,8 @@
+/**
+ * Database schema migrations written in Java
+ */
+/**
+ * @author silvio.araujo
+ *
+ */
+package br.com.silvio.everis.contacts.schema;
@@ -0,0 +1,121 @@
+package br.com.silvio.everis.contacts.search;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings: answers whether a string might have been added,
+ * with no false negatives and a bounded rate of false positives, in a few
+ * bits per string. Strings cannot be removed.
+ * 
+ * Each string is hashed once to 64 bits, and its bit positions derived from
+ * the two halves (Kirsch-Mitzenmacher double hashing). Bits are set by CAS,
+ * so it is thread safe without locks.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class BloomFilter {
+	
+	private static final double LN2 = Math.log(2);
+	
+	private final AtomicLongArray words;
+	
+	private final long bits;
+	
+	private final int hashes;
+	
+	private final long capacity;
+	
+	/**
+	 * Class constructor, sized for a number of strings at a false positive rate.
+	 * 
+	 * @param capacity	the number of strings the rate holds for.
+	 * @param falsePositiveRate	the false positive rate, between 0 and 1 (exclusive).
+	 */
+	public BloomFilter(long capacity, double falsePositiveRate) {
+		final var wanted = (long) Math.ceil(-Math.max(1, capacity) * Math.log(falsePositiveRate) / (LN2 * LN2));
+		final var count = (int) Math.min(Integer.MAX_VALUE - 8, (Math.max(Long.SIZE, wanted) + Long.SIZE - 1) / Long.SIZE);
+		
+		this.words = new AtomicLongArray(count);
+		this.bits = (long) count * Long.SIZE;
+		this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / Math.max(1, capacity) * LN2)));
+		this.capacity = capacity;
+	}
+	
+	/**
+	 * Gets the number of strings the false positive rate holds for.
+	 * 
+	 * @return	the capacity.
+	 */
+	public long getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Adds a string.
+	 * 
+	 * @param value	the string.
+	 */
+	public void add(String value) {
+		final var hash = hash(value);
+		var combined = (int) hash;
+		
+		for (var i = 0; i < hashes; i++) {
+			final var bit = Integer.toUnsignedLong(combined) % bits;
+			final var word = (int) (bit >>> 6);
+			final var mask = 1L << bit;
+			var current = words.get(word);
+			
+			while (((current & mask) == 0) && !words.compareAndSet(word, current, current | mask)) {
+				current = words.get(word);
+			}
+			
+			combined += (int) (hash >>> 32);
+		}
+	}
+	
+	/**
+	 * Tells whether a string might have been added.
+	 * 
+	 * @param value	the string.
+	 * @return	false if it was surely never added, true if it might have been.
+	 */
+	public boolean mightContain(String value) {
+		final var hash = hash(value);
+		var combined = (int) hash;
+		
+		for (var i = 0; i < hashes; i++) {
+			final var bit = Integer.toUnsignedLong(combined) % bits;
+			
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+			
+			combined += (int) (hash >>> 32);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Hashes a string to 64 bits: FNV-1a over its chars, then the
+	 * MurmurHash3 finalizer, so both halves are well mixed.
+	 * 
+	 * @param value	the string.
+	 * @return	the hash.
+	 */
+	private static long hash(String value) {
+		var hash = 0xcbf29ce484222325L;
+		
+		for (var i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+		}
+		
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		
+		return hash ^ (hash >>> 33);
+	}
+}
@@ -0,0 +1,252 @@
+package br.com.silvio.everis.contacts.search;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.silvio.everis.contacts.dao.ContactDao;
+
+/**
+ * In-memory Bloom filter of the contact CPFs, in front of their unique index.
+ * 
+ * A CPF the filter has never seen surely belongs to no contact, so the
+ * duplicate check of a new CPF, by far the common case, never reaches the
+ * database; only the CPFs the filter might have seen are probed in the index.
+ * 
+ * CPFs are added after their transactions commit, so a rollback leaves
+ * nothing behind. Deleted or replaced CPFs cannot be removed, and are counted
+ * as stale instead. The filter is rebuilt from database, in background, when
+ * the CPFs outgrow its capacity or the stale ones reach half of it, sized at
+ * twice the CPFs found. The new filter is published before the CPFs are read,
+ * and gets the CPFs added meanwhile, so a CPF committed during the rebuild is
+ * either read or added to it: none is lost in the swap.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class ContactCpfFilter {
+	
+	private static final Logger logger = LoggerFactory.getLogger(ContactCpfFilter.class);
+	
+	@Autowired
+	ContactDao contactDao;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@Value("${contacts.cpf.filter.false-positive-rate}")
+	private double falsePositiveRate;
+	
+	@Value("${contacts.cpf.filter.capacity.min}")
+	private long minCapacity;
+	
+	private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+		final var thread = new Thread(runnable, "cpf-filter-rebuild");
+		
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	
+	private final AtomicLong entries = new AtomicLong();
+	
+	private final AtomicLong stale = new AtomicLong();
+	
+	// null until built, when every CPF might exist
+	private volatile BloomFilter filter;
+	
+	// the filter being rebuilt, which also gets the CPFs written meanwhile
+	private volatile BloomFilter next;
+	
+	/**
+	 * Builds the filter from all the CPFs in database, when the application
+	 * is ready. Until then, every CPF is probed in the index.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		rebuilding.set(true);
+		
+		try {
+			rebuild();
+		} finally {
+			rebuilding.set(false);
+		}
+	}
+	
+	/**
+	 * Stops the rebuild thread.
+	 */
+	@PreDestroy
+	public void stopRebuilder() {
+		rebuilder.shutdownNow();
+	}
+	
+	/**
+	 * Tells whether a CPF might belong to a contact.
+	 * 
+	 * @param cpf	the CPF.
+	 * @return	false if it surely belongs to no contact.
+	 */
+	public boolean mightExist(String cpf) {
+		final var current = filter;
+		
+		return (current == null) || current.mightContain(cpf);
+	}
+	
+	/**
+	 * Tells whether a CPF belongs to a contact other than the given one: the
+	 * index is only probed when the filter might have seen the CPF.
+	 * 
+	 * @param cpf	the CPF, or null.
+	 * @param contactId	the contact the CPF is written to, or null for a new one.
+	 * @return	true if another contact has the CPF.
+	 */
+	public boolean isTaken(String cpf, Long contactId) {
+		if ((cpf == null) || !mightExist(cpf)) {
+			return false;
+		}
+		
+		final var ownerId = contactDao.findIdByCpf(cpf);
+		
+		return (ownerId != null) && !ownerId.equals(contactId);
+	}
+	
+	/**
+	 * Adds a written CPF, after the current transaction commits (at once, out
+	 * of a transaction).
+	 * 
+	 * @param cpf	the CPF, or null.
+	 */
+	public void add(String cpf) {
+		if (cpf != null) {
+			afterCommit(() -> addCommitted(cpf));
+		}
+	}
+	
+	/**
+	 * Adds a committed CPF, to the filter being rebuilt too, if any. A CPF
+	 * that misses the rebuilt filter was committed before it was published,
+	 * so it is read by the rebuild.
+	 * 
+	 * @param cpf	the CPF.
+	 */
+	private void addCommitted(String cpf) {
+		final var building = next;
+		final var current = filter;
+		
+		if (building != null) {
+			building.add(cpf);
+		}
+		
+		if (current != null) {
+			current.add(cpf);
+			
+			if (entries.incrementAndGet() > current.getCapacity()) {
+				rebuildLater();
+			}
+		}
+	}
+	
+	/**
+	 * Counts CPFs that no longer belong to contacts, deleted or replaced.
+	 * 
+	 * @param count	the number of CPFs.
+	 */
+	public void discard(long count) {
+		final var current = filter;
+		
+		if ((current != null) && (stale.addAndGet(count) * 2 > current.getCapacity())) {
+			rebuildLater();
+		}
+	}
+	
+	/**
+	 * Rebuilds the filter in background, unless a rebuild is already running.
+	 */
+	private void rebuildLater() {
+		if (rebuilding.compareAndSet(false, true)) {
+			rebuilder.execute(() -> {
+				try {
+					rebuild();
+				} catch (RuntimeException e) {
+					logger.error("rebuild fails, keeping the current filter: {}", e.getMessage());
+				} finally {
+					rebuilding.set(false);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Rebuilds the filter from all the CPFs in database, streaming them, and
+	 * swaps it for the current one. The new filter is published before the
+	 * CPFs are read, so the CPFs committed meanwhile are merged into it.
+	 */
+	private void rebuild() {
+		final var start = System.nanoTime();
+		final var transaction = new TransactionTemplate(transactionManager);
+		
+		transaction.setReadOnly(true);
+		
+		final var count = transaction.execute(status -> contactDao.countCpfs());
+		final var rebuilt = new BloomFilter(Math.max(minCapacity, count * 2), falsePositiveRate);
+		
+		next = rebuilt;
+		entries.set(0);
+		stale.set(0);
+		
+		try {
+			transaction.executeWithoutResult(status -> {
+				try (var cpfs = contactDao.streamCpfs()) {
+					cpfs.forEach(cpf -> {
+						rebuilt.add(cpf);
+						entries.incrementAndGet();
+					});
+				}
+			});
+			
+			filter = rebuilt;
+			logger.info("rebuild: {} CPF(s) filtered, for up to {}, in {} ms", entries.get(), rebuilt.getCapacity(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		} finally {
+			next = null;
+		}
+	}
+	
+	/**
+	 * Runs a filter change after the current transaction commits, or at
+	 * once, out of a transaction.
+	 * 
+	 * @param change	the change.
+	 */
+	private static void afterCommit(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+}
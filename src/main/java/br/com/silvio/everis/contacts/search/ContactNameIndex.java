@@ -0,0 +1,633 @@
+package br.com.silvio.everis.contacts.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.silvio.everis.contacts.dao.ContactDao;
+
+/**
+ * In-memory trigram index of the contact names, for type-ahead suggestions.
+ * 
+ * Names are folded (accents removed, upper case, anything but letters and
+ * digits as a word separator) and each word is split in trigrams, the first
+ * one anchored at the word start, so a query matches the names holding its
+ * words or their prefixes. A name still matches with some of the query
+ * trigrams missing, which tolerates typos.
+ * 
+ * Each contact gets a dense int ordinal, and the posting list of each of the
+ * 37^3 possible trigrams is a primitive int array of ordinals, sorted since
+ * ordinals only grow. A renamed or deleted contact leaves a removed ordinal
+ * behind, and the index is compacted when they are the majority.
+ * 
+ * It is built from database when the application is ready, and kept up to
+ * date by the service writes, after their transactions commit. Every change
+ * is idempotent, so a write racing with the build is never lost nor doubled.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class ContactNameIndex {
+	
+	private static final Logger logger = LoggerFactory.getLogger(ContactNameIndex.class);
+	
+	// word separator, A-Z and 0-9
+	private static final int BASE = 37;
+	
+	private static final int TRIGRAMS = BASE * BASE * BASE;
+	
+	private static final int MAX_QUERY_TRIGRAMS = 32;
+	
+	private static final int MIN_COMPACTION = 1024;
+	
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	private static final int NOT_FOUND = -1;
+	
+	@Autowired
+	ContactDao contactDao;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	private final int[][] postings = new int[TRIGRAMS][];
+	
+	private final int[] postingSizes = new int[TRIGRAMS];
+	
+	private final LongIntHashMap ordinals = new LongIntHashMap(INITIAL_CAPACITY);
+	
+	private final BitSet removed = new BitSet();
+	
+	private final ThreadLocal<byte[]> counters = ThreadLocal.withInitial(() -> new byte[0]);
+	
+	private long[] ids = new long[INITIAL_CAPACITY];
+	
+	private byte[][] names = new byte[INITIAL_CAPACITY][];
+	
+	// name lengths and first 8 codes, for ranking without reaching the names
+	private short[] lengths = new short[INITIAL_CAPACITY];
+	
+	private long[] heads = new long[INITIAL_CAPACITY];
+	
+	private int size;
+	
+	private int removedCount;
+	
+	/**
+	 * Builds the index from all the contacts in database, streaming only
+	 * their IDs and names. Suggestions and changes wait for the build.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		final var start = System.nanoTime();
+		final var transaction = new TransactionTemplate(transactionManager);
+		
+		transaction.setReadOnly(true);
+		lock.writeLock().lock();
+		
+		try {
+			reset(INITIAL_CAPACITY);
+			transaction.executeWithoutResult(status -> {
+				try (var rows = contactDao.streamNames()) {
+					rows.forEach(row -> putLocked((Long) row[0], (String) row[1]));
+				}
+			});
+			logger.info("build: {} contact names indexed in {} ms", ordinals.size(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Indexes the name of a contact, replacing the former one, after the
+	 * current transaction commits (at once, out of a transaction).
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param name	the contact name.
+	 */
+	public void put(Long contactId, String name) {
+		afterCommit(() -> {
+			lock.writeLock().lock();
+			
+			try {
+				putLocked(contactId, name);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+	
+	/**
+	 * Removes contacts from the index, after the current transaction
+	 * commits (at once, out of a transaction).
+	 * 
+	 * @param contactIds	the contact IDs.
+	 */
+	public void remove(Collection<Long> contactIds) {
+		afterCommit(() -> {
+			lock.writeLock().lock();
+			
+			try {
+				contactIds.forEach(contactId -> {
+					final var ordinal = ordinals.remove(contactId, NOT_FOUND);
+					
+					if (ordinal != NOT_FOUND) {
+						markRemoved(ordinal);
+					}
+				});
+				compactIfNeeded();
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+	
+	/**
+	 * Finds the contacts whose names best match a query: the ones matching
+	 * more query trigrams first, then the ones starting with the query, then
+	 * the shorter names.
+	 * 
+	 * Only the shortest posting lists that a match must hit are scanned for
+	 * candidates; the longer ones are probed for the candidates alone.
+	 * 
+	 * @param query	the query, as typed.
+	 * @param limit	the maximum number of contacts.
+	 * @return	the contact IDs, best match first.
+	 */
+	public List<Long> suggest(String query, int limit) {
+		final var folded = fold(query);
+		final var trigrams = trigrams(folded, MAX_QUERY_TRIGRAMS);
+		final var matches = new ArrayList<Long>(limit);
+		
+		if (trigrams.length == 0) {
+			return matches;
+		}
+		
+		lock.readLock().lock();
+		
+		try {
+			for (var key : rank(folded, trigrams, limit)) {
+				matches.add(ids[ordinalOf(key)]);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		
+		return matches;
+	}
+	
+	/**
+	 * Ranks the ordinals matching the query trigrams.
+	 * 
+	 * @param folded	the folded query.
+	 * @param trigrams	the distinct query trigrams.
+	 * @param limit	the maximum number of ordinals.
+	 * @return	the rank keys of the best ordinals, best first.
+	 */
+	private long[] rank(byte[] folded, int[] trigrams, int limit) {
+		final var minMatches = trigrams.length - trigrams.length / 3;
+		final var scanned = trigrams.length - minMatches + 1;
+		final var count = counters(size);
+		final var candidates = new IntList();
+		final var lists = Arrays.stream(trigrams).boxed()
+				.sorted((a, b) -> Integer.compare(postingSizes[a], postingSizes[b]))
+				.mapToInt(Integer::intValue)
+				.toArray();
+		
+		// a name with minMatches of the trigrams holds one of the (trigrams - minMatches + 1) rarest
+		for (var i = 0; i < scanned; i++) {
+			final var posting = postings[lists[i]];
+			
+			for (var j = 0; j < postingSizes[lists[i]]; j++) {
+				if (count[posting[j]]++ == 0) {
+					candidates.add(posting[j]);
+				}
+			}
+		}
+		
+		for (var i = scanned; i < lists.length; i++) {
+			probe(lists[i], candidates, count);
+		}
+		
+		final var head = head(folded);
+		final var headMask = (folded.length >= Long.BYTES) ? -1L : ~(-1L >>> (folded.length * Byte.SIZE));
+		final var best = new long[limit];
+		var found = 0;
+		var worst = 0;
+		
+		for (var i = 0; i < candidates.size(); i++) {
+			final var ordinal = candidates.get(i);
+			final var matched = count[ordinal];
+			
+			count[ordinal] = 0;
+			
+			if ((matched < minMatches) || removed.get(ordinal)) {
+				continue;
+			}
+			
+			final var prefix = (lengths[ordinal] >= folded.length) && ((heads[ordinal] & headMask) == head)
+					&& ((folded.length <= Long.BYTES) || Arrays.equals(names[ordinal], 0, folded.length, folded, 0, folded.length));
+			final var key = ((long) matched << 56) | ((prefix ? 1L : 0L) << 55)
+					| ((long) (Short.MAX_VALUE - lengths[ordinal]) << 40)
+					| (0xFFFFFFFFL - ordinal);
+			
+			if (found < limit) {
+				best[found++] = key;
+				worst = (key < best[worst]) ? found - 1 : worst;
+			} else if (key > best[worst]) {
+				best[worst] = key;
+				
+				for (var j = 0; j < limit; j++) {
+					worst = (best[j] < best[worst]) ? j : worst;
+				}
+			}
+		}
+		
+		final var ranked = Arrays.copyOf(best, found);
+		
+		Arrays.sort(ranked);
+		
+		for (var i = 0; i < found / 2; i++) {
+			final var key = ranked[i];
+			
+			ranked[i] = ranked[found - 1 - i];
+			ranked[found - 1 - i] = key;
+		}
+		
+		return ranked;
+	}
+	
+	/**
+	 * Counts the candidates held by a posting list: by binary search when
+	 * the candidates are few, by a scan of the list otherwise.
+	 * 
+	 * @param trigram	the trigram.
+	 * @param candidates	the candidate ordinals.
+	 * @param count	the matches of each ordinal.
+	 */
+	private void probe(int trigram, IntList candidates, byte[] count) {
+		final var posting = postings[trigram];
+		final var length = postingSizes[trigram];
+		
+		if (length == 0) {
+			return;
+		}
+		
+		if ((long) candidates.size() * (32 - Integer.numberOfLeadingZeros(length)) < length) {
+			for (var i = 0; i < candidates.size(); i++) {
+				if (Arrays.binarySearch(posting, 0, length, candidates.get(i)) >= 0) {
+					count[candidates.get(i)]++;
+				}
+			}
+		} else {
+			for (var i = 0; i < length; i++) {
+				if (count[posting[i]] != 0) {
+					count[posting[i]]++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Packs the first 8 codes of a folded text in a long, the first one in
+	 * the highest byte, so prefixes compare by masking.
+	 * 
+	 * @param folded	the folded text.
+	 * @return	the packed codes.
+	 */
+	private static long head(byte[] folded) {
+		var head = 0L;
+		
+		for (var i = 0; i < Long.BYTES; i++) {
+			head = (head << Byte.SIZE) | ((i < folded.length) ? folded[i] : 0);
+		}
+		
+		return head;
+	}
+	
+	/**
+	 * Gets the ordinal of a rank key: matched trigrams, then whether the
+	 * name starts with the query, then the shortest name, then the oldest
+	 * ordinal.
+	 * 
+	 * @param key	the rank key.
+	 * @return	the ordinal.
+	 */
+	private static int ordinalOf(long key) {
+		return (int) (0xFFFFFFFFL - (key & 0xFFFFFFFFL));
+	}
+	
+	/**
+	 * Gets the match counters of the current thread, all zeroed.
+	 * 
+	 * @param length	the minimum length.
+	 * @return	the counters.
+	 */
+	private byte[] counters(int length) {
+		var count = counters.get();
+		
+		if (count.length < length) {
+			count = new byte[Math.max(length, count.length + count.length / 2)];
+			counters.set(count);
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Indexes the name of a contact, replacing the former one, holding the
+	 * write lock.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param name	the contact name.
+	 */
+	private void putLocked(Long contactId, String name) {
+		final var folded = fold(name);
+		final var ordinal = ordinals.get(contactId, NOT_FOUND);
+		
+		if (ordinal != NOT_FOUND) {
+			if (Arrays.equals(names[ordinal], folded)) {
+				return;
+			}
+			
+			markRemoved(ordinal);
+		}
+		
+		ordinals.put(contactId, append(contactId, folded));
+		compactIfNeeded();
+	}
+	
+	/**
+	 * Appends a folded name under a new ordinal.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param folded	the folded name.
+	 * @return	the ordinal.
+	 */
+	private int append(long contactId, byte[] folded) {
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size + size / 2);
+			names = Arrays.copyOf(names, size + size / 2);
+			lengths = Arrays.copyOf(lengths, size + size / 2);
+			heads = Arrays.copyOf(heads, size + size / 2);
+		}
+		
+		final var ordinal = size++;
+		
+		ids[ordinal] = contactId;
+		names[ordinal] = folded;
+		lengths[ordinal] = (short) Math.min(folded.length, Short.MAX_VALUE);
+		heads[ordinal] = head(folded);
+		
+		for (var trigram : trigrams(folded, Integer.MAX_VALUE)) {
+			var posting = postings[trigram];
+			final var length = postingSizes[trigram];
+			
+			if (posting == null) {
+				posting = postings[trigram] = new int[4];
+			} else if (length == posting.length) {
+				posting = postings[trigram] = Arrays.copyOf(posting, length + length / 2);
+			}
+			
+			posting[length] = ordinal;
+			postingSizes[trigram] = length + 1;
+		}
+		
+		return ordinal;
+	}
+	
+	/**
+	 * Marks an ordinal as removed; its postings are dropped by the next compaction.
+	 * 
+	 * @param ordinal	the ordinal.
+	 */
+	private void markRemoved(int ordinal) {
+		removed.set(ordinal);
+		names[ordinal] = null;
+		removedCount++;
+	}
+	
+	/**
+	 * Rebuilds the index from the live names, once most ordinals were removed.
+	 */
+	private void compactIfNeeded() {
+		if ((removedCount < MIN_COMPACTION) || (removedCount * 2 < size)) {
+			return;
+		}
+		
+		final var liveIds = ids;
+		final var liveNames = names;
+		final var liveSize = size;
+		
+		reset(liveSize - removedCount);
+		
+		for (var i = 0; i < liveSize; i++) {
+			if (liveNames[i] != null) {
+				ordinals.put(liveIds[i], append(liveIds[i], liveNames[i]));
+			}
+		}
+	}
+	
+	/**
+	 * Empties the index.
+	 * 
+	 * @param expected	the expected number of names.
+	 */
+	private void reset(int expected) {
+		final var capacity = Math.max(INITIAL_CAPACITY, expected);
+		
+		Arrays.fill(postings, null);
+		Arrays.fill(postingSizes, 0);
+		ordinals.clear(capacity);
+		removed.clear();
+		ids = new long[capacity];
+		names = new byte[capacity][];
+		lengths = new short[capacity];
+		heads = new long[capacity];
+		size = 0;
+		removedCount = 0;
+	}
+	
+	/**
+	 * Folds a text: accents removed, letters upper cased, and any run of
+	 * other characters turned into a single word separator (code 0).
+	 * Letters are coded 1 to 26, and digits 27 to 36.
+	 * 
+	 * @param text	the text, or null.
+	 * @return	the folded codes.
+	 */
+	static byte[] fold(String text) {
+		if (text == null) {
+			return new byte[0];
+		}
+		
+		final var decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		final var folded = new byte[decomposed.length()];
+		var length = 0;
+		
+		for (var i = 0; i < decomposed.length(); i++) {
+			final var character = decomposed.charAt(i);
+			final byte code;
+			
+			if ((character >= 'A') && (character <= 'Z')) {
+				code = (byte) (character - 'A' + 1);
+			} else if ((character >= 'a') && (character <= 'z')) {
+				code = (byte) (character - 'a' + 1);
+			} else if ((character >= '0') && (character <= '9')) {
+				code = (byte) (character - '0' + 27);
+			} else if (Character.getType(character) == Character.NON_SPACING_MARK) {
+				continue;
+			} else {
+				code = 0;
+			}
+			
+			if ((code != 0) || ((length > 0) && (folded[length - 1] != 0))) {
+				folded[length++] = code;
+			}
+		}
+		
+		if ((length > 0) && (folded[length - 1] == 0)) {
+			length--;
+		}
+		
+		return Arrays.copyOf(folded, length);
+	}
+	
+	/**
+	 * Gets the distinct trigrams of the words of a folded text, each word
+	 * preceded by a separator, so its first trigram marks its start.
+	 * 
+	 * @param folded	the folded text.
+	 * @param max	the maximum number of trigrams, the first ones kept.
+	 * @return	the trigrams, sorted.
+	 */
+	static int[] trigrams(byte[] folded, int max) {
+		final var found = new IntList();
+		
+		for (var i = -1; (i + 2 < folded.length) && (found.size() < max); i++) {
+			final var first = (i < 0) ? 0 : folded[i];
+			final var second = folded[i + 1];
+			final var third = folded[i + 2];
+			
+			if ((second != 0) && (third != 0)) {
+				final var trigram = (first * BASE + second) * BASE + third;
+				
+				if (!found.contains(trigram)) {
+					found.add(trigram);
+				}
+			}
+		}
+		
+		final var trigrams = found.toArray();
+		
+		Arrays.sort(trigrams);
+		
+		return trigrams;
+	}
+	
+	/**
+	 * Runs an index change after the current transaction commits, or at
+	 * once out of a transaction.
+	 * 
+	 * @param change	the change.
+	 */
+	private static void afterCommit(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+	
+	/**
+	 * Growable list of primitive ints.
+	 */
+	private static class IntList {
+		
+		private int[] values = new int[16];
+		
+		private int size;
+		
+		/**
+		 * Appends a value.
+		 * 
+		 * @param value	the value.
+		 */
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			
+			values[size++] = value;
+		}
+		
+		/**
+		 * Gets a value.
+		 * 
+		 * @param index	the value index.
+		 * @return	the value.
+		 */
+		int get(int index) {
+			return values[index];
+		}
+		
+		/**
+		 * Gets the number of values.
+		 * 
+		 * @return	the number of values.
+		 */
+		int size() {
+			return size;
+		}
+		
+		/**
+		 * Tells if a value is in the list, by a linear search.
+		 * 
+		 * @param value	the value.
+		 * @return	true if found.
+		 */
+		boolean contains(int value) {
+			for (var i = 0; i < size; i++) {
+				if (values[i] == value) {
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		/**
+		 * Copies the values to an array.
+		 * 
+		 * @return	the values.
+		 */
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package br.com.silvio.everis.contacts.search;
+
+/**
+ * Filters of a contacts search. Only the supplied (not blank) filters
+ * are applied, all of them at once; the address filters must be met by
+ * the same address. The zip code range and prefix filters match the packed
+ * CEP of the addresses, whatever their separators.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ContactSearch {
+	
+	private String name;
+	
+	private String cpf;
+	
+	private String city;
+	
+	private String neighborhood;
+	
+	private String zipCode;
+	
+	private String cepFrom;
+	
+	private String cepTo;
+	
+	private String cepPrefix;
+	
+	/**
+	 * Trims a filter value.
+	 * 
+	 * @param value	the value, as received from client.
+	 * @return	the trimmed value, or null if blank.
+	 */
+	private static String filter(String value) {
+		return ((value == null) || value.isBlank()) ? null : value.trim();
+	}
+	
+	/**
+	 * Tells if any filter was supplied.
+	 * 
+	 * @return	true if there is some filter.
+	 */
+	public boolean hasFilters() {
+		return (name != null) || (cpf != null) || hasAddressFilters();
+	}
+	
+	/**
+	 * Tells if any address filter was supplied.
+	 * 
+	 * @return	true if there is some address filter.
+	 */
+	public boolean hasAddressFilters() {
+		return (city != null) || (neighborhood != null) || (zipCode != null)
+				|| (cepFrom != null) || (cepTo != null) || (cepPrefix != null);
+	}
+	
+	/**
+	 * Gets the contact name prefix.
+	 * 
+	 * @return	the name prefix, or null.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Sets the contact name prefix.
+	 * 
+	 * @param name	the name prefix.
+	 */
+	public void setName(String name) {
+		this.name = filter(name);
+	}
+	
+	/**
+	 * Gets the contact CPF.
+	 * 
+	 * @return	the CPF, or null.
+	 */
+	public String getCpf() {
+		return cpf;
+	}
+	
+	/**
+	 * Sets the contact CPF.
+	 * 
+	 * @param cpf	the CPF.
+	 */
+	public void setCpf(String cpf) {
+		this.cpf = filter(cpf);
+	}
+	
+	/**
+	 * Gets the address city.
+	 * 
+	 * @return	the city, or null.
+	 */
+	public String getCity() {
+		return city;
+	}
+	
+	/**
+	 * Sets the address city.
+	 * 
+	 * @param city	the city.
+	 */
+	public void setCity(String city) {
+		this.city = filter(city);
+	}
+	
+	/**
+	 * Gets the address neighborhood.
+	 * 
+	 * @return	the neighborhood, or null.
+	 */
+	public String getNeighborhood() {
+		return neighborhood;
+	}
+	
+	/**
+	 * Sets the address neighborhood.
+	 * 
+	 * @param neighborhood	the neighborhood.
+	 */
+	public void setNeighborhood(String neighborhood) {
+		this.neighborhood = filter(neighborhood);
+	}
+	
+	/**
+	 * Gets the address zip code.
+	 * 
+	 * @return	the zip code, or null.
+	 */
+	public String getZipCode() {
+		return zipCode;
+	}
+	
+	/**
+	 * Sets the address zip code.
+	 * 
+	 * @param zipCode	the zip code.
+	 */
+	public void setZipCode(String zipCode) {
+		this.zipCode = filter(zipCode);
+	}
+	
+	/**
+	 * Gets the first zip code of the address range.
+	 * 
+	 * @return	the first zip code, or null.
+	 */
+	public String getCepFrom() {
+		return cepFrom;
+	}
+	
+	/**
+	 * Sets the first zip code of the address range.
+	 * 
+	 * @param cepFrom	the first zip code.
+	 */
+	public void setCepFrom(String cepFrom) {
+		this.cepFrom = filter(cepFrom);
+	}
+	
+	/**
+	 * Gets the last zip code of the address range.
+	 * 
+	 * @return	the last zip code, or null.
+	 */
+	public String getCepTo() {
+		return cepTo;
+	}
+	
+	/**
+	 * Sets the last zip code of the address range.
+	 * 
+	 * @param cepTo	the last zip code.
+	 */
+	public void setCepTo(String cepTo) {
+		this.cepTo = filter(cepTo);
+	}
+	
+	/**
+	 * Gets the address zip code prefix.
+	 * 
+	 * @return	the zip code prefix, or null.
+	 */
+	public String getCepPrefix() {
+		return cepPrefix;
+	}
+	
+	/**
+	 * Sets the address zip code prefix.
+	 * 
+	 * @param cepPrefix	the zip code prefix.
+	 */
+	public void setCepPrefix(String cepPrefix) {
+		this.cepPrefix = filter(cepPrefix);
+	}
+}
@@ -0,0 +1,206 @@
+package br.com.silvio.everis.contacts.search;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing (linear probing) hash map of primitive long keys to
+ * primitive int values, without boxing nor an entry object per key.
+ * Not thread safe.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class LongIntHashMap {
+	
+	private static final long FREE = Long.MIN_VALUE;
+	
+	private static final int MIN_CAPACITY = 16;
+	
+	private long[] keys;
+	
+	private int[] values;
+	
+	private int size;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param expected	the expected number of keys.
+	 */
+	public LongIntHashMap(int expected) {
+		allocate(capacityFor(expected));
+	}
+	
+	/**
+	 * Gets the table capacity (a power of 2) for a number of keys, keeping
+	 * the load factor under 1/2.
+	 * 
+	 * @param expected	the number of keys.
+	 * @return	the capacity.
+	 */
+	private static int capacityFor(int expected) {
+		return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) * 2);
+	}
+	
+	/**
+	 * Allocates empty tables.
+	 * 
+	 * @param capacity	the capacity.
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, FREE);
+		size = 0;
+	}
+	
+	/**
+	 * Gets the slot of a key, or the free slot where it would be.
+	 * 
+	 * @param key	the key.
+	 * @return	the slot.
+	 */
+	private int slotOf(long key) {
+		final var mask = keys.length - 1;
+		var slot = (int) (mix(key) & mask);
+		
+		while ((keys[slot] != FREE) && (keys[slot] != key)) {
+			slot = (slot + 1) & mask;
+		}
+		
+		return slot;
+	}
+	
+	/**
+	 * Spreads the key bits (MurmurHash3 finalizer), since IDs are sequential.
+	 * 
+	 * @param key	the key.
+	 * @return	the hash.
+	 */
+	private static long mix(long key) {
+		var hash = key;
+		
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		
+		return hash ^ (hash >>> 33);
+	}
+	
+	/**
+	 * Gets the value of a key.
+	 * 
+	 * @param key	the key, never Long.MIN_VALUE.
+	 * @param missing	the value returned when the key is absent.
+	 * @return	the value, or missing.
+	 */
+	public int get(long key, int missing) {
+		final var slot = slotOf(key);
+		
+		return (keys[slot] == key) ? values[slot] : missing;
+	}
+	
+	/**
+	 * Puts the value of a key.
+	 * 
+	 * @param key	the key, never Long.MIN_VALUE.
+	 * @param value	the value.
+	 */
+	public void put(long key, int value) {
+		if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		
+		final var slot = slotOf(key);
+		
+		if (keys[slot] == FREE) {
+			keys[slot] = key;
+			size++;
+		}
+		
+		values[slot] = value;
+	}
+	
+	/**
+	 * Removes a key, shifting back the keys probed after it, so lookups
+	 * never need tombstones.
+	 * 
+	 * @param key	the key.
+	 * @param missing	the value returned when the key is absent.
+	 * @return	the removed value, or missing.
+	 */
+	public int remove(long key, int missing) {
+		final var mask = keys.length - 1;
+		var slot = slotOf(key);
+		
+		if (keys[slot] == FREE) {
+			return missing;
+		}
+		
+		final var removed = values[slot];
+		var next = slot;
+		
+		while (true) {
+			next = (next + 1) & mask;
+			
+			if (keys[next] == FREE) {
+				break;
+			}
+			
+			final var home = (int) (mix(keys[next]) & mask);
+			
+			// moves the next key back when its home is not cyclically in (slot, next]
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				keys[slot] = keys[next];
+				values[slot] = values[next];
+				slot = next;
+			}
+		}
+		
+		keys[slot] = FREE;
+		size--;
+		
+		return removed;
+	}
+	
+	/**
+	 * Removes all keys, keeping room for a number of them.
+	 * 
+	 * @param expected	the expected number of keys.
+	 */
+	public void clear(int expected) {
+		allocate(capacityFor(expected));
+	}
+	
+	/**
+	 * Gets the number of keys.
+	 * 
+	 * @return	the number of keys.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Moves the keys to tables of a new capacity.
+	 * 
+	 * @param capacity	the new capacity.
+	 */
+	private void rehash(int capacity) {
+		final var oldKeys = keys;
+		final var oldValues = values;
+		
+		allocate(capacity);
+		
+		for (var i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				final var slot = slotOf(oldKeys[i]);
+				
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				size++;
+			}
+		}
+	}
+}
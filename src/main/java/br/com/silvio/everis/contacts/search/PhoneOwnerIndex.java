@@ -0,0 +1,324 @@
+package br.com.silvio.everis.contacts.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.silvio.everis.contacts.dao.PhoneDao;
+
+/**
+ * In-memory index of the phone owners by packed E.164, for reverse lookups.
+ * 
+ * Each phone takes a slot of parallel primitive arrays (phone ID, E.164 and
+ * owner ID), and the slots of a same E.164, and of a same owner, are chained
+ * through int arrays, whose heads are kept in primitive long to int hash
+ * maps: no object is allocated per phone. Freed slots are reused.
+ * 
+ * It is built from database when the application is ready, and kept up to
+ * date by the service writes, after their transactions commit. Every change
+ * is idempotent, so a write racing with the build is never lost nor doubled.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class PhoneOwnerIndex {
+	
+	private static final Logger logger = LoggerFactory.getLogger(PhoneOwnerIndex.class);
+	
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	private static final int NONE = -1;
+	
+	@Autowired
+	PhoneDao phoneDao;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	private final LongIntHashMap slots = new LongIntHashMap(INITIAL_CAPACITY);
+	
+	private final LongIntHashMap numberHeads = new LongIntHashMap(INITIAL_CAPACITY);
+	
+	private final LongIntHashMap ownerHeads = new LongIntHashMap(INITIAL_CAPACITY);
+	
+	private long[] phoneIds = new long[INITIAL_CAPACITY];
+	
+	private long[] numbers = new long[INITIAL_CAPACITY];
+	
+	private long[] owners = new long[INITIAL_CAPACITY];
+	
+	private int[] nextByNumber = new int[INITIAL_CAPACITY];
+	
+	private int[] nextByOwner = new int[INITIAL_CAPACITY];
+	
+	private int size;
+	
+	// freed slots, chained through nextByNumber
+	private int freeHead = NONE;
+	
+	private volatile boolean built;
+	
+	/**
+	 * Builds the index from all the phones in database, streaming only their
+	 * IDs, owners and packed E.164. Lookups go to database until it is built.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		final var start = System.nanoTime();
+		final var transaction = new TransactionTemplate(transactionManager);
+		
+		transaction.setReadOnly(true);
+		lock.writeLock().lock();
+		
+		try {
+			transaction.executeWithoutResult(status -> {
+				try (var rows = phoneDao.streamE164s()) {
+					rows.forEach(row -> putLocked((Long) row[0], (Long) row[1], (Long) row[2]));
+				}
+			});
+			built = true;
+			logger.info("build: {} phone(s) indexed in {} ms", slots.size(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Tells whether the index is built, and can answer lookups.
+	 * 
+	 * @return	true if it is built.
+	 */
+	public boolean isBuilt() {
+		return built;
+	}
+	
+	/**
+	 * Indexes a phone, replacing its former E.164 or owner, after the current
+	 * transaction commits (at once, out of a transaction).
+	 * 
+	 * @param phoneId	the phone ID.
+	 * @param ownerId	the owner ID.
+	 * @param e164	the packed E.164, or null to leave the phone out.
+	 */
+	public void put(Long phoneId, Long ownerId, Long e164) {
+		afterCommit(() -> {
+			lock.writeLock().lock();
+			
+			try {
+				putLocked(phoneId, ownerId, e164);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+	
+	/**
+	 * Removes a phone, after the current transaction commits (at once, out
+	 * of a transaction).
+	 * 
+	 * @param phoneId	the phone ID.
+	 */
+	public void remove(Long phoneId) {
+		afterCommit(() -> {
+			lock.writeLock().lock();
+			
+			try {
+				removeLocked(phoneId);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+	
+	/**
+	 * Removes all the phones of some owners, after the current transaction
+	 * commits (at once, out of a transaction).
+	 * 
+	 * @param ownerIds	the owner IDs.
+	 */
+	public void removeOwners(Collection<Long> ownerIds) {
+		afterCommit(() -> {
+			lock.writeLock().lock();
+			
+			try {
+				for (var ownerId : ownerIds) {
+					var slot = ownerHeads.get(ownerId, NONE);
+					
+					while (slot != NONE) {
+						final var next = nextByOwner[slot];
+						
+						removeLocked(phoneIds[slot]);
+						slot = next;
+					}
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+	
+	/**
+	 * Finds the owners of a phone.
+	 * 
+	 * @param e164	the packed E.164.
+	 * @return	the owner IDs, in no particular order.
+	 */
+	public Set<Long> ownersOf(long e164) {
+		final var found = new LinkedHashSet<Long>();
+		
+		lock.readLock().lock();
+		
+		try {
+			for (var slot = numberHeads.get(e164, NONE); slot != NONE; slot = nextByNumber[slot]) {
+				found.add(owners[slot]);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Indexes a phone, holding the write lock.
+	 * 
+	 * @param phoneId	the phone ID.
+	 * @param ownerId	the owner ID.
+	 * @param e164	the packed E.164, or null.
+	 */
+	private void putLocked(long phoneId, long ownerId, Long e164) {
+		final var current = slots.get(phoneId, NONE);
+		
+		if ((current != NONE) && (e164 != null) && (numbers[current] == e164) && (owners[current] == ownerId)) {
+			return;
+		}
+		
+		removeLocked(phoneId);
+		
+		if (e164 == null) {
+			return;
+		}
+		
+		final var slot = allocate();
+		
+		phoneIds[slot] = phoneId;
+		numbers[slot] = e164;
+		owners[slot] = ownerId;
+		nextByNumber[slot] = numberHeads.get(e164, NONE);
+		nextByOwner[slot] = ownerHeads.get(ownerId, NONE);
+		numberHeads.put(e164, slot);
+		ownerHeads.put(ownerId, slot);
+		slots.put(phoneId, slot);
+	}
+	
+	/**
+	 * Removes a phone, holding the write lock.
+	 * 
+	 * @param phoneId	the phone ID.
+	 */
+	private void removeLocked(long phoneId) {
+		final var slot = slots.remove(phoneId, NONE);
+		
+		if (slot == NONE) {
+			return;
+		}
+		
+		unlink(numberHeads, nextByNumber, numbers[slot], slot);
+		unlink(ownerHeads, nextByOwner, owners[slot], slot);
+		nextByNumber[slot] = freeHead;
+		freeHead = slot;
+	}
+	
+	/**
+	 * Unlinks a slot from the chain of its key. Chains are short (the phones
+	 * of a number, or of a contact), so the previous slot is just walked to.
+	 * 
+	 * @param heads	the chain heads, by key.
+	 * @param next	the chain links.
+	 * @param key	the key.
+	 * @param slot	the slot.
+	 */
+	private static void unlink(LongIntHashMap heads, int[] next, long key, int slot) {
+		final var head = heads.get(key, NONE);
+		
+		if (head == slot) {
+			if (next[slot] == NONE) {
+				heads.remove(key, NONE);
+			} else {
+				heads.put(key, next[slot]);
+			}
+			return;
+		}
+		
+		var previous = head;
+		
+		while (next[previous] != slot) {
+			previous = next[previous];
+		}
+		
+		next[previous] = next[slot];
+	}
+	
+	/**
+	 * Takes a free slot, growing the arrays when none is left.
+	 * 
+	 * @return	the slot.
+	 */
+	private int allocate() {
+		if (freeHead != NONE) {
+			final var slot = freeHead;
+			
+			freeHead = nextByNumber[slot];
+			return slot;
+		}
+		
+		if (size == phoneIds.length) {
+			final var capacity = size + size / 2;
+			
+			phoneIds = Arrays.copyOf(phoneIds, capacity);
+			numbers = Arrays.copyOf(numbers, capacity);
+			owners = Arrays.copyOf(owners, capacity);
+			nextByNumber = Arrays.copyOf(nextByNumber, capacity);
+			nextByOwner = Arrays.copyOf(nextByOwner, capacity);
+		}
+		
+		return size++;
+	}
+	
+	/**
+	 * Runs an index change after the current transaction commits, or at
+	 * once, out of a transaction.
+	 * 
+	 * @param change	the change.
+	 */
+	private static void afterCommit(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+}
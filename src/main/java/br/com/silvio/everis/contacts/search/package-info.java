@@ -0,0 +1,8 @@
+/**
+ * Contacts search package
+ */
+/**
+ * @author silvio.araujo
+ *
+ */
+package br.com.silvio.everis.contacts.search;
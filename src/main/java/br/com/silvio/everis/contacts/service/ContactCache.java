@@ -0,0 +1,362 @@
+package br.com.silvio.everis.contacts.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Size and TTL bounded (W-TinyLFU) cache of contacts, addresses, phones and
+ * of the addresses and phones of each contact, as configured in
+ * "contacts.cache.spec" (Caffeine specification).
+ * 
+ * Entries are detached snapshots, without links nor lazy associations, and
+ * every read returns a new copy, so the links appended by the controller
+ * never reach the cache. Cached addresses and phones keep only the ID of
+ * their owner.
+ * 
+ * Writers evict the affected entries at once and again after their
+ * transaction completes, so a concurrent read of the old state cannot
+ * outlive the write.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class ContactCache {
+	
+	private static final String[] IGNORED_PROPERTIES = {"links", "embedded", "addresses", "phones", "contact"};
+	
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	@Value("${contacts.cache.spec}")
+	private String spec;
+	
+	private Cache<Long, Contact> contacts;
+	
+	private Cache<Long, Address> addresses;
+	
+	private Cache<Long, Phone> phones;
+	
+	private Cache<Long, List<Address>> contactAddresses;
+	
+	private Cache<Long, List<Phone>> contactPhones;
+	
+	/**
+	 * Builds the caches and binds their statistics to the metrics registry.
+	 */
+	@PostConstruct
+	public void init() {
+		contacts = build("contacts");
+		addresses = build("addresses");
+		phones = build("phones");
+		contactAddresses = build("contact.addresses");
+		contactPhones = build("contact.phones");
+	}
+	
+	/**
+	 * Builds a cache, and binds its statistics to the metrics registry.
+	 * 
+	 * @param <V>	the value type.
+	 * @param name	the cache name, as tagged in metrics.
+	 * @return	the cache.
+	 */
+	private <V> Cache<Long, V> build(String name) {
+		// maintenance on the caller thread: the bounds hold at once, so maximumSize=0 disables it
+		final Cache<Long, V> cache = Caffeine.from(spec).executor(Runnable::run).recordStats().build();
+		
+		return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+	}
+	
+	/**
+	 * Gets a contact, loading it on a miss.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param loader	the contact loader, which may return null.
+	 * @return	a copy of the contact, or null.
+	 */
+	public Contact getContact(Long contactId, Function<Long, Contact> loader) {
+		return copyOf(contacts.get(contactId, id -> copyOf(loader.apply(id))));
+	}
+	
+	/**
+	 * Gets some contacts, loading all the missing ones at once.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 * @param loader	the contacts loader, which omits the contacts not found.
+	 * @return	copies of the contacts found, by ID, in the order of the IDs.
+	 */
+	public Map<Long, Contact> getContacts(Collection<Long> contactIds,
+			Function<List<Long>, Map<Long, Contact>> loader) {
+		final var cached = contacts.getAll(contactIds, ids -> {
+			final var missing = new ArrayList<Long>();
+			
+			ids.forEach(missing::add);
+			
+			final var loaded = loader.apply(missing);
+			
+			loaded.replaceAll((id, contact) -> copyOf(contact));
+			
+			return loaded;
+		});
+		final var found = new LinkedHashMap<Long, Contact>(cached.size() * 2);
+		
+		for (var contactId : contactIds) {
+			final var contact = cached.get(contactId);
+			
+			if (contact != null) {
+				found.put(contactId, copyOf(contact));
+			}
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Gets an address, loading it on a miss.
+	 * 
+	 * @param addressId	the address ID.
+	 * @param loader	the address loader, which may return null.
+	 * @return	a copy of the address, or null.
+	 */
+	public Address getAddress(Long addressId, Function<Long, Address> loader) {
+		return copyOf(addresses.get(addressId, id -> copyOf(loader.apply(id))));
+	}
+	
+	/**
+	 * Gets a phone, loading it on a miss.
+	 * 
+	 * @param phoneId	the phone ID.
+	 * @param loader	the phone loader, which may return null.
+	 * @return	a copy of the phone, or null.
+	 */
+	public Phone getPhone(Long phoneId, Function<Long, Phone> loader) {
+		return copyOf(phones.get(phoneId, id -> copyOf(loader.apply(id))));
+	}
+	
+	/**
+	 * Gets the addresses of a contact, loading them on a miss.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param loader	the addresses loader.
+	 * @return	copies of the addresses.
+	 */
+	public List<Address> getContactAddresses(Long contactId, Function<Long, List<Address>> loader) {
+		return copyOfAddresses(contactAddresses.get(contactId, id -> copyOfAddresses(loader.apply(id))));
+	}
+	
+	/**
+	 * Gets the phones of a contact, loading them on a miss.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param loader	the phones loader.
+	 * @return	copies of the phones.
+	 */
+	public List<Phone> getContactPhones(Long contactId, Function<Long, List<Phone>> loader) {
+		return copyOfPhones(contactPhones.get(contactId, id -> copyOfPhones(loader.apply(id))));
+	}
+	
+	/**
+	 * Evicts a contact, after it or any of its children changed.
+	 * 
+	 * @param contactId	the contact ID.
+	 */
+	public void evictContact(Long contactId) {
+		evict(() -> contacts.invalidate(contactId));
+	}
+	
+	/**
+	 * Evicts an address, and the addresses of its owner.
+	 * 
+	 * @param addressId	the address ID, or null for a new address.
+	 * @param contactId	the owner ID.
+	 */
+	public void evictAddress(Long addressId, Long contactId) {
+		evict(() -> {
+			if (addressId != null) {
+				addresses.invalidate(addressId);
+			}
+			
+			contactAddresses.invalidate(contactId);
+		});
+	}
+	
+	/**
+	 * Evicts a phone, and the phones of its owner.
+	 * 
+	 * @param phoneId	the phone ID, or null for a new phone.
+	 * @param contactId	the owner ID.
+	 */
+	public void evictPhone(Long phoneId, Long contactId) {
+		evict(() -> {
+			if (phoneId != null) {
+				phones.invalidate(phoneId);
+			}
+			
+			contactPhones.invalidate(contactId);
+		});
+	}
+	
+	/**
+	 * Evicts a deleted contact, with all its addresses and phones.
+	 * 
+	 * @param contactId	the contact ID.
+	 */
+	public void evictContactTree(Long contactId) {
+		evictContactTrees(Set.of(contactId));
+	}
+	
+	/**
+	 * Evicts deleted contacts, with all their addresses and phones, in a
+	 * single pass over the addresses and phones.
+	 * 
+	 * @param contactIds	the contact IDs, as a set.
+	 */
+	public void evictContactTrees(Collection<Long> contactIds) {
+		evict(() -> {
+			contacts.invalidateAll(contactIds);
+			contactAddresses.invalidateAll(contactIds);
+			contactPhones.invalidateAll(contactIds);
+			addresses.asMap().values().removeIf(address -> contactIds.contains(address.getContact().getId()));
+			phones.asMap().values().removeIf(phone -> contactIds.contains(phone.getContact().getId()));
+		});
+	}
+	
+	/**
+	 * Runs an eviction now and, inside a transaction, again after it completes.
+	 * 
+	 * @param eviction	the eviction.
+	 */
+	private static void evict(Runnable eviction) {
+		eviction.run();
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					eviction.run();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Copies a contact, without links and associations.
+	 * 
+	 * @param contact	the contact, or null.
+	 * @return	the copy, or null.
+	 */
+	private static Contact copyOf(Contact contact) {
+		if (contact == null) {
+			return null;
+		}
+		
+		final var copy = new Contact();
+		
+		BeanUtils.copyProperties(contact, copy, IGNORED_PROPERTIES);
+		
+		return copy;
+	}
+	
+	/**
+	 * Copies an address, without links, keeping only its owner ID.
+	 * 
+	 * @param address	the address, or null.
+	 * @return	the copy, or null.
+	 */
+	private static Address copyOf(Address address) {
+		if (address == null) {
+			return null;
+		}
+		
+		final var copy = new Address();
+		
+		BeanUtils.copyProperties(address, copy, IGNORED_PROPERTIES);
+		copy.setContact(ownerOf(address.getContact()));
+		
+		return copy;
+	}
+	
+	/**
+	 * Copies a phone, without links, keeping only its owner ID.
+	 * 
+	 * @param phone	the phone, or null.
+	 * @return	the copy, or null.
+	 */
+	private static Phone copyOf(Phone phone) {
+		if (phone == null) {
+			return null;
+		}
+		
+		final var copy = new Phone();
+		
+		BeanUtils.copyProperties(phone, copy, IGNORED_PROPERTIES);
+		copy.setContact(ownerOf(phone.getContact()));
+		
+		return copy;
+	}
+	
+	/**
+	 * Copies a list of addresses.
+	 * 
+	 * @param addresses	the addresses.
+	 * @return	the copies.
+	 */
+	private static List<Address> copyOfAddresses(List<Address> addresses) {
+		final var copies = new ArrayList<Address>(addresses.size());
+		
+		addresses.forEach(address -> copies.add(copyOf(address)));
+		
+		return copies;
+	}
+	
+	/**
+	 * Copies a list of phones.
+	 * 
+	 * @param phones	the phones.
+	 * @return	the copies.
+	 */
+	private static List<Phone> copyOfPhones(List<Phone> phones) {
+		final var copies = new ArrayList<Phone>(phones.size());
+		
+		phones.forEach(phone -> copies.add(copyOf(phone)));
+		
+		return copies;
+	}
+	
+	/**
+	 * Builds a reference to an owner, holding only its ID.
+	 * 
+	 * @param contact	the owner.
+	 * @return	the reference.
+	 */
+	private static Contact ownerOf(Contact contact) {
+		final var owner = new Contact();
+		
+		owner.setId(contact.getId());
+		
+		return owner;
+	}
+}
@@ -0,0 +1,61 @@
+package br.com.silvio.everis.contacts.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.silvio.everis.contacts.dao.ContactDao;
+
+/**
+ * Cached counter of contacts, so listings can report the total
+ * without running a COUNT(*) on every page.
+ * It is adjusted by this instance writes, and refreshed from database
+ * when older than the configured TTL, to absorb other instances writes.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class ContactCounter {
+	
+	@Autowired
+	ContactDao contactDao;
+	
+	@Value("${contacts.paging.count.ttl}")
+	private long ttl;
+	
+	private final AtomicLong count = new AtomicLong();
+	
+	private volatile long loadedAt = Long.MIN_VALUE;
+	
+	/**
+	 * Gets the number of contacts, refreshing it if expired.
+	 * 
+	 * @return	the number of contacts.
+	 */
+	public long get() {
+		var now = System.currentTimeMillis();
+		
+		if ((loadedAt == Long.MIN_VALUE) || (now - loadedAt > ttl)) {
+			synchronized (this) {
+				if ((loadedAt == Long.MIN_VALUE) || (now - loadedAt > ttl)) {
+					count.set(contactDao.count());
+					loadedAt = now;
+				}
+			}
+		}
+		
+		return count.get();
+	}
+	
+	/**
+	 * Adjusts the counter after contacts were added or deleted.
+	 * 
+	 * @param delta	the number of contacts added (positive) or deleted (negative).
+	 */
+	public void add(long delta) {
+		count.addAndGet(delta);
+	}
+}
@@ -0,0 +1,9 @@
+package br.com.silvio.everis.contacts.service;
+
+import java.io.OutputStream;
+
+import br.com.silvio.everis.contacts.enums.ExportFormat;
+
+public interface ContactExportService {
+	public long exportContacts(ExportFormat format, OutputStream out);
+}
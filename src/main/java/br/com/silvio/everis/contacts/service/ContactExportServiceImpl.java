@@ -0,0 +1,185 @@
+package br.com.silvio.everis.contacts.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.silvio.everis.contacts.bulk.ContactExportWriter;
+import br.com.silvio.everis.contacts.bulk.CsvExportWriter;
+import br.com.silvio.everis.contacts.bulk.NdjsonExportWriter;
+import br.com.silvio.everis.contacts.bulk.VCardExportWriter;
+import br.com.silvio.everis.contacts.dao.AddressDao;
+import br.com.silvio.everis.contacts.dao.ContactDao;
+import br.com.silvio.everis.contacts.dao.PhoneDao;
+import br.com.silvio.everis.contacts.enums.ExportFormat;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * Contact export service class.
+ * Streams contacts, addresses and phones from three forward-only cursors,
+ * all sorted by contact ID, merging them as they are read. Every written
+ * entity is detached, so memory does not grow with the number of contacts.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Service
+public class ContactExportServiceImpl implements ContactExportService {
+	
+	private static final Logger logger = LoggerFactory.getLogger(ContactExportServiceImpl.class);
+	
+	@Autowired
+	ContactDao contactDao;
+	
+	@Autowired
+	AddressDao addressDao;
+	
+	@Autowired
+	PhoneDao phoneDao;
+	
+	@Autowired
+	EntityManager entityManager;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	private TransactionTemplate transactionTemplate;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param transactionManager	the transaction manager, for the read only export transaction.
+	 */
+	@Autowired
+	public ContactExportServiceImpl(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+	}
+	
+	/**
+	 * Iterator over (owner ID, entity) rows sorted by owner ID, which
+	 * hands out the entities of one owner at a time.
+	 * 
+	 * @param <T>	the entity type.
+	 */
+	private static class OwnedRows<T> {
+		private final Iterator<Object[]> rows;
+		
+		private Object[] current;
+		
+		OwnedRows(Iterator<Object[]> rows) {
+			this.rows = rows;
+			this.current = rows.hasNext() ? rows.next() : null;
+		}
+		
+		/**
+		 * Takes the entities of a given owner. Owners must be asked in ascending order.
+		 * 
+		 * @param ownerId	the owner ID.
+		 * @return	the entities of the owner.
+		 */
+		@SuppressWarnings("unchecked")
+		List<T> take(Long ownerId) {
+			List<T> owned = List.of();
+			
+			while ((current != null) && ((Long) current[0] <= ownerId)) {
+				if (current[0].equals(ownerId)) {
+					if (owned.isEmpty()) {
+						owned = new ArrayList<>();
+					}
+					owned.add((T) current[1]);
+				}
+				current = rows.hasNext() ? rows.next() : null;
+			}
+			
+			return owned;
+		}
+	}
+	
+	/**
+	 * Creates the writer for a given format.
+	 * 
+	 * @param format	the export format.
+	 * @param out	the output stream.
+	 * @return	the writer.
+	 * @throws IOException
+	 */
+	private ContactExportWriter createWriter(ExportFormat format, OutputStream out) throws IOException {
+		switch (format) {
+			case CSV:
+				return new CsvExportWriter(out);
+			case VCARD:
+				return new VCardExportWriter(out);
+			default:
+				return new NdjsonExportWriter(objectMapper, out);
+		}
+	}
+
+	/**
+	 * Exports all contacts, with their addresses and phones, to an output stream.
+	 * 
+	 * @param format	the export format.
+	 * @param out	the output stream.
+	 * @return	the number of contacts exported.
+	 */
+	@Override
+	public long exportContacts(ExportFormat format, OutputStream out) {
+		final var start = System.nanoTime();
+		
+		final Long exported = transactionTemplate.execute(status -> {
+			try (var contacts = contactDao.streamAll();
+				 var addressRows = addressDao.streamAllWithOwnerId();
+				 var phoneRows = phoneDao.streamAllWithOwnerId()) {
+				var writer = createWriter(format, out);
+				var addresses = new OwnedRows<Address>(addressRows.iterator());
+				var phones = new OwnedRows<Phone>(phoneRows.iterator());
+				var count = 0L;
+				
+				writer.begin();
+				
+				for (var iterator = contacts.iterator(); iterator.hasNext(); count++) {
+					// child rows read ahead may have left a proxy for this contact in the session
+					var contact = (Contact) Hibernate.unproxy(iterator.next());
+					var contactAddresses = addresses.take(contact.getId());
+					var contactPhones = phones.take(contact.getId());
+					
+					writer.write(contact, contactAddresses, contactPhones);
+					
+					contactAddresses.forEach(entityManager::detach);
+					contactPhones.forEach(entityManager::detach);
+					entityManager.detach(contact);
+				}
+				
+				writer.end();
+				
+				return count;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		
+		final var elapsedMs = Math.max(1L, (System.nanoTime() - start) / 1_000_000L);
+		
+		logger.info("exportContacts: {} contact(s) exported as {} in {} ms ({} rows/s)",
+					exported, format, elapsedMs, exported * 1000L / elapsedMs);
+		
+		return exported;
+	}
+}
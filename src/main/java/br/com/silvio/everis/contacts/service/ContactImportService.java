@@ -0,0 +1,10 @@
+package br.com.silvio.everis.contacts.service;
+
+import java.io.InputStream;
+
+import br.com.silvio.everis.contacts.bulk.ImportReport;
+import br.com.silvio.everis.contacts.enums.ImportFormat;
+
+public interface ContactImportService {
+	public ImportReport importContacts(ImportFormat format, InputStream in);
+}
@@ -0,0 +1,347 @@
+package br.com.silvio.everis.contacts.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.silvio.everis.contacts.bulk.ContactRecord;
+import br.com.silvio.everis.contacts.bulk.ContactRecordReader;
+import br.com.silvio.everis.contacts.bulk.CsvRecordReader;
+import br.com.silvio.everis.contacts.bulk.ImportReport;
+import br.com.silvio.everis.contacts.bulk.NdjsonRecordReader;
+import br.com.silvio.everis.contacts.enums.ImportFormat;
+import br.com.silvio.everis.contacts.exceptions.AlreadyExists;
+import br.com.silvio.everis.contacts.exceptions.IdSuppliedForNew;
+import br.com.silvio.everis.contacts.exceptions.InvalidInput;
+import br.com.silvio.everis.contacts.exceptions.RecordNotSupplied;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.search.ContactCpfFilter;
+import br.com.silvio.everis.contacts.search.ContactNameIndex;
+import br.com.silvio.everis.contacts.search.PhoneOwnerIndex;
+
+/**
+ * Contact import service class.
+ * Records are read incrementally and handled in chunks: each chunk is
+ * validated in parallel, on a bounded pool, and its valid records are then
+ * persisted in a single transaction, using JDBC batching.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Service
+public class ContactImportServiceImpl implements ContactImportService {
+	
+	private static final Logger logger = LoggerFactory.getLogger(ContactImportServiceImpl.class);
+	
+	@Autowired
+	ContactValidator validator;
+	
+	@Autowired
+	ContactCounter contactCounter;
+	
+	@Autowired
+	ContactNameIndex nameIndex;
+	
+	@Autowired
+	ContactCpfFilter cpfFilter;
+	
+	@Autowired
+	PhoneOwnerIndex phoneIndex;
+	
+	@Autowired
+	EntityManager entityManager;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	@Value("${contacts.import.chunk.size}")
+	private int chunkSize;
+	
+	@Value("${contacts.import.threads}")
+	private int threads;
+	
+	@Value("${contacts.import.errors.max}")
+	private int maxErrors;
+	
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+	private int batchSize;
+	
+	private ExecutorService validationPool;
+	
+	private TransactionTemplate transactionTemplate;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param transactionManager	the transaction manager, for the chunk transactions.
+	 */
+	@Autowired
+	public ContactImportServiceImpl(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+	
+	/**
+	 * Starts the validation pool. Its queue is bounded, and when it is full
+	 * the caller validates the slice itself, instead of piling up work.
+	 */
+	@PostConstruct
+	public void startValidationPool() {
+		validationPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(threads * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+	
+	/**
+	 * Stops the validation pool.
+	 */
+	@PreDestroy
+	public void stopValidationPool() {
+		validationPool.shutdown();
+	}
+	
+	/**
+	 * Validates a record, with its addresses and phones.
+	 * 
+	 * @param record	the record.
+	 * @return	the error message, or null if the record is valid.
+	 */
+	private String validateRecord(ContactRecord record) {
+		try {
+			var contact = record.getContact();
+			
+			if (contact.getId() != null) {
+				throw new IdSuppliedForNew("contact");
+			}
+			
+			validator.validateContact(contact);
+			
+			if (record.getAddresses() != null) {
+				for (var address : record.getAddresses()) {
+					if (address == null) {
+						throw new RecordNotSupplied("address");
+					} else if (address.getId() != null) {
+						throw new IdSuppliedForNew("address");
+					}
+					validator.validateAddress(address);
+				}
+			}
+			
+			if (record.getPhones() != null) {
+				for (var phone : record.getPhones()) {
+					if (phone == null) {
+						throw new RecordNotSupplied("phone");
+					} else if (phone.getId() != null) {
+						throw new IdSuppliedForNew("phone");
+					}
+					validator.validatePhone(phone);
+				}
+			}
+			
+			return null;
+		} catch (InvalidInput e) {
+			return e.getMessage();
+		}
+	}
+	
+	/**
+	 * Validates a chunk of records, splitting it in slices among the validation pool.
+	 * 
+	 * @param chunk	the records.
+	 * @return	the error message of each record (null for valid records).
+	 */
+	private String[] validateChunk(List<ContactRecord> chunk) {
+		final var errors = new String[chunk.size()];
+		final var sliceSize = Math.max(1, (chunk.size() + threads - 1) / threads);
+		final var slices = new ArrayList<CompletableFuture<Void>>();
+		
+		for (var from = 0; from < chunk.size(); from += sliceSize) {
+			final var sliceFrom = from;
+			final var sliceTo = Math.min(chunk.size(), from + sliceSize);
+			
+			slices.add(CompletableFuture.runAsync(() -> {
+				for (var i = sliceFrom; i < sliceTo; i++) {
+					errors[i] = validateRecord(chunk.get(i));
+				}
+			}, validationPool));
+		}
+		
+		CompletableFuture.allOf(slices.toArray(new CompletableFuture[0])).join();
+		
+		return errors;
+	}
+	
+	/**
+	 * Persists the valid records of a chunk in a single transaction,
+	 * flushing and clearing the persistence context at each JDBC batch.
+	 * A record whose CPF repeats an earlier one, in the chunk or in
+	 * database, is rejected; the database is only probed for the CPFs
+	 * the CPF filter might have seen.
+	 * 
+	 * @param chunk	the records.
+	 * @param errors	the error message of each record (null for valid records).
+	 * @return	the number of contacts persisted.
+	 */
+	private long persistChunk(List<ContactRecord> chunk, String[] errors) {
+		return transactionTemplate.execute(status -> {
+			var persisted = 0L;
+			var cpfs = new HashSet<String>(chunk.size() * 2);
+			
+			for (var i = 0; i < chunk.size(); i++) {
+				if (errors[i] == null) {
+					var record = chunk.get(i);
+					var contact = record.getContact();
+					var cpf = contact.getCpf();
+					
+					if ((cpf != null) && (!cpfs.add(cpf) || cpfFilter.isTaken(cpf, null))) {
+						errors[i] = new AlreadyExists(Contact.class, "CPF").getMessage();
+						continue;
+					}
+					
+					entityManager.persist(contact);
+					nameIndex.put(contact.getId(), contact.getName());
+					cpfFilter.add(cpf);
+					
+					if (record.getAddresses() != null) {
+						for (var address : record.getAddresses()) {
+							address.setContact(contact);
+							entityManager.persist(address);
+						}
+					}
+					
+					if (record.getPhones() != null) {
+						for (var phone : record.getPhones()) {
+							phone.setContact(contact);
+							entityManager.persist(phone);
+							phoneIndex.put(phone.getId(), contact.getId(), phone.getE164());
+						}
+					}
+					
+					if (++persisted % batchSize == 0) {
+						entityManager.flush();
+						entityManager.clear();
+					}
+				}
+			}
+			
+			entityManager.flush();
+			entityManager.clear();
+			
+			return persisted;
+		});
+	}
+	
+	/**
+	 * Handles a chunk of records: validates them, persists the valid ones,
+	 * and reports the rejected ones.
+	 * 
+	 * @param chunk	the records.
+	 * @param numbers	the record numbers.
+	 * @param report	the import report.
+	 */
+	private void importChunk(List<ContactRecord> chunk, List<Long> numbers, ImportReport report) {
+		var errors = validateChunk(chunk);
+		
+		try {
+			var persisted = persistChunk(chunk, errors);
+			
+			report.addImported(persisted);
+			contactCounter.add(persisted);
+		} catch (RuntimeException e) {
+			// the chunk transaction was rolled back, so none of its records were imported
+			var message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+			
+			for (var i = 0; i < errors.length; i++) {
+				errors[i] = (errors[i] != null) ? errors[i] : message;
+			}
+		}
+		
+		for (var i = 0; i < errors.length; i++) {
+			if (errors[i] != null) {
+				report.addError(numbers.get(i), errors[i]);
+			}
+		}
+	}
+
+	/**
+	 * Imports contacts, with their addresses and phones, from an input stream.
+	 * 
+	 * @param format	the import format.
+	 * @param in	the input stream.
+	 * @return	the import report.
+	 */
+	@Override
+	public ImportReport importContacts(ImportFormat format, InputStream in) {
+		final var start = System.nanoTime();
+		final var report = new ImportReport(maxErrors);
+		
+		try (ContactRecordReader reader = (format == ImportFormat.CSV)
+				? new CsvRecordReader(in) : new NdjsonRecordReader(objectMapper, in)) {
+			var chunk = new ArrayList<ContactRecord>(chunkSize);
+			var numbers = new ArrayList<Long>(chunkSize);
+			
+			while (true) {
+				ContactRecord record;
+				
+				try {
+					record = reader.next();
+				} catch (InvalidInput e) {
+					report.addRecord();
+					report.addError(report.getRecords(), e.getMessage());
+					continue;
+				}
+				
+				if (record == null) {
+					break;
+				}
+				
+				report.addRecord();
+				chunk.add(record);
+				numbers.add(report.getRecords());
+				
+				if (chunk.size() == chunkSize) {
+					importChunk(chunk, numbers, report);
+					chunk = new ArrayList<>(chunkSize);
+					numbers = new ArrayList<>(chunkSize);
+				}
+			}
+			
+			if (!chunk.isEmpty()) {
+				importChunk(chunk, numbers, report);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		report.finish((System.nanoTime() - start) / 1_000_000L);
+		
+		logger.info("importContacts: {} record(s) read as {}, {} imported, {} rejected, in {} ms ({} rows/s)",
+					report.getRecords(), format, report.getImported(), report.getRejected(),
+					report.getElapsedMs(), report.getRowsPerSecond());
+		
+		return report;
+	}
+}
@@ -1,18 +1,41 @@
 package br.com.silvio.everis.contacts.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
+import br.com.silvio.everis.contacts.enums.ContactSort;
 import br.com.silvio.everis.contacts.model.Address;
 import br.com.silvio.everis.contacts.model.Contact;
 import br.com.silvio.everis.contacts.model.Phone;
+import br.com.silvio.everis.contacts.paging.ContactCursor;
+import br.com.silvio.everis.contacts.paging.ContactPage;
+import br.com.silvio.everis.contacts.search.ContactSearch;
 
 public interface ContactService {
 	public List<Contact> loadContacts();
+	public ContactPage loadContactPage(ContactSort sort, ContactCursor cursor, Integer limit);
+	public ContactPage searchContacts(ContactSearch search, ContactCursor cursor, Integer limit);
+	public List<Contact> suggestContacts(String query, Integer limit);
+	public List<Contact> loadContactsByPhone(String e164);
+	public long countContacts();
 	public List<Address> loadContactAddresses(Long contactId);
 	public List<Phone> loadContactPhones(Long contactId);
+	public Set<Long> loadContactIdsWithAddresses(Collection<Long> contactIds);
+	public Set<Long> loadContactIdsWithPhones(Collection<Long> contactIds);
+	public Map<Long, List<Address>> loadAddressesByContactIds(Collection<Long> contactIds);
+	public Map<Long, List<Phone>> loadPhonesByContactIds(Collection<Long> contactIds);
 	public Contact loadContactById(Long contactId);
+	public Contact loadContactByCpf(String cpf);
+	public Map<Long, Contact> loadContactsByIds(Collection<Long> contactIds);
+	public Long loadContactVersion(Long contactId);
 	public Address loadAddressById(Long addressId);
 	public Phone loadPhoneById(Long phoneId);
+	public Address loadAddressById(Long contactId, Long addressId);
+	public Phone loadPhoneById(Long contactId, Long phoneId);
 	public Contact addContact(Contact contact);
 	public Address addAddress(Address address);
 	public Phone addPhone(Phone phone);
@@ -21,7 +44,11 @@ public interface ContactService {
 	public Address updateAddress(Long contactId, Address address);
 	public Phone updatePhone(Phone phone);
 	public Phone updatePhone(Long contactId, Phone phone);
+	public Contact patchContact(Long contactId, JsonNode patch);
+	public Address patchAddress(Long contactId, Long addressId, JsonNode patch);
+	public Phone patchPhone(Long contactId, Long phoneId, JsonNode patch);
 	public void deleteContact(Long contactId);
+	public int deleteContacts(Collection<Long> contactIds);
 	public void deleteAddress(Long addressId);
 	public void deleteAddress(Long contactId, Long addressId);
 	public void deletePhone(Long phoneId);
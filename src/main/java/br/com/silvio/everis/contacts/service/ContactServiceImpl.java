@@ -1,16 +1,39 @@
 package br.com.silvio.everis.contacts.service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import br.com.silvio.everis.contacts.dao.AddressDao;
 import br.com.silvio.everis.contacts.dao.ContactDao;
 import br.com.silvio.everis.contacts.dao.PhoneDao;
-import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.enums.ContactSort;
+import br.com.silvio.everis.contacts.exceptions.AlreadyExists;
 import br.com.silvio.everis.contacts.exceptions.IdSuppliedForNew;
 import br.com.silvio.everis.contacts.exceptions.Invalid;
 import br.com.silvio.everis.contacts.exceptions.Mandatory;
@@ -20,6 +43,12 @@ import br.com.silvio.everis.contacts.exceptions.SuppliedDoesNotBelongTo;
 import br.com.silvio.everis.contacts.model.Address;
 import br.com.silvio.everis.contacts.model.Contact;
 import br.com.silvio.everis.contacts.model.Phone;
+import br.com.silvio.everis.contacts.paging.ContactCursor;
+import br.com.silvio.everis.contacts.paging.ContactPage;
+import br.com.silvio.everis.contacts.search.ContactCpfFilter;
+import br.com.silvio.everis.contacts.search.ContactNameIndex;
+import br.com.silvio.everis.contacts.search.ContactSearch;
+import br.com.silvio.everis.contacts.search.PhoneOwnerIndex;
 
 /**
  * Contact service class.
@@ -28,8 +57,22 @@ import br.com.silvio.everis.contacts.model.Phone;
  *
  */
 @Service
+@Transactional
 public class ContactServiceImpl implements ContactService {
-
+	
+	private static final Set<String> CONTACT_PATCH_FIELDS = Set.of("name", "birthdate", "cpf");
+	
+	private static final Set<String> ADDRESS_PATCH_FIELDS = Set.of("addressType", "streetType", "street", "number",
+			"complement", "neighborhood", "city", "zipCode");
+	
+	private static final Set<String> PHONE_PATCH_FIELDS = Set.of("phoneType", "ddi", "ddd", "number", "extension");
+	
+	private static final String CPF_UNIQUE_INDEX = "UK_CONTACT_CPF";
+	
+	private static final int CEP_DIGITS = 8;
+	
+	private static final int CEP_MAX = 99999999;
+	
 	@Autowired
 	ContactDao contactDao;
 	
@@ -39,126 +82,324 @@ public class ContactServiceImpl implements ContactService {
 	@Autowired
 	PhoneDao phoneDao;
 	
-	@Value("${contacts.regex.contact.name}")
-	private String regexContactName;
+	@Autowired
+	ContactCounter contactCounter;
 	
-	@Value("${contacts.regex.contact.cpf}")
-	private String regexContactCpf;
+	@Autowired
+	ContactValidator validator;
 	
-	@Value("${contacts.regex.address.zipcode}")
-	private String regexAddressZipCode;
+	@Autowired
+	ContactCache contactCache;
 	
-	@Value("${contacts.regex.phone.fix}")
-	private String regexPhoneFix;
+	@Autowired
+	ContactNameIndex nameIndex;
 	
-	@Value("${contacts.regex.phone.mobile}")
-	private String regexPhoneMobile;
+	@Autowired
+	ContactCpfFilter cpfFilter;
 	
-	@Value("${contacts.regex.phone.ddi}")
-	private String regexPhoneDdi;
+	@Autowired
+	PhoneOwnerIndex phoneIndex;
+	
+	@Autowired
+	EntityManager entityManager;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	@Value("${contacts.paging.limit.default}")
+	private int defaultPageLimit;
+	
+	@Value("${contacts.paging.limit.max}")
+	private int maxPageLimit;
 	
-	@Value("${contacts.regex.phone.ddd}")
-	private String regexPhoneDdd;
+	@Value("${contacts.batch.ids.max}")
+	private int maxBatchIds;
+	
+	@Value("${contacts.suggest.limit.default}")
+	private int defaultSuggestLimit;
+	
+	@Value("${contacts.suggest.limit.max}")
+	private int maxSuggestLimit;
 	
 	/**
-	 * Validates contact record against rules (REGEX).
+	 * Loads all contacts in database.
 	 * 
-	 * @param contact	the contact to be validated.
+	 * @return	a list of contacts.
+	 */
+	public List<Contact> loadContacts() {
+		return contactDao.findAll();
+	}
+	
+	/**
+	 * Loads a page of contacts, using keyset pagination, so the cost
+	 * of a page does not depend on how deep it is in the listing.
+	 * 
+	 * @param sort	the sort of the listing (ignored when a cursor is supplied).
+	 * @param cursor	the cursor returned with the previous page, or null for the first page.
+	 * @param limit	the maximum number of contacts in the page, or null for the default.
+	 * @return	the page of contacts.
 	 * @throws	Invalid.
+	 */
+	@Override
+	public ContactPage loadContactPage(ContactSort sort, ContactCursor cursor, Integer limit) {
+		var pageLimit = (limit != null) ? limit : defaultPageLimit;
+		
+		if ((pageLimit < 1) || (pageLimit > maxPageLimit)) {
+			throw new Invalid("contacts page limit");
+		}
+		
+		var pageSort = (cursor != null) ? cursor.getSort() : sort;
+		// one extra row tells whether there is a next page
+		var pageable = PageRequest.of(0, pageLimit + 1);
+		List<Contact> contacts;
+		
+		if (pageSort == ContactSort.NAME) {
+			contacts = (cursor != null)
+					? contactDao.findPageByName(cursor.getLastName(), cursor.getLastId(), pageable)
+					: contactDao.findFirstPageByName(pageable);
+		} else {
+			contacts = contactDao.findPageById((cursor != null) ? cursor.getLastId() : Long.MIN_VALUE,
+											   pageable);
+		}
+		
+		if (contacts.size() > pageLimit) {
+			contacts = contacts.subList(0, pageLimit);
+			return new ContactPage(contacts, ContactCursor.after(pageSort, contacts.get(pageLimit - 1)));
+		} else {
+			return new ContactPage(contacts, null);
+		}
+	}
+	
+	/**
+	 * Searches contacts, using keyset pagination by ID. Only the supplied
+	 * filters make the query, so each one is answered by its index: the
+	 * name by prefix, the CPF exactly, and the address fields exactly, through
+	 * the owners of the matching addresses, so every contact comes once.
+	 * 
+	 * @param search	the search filters.
+	 * @param cursor	the cursor returned with the previous page, or null for the first page.
+	 * @param limit	the maximum number of contacts in the page, or null for the default.
+	 * @return	the page of contacts.
 	 * @throws	Mandatory.
+	 * @throws	Invalid.
 	 */
-	private void validateContact(Contact contact) {
-		var name = contact.getName();
-		var cpf = contact.getCpf();
+	@Override
+	public ContactPage searchContacts(ContactSearch search, ContactCursor cursor, Integer limit) {
+		var pageLimit = (limit != null) ? limit : defaultPageLimit;
+		
+		if ((search == null) || !search.hasFilters()) {
+			throw new Mandatory("contacts search filter");
+		}
+		
+		if ((pageLimit < 1) || (pageLimit > maxPageLimit)) {
+			throw new Invalid("contacts page limit");
+		}
+		
+		if ((cursor != null) && (cursor.getSort() != ContactSort.ID)) {
+			throw new Invalid("contacts cursor");
+		}
+		
+		final var jpql = new StringBuilder("select c from Contact c where c.id > :lastId");
+		final var parameters = new LinkedHashMap<String, Object>();
 		
-		if ((name != null) && (!name.isBlank())) {
-			if (!name.matches(regexContactName)) {
-				throw new Invalid("contact name");
+		parameters.put("lastId", (cursor != null) ? cursor.getLastId() : Long.MIN_VALUE);
+		
+		if (search.getName() != null) {
+			jpql.append(" and c.name like :name escape '\\'");
+			parameters.put("name", search.getName().toUpperCase().replaceAll("([\\\\%_])", "\\\\$1") + "%");
+		}
+		
+		if (search.getCpf() != null) {
+			jpql.append(" and c.cpf = :cpf");
+			parameters.put("cpf", search.getCpf());
+		}
+		
+		if (search.hasAddressFilters()) {
+			final var conditions = new ArrayList<String>();
+			
+			if (search.getCity() != null) {
+				conditions.add("a.city = :city");
+				parameters.put("city", search.getCity());
 			}
-		} else {
-			throw new Mandatory("contact name");
+			
+			if (search.getNeighborhood() != null) {
+				conditions.add("a.neighborhood = :neighborhood");
+				parameters.put("neighborhood", search.getNeighborhood());
+			}
+			
+			if (search.getZipCode() != null) {
+				conditions.add("a.zipCode = :zipCode");
+				parameters.put("zipCode", search.getZipCode());
+			}
+			
+			final var cepRange = cepRange(search);
+			
+			if (cepRange != null) {
+				conditions.add("a.cep between :cepFrom and :cepTo");
+				parameters.put("cepFrom", cepRange[0]);
+				parameters.put("cepTo", cepRange[1]);
+			}
+			
+			jpql.append(" and c.id in (select a.contact.id from Address a where ")
+				.append(String.join(" and ", conditions)).append(")");
 		}
 		
-		if ((cpf != null) && (!cpf.matches(regexContactCpf))) {
-			throw new Invalid("contact CPF");
+		jpql.append(" order by c.id");
+		
+		final var query = entityManager.createQuery(jpql.toString(), Contact.class);
+		
+		parameters.forEach(query::setParameter);
+		// one extra row tells whether there is a next page
+		var contacts = query.setMaxResults(pageLimit + 1).getResultList();
+		
+		if (contacts.size() > pageLimit) {
+			contacts = contacts.subList(0, pageLimit);
+			return new ContactPage(contacts, ContactCursor.after(ContactSort.ID, contacts.get(pageLimit - 1)));
+		} else {
+			return new ContactPage(contacts, null);
 		}
 	}
 	
 	/**
-	 * Validates address record against rules (REGEX).
+	 * Gets the packed CEP range of a search, from its zip code range and
+	 * prefix filters, all of them met at once: a prefix of n digits is the
+	 * range of the 10^(8-n) zip codes it starts.
 	 * 
-	 * @param address	the address to be validated.	
+	 * @param search	the search.
+	 * @return	the first and last packed CEPs, or null without CEP filters.
 	 * @throws	Invalid.
-	 * @throws	Mandatory.
 	 */
-	private void validateAddress(Address address) {
-		var street = address.getStreet();
-		var city = address.getCity();
-		var zipCode = address.getZipCode();
+	private static int[] cepRange(ContactSearch search) {
+		if ((search.getCepFrom() == null) && (search.getCepTo() == null) && (search.getCepPrefix() == null)) {
+			return null;
+		}
 		
-		if ((street == null) || (street.isBlank())) {
-			throw new Mandatory("address street");
+		final var range = new int[] {0, CEP_MAX};
+		
+		if (search.getCepFrom() != null) {
+			range[0] = requireCep(search.getCepFrom());
 		}
 		
-		if ((city == null) || (city.isBlank())) {
-			throw new Mandatory("address city");
+		if (search.getCepTo() != null) {
+			range[1] = requireCep(search.getCepTo());
 		}
 		
-		if ((zipCode != null) && (!zipCode.matches(regexAddressZipCode))) {
-				throw new Invalid("address zip code");
+		final var prefix = search.getCepPrefix();
+		
+		if (prefix != null) {
+			if ((prefix.length() > CEP_DIGITS) || !prefix.chars().allMatch(c -> (c >= '0') && (c <= '9'))) {
+				throw new Invalid("contacts search CEP prefix");
+			}
+			
+			var span = 1;
+			
+			for (var i = prefix.length(); i < CEP_DIGITS; i++) {
+				span *= 10;
+			}
+			
+			final var first = Integer.parseInt(prefix) * span;
+			
+			range[0] = Math.max(range[0], first);
+			range[1] = Math.min(range[1], first + span - 1);
 		}
+		
+		return range;
 	}
 	
 	/**
-	 * Validates phone record against rules (REGEX).
+	 * Packs a zip code range bound.
 	 * 
-	 * @param phone	the phone to be validated.	
+	 * @param zipCode	the zip code.
+	 * @return	the packed CEP.
 	 * @throws	Invalid.
+	 */
+	private static int requireCep(String zipCode) {
+		final var cep = Address.packCep(zipCode);
+		
+		if (cep == null) {
+			throw new Invalid("contacts search CEP");
+		}
+		
+		return cep;
+	}
+	
+	/**
+	 * Suggests contacts for a partially typed name, through the in-memory
+	 * name index, which ignores accents and case and tolerates typos.
+	 * 
+	 * @param query	the typed name.
+	 * @param limit	the maximum number of contacts, or null for the default.
+	 * @return	the contacts, best match first.
 	 * @throws	Mandatory.
+	 * @throws	Invalid.
 	 */
-	private void validatePhone(Phone phone) {
-		var phoneType = phone.getPhoneType();
-		var ddi = phone.getDdi();
-		var ddd = phone.getDdd();
-		var number = phone.getNumber();
-		var regexPhone = (phoneType == PhoneType.FIX) ? regexPhoneFix : regexPhoneMobile;
-
-		if (ddi == null) {
-			throw new Mandatory("phone ddi");
+	@Override
+	public List<Contact> suggestContacts(String query, Integer limit) {
+		var suggestLimit = (limit != null) ? limit : defaultSuggestLimit;
+		
+		if ((query == null) || query.isBlank()) {
+			throw new Mandatory("suggest query");
 		}
 		
-		if (ddd == null) {
-			throw new Mandatory("phone ddd");
+		if ((suggestLimit < 1) || (suggestLimit > maxSuggestLimit)) {
+			throw new Invalid("suggest limit");
 		}
 		
-		if (number == null) {
-			throw new Mandatory("phone number");
+		var contactIds = nameIndex.suggest(query, suggestLimit);
+		
+		if (contactIds.isEmpty()) {
+			return new ArrayList<>();
 		}
 		
-		if (!ddi.matches(regexPhoneDdi)) {
-			throw new Invalid("phone ddi");
+		// a contact deleted after the lookup is just left out
+		return new ArrayList<>(loadContactsByIds(contactIds).values());
+	}
+	
+	/**
+	 * Finds the contacts that own a phone, given in E.164, through the
+	 * in-memory phone index (or the E.164 index of the database, while the
+	 * former is not built), and loads them through the cache.
+	 * 
+	 * @param e164	the phone, in E.164 ("+" and separators allowed).
+	 * @return	the owners, at most "contacts.batch.ids.max" of them.
+	 * @throws	Mandatory.
+	 * @throws	Invalid.
+	 */
+	@Override
+	public List<Contact> loadContactsByPhone(String e164) {
+		if ((e164 == null) || e164.isBlank()) {
+			throw new Mandatory("phone E.164");
 		}
 		
-		if (!ddd.matches(regexPhoneDdd)) {
-			throw new Invalid("phone ddd");
+		var packed = Phone.parseE164(e164);
+		
+		if (packed == null) {
+			throw new Invalid("phone E.164");
 		}
-
-		if (!number.matches(regexPhone)) {
-			throw new Invalid("phone number");
+		
+		var ownerIds = phoneIndex.isBuilt() ? phoneIndex.ownersOf(packed) : phoneDao.findOwnerIdsByE164(packed);
+		
+		if (ownerIds.isEmpty()) {
+			return new ArrayList<>();
 		}
+		
+		// a contact deleted after the lookup is just left out
+		return new ArrayList<>(loadContactsByIds(ownerIds.stream().limit(maxBatchIds)
+				.collect(Collectors.toList())).values());
 	}
 	
 	/**
-	 * Loads all contacts in database.
+	 * Counts all contacts in database, using a cached counter.
 	 * 
-	 * @return	a list of contacts.
+	 * @return	the number of contacts.
 	 */
-	public List<Contact> loadContacts() {
-		return contactDao.findAll();
+	@Override
+	public long countContacts() {
+		return contactCounter.get();
 	}
-
+	
 	/**
-	 * Loads all addresses of a given contact.
+	 * Loads all addresses of a given contact, through the cache.
 	 * 
 	 * @param contactId	the contact ID.
 	 * @return	a list of addresses of a given contact
@@ -169,14 +410,14 @@ public class ContactServiceImpl implements ContactService {
 		Contact contact = loadContactById(contactId);
 		
 		if (contact != null) {
-			return addressDao.findAllByContact(contact);
+			return contactCache.getContactAddresses(contactId, id -> addressDao.findAllByContact(contact));
 		} else {
 			throw new ResourceNotFound(Contact.class, contactId);
 		}
 	}
-
+	
 	/**
-	 * Loads all phones of a given contact.
+	 * Loads all phones of a given contact, through the cache.
 	 * 
 	 * @param contactId	the contact ID.
 	 * @return a list of phones of a given contact.
@@ -187,14 +428,78 @@ public class ContactServiceImpl implements ContactService {
 		Contact contact = loadContactById(contactId);
 		
 		if (contact != null) {
-			return phoneDao.findAllByContact(contact);
+			return contactCache.getContactPhones(contactId, id -> phoneDao.findAllByContact(contact));
 		} else {
 			throw new ResourceNotFound(Contact.class, contactId);
 		}
 	}
-
+	
+	/**
+	 * Finds, among the given contacts, the ones that have any address,
+	 * in a single query for all of them.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 * @return	the IDs of the contacts that have addresses.
+	 */
+	@Override
+	public Set<Long> loadContactIdsWithAddresses(Collection<Long> contactIds) {
+		return contactIds.isEmpty() ? Set.of() : addressDao.findOwnerIdsIn(contactIds);
+	}
+	
+	/**
+	 * Finds, among the given contacts, the ones that have any phone,
+	 * in a single query for all of them.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 * @return	the IDs of the contacts that have phones.
+	 */
+	@Override
+	public Set<Long> loadContactIdsWithPhones(Collection<Long> contactIds) {
+		return contactIds.isEmpty() ? Set.of() : phoneDao.findOwnerIdsIn(contactIds);
+	}
+	
+	/**
+	 * Loads the addresses of the given contacts, in a single query for all of them.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 * @return	the addresses, grouped by contact ID; contacts without addresses are absent.
+	 */
+	@Override
+	public Map<Long, List<Address>> loadAddressesByContactIds(Collection<Long> contactIds) {
+		return contactIds.isEmpty() ? Map.of() : groupByOwner(addressDao.findAllWithOwnerIdIn(contactIds));
+	}
+	
+	/**
+	 * Loads the phones of the given contacts, in a single query for all of them.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 * @return	the phones, grouped by contact ID; contacts without phones are absent.
+	 */
+	@Override
+	public Map<Long, List<Phone>> loadPhonesByContactIds(Collection<Long> contactIds) {
+		return contactIds.isEmpty() ? Map.of() : groupByOwner(phoneDao.findAllWithOwnerIdIn(contactIds));
+	}
+	
+	/**
+	 * Groups (owner ID, row) pairs by owner ID, keeping their order.
+	 * 
+	 * @param <T>	the row type.
+	 * @param rows	the (owner ID, row) pairs.
+	 * @return	the rows, grouped by owner ID.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Map<Long, List<T>> groupByOwner(List<Object[]> rows) {
+		final var grouped = new LinkedHashMap<Long, List<T>>();
+		
+		for (var row : rows) {
+			grouped.computeIfAbsent((Long) row[0], ownerId -> new ArrayList<>()).add((T) row[1]);
+		}
+		
+		return grouped;
+	}
+	
 	/**
-	 * Loads a contact, given its ID.
+	 * Loads a contact, given its ID, through the cache.
 	 * 
 	 * @param contactId	the contact ID.
 	 * @return	the contact.
@@ -203,15 +508,84 @@ public class ContactServiceImpl implements ContactService {
 	@Override
 	public Contact loadContactById(Long contactId) {
 		if (contactId != null) {
-			Optional<Contact> oContact = contactDao.findById(contactId);
-			return oContact.isPresent() ? oContact.get() : null;
+			return contactCache.getContact(contactId, id -> {
+				Optional<Contact> oContact = contactDao.findById(id);
+				return oContact.isPresent() ? oContact.get() : null;
+			});
 		} else {
 			throw new Invalid("null contact ID");
 		}
 	}
+	
+	/**
+	 * Loads a contact, given its CPF: the ID is found by the CPF unique
+	 * index, and the contact through the cache. A CPF the filter has never
+	 * seen is not looked up at all.
+	 * 
+	 * @param cpf	the CPF.
+	 * @return	the contact, or null if no contact has the CPF.
+	 * @throws	Mandatory.
+	 */
+	@Override
+	public Contact loadContactByCpf(String cpf) {
+		if ((cpf == null) || cpf.isBlank()) {
+			throw new Mandatory("contact CPF");
+		}
+		
+		var contactId = cpfFilter.mightExist(cpf) ? contactDao.findIdByCpf(cpf) : null;
+		
+		return (contactId != null) ? loadContactById(contactId) : null;
+	}
+	
+	/**
+	 * Loads some contacts, given their IDs, through the cache: the ones
+	 * missing from the cache are loaded by a single query.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 * @return	the contacts found, by ID, in the order of the IDs.
+	 * @throws	Mandatory.
+	 * @throws	Invalid.
+	 */
+	@Override
+	public Map<Long, Contact> loadContactsByIds(Collection<Long> contactIds) {
+		return contactCache.getContacts(requireIds(contactIds, "contact"), ids -> {
+			final var loaded = new HashMap<Long, Contact>();
+			
+			contactDao.findAllById(ids).forEach(contact -> loaded.put(contact.getId(), contact));
+			
+			return loaded;
+		});
+	}
 
 	/**
-	 * Loads an address by its ID.
+	 * Loads the version of a contact, which is incremented whenever the contact,
+	 * or any of its addresses or phones, changes.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @return	the version, or null if the contact does not exist.
+	 * @throws	Invalid.
+	 */
+	@Override
+	public Long loadContactVersion(Long contactId) {
+		if (contactId != null) {
+			return contactDao.findVersionById(contactId);
+		} else {
+			throw new Invalid("null contact ID");
+		}
+	}
+	
+	/**
+	 * Increments the version of a contact, due to a change in its addresses or phones.
+	 * 
+	 * @param contactId	the contact ID.
+	 */
+	private void touchContact(Long contactId) {
+		contactDao.incrementVersion(contactId);
+		contactCache.evictContact(contactId);
+	}
+	
+	/**
+	 * Loads an address by its ID, through the cache.
 	 * 
 	 * @param addressId	the address ID.
 	 * @return	the address.
@@ -220,15 +594,17 @@ public class ContactServiceImpl implements ContactService {
 	@Override
 	public Address loadAddressById(Long addressId) {
 		if (addressId != null) {
-			Optional<Address> oAddress = addressDao.findById(addressId);
-			return oAddress.isPresent() ? oAddress.get() : null;
+			return contactCache.getAddress(addressId, id -> {
+				Optional<Address> oAddress = addressDao.findById(id);
+				return oAddress.isPresent() ? oAddress.get() : null;
+			});
 		} else {
 			throw new Invalid("null address ID");
 		}
 	}
-
+	
 	/**
-	 * Loads a phone by its ID.
+	 * Loads a phone by its ID, through the cache.
 	 * 
 	 * @param phoneId	the phone ID.
 	 * @return	the phone.
@@ -237,13 +613,114 @@ public class ContactServiceImpl implements ContactService {
 	@Override
 	public Phone loadPhoneById(Long phoneId) {
 		if (phoneId != null) {
-			Optional<Phone> oPhone = phoneDao.findById(phoneId);
-			return oPhone.isPresent() ? oPhone.get() : null;
+			return contactCache.getPhone(phoneId, id -> {
+				Optional<Phone> oPhone = phoneDao.findById(id);
+				return oPhone.isPresent() ? oPhone.get() : null;
+			});
 		} else {
 			throw new Invalid("null phone ID");
 		}
 	}
-
+	
+	/**
+	 * Loads an address, through the cache, if it belongs to a contact. The
+	 * owner is checked on the address itself; only when it does not match is
+	 * the contact, the address and its owner queried, to report which one
+	 * is wrong.
+	 *
+	 * @param contactId	the contact ID.
+	 * @param addressId	the address ID.
+	 * @return	the address.
+	 * @throws	Invalid.
+	 * @throws	ResourceNotFound.
+	 * @throws	SuppliedDoesNotBelongTo.
+	 */
+	@Override
+	public Address loadAddressById(Long contactId, Long addressId) {
+		requireId(contactId, "contact");
+		
+		var address = contactCache.getAddress(requireId(addressId, "address"), id -> addressDao.findOwned(contactId, id));
+		
+		if ((address == null) || (!contactId.equals(address.getContact().getId()))) {
+			checkOwnership(addressDao.findOwnership(contactId, addressId), Address.class, contactId, addressId, "address");
+			address = addressDao.findOwned(contactId, addressId);
+		}
+		
+		return address;
+	}
+	
+	/**
+	 * Loads a phone, through the cache, if it belongs to a contact. The
+	 * owner is checked on the phone itself; only when it does not match is
+	 * the contact, the phone and its owner queried, to report which one
+	 * is wrong.
+	 *
+	 * @param contactId	the contact ID.
+	 * @param phoneId	the phone ID.
+	 * @return	the phone.
+	 * @throws	Invalid.
+	 * @throws	ResourceNotFound.
+	 * @throws	SuppliedDoesNotBelongTo.
+	 */
+	@Override
+	public Phone loadPhoneById(Long contactId, Long phoneId) {
+		requireId(contactId, "contact");
+		
+		var phone = contactCache.getPhone(requireId(phoneId, "phone"), id -> phoneDao.findOwned(contactId, id));
+		
+		if ((phone == null) || (!contactId.equals(phone.getContact().getId()))) {
+			checkOwnership(phoneDao.findOwnership(contactId, phoneId), Phone.class, contactId, phoneId, "phone");
+			phone = phoneDao.findOwned(contactId, phoneId);
+		}
+		
+		return phone;
+	}
+	
+	/**
+	 * Checks an ID supplied for an existing record.
+	 *
+	 * @param id	the ID.
+	 * @param record	the record name.
+	 * @return	the same ID.
+	 * @throws	Invalid.
+	 */
+	private static Long requireId(Long id, String record) {
+		if (id == null) {
+			throw new Invalid("null " + record + " ID");
+		}
+		
+		return id;
+	}
+	
+	/**
+	 * Checks the ownership of an address or phone, as queried by its DAO
+	 * findOwnership: no row means no contact, a null owner means no child.
+	 *
+	 * @param ownership	the rows of contact ID, owner ID and child version.
+	 * @param childClass	the child class.
+	 * @param contactId	the contact ID.
+	 * @param childId	the child ID.
+	 * @param child	the child name.
+	 * @return	the ownership row.
+	 * @throws	ResourceNotFound.
+	 * @throws	SuppliedDoesNotBelongTo.
+	 */
+	private static Object[] checkOwnership(List<Object[]> ownership, Class<?> childClass, Long contactId, Long childId, String child) {
+		if (ownership.isEmpty()) {
+			throw new ResourceNotFound(Contact.class, contactId);
+		}
+		
+		final var row = ownership.get(0);
+		
+		if (row[1] == null) {
+			throw new ResourceNotFound(childClass, childId);
+		} else if (!contactId.equals(row[1])) {
+			throw new SuppliedDoesNotBelongTo(child, "contact ID");
+		}
+		
+		return row;
+	}
+	
 	/**
 	 * Adds a new contact.
 	 * 
@@ -251,13 +728,19 @@ public class ContactServiceImpl implements ContactService {
 	 * @return the contact inserted.
 	 * @throws IdSuppliedForNew.
 	 * @throws RecordNotSupplied.
+	 * @throws AlreadyExists.
 	 */
 	@Override
 	public Contact addContact(Contact contact) {
 		if (contact != null) {
 			if (contact.getId() == null) {
-				validateContact(contact);
-				return contactDao.save(contact);
+				validator.validateContact(contact);
+				checkCpfIsFree(contact);
+				var newContact = writeContact(() -> contactDao.save(contact));
+				contactCounter.add(1);
+				nameIndex.put(newContact.getId(), newContact.getName());
+				cpfFilter.add(newContact.getCpf());
+				return newContact;
 			} else {
 				throw new IdSuppliedForNew("contact");
 			}
@@ -265,7 +748,7 @@ public class ContactServiceImpl implements ContactService {
 			throw new RecordNotSupplied("contact");
 		}
 	}
-
+	
 	/**
 	 * Adds a new address.
 	 * 
@@ -278,8 +761,11 @@ public class ContactServiceImpl implements ContactService {
 	public Address addAddress(Address address) {
 		if (address != null) {
 			if (address.getId() == null) {
-				validateAddress(address);
-				return addressDao.save(address);
+				validator.validateAddress(address);
+				var newAddress = addressDao.save(address);
+				contactCache.evictAddress(null, address.getContact().getId());
+				touchContact(address.getContact().getId());
+				return newAddress;
 			} else {
 				throw new IdSuppliedForNew("address");
 			}
@@ -287,7 +773,7 @@ public class ContactServiceImpl implements ContactService {
 			throw new RecordNotSupplied("address");
 		}
 	}
-
+	
 	/**
 	 * Adds a new phone.
 	 * 
@@ -300,8 +786,12 @@ public class ContactServiceImpl implements ContactService {
 	public Phone addPhone(Phone phone) {
 		if (phone != null) {
 			if (phone.getId() == null) {
-				validatePhone(phone);
-				return phoneDao.save(phone);
+				validator.validatePhone(phone);
+				var newPhone = phoneDao.save(phone);
+				contactCache.evictPhone(null, phone.getContact().getId());
+				touchContact(phone.getContact().getId());
+				phoneIndex.put(newPhone.getId(), phone.getContact().getId(), newPhone.getE164());
+				return newPhone;
 			} else {
 				throw new IdSuppliedForNew("phone");
 			}
@@ -309,7 +799,7 @@ public class ContactServiceImpl implements ContactService {
 			throw new RecordNotSupplied("phone");
 		}
 	}
-
+	
 	/**
 	 * Updates a contact.
 	 * 
@@ -317,6 +807,7 @@ public class ContactServiceImpl implements ContactService {
 	 * @return	the updated contact.
 	 * @throws	RecordNotSupplied.
 	 * @throws	ResourceNotFound.
+	 * @throws	AlreadyExists.
 	 */
 	@Override
 	public Contact updateContact(Contact contact) {
@@ -324,8 +815,21 @@ public class ContactServiceImpl implements ContactService {
 			var oldContact = loadContactById(contact.getId());
 			
 			if (oldContact != null) {
-				validateContact(contact);
-				return contactDao.save(contact);
+				var oldCpf = oldContact.getCpf();
+				
+				validator.validateContact(contact);
+				checkCpfIsFree(contact);
+				contact.setVersion(oldContact.getVersion());
+				var updatedContact = writeContact(() -> contactDao.save(contact));
+				contactCache.evictContact(contact.getId());
+				nameIndex.put(contact.getId(), contact.getName());
+				
+				if (!Objects.equals(oldCpf, contact.getCpf())) {
+					cpfFilter.add(contact.getCpf());
+					cpfFilter.discard((oldCpf != null) ? 1 : 0);
+				}
+				
+				return updatedContact;
 			} else {
 				throw new ResourceNotFound(Contact.class, contact.getId());
 			}
@@ -333,7 +837,7 @@ public class ContactServiceImpl implements ContactService {
 			throw new RecordNotSupplied("contact");
 		}
 	}
-
+	
 	/**
 	 * Updates an address.
 	 * 
@@ -348,8 +852,13 @@ public class ContactServiceImpl implements ContactService {
 			var oldAddress = loadAddressById(address.getId());
 			
 			if (oldAddress != null) {
-				validateAddress(address);
-				return addressDao.save(address);
+				validator.validateAddress(address);
+				address.setVersion(oldAddress.getVersion());
+				address.setContact(contactDao.getOne(oldAddress.getContact().getId()));
+				var updatedAddress = addressDao.save(address);
+				contactCache.evictAddress(address.getId(), oldAddress.getContact().getId());
+				touchContact(oldAddress.getContact().getId());
+				return updatedAddress;
 			} else {
 				throw new ResourceNotFound(Address.class, address.getId());
 			}
@@ -357,9 +866,10 @@ public class ContactServiceImpl implements ContactService {
 			throw new RecordNotSupplied("address");
 		}
 	}
-
+	
 	/**
-	 * Updates an address if it belongs to a contact.
+	 * Updates an address if it belongs to a contact: one query checks the
+	 * contact, the address and its owner, and a keyed UPDATE writes it.
 	 *
 	 * @param contactId	the contact ID.
 	 * @param address	the address.
@@ -371,29 +881,23 @@ public class ContactServiceImpl implements ContactService {
 	@Override
 	public Address updateAddress(Long contactId, Address address) {
 		if (address != null) {
-			var contact = loadContactById(contactId);
+			var ownership = checkOwnership(addressDao.findOwnership(requireId(contactId, "contact"),
+					requireId(address.getId(), "address")), Address.class, contactId, address.getId(), "address");
 			
-			if (contact != null) {
-				var oldAddress = loadAddressById(address.getId());
-				
-				if (oldAddress != null) {
-					if (oldAddress.getContact().getId().equals(contactId)) {
-						validateAddress(address);
-						return addressDao.save(address);
-					} else {
-						throw new SuppliedDoesNotBelongTo("address", "contact ID");
-					}
-				} else {
-					throw new ResourceNotFound(Address.class, address.getId());
-				}
-			} else {
-				throw new ResourceNotFound(Contact.class, contactId);
-			}
+			validator.validateAddress(address);
+			addressDao.updateOwned(contactId, address.getId(), address.getAddressType(), address.getStreetType(),
+					address.getStreet(), address.getNumber(), address.getComplement(), address.getNeighborhood(),
+					address.getCity(), address.getZipCode(), address.getCep());
+			address.setVersion((Long) ownership[2] + 1);
+			address.setContact(contactDao.getOne(contactId));
+			contactCache.evictAddress(address.getId(), contactId);
+			touchContact(contactId);
+			return address;
 		} else {
 			throw new RecordNotSupplied("address");
 		}
 	}
-
+	
 	/**
 	 * Updates a phone.
 	 * 
@@ -408,8 +912,14 @@ public class ContactServiceImpl implements ContactService {
 			var oldPhone = loadPhoneById(phone.getId());
 			
 			if (oldPhone != null) {
-				validatePhone(phone);
-				return phoneDao.save(phone);
+				validator.validatePhone(phone);
+				phone.setVersion(oldPhone.getVersion());
+				phone.setContact(contactDao.getOne(oldPhone.getContact().getId()));
+				var updatedPhone = phoneDao.save(phone);
+				contactCache.evictPhone(phone.getId(), oldPhone.getContact().getId());
+				touchContact(oldPhone.getContact().getId());
+				phoneIndex.put(phone.getId(), oldPhone.getContact().getId(), phone.getE164());
+				return updatedPhone;
 			} else {
 				throw new ResourceNotFound(Phone.class, phone.getId());
 			}
@@ -417,9 +927,10 @@ public class ContactServiceImpl implements ContactService {
 			throw new RecordNotSupplied("phone");
 		}
 	}
-
+	
 	/**
-	 * Updates a phone if it belongs to a contact.
+	 * Updates a phone if it belongs to a contact: one query checks the
+	 * contact, the phone and its owner, and a keyed UPDATE writes it.
 	 *
 	 * @param contactId	the contact ID.
 	 * @param phone	the phone.
@@ -431,47 +942,356 @@ public class ContactServiceImpl implements ContactService {
 	@Override
 	public Phone updatePhone(Long contactId, Phone phone) {
 		if (phone != null) {
-			var contact = loadContactById(contactId);
+			var ownership = checkOwnership(phoneDao.findOwnership(requireId(contactId, "contact"),
+					requireId(phone.getId(), "phone")), Phone.class, contactId, phone.getId(), "phone");
 			
-			if (contact != null) {
-				var oldPhone = loadPhoneById(phone.getId());
-				
-				if (oldPhone != null) {
-					if (oldPhone.getContact().getId().equals(contactId)) {
-						validatePhone(phone);
-						return phoneDao.save(phone);
-					} else {
-						throw new SuppliedDoesNotBelongTo("phone", "contact ID");
-					}
-				} else {
-					throw new ResourceNotFound(Phone.class, phone.getId());
-				}
-			} else {
-				throw new ResourceNotFound(Contact.class, contactId);
-			}
+			validator.validatePhone(phone);
+			phoneDao.updateOwned(contactId, phone.getId(), phone.getPhoneType(), phone.getDdi(),
+					phone.getDdd(), phone.getNumber(), phone.getExtension(), phone.getE164());
+			phone.setVersion((Long) ownership[2] + 1);
+			phone.setContact(contactDao.getOne(contactId));
+			contactCache.evictPhone(phone.getId(), contactId);
+			touchContact(contactId);
+			phoneIndex.put(phone.getId(), contactId, phone.getE164());
+			return phone;
 		} else {
 			throw new RecordNotSupplied("phone");
 		}
 	}
-
+	
+	/**
+	 * Patches a contact (JSON Merge Patch): only the fields in the patch are
+	 * applied and validated, and only the changed ones are written, by a
+	 * single keyed UPDATE; nothing is written if none changed.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param patch	the patch.
+	 * @return	the patched contact.
+	 * @throws	Invalid.
+	 * @throws	ResourceNotFound.
+	 * @throws	AlreadyExists.
+	 */
+	@Override
+	public Contact patchContact(Long contactId, JsonNode patch) {
+		var contact = loadContactById(contactId);
+		
+		if (contact == null) {
+			throw new ResourceNotFound(Contact.class, contactId);
+		}
+		
+		var oldCpf = contact.getCpf();
+		var changes = applyPatch(contact, patch, CONTACT_PATCH_FIELDS, "contact");
+		
+		if (!changes.isEmpty()) {
+			validator.validateContact(contact, changes.keySet());
+			
+			if (changes.containsKey("cpf")) {
+				checkCpfIsFree(contact);
+			}
+			
+			writeContact(() -> {
+				writePatch(Contact.class, contactId, null, changes);
+				return contact;
+			});
+			contact.setVersion(contact.getVersion() + 1);
+			contactCache.evictContact(contactId);
+			
+			if (changes.containsKey("name")) {
+				nameIndex.put(contactId, contact.getName());
+			}
+			
+			if (changes.containsKey("cpf")) {
+				cpfFilter.add(contact.getCpf());
+				cpfFilter.discard((oldCpf != null) ? 1 : 0);
+			}
+		}
+		
+		return contact;
+	}
+	
+	/**
+	 * Patches an address (JSON Merge Patch), if it belongs to a contact: only
+	 * the fields in the patch are applied and validated, and only the changed
+	 * ones are written, by a single keyed UPDATE; nothing is written if none
+	 * changed.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param addressId	the address ID.
+	 * @param patch	the patch.
+	 * @return	the patched address.
+	 * @throws	Invalid.
+	 * @throws	ResourceNotFound.
+	 * @throws	SuppliedDoesNotBelongTo.
+	 */
+	@Override
+	public Address patchAddress(Long contactId, Long addressId, JsonNode patch) {
+		var address = loadAddressById(contactId, addressId);
+		var changes = applyPatch(address, patch, ADDRESS_PATCH_FIELDS, "address");
+		
+		if (!changes.isEmpty()) {
+			validator.validateAddress(address, changes.keySet());
+			
+			if (changes.containsKey("zipCode")) {
+				changes.put("cep", address.getCep());
+			}
+			
+			writePatch(Address.class, addressId, contactId, changes);
+			address.setVersion(address.getVersion() + 1);
+			contactCache.evictAddress(addressId, contactId);
+			touchContact(contactId);
+		}
+		
+		return address;
+	}
+	
+	/**
+	 * Patches a phone (JSON Merge Patch), if it belongs to a contact: only
+	 * the fields in the patch are applied and validated, and only the changed
+	 * ones are written, by a single keyed UPDATE; nothing is written if none
+	 * changed.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param phoneId	the phone ID.
+	 * @param patch	the patch.
+	 * @return	the patched phone.
+	 * @throws	Invalid.
+	 * @throws	ResourceNotFound.
+	 * @throws	SuppliedDoesNotBelongTo.
+	 */
+	@Override
+	public Phone patchPhone(Long contactId, Long phoneId, JsonNode patch) {
+		var phone = loadPhoneById(contactId, phoneId);
+		var changes = applyPatch(phone, patch, PHONE_PATCH_FIELDS, "phone");
+		
+		if (!changes.isEmpty()) {
+			validator.validatePhone(phone, changes.keySet());
+			
+			if (changes.containsKey("ddi") || changes.containsKey("ddd") || changes.containsKey("number")) {
+				changes.put("e164", phone.getE164());
+			}
+			
+			writePatch(Phone.class, phoneId, contactId, changes);
+			phone.setVersion(phone.getVersion() + 1);
+			contactCache.evictPhone(phoneId, contactId);
+			touchContact(contactId);
+			phoneIndex.put(phoneId, contactId, phone.getE164());
+		}
+		
+		return phone;
+	}
+	
+	/**
+	 * Applies a JSON Merge Patch to a record: each member sets its field,
+	 * null clearing it. Only the given fields may be patched.
+	 * 
+	 * @param record	the record (a copy, as loaded through the cache).
+	 * @param patch	the patch, a JSON object.
+	 * @param fields	the fields that may be patched.
+	 * @param name	the record name.
+	 * @return	the changed fields and their new values.
+	 * @throws	Invalid.
+	 */
+	private Map<String, Object> applyPatch(Object record, JsonNode patch, Set<String> fields, String name) {
+		if ((patch == null) || (!patch.isObject())) {
+			throw new Invalid(name + " patch");
+		}
+		
+		final var wrapper = PropertyAccessorFactory.forBeanPropertyAccess(record);
+		final var previous = new LinkedHashMap<String, Object>();
+		
+		patch.fieldNames().forEachRemaining(field -> {
+			if (!fields.contains(field)) {
+				throw new Invalid(name + " " + field);
+			}
+			
+			previous.put(field, wrapper.getPropertyValue(field));
+		});
+		
+		try {
+			objectMapper.readerForUpdating(record).readValue(patch);
+		} catch (IOException e) {
+			throw new Invalid(name + " patch");
+		}
+		
+		final var changes = new LinkedHashMap<String, Object>();
+		
+		previous.forEach((field, value) -> {
+			final var patched = wrapper.getPropertyValue(field);
+			
+			if (!sameValue(value, patched)) {
+				changes.put(field, patched);
+			}
+		});
+		
+		return changes;
+	}
+	
+	/**
+	 * Compares field values; dates by their instant, as the loaded ones are
+	 * timestamps.
+	 * 
+	 * @param value	a value.
+	 * @param other	the other value.
+	 * @return	true if they are the same.
+	 */
+	private static boolean sameValue(Object value, Object other) {
+		if ((value instanceof Date) && (other instanceof Date)) {
+			return ((Date) value).getTime() == ((Date) other).getTime();
+		}
+		
+		return Objects.equals(value, other);
+	}
+	
+	/**
+	 * Writes the changed fields of a record, incrementing its version, by a
+	 * keyed UPDATE of those columns only. The field names come from the
+	 * patchable fields, never from the request as is.
+	 * 
+	 * @param recordClass	the record class.
+	 * @param id	the record ID.
+	 * @param contactId	the owner ID, for addresses and phones, or null.
+	 * @param changes	the changed fields and their new values.
+	 * @throws	ResourceNotFound.
+	 */
+	private void writePatch(Class<?> recordClass, Long id, Long contactId, Map<String, Object> changes) {
+		final var jpql = new StringBuilder("update ").append(recordClass.getSimpleName()).append(" r set ");
+		
+		changes.keySet().forEach(field -> jpql.append("r.").append(field).append(" = :").append(field).append(", "));
+		jpql.append("r.version = r.version + 1 where r.id = :id");
+		
+		if (contactId != null) {
+			jpql.append(" and r.contact.id = :contactId");
+		}
+		
+		final var query = entityManager.createQuery(jpql.toString());
+		
+		changes.forEach(query::setParameter);
+		query.setParameter("id", id);
+		
+		if (contactId != null) {
+			query.setParameter("contactId", contactId);
+		}
+		
+		if (query.executeUpdate() == 0) {
+			throw new ResourceNotFound(recordClass, id);
+		}
+	}
+	
 	/**
-	 * Deletes a contact.
+	 * Deletes a contact, by a keyed DELETE: its addresses and phones are
+	 * deleted by the database (ON DELETE CASCADE), without being loaded.
+	 * Whether it had a CPF is counted first, for the CPF filter.
 	 * 
 	 * @param contactId	the contact ID.
 	 * 
+	 * @throws	Invalid.
 	 * @throws	ResourceNotFound.
 	 */
 	@Override
 	public void deleteContact(Long contactId) {
-		var contact = loadContactById(contactId);
+		var cpfs = contactDao.countCpfsIn(List.of(requireId(contactId, "contact")));
 		
-		if (contact != null) {
-			contactDao.deleteById(contactId);
+		if (contactDao.deleteKeyed(contactId) > 0) {
+			contactCache.evictContactTree(contactId);
+			contactCounter.add(-1);
+			nameIndex.remove(List.of(contactId));
+			cpfFilter.discard(cpfs);
+			phoneIndex.removeOwners(List.of(contactId));
 		} else {
 			throw new ResourceNotFound(Contact.class, contactId);
 		}
 	}
 
+	/**
+	 * Deletes some contacts, by a single DELETE, along with their addresses
+	 * and phones (ON DELETE CASCADE). IDs of contacts that do not exist are
+	 * ignored. The CPFs of the contacts are counted first, for the CPF filter.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 * @return	the number of contacts deleted.
+	 * @throws	Mandatory.
+	 * @throws	Invalid.
+	 */
+	@Override
+	public int deleteContacts(Collection<Long> contactIds) {
+		var ids = requireIds(contactIds, "contact");
+		var cpfs = contactDao.countCpfsIn(ids);
+		var deleted = contactDao.deleteKeyedIn(ids);
+		
+		contactCache.evictContactTrees(ids);
+		contactCounter.add(-deleted);
+		nameIndex.remove(ids);
+		cpfFilter.discard(cpfs);
+		phoneIndex.removeOwners(ids);
+		return deleted;
+	}
+	
+	/**
+	 * Checks that the CPF of a contact belongs to no other contact, through
+	 * the CPF filter, so a CPF never seen is not probed in the database.
+	 * 
+	 * @param contact	the contact.
+	 * @throws	AlreadyExists.
+	 */
+	private void checkCpfIsFree(Contact contact) {
+		if (cpfFilter.isTaken(contact.getCpf(), contact.getId())) {
+			throw new AlreadyExists(Contact.class, "CPF");
+		}
+	}
+	
+	/**
+	 * Writes a contact and flushes it at once, so a CPF taken meanwhile by a
+	 * concurrent write is caught by the unique index here, as a conflict.
+	 * 
+	 * @param <T>	the result type.
+	 * @param write	the write.
+	 * @return	the result of the write.
+	 * @throws	AlreadyExists.
+	 */
+	private <T> T writeContact(Supplier<T> write) {
+		try {
+			var written = write.get();
+			
+			entityManager.flush();
+			return written;
+		} catch (DataIntegrityViolationException | PersistenceException e) {
+			for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+				if ((cause.getMessage() != null) && cause.getMessage().toUpperCase().contains(CPF_UNIQUE_INDEX)) {
+					throw new AlreadyExists(Contact.class, "CPF");
+				}
+			}
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Checks a batch of IDs supplied for existing records.
+	 * 
+	 * @param ids	the IDs.
+	 * @param record	the record name.
+	 * @return	the distinct IDs, in their order.
+	 * @throws	Mandatory.
+	 * @throws	Invalid.
+	 */
+	private Set<Long> requireIds(Collection<Long> ids, String record) {
+		if ((ids == null) || (ids.isEmpty())) {
+			throw new Mandatory(record + " IDs");
+		}
+		
+		final var distinct = new LinkedHashSet<Long>(ids.size() * 2);
+		
+		for (var id : ids) {
+			distinct.add(requireId(id, record));
+		}
+		
+		if (distinct.size() > maxBatchIds) {
+			throw new Invalid("number of " + record + " IDs");
+		}
+		
+		return distinct;
+	}
+	
 	/**
 	 * Deletes an address.
 	 * 
@@ -485,13 +1305,16 @@ public class ContactServiceImpl implements ContactService {
 		
 		if (address != null) {
 			addressDao.deleteById(addressId);
+			contactCache.evictAddress(addressId, address.getContact().getId());
+			touchContact(address.getContact().getId());
 		} else {
 			throw new ResourceNotFound(Address.class, addressId);
 		}
 	}
-
+	
 	/**
-	 * Deletes an address if it belongs to a contact.
+	 * Deletes an address if it belongs to a contact: one query checks the
+	 * contact, the address and its owner, and a keyed DELETE removes it.
 	 *
 	 * @param contactId the contact ID.
 	 * @param addressId	the address ID.
@@ -500,25 +1323,13 @@ public class ContactServiceImpl implements ContactService {
 	 */
 	@Override
 	public void deleteAddress(Long contactId, Long addressId) {
-		var contact = loadContactById(contactId);
-		
-		if (contact != null) {
-			var address = loadAddressById(addressId);
-			
-			if (address != null) {
-				if (address.getContact().getId().equals(contactId)) {
-					addressDao.deleteById(addressId);
-				} else {
-					throw new SuppliedDoesNotBelongTo("address", "contact ID");
-				}
-			} else {
-				throw new ResourceNotFound(Address.class, addressId);
-			}
-		} else {
-			throw new ResourceNotFound(Contact.class, contactId);
-		}
+		checkOwnership(addressDao.findOwnership(requireId(contactId, "contact"), requireId(addressId, "address")),
+				Address.class, contactId, addressId, "address");
+		addressDao.deleteOwned(contactId, addressId);
+		contactCache.evictAddress(addressId, contactId);
+		touchContact(contactId);
 	}
-
+	
 	/**
 	 * Deletes a phone.
 	 * 
@@ -532,13 +1343,17 @@ public class ContactServiceImpl implements ContactService {
 		
 		if (phone != null) {
 			phoneDao.deleteById(phoneId);
+			contactCache.evictPhone(phoneId, phone.getContact().getId());
+			touchContact(phone.getContact().getId());
+			phoneIndex.remove(phoneId);
 		} else {
 			throw new ResourceNotFound(Phone.class, phoneId);
 		}
 	}
-
+	
 	/**
-	 * Deletes a phone if it belongs to a contact.
+	 * Deletes a phone if it belongs to a contact: one query checks the
+	 * contact, the phone and its owner, and a keyed DELETE removes it.
 	 *
 	 * @param contactId the contact ID.
 	 * @param phoneId	the phone ID.
@@ -547,22 +1362,11 @@ public class ContactServiceImpl implements ContactService {
 	 */
 	@Override
 	public void deletePhone(Long contactId, Long phoneId) {
-		var contact = loadContactById(contactId);
-		
-		if (contact != null) {
-			var phone = loadPhoneById(phoneId);
-			
-			if (phone != null) {
-				if (phone.getContact().getId().equals(phoneId)) {
-					phoneDao.deleteById(phoneId);
-				} else {
-					throw new SuppliedDoesNotBelongTo("phone", "contact ID");
-				}
-			} else {
-				throw new ResourceNotFound(Phone.class, phoneId);
-			}
-		} else {
-			throw new ResourceNotFound(Contact.class, contactId);
-		}
+		checkOwnership(phoneDao.findOwnership(requireId(contactId, "contact"), requireId(phoneId, "phone")),
+				Phone.class, contactId, phoneId, "phone");
+		phoneDao.deleteOwned(contactId, phoneId);
+		contactCache.evictPhone(phoneId, contactId);
+		touchContact(contactId);
+		phoneIndex.remove(phoneId);
 	}
 }
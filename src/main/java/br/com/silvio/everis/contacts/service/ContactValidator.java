@@ -0,0 +1,405 @@
+package br.com.silvio.everis.contacts.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+import br.com.silvio.everis.contacts.exceptions.InvalidFields;
+import br.com.silvio.everis.contacts.exceptions.InvalidInput;
+import br.com.silvio.everis.contacts.exceptions.Mandatory;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * Contact validator class.
+ * Holds the validation rules of contacts, addresses and phones,
+ * shared by the service and the bulk import. It is stateless,
+ * so it may be used by several threads at once.
+ * 
+ * The rules (REGEX) are compiled once, at startup. The fixed shape ones,
+ * while configured with their default REGEX, are checked by hand written
+ * code instead. CPF check digits are always verified.
+ * 
+ * All fields of a record are checked, or only the given ones (the fields
+ * touched by a patch), and their errors are reported together: a single
+ * error is thrown as is, and several ones as {@link InvalidFields}.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class ContactValidator {
+	
+	private static final String DEFAULT_CPF = "[0-9]{11}";
+	
+	private static final String DEFAULT_ZIP_CODE = "\\d{5}-\\d{3}";
+	
+	private static final String DEFAULT_PHONE_FIX = "[2-5]\\d{7}";
+	
+	private static final String DEFAULT_PHONE_MOBILE = "9\\d{8}";
+	
+	private static final String DEFAULT_PHONE_DDI = "\\d{1,3}";
+	
+	private static final String DEFAULT_PHONE_DDD = "\\d{1,2}";
+	
+	private static final int CPF_LENGTH = 11;
+	
+	@Value("${contacts.regex.contact.name}")
+	private String regexContactName;
+	
+	@Value("${contacts.regex.contact.cpf}")
+	private String regexContactCpf;
+	
+	@Value("${contacts.regex.address.zipcode}")
+	private String regexAddressZipCode;
+	
+	@Value("${contacts.regex.phone.fix}")
+	private String regexPhoneFix;
+	
+	@Value("${contacts.regex.phone.mobile}")
+	private String regexPhoneMobile;
+	
+	@Value("${contacts.regex.phone.ddi}")
+	private String regexPhoneDdi;
+	
+	@Value("${contacts.regex.phone.ddd}")
+	private String regexPhoneDdd;
+	
+	private Predicate<String> contactName;
+	
+	private Predicate<String> contactCpf;
+	
+	private Predicate<String> addressZipCode;
+	
+	private Predicate<String> phoneFix;
+	
+	private Predicate<String> phoneMobile;
+	
+	private Predicate<String> phoneDdi;
+	
+	private Predicate<String> phoneDdd;
+	
+	/**
+	 * Compiles the rules.
+	 */
+	@PostConstruct
+	public void init() {
+		contactName = compile(regexContactName);
+		contactCpf = DEFAULT_CPF.equals(regexContactCpf)
+				? value -> isDigits(value, CPF_LENGTH, CPF_LENGTH) : compile(regexContactCpf);
+		addressZipCode = DEFAULT_ZIP_CODE.equals(regexAddressZipCode)
+				? ContactValidator::isZipCode : compile(regexAddressZipCode);
+		phoneFix = DEFAULT_PHONE_FIX.equals(regexPhoneFix)
+				? value -> isNumber(value, '2', '5', 8) : compile(regexPhoneFix);
+		phoneMobile = DEFAULT_PHONE_MOBILE.equals(regexPhoneMobile)
+				? value -> isNumber(value, '9', '9', 9) : compile(regexPhoneMobile);
+		phoneDdi = DEFAULT_PHONE_DDI.equals(regexPhoneDdi)
+				? value -> isDigits(value, 1, 3) : compile(regexPhoneDdi);
+		phoneDdd = DEFAULT_PHONE_DDD.equals(regexPhoneDdd)
+				? value -> isDigits(value, 1, 2) : compile(regexPhoneDdd);
+	}
+	
+	/**
+	 * Compiles a rule (REGEX), which must match the whole value.
+	 * 
+	 * @param regex	the REGEX.
+	 * @return	the rule.
+	 */
+	private static Predicate<String> compile(String regex) {
+		final var pattern = Pattern.compile(regex);
+		
+		return value -> pattern.matcher(value).matches();
+	}
+	
+	/**
+	 * Validates contact record against rules (REGEX).
+	 * 
+	 * @param contact	the contact to be validated.
+	 * @throws	Invalid.
+	 * @throws	Mandatory.
+	 * @throws	InvalidFields.
+	 */
+	public void validateContact(Contact contact) {
+		validateContact(contact, null);
+	}
+	
+	/**
+	 * Validates some fields of a contact record against rules (REGEX).
+	 * 
+	 * @param contact	the contact to be validated.
+	 * @param fields	the names of the fields to be validated, or null for all.
+	 * @throws	Invalid.
+	 * @throws	Mandatory.
+	 * @throws	InvalidFields.
+	 */
+	public void validateContact(Contact contact, Set<String> fields) {
+		var name = contact.getName();
+		var cpf = contact.getCpf();
+		List<InvalidInput> errors = null;
+		
+		if (checks(fields, "name")) {
+			if ((name == null) || (name.isBlank())) {
+				errors = add(errors, new Mandatory("contact name"));
+			} else if (!contactName.test(name)) {
+				errors = add(errors, new Invalid("contact name"));
+			}
+		}
+		
+		if (checks(fields, "cpf") && (cpf != null) && ((!contactCpf.test(cpf)) || (!hasCpfCheckDigits(cpf)))) {
+			errors = add(errors, new Invalid("contact CPF"));
+		}
+		
+		raise(errors);
+	}
+	
+	/**
+	 * Validates address record against rules (REGEX).
+	 * 
+	 * @param address	the address to be validated.	
+	 * @throws	Invalid.
+	 * @throws	Mandatory.
+	 * @throws	InvalidFields.
+	 */
+	public void validateAddress(Address address) {
+		validateAddress(address, null);
+	}
+	
+	/**
+	 * Validates some fields of an address record against rules (REGEX).
+	 * 
+	 * @param address	the address to be validated.
+	 * @param fields	the names of the fields to be validated, or null for all.
+	 * @throws	Invalid.
+	 * @throws	Mandatory.
+	 * @throws	InvalidFields.
+	 */
+	public void validateAddress(Address address, Set<String> fields) {
+		var street = address.getStreet();
+		var city = address.getCity();
+		var zipCode = address.getZipCode();
+		List<InvalidInput> errors = null;
+		
+		if (checks(fields, "street") && ((street == null) || (street.isBlank()))) {
+			errors = add(errors, new Mandatory("address street"));
+		}
+		
+		if (checks(fields, "city") && ((city == null) || (city.isBlank()))) {
+			errors = add(errors, new Mandatory("address city"));
+		}
+		
+		if (checks(fields, "zipCode") && (zipCode != null) && (!addressZipCode.test(zipCode))) {
+			errors = add(errors, new Invalid("address zip code"));
+		}
+		
+		raise(errors);
+	}
+	
+	/**
+	 * Validates phone record against rules (REGEX).
+	 * 
+	 * @param phone	the phone to be validated.	
+	 * @throws	Invalid.
+	 * @throws	Mandatory.
+	 * @throws	InvalidFields.
+	 */
+	public void validatePhone(Phone phone) {
+		validatePhone(phone, null);
+	}
+	
+	/**
+	 * Validates some fields of a phone record against rules (REGEX). The
+	 * number is also validated when the phone type is, as its rule depends
+	 * on the type.
+	 * 
+	 * @param phone	the phone to be validated.	
+	 * @param fields	the names of the fields to be validated, or null for all.
+	 * @throws	Invalid.
+	 * @throws	Mandatory.
+	 * @throws	InvalidFields.
+	 */
+	public void validatePhone(Phone phone, Set<String> fields) {
+		var phoneType = phone.getPhoneType();
+		var ddi = phone.getDdi();
+		var ddd = phone.getDdd();
+		var number = phone.getNumber();
+		var phoneNumber = (phoneType == PhoneType.FIX) ? phoneFix : phoneMobile;
+		List<InvalidInput> errors = null;
+		
+		if (checks(fields, "ddi")) {
+			if (ddi == null) {
+				errors = add(errors, new Mandatory("phone ddi"));
+			} else if (!phoneDdi.test(ddi)) {
+				errors = add(errors, new Invalid("phone ddi"));
+			}
+		}
+		
+		if (checks(fields, "ddd")) {
+			if (ddd == null) {
+				errors = add(errors, new Mandatory("phone ddd"));
+			} else if (!phoneDdd.test(ddd)) {
+				errors = add(errors, new Invalid("phone ddd"));
+			}
+		}
+		
+		if (checks(fields, "number") || checks(fields, "phoneType")) {
+			if (number == null) {
+				errors = add(errors, new Mandatory("phone number"));
+			} else if (!phoneNumber.test(number)) {
+				errors = add(errors, new Invalid("phone number"));
+			}
+		}
+		
+		raise(errors);
+	}
+	
+	/**
+	 * Checks whether a field is to be validated.
+	 * 
+	 * @param fields	the names of the fields to be validated, or null for all.
+	 * @param field	the field name.
+	 * @return	true if it is.
+	 */
+	private static boolean checks(Set<String> fields, String field) {
+		return (fields == null) || fields.contains(field);
+	}
+	
+	/**
+	 * Adds an error to the list, creating it on the first error.
+	 * 
+	 * @param errors	the errors so far, or null.
+	 * @param error	the error.
+	 * @return	the errors.
+	 */
+	private static List<InvalidInput> add(List<InvalidInput> errors, InvalidInput error) {
+		final var list = (errors == null) ? new ArrayList<InvalidInput>(4) : errors;
+		
+		list.add(error);
+		
+		return list;
+	}
+	
+	/**
+	 * Throws the errors found, if any.
+	 * 
+	 * @param errors	the errors, or null.
+	 * @throws	InvalidInput.
+	 */
+	private static void raise(List<InvalidInput> errors) {
+		if (errors != null) {
+			throw (errors.size() == 1) ? errors.get(0) : new InvalidFields(errors);
+		}
+	}
+	
+	/**
+	 * Checks whether a value has only ASCII digits, within a length range.
+	 * 
+	 * @param value	the value.
+	 * @param minLength	the minimum length.
+	 * @param maxLength	the maximum length.
+	 * @return	true if it has.
+	 */
+	private static boolean isDigits(String value, int minLength, int maxLength) {
+		final var length = value.length();
+		
+		return (length >= minLength) && (length <= maxLength) && areDigits(value, 0, length);
+	}
+	
+	/**
+	 * Checks whether a range of a value has only ASCII digits.
+	 * 
+	 * @param value	the value.
+	 * @param from	the first position, inclusive.
+	 * @param to	the last position, exclusive.
+	 * @return	true if it has.
+	 */
+	private static boolean areDigits(String value, int from, int to) {
+		for (var i = from; i < to; i++) {
+			final var c = value.charAt(i);
+			
+			if ((c < '0') || (c > '9')) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks whether a value is a phone number with a given length,
+	 * whose first digit is in a given range.
+	 * 
+	 * @param value	the value.
+	 * @param first	the lowest first digit.
+	 * @param last	the highest first digit.
+	 * @param length	the length.
+	 * @return	true if it is.
+	 */
+	private static boolean isNumber(String value, char first, char last, int length) {
+		return (value.length() == length) && (value.charAt(0) >= first) && (value.charAt(0) <= last)
+				&& areDigits(value, 1, length);
+	}
+	
+	/**
+	 * Checks whether a value is a zip code (99999-999).
+	 * 
+	 * @param value	the value.
+	 * @return	true if it is.
+	 */
+	private static boolean isZipCode(String value) {
+		return (value.length() == 9) && (value.charAt(5) == '-')
+				&& areDigits(value, 0, 5) && areDigits(value, 6, 9);
+	}
+	
+	/**
+	 * Verifies the CPF check digits, over the digits of the value, which
+	 * must be 11, not all the same.
+	 * 
+	 * @param cpf	the CPF.
+	 * @return	true if the check digits are right.
+	 */
+	static boolean hasCpfCheckDigits(String cpf) {
+		final var digits = new int[CPF_LENGTH];
+		var count = 0;
+		
+		for (var i = 0; i < cpf.length(); i++) {
+			final var c = cpf.charAt(i);
+			
+			if ((c >= '0') && (c <= '9')) {
+				if (count == CPF_LENGTH) {
+					return false;
+				}
+				
+				digits[count++] = c - '0';
+			}
+		}
+		
+		if (count != CPF_LENGTH) {
+			return false;
+		}
+		
+		var allSame = true;
+		var sum = 0;
+		var sumNext = 0;
+		
+		for (var i = 0; i < 9; i++) {
+			allSame &= (digits[i] == digits[0]);
+			sum += digits[i] * (10 - i);
+			sumNext += digits[i] * (11 - i);
+		}
+		
+		final var first = (sum * 10) % 11 % 10;
+		final var second = (sumNext + first * 2) * 10 % 11 % 10;
+		
+		return (!allSame) && (digits[9] == first) && (digits[10] == second);
+	}
+}
@@ -0,0 +1,82 @@
+package br.com.silvio.everis.contacts.web;
+
+/**
+ * Serialized response, as cached by {@link ResponseCache}.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class CachedResponse {
+	
+	private final Long contactId;
+	
+	private final long generation;
+	
+	private final String contentType;
+	
+	private final String eTag;
+	
+	private final byte[] body;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param contactId	the ID of the contact the response belongs to.
+	 * @param generation	the contact generation when the response started.
+	 * @param contentType	the response content type.
+	 * @param eTag	the response ETag, or null.
+	 * @param body	the response body.
+	 */
+	public CachedResponse(Long contactId, long generation, String contentType, String eTag, byte[] body) {
+		this.contactId = contactId;
+		this.generation = generation;
+		this.contentType = contentType;
+		this.eTag = eTag;
+		this.body = body;
+	}
+	
+	/**
+	 * Gets the ID of the contact the response belongs to.
+	 * 
+	 * @return	the contact ID.
+	 */
+	public Long getContactId() {
+		return contactId;
+	}
+	
+	/**
+	 * Gets the contact generation when the response started.
+	 * 
+	 * @return	the generation.
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * Gets the response content type.
+	 * 
+	 * @return	the content type.
+	 */
+	public String getContentType() {
+		return contentType;
+	}
+	
+	/**
+	 * Gets the response ETag.
+	 * 
+	 * @return	the ETag, or null.
+	 */
+	public String getETag() {
+		return eTag;
+	}
+	
+	/**
+	 * Gets the response body.
+	 * 
+	 * @return	the body.
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+}
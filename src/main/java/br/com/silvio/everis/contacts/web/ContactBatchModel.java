@@ -0,0 +1,46 @@
+package br.com.silvio.everis.contacts.web;
+
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import br.com.silvio.everis.contacts.model.Contact;
+
+/**
+ * Collection model of contacts fetched by ID, in the order of the IDs,
+ * with the IDs of the contacts that were not found.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public class ContactBatchModel extends CollectionModel<Contact> {
+	
+	private final List<Long> missing;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param contacts	the contacts found.
+	 * @param missing	the IDs of the contacts not found.
+	 * @param links	the links of the collection.
+	 */
+	public ContactBatchModel(List<Contact> contacts, List<Long> missing, Link... links) {
+		super(contacts, links);
+		this.missing = missing;
+	}
+	
+	/**
+	 * Gets the IDs of the contacts not found.
+	 * 
+	 * @return	the IDs.
+	 */
+	@JsonProperty("missing")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	public List<Long> getMissing() {
+		return missing;
+	}
+}
@@ -0,0 +1,44 @@
+package br.com.silvio.everis.contacts.web;
+
+/**
+ * ETag helpers for conditional requests.
+ * 
+ * @author silvio.araujo
+ *
+ */
+public final class ETags {
+	
+	/**
+	 * Class constructor, hidden since this class has only static methods.
+	 */
+	private ETags() {
+	}
+	
+	/**
+	 * Checks whether an If-None-Match header matches the current ETag,
+	 * using the weak comparison required for it.
+	 * 
+	 * @param ifNoneMatch	the If-None-Match header, or null.
+	 * @param eTag	the current ETag.
+	 * @return	true if the client representation is still current.
+	 */
+	public static boolean notModified(String ifNoneMatch, String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		
+		for (var candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			
+			if (candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			
+			if (candidate.equals("*") || candidate.equals(eTag)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
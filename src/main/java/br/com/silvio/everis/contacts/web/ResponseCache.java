@@ -0,0 +1,195 @@
+package br.com.silvio.everis.contacts.web;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of serialized responses of a contact and its children, bounded by
+ * the total of cached bytes, as configured in "contacts.cache.responses.spec"
+ * (Caffeine specification, whose maximumWeight is measured in bytes).
+ * 
+ * The entries are indexed by contact, so the write endpoints evict all the
+ * responses of a contact at once. Each contact also hashes to a generation
+ * counter, bumped by every eviction, and an entry is only served while its
+ * generation is current, so a response rendered before a write is never
+ * served after it.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class ResponseCache {
+	
+	private static final int GENERATION_STRIPES = 1024;
+	
+	private static final int ENTRY_OVERHEAD = 64;
+	
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	@Value("${contacts.cache.responses.spec}")
+	private String spec;
+	
+	private final ConcurrentHashMap<Long, Set<String>> keysByContact = new ConcurrentHashMap<>();
+	
+	private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+	
+	private Cache<String, CachedResponse> responses;
+	
+	/**
+	 * Builds the cache and binds its statistics to the metrics registry.
+	 */
+	@PostConstruct
+	public void init() {
+		final Cache<String, CachedResponse> cache = Caffeine.from(spec)
+				.weigher((String key, CachedResponse response) ->
+						ENTRY_OVERHEAD + 2 * key.length() + response.getBody().length)
+				.removalListener((String key, CachedResponse response, RemovalCause cause) -> {
+					if ((response != null) && cause.wasEvicted()) {
+						unindex(response.getContactId(), key);
+					}
+				})
+				// maintenance on the caller thread: the bounds hold at once, so maximumWeight=0 disables it
+				.executor(Runnable::run)
+				.recordStats()
+				.build();
+		
+		responses = CaffeineCacheMetrics.monitor(meterRegistry, cache, "responses");
+	}
+	
+	/**
+	 * Gets a cached response.
+	 * 
+	 * @param key	the response key.
+	 * @return	the response, or null.
+	 */
+	public CachedResponse get(String key) {
+		final var response = responses.getIfPresent(key);
+		
+		if ((response != null) && (generation(response.getContactId()) != response.getGeneration())) {
+			responses.invalidate(key);
+			return null;
+		}
+		
+		return response;
+	}
+	
+	/**
+	 * Gets the current generation of a contact, to be stored in its responses.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @return	the generation.
+	 */
+	public long generation(Long contactId) {
+		return generations.get(stripeOf(contactId));
+	}
+	
+	/**
+	 * Caches a response of a contact, unless the contact was evicted since
+	 * the response started.
+	 * 
+	 * @param key	the response key.
+	 * @param response	the response.
+	 */
+	public void put(String key, CachedResponse response) {
+		final var contactId = response.getContactId();
+		
+		if (generation(contactId) == response.getGeneration()) {
+			keysByContact.computeIfAbsent(contactId, id -> ConcurrentHashMap.newKeySet()).add(key);
+			responses.put(key, response);
+		}
+	}
+	
+	/**
+	 * Evicts all responses of a contact, now and, inside a transaction,
+	 * again after it completes.
+	 * 
+	 * @param contactId	the contact ID.
+	 */
+	public void evictContact(Long contactId) {
+		evict(contactId);
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					evict(contactId);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Evicts all responses of some contacts, now and, inside a transaction,
+	 * again after it completes.
+	 * 
+	 * @param contactIds	the contact IDs.
+	 */
+	public void evictContacts(Collection<Long> contactIds) {
+		contactIds.forEach(this::evict);
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					contactIds.forEach(ResponseCache.this::evict);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Evicts all responses of a contact.
+	 * 
+	 * @param contactId	the contact ID.
+	 */
+	private void evict(Long contactId) {
+		generations.incrementAndGet(stripeOf(contactId));
+		
+		final var keys = keysByContact.remove(contactId);
+		
+		if (keys != null) {
+			responses.invalidateAll(keys);
+		}
+	}
+	
+	/**
+	 * Removes a key from the index, after its entry was evicted by size or time.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @param key	the response key.
+	 */
+	private void unindex(Long contactId, String key) {
+		keysByContact.computeIfPresent(contactId, (id, keys) -> {
+			keys.remove(key);
+			return keys.isEmpty() ? null : keys;
+		});
+	}
+	
+	/**
+	 * Gets the generation stripe of a contact.
+	 * 
+	 * @param contactId	the contact ID.
+	 * @return	the stripe.
+	 */
+	private static int stripeOf(Long contactId) {
+		return (int) ((contactId ^ (contactId >>> 32)) & (GENERATION_STRIPES - 1));
+	}
+}
@@ -0,0 +1,151 @@
+package br.com.silvio.everis.contacts.web;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Serves the GET responses of a contact, of its addresses and of its phones
+ * from the {@link ResponseCache}, and caches the successful ones.
+ * 
+ * The key holds everything the response depends on: the full request URL,
+ * including host and query, the forwarded headers, used by the links, and
+ * the Accept header, which selects the media type.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+	
+	private static final Pattern CACHEABLE_PATH = Pattern.compile("/contacts/(\\d+)(/addresses|/phones|/address/\\d+|/phone/\\d+)?");
+	
+	private static final String[] KEY_HEADERS = {HttpHeaders.ACCEPT, "Forwarded", "X-Forwarded-Host", "X-Forwarded-Proto", "X-Forwarded-Port", "X-Forwarded-Prefix"};
+	
+	@Autowired
+	ResponseCache responseCache;
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		final var contactId = cacheableContactId(request);
+		
+		if (contactId == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		final var key = keyOf(request);
+		final var cached = responseCache.get(key);
+		
+		if (cached != null) {
+			// the URI tag of the request metrics, since no handler is reached
+			request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, patternOf(request));
+			write(cached, request, response);
+			return;
+		}
+		
+		final var generation = responseCache.generation(contactId);
+		final var wrapper = new ContentCachingResponseWrapper(response);
+		
+		filterChain.doFilter(request, wrapper);
+		
+		if ((wrapper.getStatus() == HttpServletResponse.SC_OK) && (!request.isAsyncStarted())) {
+			responseCache.put(key, new CachedResponse(contactId, generation,
+					wrapper.getContentType(), wrapper.getHeader(HttpHeaders.ETAG), wrapper.getContentAsByteArray()));
+		}
+		
+		wrapper.copyBodyToResponse();
+	}
+	
+	/**
+	 * Gets the contact ID of a cacheable request.
+	 * 
+	 * @param request	the request.
+	 * @return	the contact ID, or null if the request is not cacheable.
+	 */
+	private static Long cacheableContactId(HttpServletRequest request) {
+		if (!HttpMethod.GET.matches(request.getMethod())) {
+			return null;
+		}
+		
+		final var matcher = CACHEABLE_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+		
+		return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+	}
+	
+	/**
+	 * Gets the controller mapping pattern of a cacheable request, like
+	 * "/contacts/{contactId}/addresses".
+	 * 
+	 * @param request	the request.
+	 * @return	the pattern.
+	 */
+	private static String patternOf(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length())
+				.replaceFirst("^/contacts/\\d+", "/contacts/{contactId}")
+				.replaceFirst("/address/\\d+$", "/address/{addressId}")
+				.replaceFirst("/phone/\\d+$", "/phone/{phoneId}");
+	}
+	
+	/**
+	 * Builds the cache key of a request.
+	 * 
+	 * @param request	the request.
+	 * @return	the key.
+	 */
+	private static String keyOf(HttpServletRequest request) {
+		final var key = new StringBuilder(128).append(request.getRequestURL());
+		
+		if (request.getQueryString() != null) {
+			key.append('?').append(request.getQueryString());
+		}
+		
+		for (var header : KEY_HEADERS) {
+			key.append('|');
+			
+			if (request.getHeader(header) != null) {
+				key.append(request.getHeader(header));
+			}
+		}
+		
+		return key.toString();
+	}
+	
+	/**
+	 * Writes a cached response, or a 304 if it matches the request If-None-Match.
+	 * 
+	 * @param cached	the cached response.
+	 * @param request	the request.
+	 * @param response	the response.
+	 * @throws IOException
+	 */
+	private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		final var eTag = cached.getETag();
+		
+		if (eTag != null) {
+			response.setHeader(HttpHeaders.ETAG, eTag);
+			
+			if (ETags.notModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				return;
+			}
+		}
+		
+		response.setContentType(cached.getContentType());
+		response.setContentLength(cached.getBody().length);
+		response.getOutputStream().write(cached.getBody());
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * Web package
+ */
+/**
+ * @author silvio.araujo
+ *
+ */
+package br.com.silvio.everis.contacts.web;
@@ -0,0 +1,8 @@
+-- Version columns of the conditional GET and optimistic locking, and the
+-- index of the contacts listed by name. Databases last run by the former
+-- ddl-auto=update may have them already.
+alter table CONTACT add column if not exists version bigint default 0 not null;
+alter table ADDRESS add column if not exists version bigint default 0 not null;
+alter table PHONE add column if not exists version bigint default 0 not null;
+
+create index if not exists IDX_CONTACT_NAME_ID on CONTACT (name, id);
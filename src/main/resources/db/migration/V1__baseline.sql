@@ -0,0 +1,41 @@
+-- Schema formerly created by Hibernate (ddl-auto=update), exactly as the
+-- databases baselined at this version hold it.
+create sequence SEQCONTACTS start with 1 increment by 1;
+create sequence SEQADDRESSES start with 1 increment by 1;
+create sequence SEQPHONES start with 1 increment by 1;
+
+create table CONTACT (
+	id bigint not null,
+	birthdate timestamp,
+	cpf varchar(255),
+	name varchar(255),
+	primary key (id)
+);
+
+create table ADDRESS (
+	id bigint not null,
+	address_type integer,
+	city varchar(255),
+	complement varchar(255),
+	neighborhood varchar(255),
+	number varchar(255),
+	street varchar(255),
+	street_type integer,
+	zip_code varchar(255),
+	owner bigint not null,
+	primary key (id)
+);
+
+create table PHONE (
+	id bigint not null,
+	ddd varchar(255),
+	ddi varchar(255),
+	extension varchar(255),
+	number varchar(255),
+	phone_type integer,
+	owner bigint not null,
+	primary key (id)
+);
+
+alter table PHONE add constraint FKj57ej5qcgxq60fogm8rjlhv1c foreign key (owner) references CONTACT (id);
+alter table ADDRESS add constraint FKmndv09vjw3qmma29rdi1dij5b foreign key (owner) references CONTACT (id);
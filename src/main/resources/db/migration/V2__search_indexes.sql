@@ -0,0 +1,6 @@
+-- Indexes of the contacts search: the address ones end with the owner, so the
+-- owners of a city, neighborhood or zip code are read from the index alone.
+create index if not exists IDX_CONTACT_CPF on CONTACT (cpf);
+create index if not exists IDX_ADDRESS_CITY_OWNER on ADDRESS (city, owner);
+create index if not exists IDX_ADDRESS_NEIGHBORHOOD_OWNER on ADDRESS (neighborhood, owner);
+create index if not exists IDX_ADDRESS_ZIP_CODE_OWNER on ADDRESS (zip_code, owner);
@@ -0,0 +1,23 @@
+-- CPFs are unique: the oldest contact keeps a repeated CPF, the newer ones
+-- lose it, and the plain search index gives way to a unique one. Each
+-- cleared CPF is first copied to CONTACT_CPF_AUDIT, along with the contact
+-- that kept it, so it can be reviewed and restored.
+create table if not exists CONTACT_CPF_AUDIT (
+	contact_id bigint not null,
+	cpf varchar(255) not null,
+	kept_by bigint not null,
+	cleared_at timestamp default current_timestamp not null,
+	primary key (contact_id)
+);
+
+insert into CONTACT_CPF_AUDIT (contact_id, cpf, kept_by)
+select c.id, c.cpf, (select min(o.id) from CONTACT o where o.cpf = c.cpf)
+  from CONTACT c
+ where c.cpf is not null
+   and exists (select 1 from CONTACT o where o.cpf = c.cpf and o.id < c.id);
+
+update CONTACT c set cpf = null
+ where id in (select contact_id from CONTACT_CPF_AUDIT);
+
+drop index if exists IDX_CONTACT_CPF;
+create unique index if not exists UK_CONTACT_CPF on CONTACT (cpf);
@@ -0,0 +1,18 @@
+-- Phones packed in E.164 (PHONE.e164, as Phone.packE164): the DDI and DDD
+-- digits without leading zeros, then the number digits, up to 15 digits.
+-- The index ends with the owner, so the owners of a number are read from
+-- the index alone.
+alter table PHONE add column if not exists e164 bigint;
+
+update PHONE set e164 = cast(concat(
+		regexp_replace(regexp_replace(ddi, '[^0-9]', ''), '^0+', ''),
+		regexp_replace(regexp_replace(coalesce(ddd, ''), '[^0-9]', ''), '^0+', ''),
+		regexp_replace(number, '[^0-9]', '')) as bigint)
+ where regexp_replace(regexp_replace(ddi, '[^0-9]', ''), '^0+', '') <> ''
+   and regexp_replace(number, '[^0-9]', '') <> ''
+   and length(concat(
+		regexp_replace(regexp_replace(ddi, '[^0-9]', ''), '^0+', ''),
+		regexp_replace(regexp_replace(coalesce(ddd, ''), '[^0-9]', ''), '^0+', ''),
+		regexp_replace(number, '[^0-9]', ''))) <= 15;
+
+create index if not exists IDX_PHONE_E164_OWNER on PHONE (e164, owner);
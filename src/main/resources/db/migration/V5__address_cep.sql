@@ -0,0 +1,11 @@
+-- Zip codes packed as integers (ADDRESS.cep, as Address.packCep): their 8
+-- digits, read as a single number, so range and prefix searches are index
+-- range scans. The index ends with the owner, so the owners of a range are
+-- read from the index alone.
+alter table ADDRESS add column if not exists cep integer;
+
+update ADDRESS set cep = cast(regexp_replace(zip_code, '[^0-9]', '') as integer)
+ where regexp_like(zip_code, '^[0-9 .-]*$')
+   and length(regexp_replace(zip_code, '[^0-9]', '')) = 8;
+
+create index if not exists IDX_ADDRESS_CEP_OWNER on ADDRESS (cep, owner);
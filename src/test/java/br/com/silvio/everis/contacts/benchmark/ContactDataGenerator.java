@@ -0,0 +1,319 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.silvio.everis.contacts.bulk.ContactRecord;
+import br.com.silvio.everis.contacts.bulk.ImportReport;
+import br.com.silvio.everis.contacts.enums.AddressType;
+import br.com.silvio.everis.contacts.enums.ImportFormat;
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.enums.StreetType;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+import br.com.silvio.everis.contacts.service.ContactImportService;
+
+/**
+ * Synthetic data generator of brazilian contacts, with their addresses and
+ * phones, which pass the validation rules: names in upper case, CPFs with
+ * right check digits (unique up to a billion contacts), zip codes and DDDs
+ * of real cities, and fix and mobile phones.
+ *
+ * Each record depends only on the seed and on its index, so the same
+ * database may be filled again, or completed, at any time.
+ *
+ * @author silvio.araujo
+ *
+ */
+public class ContactDataGenerator {
+
+	private static final long CPF_BASES = 1_000_000_000L;
+	
+	// coprime with CPF_BASES, so the index maps to a unique CPF base
+	private static final long CPF_STEP = 387_420_489L;
+	
+	private static final String[] FIRST_NAMES = {
+			"ANA", "MARIA", "JOS\u00C9", "JO\u00C3O", "ANTONIO", "FRANCISCO", "CARLOS", "PAULO",
+			"PEDRO", "LUCAS", "LUIZ", "MARCOS", "GABRIEL", "RAFAEL", "FRANCISCA", "ANTONIA",
+			"ADRIANA", "JULIANA", "MARCIA", "FERNANDA", "PATRICIA", "ALINE", "SANDRA", "CAMILA",
+			"AMANDA", "BRUNO", "EDUARDO", "FELIPE", "RODRIGO", "MATHEUS", "BEATRIZ", "VIT\u00D3RIA"};
+	
+	private static final String[] SURNAMES = {
+			"SILVA", "SANTOS", "OLIVEIRA", "SOUZA", "RODRIGUES", "FERREIRA", "ALVES", "PEREIRA",
+			"LIMA", "GOMES", "COSTA", "RIBEIRO", "MARTINS", "CARVALHO", "ALMEIDA", "LOPES",
+			"SOARES", "FERNANDES", "VIEIRA", "BARBOSA", "ROCHA", "DIAS", "NASCIMENTO", "ANDRADE",
+			"MOREIRA", "NUNES", "MARQUES", "MACHADO", "MENDES", "FREITAS", "CARDOSO", "ARA\u00DAJO"};
+	
+	private static final String[] STREETS = {
+			"DAS FLORES", "SETE DE SETEMBRO", "QUINZE DE NOVEMBRO", "DOS ANDRADAS", "BRASIL",
+			"PAULISTA", "SANTOS DUMONT", "TIRADENTES", "DOM PEDRO II", "GETULIO VARGAS",
+			"DAS PALMEIRAS", "DOS PINHEIROS", "SAO JOAO", "CAMPOS SALES", "BARAO DE MAUA"};
+	
+	private static final String[] NEIGHBORHOODS = {
+			"CENTRO", "JARDIM AMERICA", "VILA NOVA", "BELA VISTA", "SANTA CECILIA",
+			"BOA VISTA", "LIBERDADE", "SAO JOSE", "PARQUE INDUSTRIAL", "JARDIM PAULISTA"};
+	
+	private static final String[] CITIES = {
+			"SAO PAULO", "RIO DE JANEIRO", "BRASILIA", "SALVADOR", "FORTALEZA",
+			"BELO HORIZONTE", "MANAUS", "CURITIBA", "RECIFE", "PORTO ALEGRE"};
+	
+	private static final String[] CITY_DDDS = {"11", "21", "61", "71", "85", "31", "92", "41", "81", "51"};
+	
+	// first and last zip code prefix (5 digits) of each city
+	private static final int[][] CITY_ZIP_CODES = {
+			{1000, 5999}, {20000, 23799}, {70000, 72799}, {40000, 42599}, {60000, 61599},
+			{30000, 31999}, {69000, 69099}, {80000, 82999}, {50000, 52999}, {90000, 91999}};
+	
+	// city weights, roughly by population
+	private static final int[] CITY_WEIGHTS = cumulative(12, 7, 3, 3, 3, 3, 2, 2, 2, 2);
+	
+	private static final StreetType[] STREET_TYPES = {
+			StreetType.R, StreetType.AV, StreetType.TV, StreetType.AL, StreetType.PC, StreetType.EST, StreetType.ROD};
+	
+	// the remaining 4% are spread among all street types
+	private static final int[] STREET_TYPE_WEIGHTS = cumulative(70, 14, 4, 3, 2, 2, 1);
+	
+	private static final AddressType[] ADDRESS_TYPES = {
+			AddressType.RESIDENTIAL, AddressType.COMMERCIAL, AddressType.BOTH, AddressType.OFFICIAL};
+	
+	private static final int[] ADDRESS_TYPE_WEIGHTS = cumulative(60, 25, 10, 5);
+	
+	private final long seed;
+	
+	private final int maxAddresses;
+	
+	private final int maxPhones;
+	
+	/**
+	 * Class constructor.
+	 *
+	 * @param seed	the seed.
+	 * @param maxAddresses	the maximum number of addresses per contact (uniformly from zero).
+	 * @param maxPhones	the maximum number of phones per contact (uniformly from zero).
+	 */
+	public ContactDataGenerator(long seed, int maxAddresses, int maxPhones) {
+		this.seed = seed;
+		this.maxAddresses = maxAddresses;
+		this.maxPhones = maxPhones;
+	}
+	
+	/**
+	 * Generates the record of a given index.
+	 *
+	 * @param index	the index.
+	 * @return	the record.
+	 */
+	public ContactRecord record(long index) {
+		final var random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+		final var contact = new Contact();
+		final var addresses = new ArrayList<Address>(maxAddresses);
+		final var phones = new ArrayList<Phone>(maxPhones);
+		final var city = pick(CITY_WEIGHTS, random);
+		
+		contact.setName(String.join(" ", FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+				SURNAMES[random.nextInt(SURNAMES.length)], SURNAMES[random.nextInt(SURNAMES.length)]));
+		contact.setCpf(cpf(index));
+		
+		for (var i = random.nextInt(maxAddresses + 1); i > 0; i--) {
+			addresses.add(address((i == 1) ? city : pick(CITY_WEIGHTS, random), random));
+		}
+		
+		for (var i = random.nextInt(maxPhones + 1); i > 0; i--) {
+			phones.add(phone(city, random));
+		}
+		
+		return new ContactRecord(contact, addresses, phones);
+	}
+	
+	/**
+	 * Generates an address in a given city.
+	 *
+	 * @param city	the city index.
+	 * @param random	the random generator.
+	 * @return	the address.
+	 */
+	public Address address(int city, SplittableRandom random) {
+		final var address = new Address();
+		final var zipCodes = CITY_ZIP_CODES[city];
+		final var streetType = (random.nextInt(100) < 96)
+				? STREET_TYPES[pick(STREET_TYPE_WEIGHTS, random)]
+				: StreetType.values()[random.nextInt(StreetType.values().length)];
+		
+		address.setAddressType(ADDRESS_TYPES[pick(ADDRESS_TYPE_WEIGHTS, random)]);
+		address.setStreetType(streetType);
+		address.setStreet(STREETS[random.nextInt(STREETS.length)]);
+		address.setNumber(Integer.toString(1 + random.nextInt(3000)));
+		address.setComplement((random.nextInt(3) == 0) ? "APTO " + (11 + random.nextInt(190)) : null);
+		address.setNeighborhood(NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)]);
+		address.setCity(CITIES[city]);
+		address.setZipCode(String.format("%05d-%03d",
+				zipCodes[0] + random.nextInt(zipCodes[1] - zipCodes[0] + 1), random.nextInt(1000)));
+		
+		return address;
+	}
+	
+	/**
+	 * Generates a phone in a given city, mobile for 70% of them.
+	 *
+	 * @param city	the city index.
+	 * @param random	the random generator.
+	 * @return	the phone.
+	 */
+	public Phone phone(int city, SplittableRandom random) {
+		final var phone = new Phone();
+		
+		phone.setDdi("55");
+		phone.setDdd(CITY_DDDS[city]);
+		
+		if (random.nextInt(10) < 7) {
+			phone.setPhoneType(PhoneType.MOBILE);
+			phone.setNumber(String.format("9%08d", random.nextInt(100_000_000)));
+		} else {
+			phone.setPhoneType(PhoneType.FIX);
+			phone.setNumber(String.format("%d%07d", 2 + random.nextInt(4), random.nextInt(10_000_000)));
+		}
+		
+		return phone;
+	}
+	
+	/**
+	 * Generates the CPF of a given index, with its check digits.
+	 *
+	 * @param index	the index.
+	 * @return	the CPF.
+	 */
+	public String cpf(long index) {
+		final var cpf = new StringBuilder(11).append(String.format("%09d",
+				Math.floorMod(index * CPF_STEP + seed, CPF_BASES)));
+		var sum = 0;
+		var sumNext = 0;
+		
+		for (var i = 0; i < 9; i++) {
+			final var digit = cpf.charAt(i) - '0';
+			
+			sum += digit * (10 - i);
+			sumNext += digit * (11 - i);
+		}
+		
+		final var first = (sum * 10) % 11 % 10;
+		
+		cpf.append(first).append((sumNext + first * 2) * 10 % 11 % 10);
+		
+		return cpf.toString();
+	}
+	
+	/**
+	 * Imports the records of a range of indexes, through the bulk import.
+	 *
+	 * @param importService	the import service.
+	 * @param mapper	the object mapper of the application.
+	 * @param from	the first index.
+	 * @param count	the number of records.
+	 * @return	the import report.
+	 */
+	public ImportReport fill(ContactImportService importService, ObjectMapper mapper, long from, long count) {
+		return importService.importContacts(ImportFormat.NDJSON, ndjson(mapper, from, count));
+	}
+	
+	/**
+	 * Streams the records of a range of indexes as NDJSON, generating
+	 * them as they are read.
+	 *
+	 * @param mapper	the object mapper of the application.
+	 * @param from	the first index.
+	 * @param count	the number of records.
+	 * @return	the stream.
+	 */
+	public InputStream ndjson(ObjectMapper mapper, long from, long count) {
+		return new InputStream() {
+			
+			private long next = from;
+			
+			private byte[] buffer = new byte[0];
+			
+			private int position;
+			
+			@Override
+			public int read() throws IOException {
+				return fill() ? (buffer[position++] & 0xFF) : -1;
+			}
+			
+			@Override
+			public int read(byte[] bytes, int offset, int length) throws IOException {
+				if (length == 0) {
+					return 0;
+				} else if (!fill()) {
+					return -1;
+				}
+				
+				final var read = Math.min(length, buffer.length - position);
+				
+				System.arraycopy(buffer, position, bytes, offset, read);
+				position += read;
+				
+				return read;
+			}
+			
+			/**
+			 * Generates the next record, when the current one was all read.
+			 *
+			 * @return	false at the end of the range.
+			 * @throws IOException
+			 */
+			private boolean fill() throws IOException {
+				if (position == buffer.length) {
+					if (next == from + count) {
+						return false;
+					}
+					
+					buffer = (mapper.writeValueAsString(record(next++)) + "\n").getBytes(StandardCharsets.UTF_8);
+					position = 0;
+				}
+				
+				return true;
+			}
+		};
+	}
+	
+	/**
+	 * Picks an index by cumulative weights.
+	 *
+	 * @param cumulativeWeights	the cumulative weights.
+	 * @param random	the random generator.
+	 * @return	the index.
+	 */
+	private static int pick(int[] cumulativeWeights, SplittableRandom random) {
+		final var roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		var i = 0;
+		
+		while (roll >= cumulativeWeights[i]) {
+			i++;
+		}
+		
+		return i;
+	}
+	
+	/**
+	 * Accumulates weights.
+	 *
+	 * @param weights	the weights.
+	 * @return	the cumulative weights.
+	 */
+	private static int[] cumulative(int... weights) {
+		final var cumulative = new int[weights.length];
+		var sum = 0;
+		
+		for (var i = 0; i < weights.length; i++) {
+			sum += weights[i];
+			cumulative[i] = sum;
+		}
+		
+		return cumulative;
+	}
+}
@@ -0,0 +1,105 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.silvio.everis.contacts.EverisChallengeApplication;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+
+/**
+ * Insert throughput (rows per second) of each ID strategy, persisting
+ * contacts with one address each, in JDBC batched transactions.
+ * 
+ * @author silvio.araujo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class IdGenerationBenchmark {
+	
+	private static final int ROWS = 1000;
+	
+	private static final int BATCH_SIZE = 50;
+	
+	@Param({"sequence", "pooled-lo", "snowflake"})
+	private String strategy;
+	
+	private ConfigurableApplicationContext context;
+	
+	private EntityManagerFactory entityManagerFactory;
+	
+	private TransactionTemplate transactionTemplate;
+	
+	@Setup
+	public void setUp() {
+		final var application = new SpringApplication(EverisChallengeApplication.class);
+		
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run("--spring.datasource.url=jdbc:h2:mem:id_benchmark_" + strategy.replace('-', '_'),
+				"--spring.devtools.restart.enabled=false",
+				"--logging.level.root=WARN",
+				"--contacts.id.strategy=" + strategy);
+		entityManagerFactory = context.getBean(EntityManagerFactory.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	/**
+	 * Persists {@value #ROWS} contacts and {@value #ROWS} addresses in one transaction.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(2 * ROWS)
+	public void insert() {
+		transactionTemplate.executeWithoutResult(status -> {
+			final EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+			
+			for (var i = 1; i <= ROWS; i++) {
+				final var contact = new Contact();
+				final var address = new Address();
+				
+				contact.setName("CONTATO DE BENCHMARK");
+				address.setContact(contact);
+				address.setStreet("PAULISTA");
+				address.setCity("SAO PAULO");
+				em.persist(contact);
+				em.persist(address);
+				
+				if (i % BATCH_SIZE == 0) {
+					em.flush();
+					em.clear();
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,75 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import br.com.silvio.everis.contacts.controller.ContactsController;
+
+/**
+ * Link building cost, inside a request, of the two ways the controller
+ * builds links: through a proxied method call (methodOn) and by path
+ * segments (slash).
+ *
+ * @author silvio.araujo
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class LinkBuildingBenchmark {
+
+	private final Long contactId = 1L;
+	
+	private final Long addressId = 2L;
+	
+	@Setup
+	public void setUp() {
+		final var request = new MockHttpServletRequest("GET", "/contacts/1/addresses");
+		
+		request.setServerPort(8080);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+	
+	@TearDown
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+	
+	@Benchmark
+	public Link methodOnLink() {
+		return linkTo(methodOn(ContactsController.class)
+				.getAddressById(contactId, addressId)).withSelfRel();
+	}
+	
+	@Benchmark
+	public Link slashLink() {
+		return linkTo(ContactsController.class)
+				.slash(contactId).slash("address").slash(addressId).withSelfRel();
+	}
+	
+	@Benchmark
+	public Link controllerLink() {
+		return linkTo(ContactsController.class).withSelfRel();
+	}
+}
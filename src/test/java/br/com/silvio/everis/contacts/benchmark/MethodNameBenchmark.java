@@ -0,0 +1,50 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the reflective idiom used by every controller method to get
+ * its own name, against a constant and a stack walk.
+ *
+ * @author silvio.araujo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class MethodNameBenchmark {
+
+	@Benchmark
+	public String enclosingMethod() {
+		final var methodName = new Object() {}
+	      .getClass()
+	      .getEnclosingMethod()
+	      .getName();
+		
+		return methodName;
+	}
+	
+	@Benchmark
+	public String stackWalker() {
+		return StackWalker.getInstance()
+				.walk(frames -> frames.findFirst().get().getMethodName());
+	}
+	
+	@Benchmark
+	public String constant() {
+		return "constant";
+	}
+}
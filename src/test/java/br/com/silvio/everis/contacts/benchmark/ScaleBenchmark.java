@@ -0,0 +1,527 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import br.com.silvio.everis.contacts.EverisChallengeApplication;
+import br.com.silvio.everis.contacts.enums.ContactSort;
+import br.com.silvio.everis.contacts.paging.ContactCursor;
+import br.com.silvio.everis.contacts.service.ContactImportService;
+
+/**
+ * Latency (p50, p99...) of every endpoint of the contacts controller, over
+ * HTTP, at several database sizes, to show which ones degrade superlinearly
+ * (see {@link ScaleReport}).
+ *
+ * Each size has its own H2 file database, under target/scale, filled by the
+ * {@link ContactDataGenerator} on the first run and reused (or completed) by
+ * the next ones. Records created by the benchmarks are removed after each
+ * iteration, so the sizes do not drift. The entity and response caches are
+ * disabled, and the contacts are picked at random, so the database is hit.
+ *
+ * @author silvio.araujo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=2, time=5)
+@Measurement(iterations=3, time=10)
+@Fork(1)
+public class ScaleBenchmark {
+
+	private static final long SEED = 2020L;
+	
+	private static final int SAMPLES = 1024;
+	
+	private static final long FILL_CHUNK = 100_000L;
+	
+	private static final int IMPORT_RECORDS = 100;
+	
+	private static final String HAL_JSON = "application/hal+json";
+	
+	@Param({"10000", "100000", "1000000", "10000000"})
+	private long contacts;
+	
+	@Param({"3"})
+	private int maxAddresses;
+	
+	@Param({"3"})
+	private int maxPhones;
+	
+	private ConfigurableApplicationContext context;
+	
+	private JdbcTemplate jdbcTemplate;
+	
+	private ObjectMapper mapper;
+	
+	private ContactDataGenerator generator;
+	
+	private HttpClient client;
+	
+	private String base;
+	
+	private long[] contactIds;
+	
+	private String[] contactNames;
+	
+	private String[] contactCpfs;
+	
+	private long[][] addressIds;
+	
+	private long[][] phoneIds;
+	
+	private long contactWatermark;
+	
+	private long addressWatermark;
+	
+	private long phoneWatermark;
+	
+	// indexes of the records created by the benchmarks, beyond the generated ones
+	private final AtomicLong nextIndex = new AtomicLong();
+	
+	@Setup
+	public void setUp() {
+		final var database = Paths.get("target", "scale",
+				String.format("contacts_%d_%d_%d", contacts, maxAddresses, maxPhones)).toAbsolutePath();
+		
+		context = new SpringApplication(EverisChallengeApplication.class).run(
+				"--spring.datasource.url=jdbc:h2:file:" + database,
+				"--spring.devtools.restart.enabled=false",
+				"--server.port=0",
+				"--logging.level.root=WARN",
+				"--contacts.cache.spec=maximumSize=0",
+				"--contacts.cache.responses.spec=maximumWeight=0",
+				"--contacts.paging.count.ttl=-1");
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		mapper = context.getBean(ObjectMapper.class);
+		generator = new ContactDataGenerator(SEED, maxAddresses, maxPhones);
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/contacts";
+		
+		fill();
+		sample();
+		nextIndex.set(contacts);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	/**
+	 * Completes the database up to the wanted number of contacts.
+	 */
+	private void fill() {
+		final var importService = context.getBean(ContactImportService.class);
+		var existing = jdbcTemplate.queryForObject("select count(*) from contact", Long.class);
+		
+		while (existing < contacts) {
+			final var count = Math.min(FILL_CHUNK, contacts - existing);
+			final var report = generator.fill(importService, mapper, existing, count);
+			
+			if (report.getImported() != count) {
+				// generated records must all be valid, or the indexes would not match the rows
+				throw new IllegalStateException("Generated records rejected: " + report.getErrors().stream()
+						.limit(5).map(error -> error.getRecord() + " " + error.getMessage()).collect(Collectors.toList()));
+			}
+			
+			existing += count;
+			System.out.printf("# Filled %d of %d contacts (%d rows/s)%n",
+					existing, contacts, report.getRowsPerSecond());
+		}
+	}
+	
+	/**
+	 * Samples contacts, addresses and phones spread all over the database.
+	 */
+	private void sample() {
+		final var random = new SplittableRandom(SEED);
+		final var bounds = jdbcTemplate.queryForList("select min(id) low, max(id) high from contact").get(0);
+		final var low = ((Number) bounds.get("low")).longValue();
+		final var high = ((Number) bounds.get("high")).longValue();
+		
+		contactIds = new long[SAMPLES];
+		contactNames = new String[SAMPLES];
+		contactCpfs = new String[SAMPLES];
+		addressIds = new long[SAMPLES][];
+		phoneIds = new long[SAMPLES][];
+		
+		for (var i = 0; i < SAMPLES; i++) {
+			final var from = low + random.nextLong(high - low + 1);
+			final var contact = jdbcTemplate.queryForMap(
+					"select id, name, cpf from contact where id >= ? order by id limit 1", from);
+			
+			contactIds[i] = ((Number) contact.get("id")).longValue();
+			contactNames[i] = (String) contact.get("name");
+			contactCpfs[i] = (String) contact.get("cpf");
+			addressIds[i] = sampleChild("address", contactIds[i]);
+			phoneIds[i] = sampleChild("phone", contactIds[i]);
+		}
+	}
+	
+	/**
+	 * Samples a child (address or phone) from a given contact on, or the
+	 * first one, past the last contact with children.
+	 *
+	 * @param table	the child table.
+	 * @param contactId	the contact ID.
+	 * @return	the owner ID and the child ID.
+	 */
+	private long[] sampleChild(String table, long contactId) {
+		final var sql = "select owner, id from " + table + " where owner >= ? order by owner, id limit 1";
+		var children = jdbcTemplate.queryForList(sql, contactId);
+		
+		if (children.isEmpty()) {
+			children = jdbcTemplate.queryForList(sql, 0L);
+		}
+		
+		final var child = children.get(0);
+		
+		return new long[] {((Number) child.get("owner")).longValue(), ((Number) child.get("id")).longValue()};
+	}
+	
+	/**
+	 * Keeps the highest IDs before each iteration.
+	 */
+	@Setup(Level.Iteration)
+	public void keepWatermarks() {
+		contactWatermark = jdbcTemplate.queryForObject("select max(id) from contact", Long.class);
+		addressWatermark = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from address", Long.class);
+		phoneWatermark = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from phone", Long.class);
+	}
+	
+	/**
+	 * Removes the records created during the iteration.
+	 */
+	@TearDown(Level.Iteration)
+	public void removeCreated() {
+		jdbcTemplate.update("delete from phone where id > ? or owner > ?", phoneWatermark, contactWatermark);
+		jdbcTemplate.update("delete from address where id > ? or owner > ?", addressWatermark, contactWatermark);
+		jdbcTemplate.update("delete from contact where id > ?", contactWatermark);
+	}
+	
+	/**
+	 * A contact, with an address and a phone, to be deleted by one invocation.
+	 * Created before each invocation, which is acceptable for operations
+	 * taking milliseconds.
+	 */
+	@State(Scope.Thread)
+	public static class Victim {
+		
+		private long contactId;
+		
+		private long addressId;
+		
+		private long phoneId;
+		
+		@Setup(Level.Invocation)
+		public void create(ScaleBenchmark benchmark) throws IOException, InterruptedException {
+			final var index = benchmark.nextIndex.getAndIncrement();
+			final var random = new SplittableRandom(index);
+			
+			contactId = benchmark.id(benchmark.send("POST", "", benchmark.contactJson(index, null)));
+			addressId = benchmark.id(benchmark.send("POST", "/" + contactId + "/address",
+					benchmark.json(benchmark.generator.address(0, random), null)));
+			phoneId = benchmark.id(benchmark.send("POST", "/" + contactId + "/phone",
+					benchmark.json(benchmark.generator.phone(0, random), null)));
+		}
+	}
+	
+	@Benchmark
+	public int getContactsFirstPage() throws IOException, InterruptedException {
+		return get("");
+	}
+	
+	@Benchmark
+	public int getContactsPageById() throws IOException, InterruptedException {
+		final var i = pick();
+		
+		return get("?cursor=" + new ContactCursor(ContactSort.ID, contactIds[i], null).encode());
+	}
+	
+	@Benchmark
+	public int getContactsPageByName() throws IOException, InterruptedException {
+		final var i = pick();
+		
+		return get("?sort=name&cursor=" + new ContactCursor(ContactSort.NAME, contactIds[i], contactNames[i]).encode());
+	}
+	
+	@Benchmark
+	public int getContactsWithCount() throws IOException, InterruptedException {
+		return get("?count=true");
+	}
+	
+	@Benchmark
+	public int getContactsExpanded() throws IOException, InterruptedException {
+		return get("?expand=addresses,phones");
+	}
+	
+	/**
+	 * The whole database, as NDJSON: linear by nature.
+	 */
+	@Benchmark
+	public int exportContacts() throws IOException, InterruptedException {
+		return get("/export?format=ndjson");
+	}
+	
+	@Benchmark
+	public int getContactById() throws IOException, InterruptedException {
+		return get("/" + contactIds[pick()]);
+	}
+	
+	@Benchmark
+	public int getContactByIdExpanded() throws IOException, InterruptedException {
+		return get("/" + contactIds[pick()] + "?expand=addresses,phones");
+	}
+	
+	/**
+	 * Type-ahead of a sampled name, as typed so far (its first word and
+	 * the start of the next one), lower case and without accents.
+	 */
+	@Benchmark
+	public int suggestContacts() throws IOException, InterruptedException {
+		final var name = contactNames[pick()];
+		final var typed = name.substring(0, Math.min(name.length(), name.indexOf(' ') + 3));
+		final var folded = Normalizer.normalize(typed, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase();
+		
+		return get("/suggest?q=" + URLEncoder.encode(folded, StandardCharsets.UTF_8));
+	}
+	
+	@Benchmark
+	public int getAddressesForContact() throws IOException, InterruptedException {
+		return get("/" + addressIds[pick()][0] + "/addresses");
+	}
+	
+	@Benchmark
+	public int getPhonesForContact() throws IOException, InterruptedException {
+		return get("/" + phoneIds[pick()][0] + "/phones");
+	}
+	
+	@Benchmark
+	public int getAddressById() throws IOException, InterruptedException {
+		final var address = addressIds[pick()];
+		
+		return get("/" + address[0] + "/address/" + address[1]);
+	}
+	
+	@Benchmark
+	public int getPhoneById() throws IOException, InterruptedException {
+		final var phone = phoneIds[pick()];
+		
+		return get("/" + phone[0] + "/phone/" + phone[1]);
+	}
+	
+	@Benchmark
+	public int addContact() throws IOException, InterruptedException {
+		return send("POST", "", contactJson(nextIndex.getAndIncrement(), null)).statusCode();
+	}
+	
+	@Benchmark
+	public int addAddress() throws IOException, InterruptedException {
+		final var random = ThreadLocalRandom.current();
+		
+		return send("POST", "/" + contactIds[pick()] + "/address",
+				json(generator.address(0, new SplittableRandom(random.nextLong())), null)).statusCode();
+	}
+	
+	@Benchmark
+	public int addPhone() throws IOException, InterruptedException {
+		final var random = ThreadLocalRandom.current();
+		
+		return send("POST", "/" + contactIds[pick()] + "/phone",
+				json(generator.phone(0, new SplittableRandom(random.nextLong())), null)).statusCode();
+	}
+	
+	@Benchmark
+	public int importContacts() throws IOException, InterruptedException {
+		final var from = nextIndex.getAndAdd(IMPORT_RECORDS);
+		final var request = HttpRequest.newBuilder(URI.create(base + "/import"))
+				.header("Content-Type", "application/x-ndjson")
+				.header("Accept", HAL_JSON)
+				.POST(BodyPublishers.ofInputStream(() -> generator.ndjson(mapper, from, IMPORT_RECORDS)))
+				.build();
+		
+		return check(client.send(request, BodyHandlers.discarding())).statusCode();
+	}
+	
+	/**
+	 * Rewrites a contact with its own data.
+	 */
+	@Benchmark
+	public int updateContact() throws IOException, InterruptedException {
+		final var i = pick();
+		final var contact = mapper.createObjectNode()
+				.put("id", contactIds[i])
+				.put("name", contactNames[i])
+				.put("cpf", contactCpfs[i]);
+		
+		return send("PUT", "", contact.toString()).statusCode();
+	}
+	
+	@Benchmark
+	public int updateAddress() throws IOException, InterruptedException {
+		final var address = addressIds[pick()];
+		final var random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+		
+		return send("PUT", "/" + address[0] + "/address",
+				json(generator.address(0, random), address[1])).statusCode();
+	}
+	
+	@Benchmark
+	public int updatePhone() throws IOException, InterruptedException {
+		final var phone = phoneIds[pick()];
+		final var random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+		
+		return send("PUT", "/" + phone[0] + "/phone",
+				json(generator.phone(0, random), phone[1])).statusCode();
+	}
+	
+	@Benchmark
+	public int deleteContact(Victim victim) throws IOException, InterruptedException {
+		return send("DELETE", "/" + victim.contactId, null).statusCode();
+	}
+	
+	@Benchmark
+	public int deleteAddress(Victim victim) throws IOException, InterruptedException {
+		return send("DELETE", "/" + victim.contactId + "/address/" + victim.addressId, null).statusCode();
+	}
+	
+	@Benchmark
+	public int deletePhone(Victim victim) throws IOException, InterruptedException {
+		return send("DELETE", "/" + victim.contactId + "/phone/" + victim.phoneId, null).statusCode();
+	}
+	
+	/**
+	 * Picks one of the samples at random.
+	 *
+	 * @return	the sample index.
+	 */
+	private static int pick() {
+		return ThreadLocalRandom.current().nextInt(SAMPLES);
+	}
+	
+	/**
+	 * Sends a GET, reading the whole body.
+	 *
+	 * @param path	the path, after /contacts.
+	 * @return	the status code.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private int get(String path) throws IOException, InterruptedException {
+		final var request = HttpRequest.newBuilder(URI.create(base + path))
+				.header("Accept", HAL_JSON)
+				.GET()
+				.build();
+		
+		return check(client.send(request, BodyHandlers.discarding())).statusCode();
+	}
+	
+	/**
+	 * Sends a request with a JSON body, if any.
+	 *
+	 * @param method	the method.
+	 * @param path	the path, after /contacts.
+	 * @param json	the body, or null.
+	 * @return	the response.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private HttpResponse<String> send(String method, String path, String json) throws IOException, InterruptedException {
+		final var request = HttpRequest.newBuilder(URI.create(base + path))
+				.header("Content-Type", "application/json")
+				.header("Accept", HAL_JSON)
+				.method(method, (json != null) ? BodyPublishers.ofString(json) : BodyPublishers.noBody())
+				.build();
+		
+		return check(client.send(request, BodyHandlers.ofString()));
+	}
+	
+	/**
+	 * Fails on error statuses, so errors are not measured as answers.
+	 *
+	 * @param response	the response.
+	 * @return	the response.
+	 */
+	private static <T> HttpResponse<T> check(HttpResponse<T> response) {
+		if (response.statusCode() >= 400) {
+			throw new IllegalStateException(response.request().method() + " " + response.uri()
+					+ ": " + response.statusCode() + " " + response.body());
+		}
+		
+		return response;
+	}
+	
+	/**
+	 * Gets the ID of a created record.
+	 *
+	 * @param response	the response.
+	 * @return	the ID.
+	 * @throws IOException
+	 */
+	private long id(HttpResponse<String> response) throws IOException {
+		return mapper.readTree(response.body()).get("id").asLong();
+	}
+	
+	/**
+	 * Generates the JSON of a contact, without its children.
+	 *
+	 * @param index	the generator index.
+	 * @param id	the ID, or null for new ones.
+	 * @return	the JSON.
+	 */
+	private String contactJson(long index, Long id) {
+		return json(generator.record(index).getContact(), id);
+	}
+	
+	/**
+	 * Writes an entity as request JSON, without links.
+	 *
+	 * @param entity	the entity.
+	 * @param id	the ID, or null for new ones.
+	 * @return	the JSON.
+	 */
+	private String json(Object entity, Long id) {
+		final ObjectNode node = mapper.valueToTree(entity);
+		
+		node.remove("links");
+		node.put("id", id);
+		
+		return node.toString();
+	}
+}
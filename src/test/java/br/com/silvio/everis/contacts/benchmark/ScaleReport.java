@@ -0,0 +1,84 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the JMH results (JSON) of the {@link ScaleBenchmark}, and prints the
+ * p50 and p99 of each endpoint by number of contacts, with the growth
+ * exponent between consecutive sizes: latency grows as contacts ^ exponent,
+ * so 0 is constant, 1 is linear, and above 1 is superlinear.
+ *
+ * Usage: ScaleReport [target/jmh-result.json]
+ *
+ * @author silvio.araujo
+ *
+ */
+public class ScaleReport {
+
+	private static final String SIZE_PARAM = "contacts";
+	
+	private static final double SUPERLINEAR = 1.1;
+	
+	/**
+	 * Prints the report.
+	 *
+	 * @param args	the results file, if not the default one.
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		final var file = new File((args.length > 0) ? args[0] : "target/jmh-result.json");
+		final var endpoints = new TreeMap<String, TreeMap<Long, JsonNode>>();
+		
+		for (var result : new ObjectMapper().readTree(file)) {
+			final var size = result.path("params").path(SIZE_PARAM);
+			
+			if (!size.isMissingNode()) {
+				final var benchmark = result.get("benchmark").asText();
+				
+				endpoints.computeIfAbsent(benchmark.substring(benchmark.lastIndexOf('.') + 1), key -> new TreeMap<>())
+						.put(size.asLong(), result.get("primaryMetric"));
+			}
+		}
+		
+		System.out.printf("%-24s %10s %14s %14s %9s%n", "Endpoint", "Contacts", "p50", "p99", "Exponent");
+		endpoints.forEach(ScaleReport::print);
+	}
+	
+	/**
+	 * Prints the lines of an endpoint.
+	 *
+	 * @param endpoint	the endpoint (benchmark method).
+	 * @param metrics	the primary metric of each size.
+	 */
+	private static void print(String endpoint, Map<Long, JsonNode> metrics) {
+		var previousSize = 0L;
+		var previousP50 = 0.0;
+		
+		for (var entry : metrics.entrySet()) {
+			final var size = entry.getKey();
+			final var metric = entry.getValue();
+			final var unit = metric.path("scoreUnit").asText();
+			final var p50 = metric.path("scorePercentiles").path("50.0").asDouble();
+			final var p99 = metric.path("scorePercentiles").path("99.0").asDouble();
+			var exponent = "";
+			
+			if ((previousSize > 0) && (previousP50 > 0) && (p50 > 0)) {
+				final var growth = Math.log(p50 / previousP50) / Math.log((double) size / previousSize);
+				
+				exponent = String.format("%.2f%s", growth, (growth > SUPERLINEAR) ? " SUPERLINEAR" : "");
+			}
+			
+			System.out.printf("%-24s %10d %9.1f %-4s %9.1f %-4s %9s%n",
+					endpoint, size, p50, unit.replace("/op", ""), p99, unit.replace("/op", ""), exponent);
+			
+			previousSize = size;
+			previousP50 = p50;
+		}
+	}
+}
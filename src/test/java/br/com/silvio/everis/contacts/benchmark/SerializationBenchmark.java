@@ -0,0 +1,171 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+/**
+ * HAL+JSON serialization cost of contacts, addresses and phones, with
+ * their links, as the controller returns them.
+ *
+ * @author silvio.araujo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	private static final String BASE = "http://localhost:8080/contacts/1";
+	
+	private static final int PAGE_SIZE = 20;
+	
+	private ObjectMapper mapper;
+	
+	private Address address;
+	
+	private Phone phone;
+	
+	private Contact contact;
+	
+	private Contact expandedContact;
+	
+	private CollectionModel<Contact> page;
+	
+	@Setup
+	public void setUp() {
+		mapper = new ObjectMapper();
+		mapper.registerModule(new Jackson2HalModule());
+		mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+				new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+		
+		address = newAddress();
+		phone = newPhone();
+		contact = newContact();
+		
+		expandedContact = newContact();
+		expandedContact.embed("addresses", List.of(newAddress(), newAddress()));
+		expandedContact.embed("phones", List.of(newPhone(), newPhone()));
+		
+		final var contacts = new Contact[PAGE_SIZE];
+		
+		for (var i = 0; i < PAGE_SIZE; i++) {
+			contacts[i] = newContact();
+		}
+		
+		page = new CollectionModel<>(List.of(contacts),
+				new Link("http://localhost:8080/contacts"),
+				new Link("http://localhost:8080/contacts?cursor=MjA", "next"));
+	}
+	
+	@Benchmark
+	public byte[] address() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(address);
+	}
+	
+	@Benchmark
+	public byte[] phone() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(phone);
+	}
+	
+	@Benchmark
+	public byte[] contact() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(contact);
+	}
+	
+	/**
+	 * A contact with two addresses and two phones embedded (expand=addresses,phones).
+	 */
+	@Benchmark
+	public byte[] expandedContact() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(expandedContact);
+	}
+	
+	/**
+	 * A page of {@value #PAGE_SIZE} contacts.
+	 */
+	@Benchmark
+	public byte[] page() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(page);
+	}
+	
+	/**
+	 * Creates a contact with its links.
+	 *
+	 * @return	the contact.
+	 */
+	private static Contact newContact() {
+		final var contact = new Contact();
+		
+		contact.setId(1L);
+		contact.setName("JOSE DA SILVA SAURO");
+		contact.setCpf("12345678909");
+		contact.add(new Link(BASE));
+		contact.add(new Link(BASE + "/addresses", "addresses"));
+		contact.add(new Link(BASE + "/phones", "phones"));
+		
+		return contact;
+	}
+	
+	/**
+	 * Creates an address with its link.
+	 *
+	 * @return	the address.
+	 */
+	private static Address newAddress() {
+		final var address = new Address();
+		
+		address.setId(1L);
+		address.setStreet("RUA DAS FLORES, 100");
+		address.setCity("SAO PAULO");
+		address.setZipCode("01234-567");
+		address.add(new Link(BASE + "/address/1"));
+		
+		return address;
+	}
+	
+	/**
+	 * Creates a phone with its link.
+	 *
+	 * @return	the phone.
+	 */
+	private static Phone newPhone() {
+		final var phone = new Phone();
+		
+		phone.setId(1L);
+		phone.setPhoneType(PhoneType.MOBILE);
+		phone.setDdi("55");
+		phone.setDdd("11");
+		phone.setNumber("987654321");
+		phone.add(new Link(BASE + "/phone/1"));
+		
+		return phone;
+	}
+}
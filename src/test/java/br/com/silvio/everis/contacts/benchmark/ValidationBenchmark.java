@@ -0,0 +1,180 @@
+package br.com.silvio.everis.contacts.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+import br.com.silvio.everis.contacts.exceptions.Mandatory;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+import br.com.silvio.everis.contacts.service.ContactValidator;
+
+/**
+ * Validation cost of a contact, an address and a phone: the legacy
+ * {@link String#matches(String)} validation against the precompiled
+ * {@link ContactValidator}, both with the rules of application.properties.
+ *
+ * @author silvio.araujo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class ValidationBenchmark {
+
+	private static final String REGEX_NAME = "[A-Z\u00C1\u00C9\u00CD\u00D3\u00DA\u00C3\u00D5\u00C2\\s]{10,}";
+	
+	private static final String REGEX_CPF = "[0-9]{11}";
+	
+	private static final String REGEX_ZIP_CODE = "\\d{5}-\\d{3}";
+	
+	private static final String REGEX_PHONE_FIX = "[2-5]\\d{7}";
+	
+	private static final String REGEX_PHONE_MOBILE = "9\\d{8}";
+	
+	private static final String REGEX_PHONE_DDI = "\\d{1,3}";
+	
+	private static final String REGEX_PHONE_DDD = "\\d{1,2}";
+	
+	private ContactValidator validator;
+	
+	private Contact contact;
+	
+	private Address address;
+	
+	private Phone phone;
+	
+	@Setup
+	public void setUp() {
+		validator = new ContactValidator();
+		ReflectionTestUtils.setField(validator, "regexContactName", REGEX_NAME);
+		ReflectionTestUtils.setField(validator, "regexContactCpf", REGEX_CPF);
+		ReflectionTestUtils.setField(validator, "regexAddressZipCode", REGEX_ZIP_CODE);
+		ReflectionTestUtils.setField(validator, "regexPhoneFix", REGEX_PHONE_FIX);
+		ReflectionTestUtils.setField(validator, "regexPhoneMobile", REGEX_PHONE_MOBILE);
+		ReflectionTestUtils.setField(validator, "regexPhoneDdi", REGEX_PHONE_DDI);
+		ReflectionTestUtils.setField(validator, "regexPhoneDdd", REGEX_PHONE_DDD);
+		validator.init();
+		
+		contact = new Contact();
+		contact.setName("JOSE DA SILVA SAURO");
+		contact.setCpf("12345678909");
+		
+		address = new Address();
+		address.setStreet("RUA DAS FLORES, 100");
+		address.setCity("SAO PAULO");
+		address.setZipCode("01234-567");
+		
+		phone = new Phone();
+		phone.setPhoneType(PhoneType.MOBILE);
+		phone.setDdi("55");
+		phone.setDdd("11");
+		phone.setNumber("987654321");
+	}
+	
+	/**
+	 * Validates the records with {@link String#matches(String)}, as before.
+	 */
+	@Benchmark
+	public void legacy() {
+		legacyContact(contact);
+		legacyAddress(address);
+		legacyPhone(phone);
+	}
+	
+	/**
+	 * Validates the records with the precompiled rules.
+	 */
+	@Benchmark
+	public void precompiled() {
+		validator.validateContact(contact);
+		validator.validateAddress(address);
+		validator.validatePhone(phone);
+	}
+	
+	/**
+	 * Legacy contact validation.
+	 *
+	 * @param contact	the contact.
+	 */
+	private static void legacyContact(Contact contact) {
+		var name = contact.getName();
+		var cpf = contact.getCpf();
+		
+		if ((name != null) && (!name.isBlank())) {
+			if (!name.matches(REGEX_NAME)) {
+				throw new Invalid("contact name");
+			}
+		} else {
+			throw new Mandatory("contact name");
+		}
+		
+		if ((cpf != null) && (!cpf.matches(REGEX_CPF))) {
+			throw new Invalid("contact CPF");
+		}
+	}
+	
+	/**
+	 * Legacy address validation.
+	 *
+	 * @param address	the address.
+	 */
+	private static void legacyAddress(Address address) {
+		var street = address.getStreet();
+		var city = address.getCity();
+		var zipCode = address.getZipCode();
+		
+		if ((street == null) || (street.isBlank())) {
+			throw new Mandatory("address street");
+		}
+		
+		if ((city == null) || (city.isBlank())) {
+			throw new Mandatory("address city");
+		}
+		
+		if ((zipCode != null) && (!zipCode.matches(REGEX_ZIP_CODE))) {
+			throw new Invalid("address zip code");
+		}
+	}
+	
+	/**
+	 * Legacy phone validation.
+	 *
+	 * @param phone	the phone.
+	 */
+	private static void legacyPhone(Phone phone) {
+		var regexPhone = (phone.getPhoneType() == PhoneType.FIX) ? REGEX_PHONE_FIX : REGEX_PHONE_MOBILE;
+		
+		if ((phone.getDdi() == null) || (phone.getDdd() == null) || (phone.getNumber() == null)) {
+			throw new Mandatory("phone");
+		}
+		
+		if (!phone.getDdi().matches(REGEX_PHONE_DDI)) {
+			throw new Invalid("phone ddi");
+		}
+		
+		if (!phone.getDdd().matches(REGEX_PHONE_DDD)) {
+			throw new Invalid("phone ddd");
+		}
+		
+		if (!phone.getNumber().matches(regexPhone)) {
+			throw new Invalid("phone number");
+		}
+	}
+}
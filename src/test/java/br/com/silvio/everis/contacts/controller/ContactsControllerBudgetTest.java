@@ -0,0 +1,358 @@
+package br.com.silvio.everis.contacts.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.function.Executable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+import br.com.silvio.everis.contacts.service.ContactService;
+
+/**
+ * Budgets of SQL statements and allocated bytes per request, for each
+ * endpoint of the controller. Every endpoint runs against a small contact
+ * (one address, one phone, pages of one contact) and a large one (many
+ * children, full pages): the statements must not grow with the data, nor
+ * exceed the budget; the bytes allocated by the request thread (the least
+ * of a few warm runs, on the small contact) must not exceed theirs.
+ *
+ * The caches are off, so the statements are the ones of a cache miss.
+ * Import and export are left out: they work in chunks, on purpose.
+ *
+ * @author silvio.araujo
+ *
+ */
+@SpringBootTest(properties={"spring.datasource.url=jdbc:h2:mem:contacts_budget_test",
+							"spring.jpa.properties.hibernate.generate_statistics=true",
+							"contacts.cache.spec=maximumSize=0",
+							"contacts.cache.responses.spec=maximumWeight=0",
+							"contacts.paging.count.ttl=-1"})
+@AutoConfigureMockMvc
+@TestInstance(Lifecycle.PER_CLASS)
+public class ContactsControllerBudgetTest {
+	private static final Logger logger = LoggerFactory.getLogger(ContactsControllerBudgetTest.class);
+	private static final int LARGE = 40;
+	private static final int WARMUP = 20;
+	private static final int RUNS = 5;
+	private static final long KB = 1024;
+	// every fixture phone has the shared number, and a contact apart has the other one
+	private static final String SHARED_E164 = "+5511987654321";
+	private static final String SMALL_E164 = "+5511912345678";
+	
+	private static final com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
+	@Autowired
+	private MockMvc mvc;
+	
+	@Autowired
+	private ContactService service;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	
+	private Fixture small;
+	
+	private Fixture large;
+	
+	private int updates;
+	
+	private final List<Long> contactIds = new ArrayList<>();
+	
+	/**
+	 * A contact, one of its addresses and phones, and the size of its data.
+	 */
+	private static class Fixture {
+		final long contactId;
+		final long addressId;
+		final long phoneId;
+		final int size;
+		
+		Fixture(long contactId, long addressId, long phoneId, int size) {
+			this.contactId = contactId;
+			this.addressId = addressId;
+			this.phoneId = phoneId;
+			this.size = size;
+		}
+	}
+	
+	@BeforeAll
+	public void fillContacts() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		small = fixture(1);
+		large = fixture(LARGE);
+		
+		for (var i = 0; i < LARGE; i++) {
+			fixture(1);
+		}
+		
+		newPhone(newContact(), "912345678");
+	}
+	
+	private Fixture fixture(int size) {
+		final var contact = newContact();
+		Address address = null;
+		Phone phone = null;
+		
+		for (var i = 0; i < size; i++) {
+			address = newAddress(contact);
+			phone = newPhone(contact);
+		}
+		
+		return new Fixture(contact.getId(), address.getId(), phone.getId(), size);
+	}
+	
+	private Contact newContact() {
+		final var contact = new Contact();
+		
+		contact.setName("CONTATO DE TESTE");
+		contact.setCpf(cpf(100000000L + contactIds.size()));
+		
+		final var added = service.addContact(contact);
+		
+		contactIds.add(added.getId());
+		
+		return added;
+	}
+	
+	private Address newAddress(Contact contact) {
+		final var address = new Address();
+		
+		address.setContact(contact);
+		address.setStreet("PAULISTA");
+		address.setCity("SAO PAULO");
+		address.setZipCode("01310-100");
+		
+		return service.addAddress(address);
+	}
+	
+	private Phone newPhone(Contact contact) {
+		return newPhone(contact, "987654321");
+	}
+	
+	private Phone newPhone(Contact contact, String number) {
+		final var phone = new Phone();
+		
+		phone.setContact(contact);
+		phone.setPhoneType(PhoneType.MOBILE);
+		phone.setDdi("55");
+		phone.setDdd("11");
+		phone.setNumber(number);
+		
+		return service.addPhone(phone);
+	}
+	
+	/**
+	 * A valid CPF: a 9 digit base followed by its check digits.
+	 */
+	private static String cpf(long base) {
+		final var cpf = new StringBuilder(String.format("%09d", base));
+		
+		for (var length = 9; length <= 10; length++) {
+			var sum = 0;
+			
+			for (var i = 0; i < length; i++) {
+				sum += (cpf.charAt(i) - '0') * (length + 1 - i);
+			}
+			
+			cpf.append((sum % 11 < 2) ? 0 : 11 - sum % 11);
+		}
+		
+		return cpf.toString();
+	}
+	
+	/**
+	 * IDs of as many contacts as the size of a fixture, starting by the
+	 * small one, comma separated.
+	 */
+	private String ids(Fixture fixture) {
+		return contactIds.stream().limit(fixture.size).map(String::valueOf).collect(Collectors.joining(","));
+	}
+	
+	/**
+	 * Alternates between two values, so every update really changes the row.
+	 */
+	private String alternate(String first, String second) {
+		return (updates++ % 2 == 0) ? first : second;
+	}
+	
+	private static MockHttpServletRequestBuilder mergePatch(MockHttpServletRequestBuilder request, String content) {
+		return request.contentType("application/merge-patch+json").content(content);
+	}
+	
+	private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String content) {
+		return request.contentType(MediaType.APPLICATION_JSON).content(content);
+	}
+	
+	/**
+	 * Runs a request, counting its statements and the bytes allocated by
+	 * this thread, which is the one MockMvc serves it on.
+	 *
+	 * @param request	the request.
+	 * @return	the statements and the allocated bytes.
+	 * @throws Exception
+	 */
+	private long[] measure(MockHttpServletRequestBuilder request) throws Exception {
+		final var threadId = Thread.currentThread().getId();
+		
+		statistics.clear();
+		
+		final var before = threads.getThreadAllocatedBytes(threadId);
+		
+		mvc.perform(request).andExpect(status().is2xxSuccessful());
+		
+		final var allocated = threads.getThreadAllocatedBytes(threadId) - before;
+		
+		return new long[] {statistics.getPrepareStatementCount(), allocated};
+	}
+	
+	/**
+	 * Checks the budgets of an endpoint.
+	 *
+	 * @param endpoint	the endpoint name.
+	 * @param maxStatements	the SQL statements budget.
+	 * @param maxBytes	the allocated bytes budget.
+	 * @param request	builds a request for a fixture; any setup (like a
+	 * 					contact to be deleted) is done here, out of the measure.
+	 * @return	the assertions.
+	 * @throws Exception
+	 */
+	private Executable budget(String endpoint, long maxStatements, long maxBytes,
+			Function<Fixture, MockHttpServletRequestBuilder> request) throws Exception {
+		for (var i = 0; i < WARMUP; i++) {
+			measure(request.apply(small));
+		}
+		
+		var bytes = Long.MAX_VALUE;
+		
+		for (var i = 0; i < RUNS; i++) {
+			bytes = Math.min(bytes, measure(request.apply(small))[1]);
+		}
+		
+		final var smallStatements = measure(request.apply(small))[0];
+		final var largeStatements = measure(request.apply(large))[0];
+		final var allocated = bytes;
+		
+		logger.info("{}: {} / {} statement(s) (small / large), {} bytes", endpoint, smallStatements, largeStatements, allocated);
+		
+		return () -> assertAll(endpoint,
+				() -> assertEquals(smallStatements, largeStatements, endpoint + ": quantidade de queries cresce com os dados"),
+				() -> assertTrue(smallStatements <= maxStatements,
+						endpoint + ": " + smallStatements + " queries, acima do limite de " + maxStatements),
+				() -> assertTrue(allocated <= maxBytes,
+						endpoint + ": " + allocated + " bytes alocados, acima do limite de " + maxBytes));
+	}
+	
+	@Test
+	public void testReadBudgets() throws Exception {
+		logger.info("*** Teste de queries e alocação das consultas ***");
+		
+		final var budgets = new ArrayList<Executable>(List.of(
+				budget("getContacts", 3, 384 * KB, f -> get("/contacts?limit=" + f.size)),
+				budget("getContacts (expand)", 3, 448 * KB, f -> get("/contacts?expand=addresses,phones&limit=" + f.size)),
+				budget("getContactById", 4, 384 * KB, f -> get("/contacts/" + f.contactId)),
+				budget("getContactById (expand)", 4, 448 * KB, f -> get("/contacts/" + f.contactId + "?expand=addresses,phones")),
+				budget("getAddressesForContact", 3, 384 * KB, f -> get("/contacts/" + f.contactId + "/addresses")),
+				budget("getPhonesForContact", 3, 384 * KB, f -> get("/contacts/" + f.contactId + "/phones")),
+				budget("getContactsByIds", 3, 384 * KB, f -> get("/contacts?ids=" + ids(f))),
+				budget("getContactsByIds (expand)", 3, 448 * KB, f -> get("/contacts?expand=addresses,phones&ids=" + ids(f))),
+				budget("multiGetContacts", 3, 384 * KB, f -> json(post("/contacts/_mget"), "[" + ids(f) + "]")),
+				budget("multiGetContacts (expand)", 3, 448 * KB,
+						f -> json(post("/contacts/_mget?expand=addresses,phones"), "[" + ids(f) + "]")),
+				budget("searchContacts", 3, 384 * KB, f -> get("/contacts/search?name=CONTATO&limit=" + f.size)),
+				budget("searchContacts (address)", 3, 384 * KB, f -> get("/contacts/search?city=SAO PAULO&limit=" + f.size)),
+				budget("searchContacts (cep range)", 3, 384 * KB,
+						f -> get("/contacts/search?cepFrom=01310-000&cepTo=01310-999&limit=" + f.size)),
+				budget("searchContacts (cep prefix)", 3, 384 * KB, f -> get("/contacts/search?cepPrefix=0131&limit=" + f.size)),
+				budget("searchContacts (expand)", 3, 448 * KB,
+						f -> get("/contacts/search?name=CONTATO&expand=addresses,phones&limit=" + f.size)),
+				budget("suggestContacts", 3, 384 * KB, f -> get("/contacts/suggest?q=contato&limit=" + f.size)),
+				budget("getContactByCpf", 4, 384 * KB,
+						f -> get("/contacts/by-cpf/" + service.loadContactById(f.contactId).getCpf())),
+				budget("getContactByCpf (expand)", 4, 448 * KB,
+						f -> get("/contacts/by-cpf/" + service.loadContactById(f.contactId).getCpf() + "?expand=addresses,phones")),
+				budget("lookupPhoneOwners", 2, 384 * KB,
+						f -> get("/phones/lookup?e164=" + ((f == small) ? SMALL_E164 : SHARED_E164))),
+				budget("getAddressById", 1, 256 * KB, f -> get("/contacts/" + f.contactId + "/address/" + f.addressId)),
+				budget("getPhoneById", 1, 256 * KB, f -> get("/contacts/" + f.contactId + "/phone/" + f.phoneId))));
+		
+		assertAll(budgets);
+	}
+	
+	@Test
+	public void testWriteBudgets() throws Exception {
+		logger.info("*** Teste de queries e alocação das inclusões, alterações e exclusões ***");
+		
+		final var budgets = new ArrayList<Executable>(List.of(
+				budget("addContact", 1, 256 * KB,
+						f -> json(post("/contacts"), "{\"name\":\"CONTATO INCLUIDO\"}")),
+				budget("addAddress", 3, 320 * KB,
+						f -> json(post("/contacts/" + f.contactId + "/address"), "{\"street\":\"AUGUSTA\",\"city\":\"SAO PAULO\"}")),
+				budget("addPhone", 3, 320 * KB,
+						f -> json(post("/contacts/" + f.contactId + "/phone"),
+								"{\"phoneType\":\"M\\u00f3vel\",\"ddi\":\"55\",\"ddd\":\"11\",\"number\":\"912345678\"}")),
+				budget("updateContact", 2, 256 * KB,
+						f -> json(put("/contacts"), "{\"id\":" + f.contactId + ",\"name\":\"" + alternate("CONTATO ALTERADO", "CONTATO REALTERADO") + "\"}")),
+				budget("updateAddress", 3, 320 * KB,
+						f -> json(put("/contacts/" + f.contactId + "/address"),
+								"{\"id\":" + f.addressId + ",\"street\":\"" + alternate("AUGUSTA", "CONSOLACAO") + "\",\"city\":\"SAO PAULO\"}")),
+				budget("updatePhone", 3, 320 * KB,
+						f -> json(put("/contacts/" + f.contactId + "/phone"),
+								"{\"id\":" + f.phoneId + ",\"phoneType\":\"M\\u00f3vel\",\"ddi\":\"55\",\"ddd\":\"11\",\"number\":\""
+										+ alternate("912345678", "998765432") + "\"}")),
+				budget("patchContact", 2, 256 * KB,
+						f -> mergePatch(patch("/contacts/" + f.contactId),
+								"{\"name\":\"" + alternate("CONTATO ALTERADO", "CONTATO REALTERADO") + "\"}")),
+				budget("patchContact (unchanged)", 1, 256 * KB,
+						f -> mergePatch(patch("/contacts/" + f.contactId),
+								"{\"name\":\"" + service.loadContactById(f.contactId).getName() + "\"}")),
+				budget("patchAddress", 3, 320 * KB,
+						f -> mergePatch(patch("/contacts/" + f.contactId + "/address/" + f.addressId),
+								"{\"street\":\"" + alternate("AUGUSTA", "CONSOLACAO") + "\"}")),
+				budget("patchPhone", 3, 320 * KB,
+						f -> mergePatch(patch("/contacts/" + f.contactId + "/phone/" + f.phoneId),
+								"{\"number\":\"" + alternate("912345678", "998765432") + "\"}")),
+				budget("deleteContact", 2, 256 * KB,
+						f -> delete("/contacts/" + fixture(f.size).contactId)),
+				budget("deleteContacts", 2, 256 * KB,
+						f -> delete("/contacts?ids=" + fixture(f.size).contactId + "," + fixture(f.size).contactId)),
+				budget("deleteAddress", 3, 256 * KB,
+						f -> delete("/contacts/" + f.contactId + "/address/" + newAddress(service.loadContactById(f.contactId)).getId())),
+				budget("deletePhone", 3, 256 * KB,
+						f -> delete("/contacts/" + f.contactId + "/phone/" + newPhone(service.loadContactById(f.contactId)).getId()))));
+		
+		assertAll(budgets);
+	}
+}
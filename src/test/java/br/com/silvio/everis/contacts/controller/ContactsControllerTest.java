@@ -0,0 +1,726 @@
+package br.com.silvio.everis.contacts.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.metrics.RequestMetricsFilter;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+import br.com.silvio.everis.contacts.service.ContactService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties={"spring.datasource.url=jdbc:h2:mem:contacts_controller_test",
+							"spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+@TestInstance(Lifecycle.PER_CLASS)
+public class ContactsControllerTest {
+	private static final Logger logger = LoggerFactory.getLogger(ContactsControllerTest.class);
+	private static final int CONTACTS = 50;
+	
+	@Autowired
+	private MockMvc mvc;
+	
+	@Autowired
+	private ContactService service;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	private Statistics statistics;
+	
+	@BeforeAll
+	public void fillContacts() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		for (var i = 0; i < CONTACTS; i++) {
+			var contact = new Contact();
+			contact.setName("CONTATO DE TESTE");
+			contact = service.addContact(contact);
+			
+			if (i % 2 == 0) {
+				var address = new Address();
+				address.setContact(contact);
+				address.setStreet("PAULISTA");
+				address.setCity("SAO PAULO");
+				service.addAddress(address);
+			}
+			
+			if (i % 3 == 0) {
+				var phone = new Phone();
+				phone.setContact(contact);
+				phone.setPhoneType(PhoneType.MOBILE);
+				phone.setDdi("55");
+				phone.setDdd("11");
+				phone.setNumber("987654321");
+				service.addPhone(phone);
+			}
+		}
+	}
+	
+	private long countStatements(String url) throws Exception {
+		statistics.clear();
+		mvc.perform(get(url)).andExpect(status().isOk());
+		return statistics.getPrepareStatementCount();
+	}
+	
+	private MockHttpServletResponse export(String url, String accept) throws Exception {
+		var request = get(url);
+		
+		if (accept != null) {
+			request.header(HttpHeaders.ACCEPT, accept);
+		}
+		
+		var result = mvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+		
+		return mvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn().getResponse();
+	}
+	
+	private static long countLines(String content, String prefix) {
+		return content.lines().filter(line -> line.startsWith(prefix)).count();
+	}
+	
+	private List<Long> walkPages(String url, int limit) throws Exception {
+		var ids = new ArrayList<Long>();
+		var next = url;
+		
+		while (next != null) {
+			var json = mvc.perform(get(next))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+			List<Number> page = JsonPath.read(json, "$._embedded.contactList[*].id");
+			Map<String, Map<String, String>> links = JsonPath.read(json, "$._links");
+			
+			next = links.containsKey("next") ? links.get("next").get("href") : null;
+			
+			assertFalse(page.isEmpty(), "P\u00e1gina vazia na listagem");
+			assertTrue((next == null) || (page.size() == limit), "P\u00e1gina intermedi\u00e1ria incompleta");
+			page.forEach(id -> ids.add(id.longValue()));
+		}
+		
+		return ids;
+	}
+	
+	@Test
+	public void testGetContactsQueryCountIsConstant() throws Exception {
+		logger.info("*** Teste de quantidade de queries na listagem de contatos ***");
+		
+		var small = countStatements("/contacts?limit=1");
+		var medium = countStatements("/contacts?limit=10");
+		var large = countStatements("/contacts?limit=" + CONTACTS);
+		
+		logger.info("Foram executadas {}, {} e {} queries para páginas de 1, 10 e {} contatos",
+					small, medium, large, CONTACTS);
+		
+		assertEquals(small, medium, "Quantidade de queries cresce com o tamanho da página");
+		assertEquals(small, large, "Quantidade de queries cresce com o tamanho da página");
+		assertTrue(large <= 3, "Listagem executa mais queries que o esperado");
+	}
+	
+	@Test
+	public void testGetExpandedContactsQueryCountIsConstant() throws Exception {
+		logger.info("*** Teste de quantidade de queries na listagem expandida de contatos ***");
+		
+		var small = countStatements("/contacts?expand=addresses,phones&limit=1");
+		var large = countStatements("/contacts?expand=addresses,phones&limit=" + CONTACTS);
+		
+		logger.info("Foram executadas {} e {} queries para páginas expandidas de 1 e {} contatos",
+					small, large, CONTACTS);
+		
+		assertEquals(small, large, "Quantidade de queries cresce com o tamanho da página expandida");
+		assertTrue(large <= 3, "Listagem expandida executa mais queries que o esperado");
+		
+		mvc.perform(get("/contacts/1?expand=addresses,phones"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.addresses[0].street").value("PAULISTA"))
+			.andExpect(jsonPath("$._embedded.phones[0].number").value("987654321"));
+	}
+	
+	@Test
+	public void testKeysetPagination() throws Exception {
+		logger.info("*** Teste de pagina\u00e7\u00e3o por cursor ***");
+		
+		for (var name : List.of("ZULEICA PAGINADA", "ABILIO PAGINADO", "MARCIA PAGINADA")) {
+			var contact = new Contact();
+			contact.setName(name);
+			service.addContact(contact);
+		}
+		
+		var byId = jdbcTemplate.queryForList("select id from CONTACT order by id", Long.class);
+		var byName = jdbcTemplate.queryForList("select id from CONTACT order by name, id", Long.class);
+		
+		assertEquals(byId, walkPages("/contacts?limit=7", 7), "Listagem por ID com lacunas, repeti\u00e7\u00f5es ou fora de ordem");
+		assertEquals(byName, walkPages("/contacts?sort=name&limit=7", 7),
+					 "Listagem por nome com lacunas, repeti\u00e7\u00f5es ou fora de ordem");
+		assertEquals(byId, walkPages("/contacts?sort=ID", 20), "Listagem no tamanho de p\u00e1gina padr\u00e3o");
+		
+		mvc.perform(get("/contacts?limit=500"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(byId.size()))
+			.andExpect(jsonPath("$._links.next").doesNotExist());
+		mvc.perform(get("/contacts?limit=1"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(1))
+			.andExpect(jsonPath("$._links.next.href").exists());
+		
+		mvc.perform(get("/contacts?limit=0")).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts?limit=501")).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts?sort=age")).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts?cursor=nao-e-um-cursor")).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts?cursor=")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void testExportContacts() throws Exception {
+		logger.info("*** Teste de exporta\u00e7\u00e3o de contatos ***");
+		
+		var contact = new Contact();
+		contact.setName("CONTATO EXPORTADO");
+		contact = service.addContact(contact);
+		
+		var address = new Address();
+		address.setContact(contact);
+		address.setStreet("DAS FLORES; SUL");
+		address.setComplement("APTO 12, BLOCO \"B\"");
+		address.setCity("SAO PAULO");
+		service.addAddress(address);
+		
+		var contacts = jdbcTemplate.queryForObject("select count(*) from CONTACT", Long.class);
+		
+		var ndjson = export("/contacts/export", null);
+		var ndjsonContent = ndjson.getContentAsString(StandardCharsets.UTF_8);
+		
+		assertEquals("application/x-ndjson", ndjson.getContentType());
+		assertEquals(contacts, ndjsonContent.lines().count(), "Exporta\u00e7\u00e3o NDJSON com contatos a mais ou a menos");
+		assertTrue(ndjsonContent.contains("\"complement\":\"APTO 12, BLOCO \\\"B\\\"\""), "Aspas mal escapadas em NDJSON");
+		
+		var csv = export("/contacts/export?format=csv", null);
+		var csvContent = csv.getContentAsString(StandardCharsets.UTF_8);
+		
+		assertEquals("text/csv", csv.getContentType());
+		assertEquals(contacts, countLines(csvContent, "C,"), "Exporta\u00e7\u00e3o CSV com contatos a mais ou a menos");
+		assertEquals(1, countLines(csvContent, "\"#C\","));
+		assertTrue(csvContent.contains(",\"DAS FLORES; SUL\",,\"APTO 12, BLOCO \"\"B\"\"\","),
+				   "V\u00edrgulas ou aspas mal escapadas em CSV");
+		
+		var vcard = export("/contacts/export?format=vcard", null);
+		var vcardContent = vcard.getContentAsString(StandardCharsets.UTF_8);
+		
+		assertEquals("text/vcard", vcard.getContentType());
+		assertEquals(contacts, countLines(vcardContent, "BEGIN:VCARD"), "Exporta\u00e7\u00e3o vCard com contatos a mais ou a menos");
+		assertEquals(contacts, countLines(vcardContent, "END:VCARD"));
+		assertTrue(vcardContent.contains("ADR:;APTO 12\\, BLOCO \"B\";DAS FLORES\\; SUL;SAO PAULO;;;BR\r\n"),
+				   "V\u00edrgulas ou ponto e v\u00edrgulas mal escapados em vCard");
+		
+		assertEquals("text/csv", export("/contacts/export", "text/csv").getContentType());
+		assertEquals("text/vcard", export("/contacts/export", "application/json, text/vcard").getContentType());
+		assertEquals("text/csv", export("/contacts/export", "text/vcard;q=0.5, text/csv").getContentType());
+		assertEquals("application/x-ndjson", export("/contacts/export", "*/*").getContentType());
+		assertEquals("text/vcard", export("/contacts/export?format=vcard", "text/csv").getContentType(),
+					 "Formato informado n\u00e3o prevalece sobre o cabe\u00e7alho Accept");
+		
+		mvc.perform(get("/contacts/export?format=xml")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void testExportStatementsAreRecorded() throws Exception {
+		logger.info("*** Teste da contagem de comandos SQL da exporta\u00e7\u00e3o ***");
+		
+		var before = meterRegistry.find(RequestMetricsFilter.QUERIES_SUMMARY).tag("uri", "/contacts/export").summary();
+		var count = (before != null) ? before.count() : 0;
+		var total = (before != null) ? before.totalAmount() : 0;
+		
+		export("/contacts/export", null);
+		
+		var after = meterRegistry.find(RequestMetricsFilter.QUERIES_SUMMARY).tag("uri", "/contacts/export").summary();
+		
+		assertNotNull(after, "Exporta\u00e7\u00e3o n\u00e3o registrada");
+		assertEquals(count + 1, after.count(), "Exporta\u00e7\u00e3o registrada mais de uma vez, ou nenhuma");
+		assertTrue(after.totalAmount() > total, "Comandos SQL do corpo ass\u00edncrono n\u00e3o contados");
+	}
+	
+	@Test
+	public void testConditionalGetContact() throws Exception {
+		logger.info("*** Teste de GET condicional de contato ***");
+		
+		var eTag = mvc.perform(get("/contacts/2"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		assertNotNull(eTag, "Contato retornado sem ETag");
+		
+		statistics.clear();
+		mvc.perform(get("/contacts/2").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified());
+		assertEquals(0, statistics.getEntityLoadCount(), "Contato carregado em resposta 304");
+		
+		mvc.perform(post("/contacts/2/address")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"street\":\"AUGUSTA\",\"city\":\"SAO PAULO\"}"))
+			.andExpect(status().isOk());
+		
+		mvc.perform(get("/contacts/2").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isOk());
+	}
+	
+	@Test
+	public void testCachedContactDoesNotKeepLinks() throws Exception {
+		logger.info("*** Teste de links em contatos do cache ***");
+		
+		var first = mvc.perform(get("/contacts/3/addresses"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		var second = mvc.perform(get("/contacts/3/addresses"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		
+		assertEquals(first, second, "Links acumulados nos endereços do cache");
+		
+		statistics.clear();
+		service.loadContactById(3L);
+		assertEquals(0, statistics.getEntityLoadCount(), "Contato não foi lido do cache");
+	}
+	
+	@Test
+	public void testResponseCacheIsEvictedByWrites() throws Exception {
+		logger.info("*** Teste do cache de respostas ***");
+		
+		countStatements("/contacts/4");
+		assertEquals(0, countStatements("/contacts/4"), "Resposta não foi servida do cache");
+		
+		mvc.perform(put("/contacts")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":4,\"name\":\"CONTATO ALTERADO\"}"))
+			.andExpect(status().isOk());
+		
+		mvc.perform(get("/contacts/4"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("CONTATO ALTERADO"));
+	}
+	
+	@Test
+	public void testNestedOwnershipErrors() throws Exception {
+		logger.info("*** Teste de pertin\u00eancia de endere\u00e7os e telefones ***");
+		
+		var address = service.loadContactAddresses(13L).get(0);
+		var phone = service.loadContactPhones(13L).get(0);
+		
+		mvc.perform(get("/contacts/13/address/" + address.getId())).andExpect(status().isOk());
+		mvc.perform(get("/contacts/14/address/" + address.getId())).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts/999999/address/" + address.getId())).andExpect(status().isNotFound());
+		mvc.perform(get("/contacts/13/address/999999")).andExpect(status().isNotFound());
+		
+		mvc.perform(get("/contacts/13/phone/" + phone.getId())).andExpect(status().isOk());
+		mvc.perform(get("/contacts/14/phone/" + phone.getId())).andExpect(status().isBadRequest());
+		
+		mvc.perform(put("/contacts/14/address")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + address.getId() + ",\"street\":\"AUGUSTA\",\"city\":\"SAO PAULO\"}"))
+			.andExpect(status().isBadRequest());
+		
+		var deleteErrors = meterRegistry.counter("contacts.exceptions", "exception", "SuppliedDoesNotBelongTo",
+				"method", "deletePhone");
+		var deleteErrorCount = deleteErrors.count();
+		
+		mvc.perform(delete("/contacts/14/phone/" + phone.getId())).andExpect(status().isBadRequest());
+		mvc.perform(delete("/contacts/999999/phone/" + phone.getId())).andExpect(status().isNotFound());
+		
+		assertEquals(deleteErrorCount + 1, deleteErrors.count(), "Erro na exclus\u00e3o de telefone n\u00e3o foi contado");
+		
+		mvc.perform(put("/contacts/13/address")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + address.getId() + ",\"street\":\"AUGUSTA\",\"city\":\"SAO PAULO\"}"))
+			.andExpect(status().isOk());
+		mvc.perform(get("/contacts/13/address/" + address.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.street").value("AUGUSTA"));
+		mvc.perform(delete("/contacts/13/phone/" + phone.getId())).andExpect(status().isOk());
+		mvc.perform(get("/contacts/13/phone/" + phone.getId())).andExpect(status().isNotFound());
+	}
+	
+	@Test
+	public void testMergePatch() throws Exception {
+		logger.info("*** Teste de altera\u00e7\u00e3o parcial (JSON Merge Patch) ***");
+		
+		var phone = service.loadContactPhones(19L).get(0);
+		var mergePatch = MediaType.valueOf("application/merge-patch+json");
+		
+		mvc.perform(patch("/contacts/19").contentType(mergePatch).content("{\"cpf\":\"52998224725\"}"))
+			.andExpect(status().isOk());
+		mvc.perform(patch("/contacts/19").contentType(mergePatch).content("{\"name\":\"CONTATO PARCIAL\"}"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("CONTATO PARCIAL"))
+			.andExpect(jsonPath("$.cpf").value("52998224725"));
+		mvc.perform(patch("/contacts/19").contentType(mergePatch).content("{\"cpf\":null}"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.cpf").doesNotExist());
+		
+		service.loadContactById(19L);
+		statistics.clear();
+		mvc.perform(patch("/contacts/19").contentType(mergePatch).content("{\"name\":\"CONTATO PARCIAL\"}"))
+			.andExpect(status().isOk());
+		assertEquals(0, statistics.getPrepareStatementCount(), "Altera\u00e7\u00e3o sem mudan\u00e7a acessou o banco");
+		
+		mvc.perform(patch("/contacts/19").contentType(mergePatch).content("{\"name\":\"\"}"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(patch("/contacts/19").contentType(mergePatch).content("{\"id\":20}"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(patch("/contacts/999999").contentType(mergePatch).content("{\"name\":\"X\"}"))
+			.andExpect(status().isNotFound());
+		
+		mvc.perform(patch("/contacts/19/phone/" + phone.getId()).contentType(mergePatch).content("{\"number\":\"12345\"}"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(patch("/contacts/19/phone/" + phone.getId()).contentType(mergePatch).content("{\"extension\":\"123\"}"))
+			.andExpect(status().isOk());
+		mvc.perform(patch("/contacts/20/phone/" + phone.getId()).contentType(mergePatch).content("{\"extension\":\"123\"}"))
+			.andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts/19/phone/" + phone.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.extension").value("123"))
+			.andExpect(jsonPath("$.number").value("987654321"));
+	}
+	
+	@Test
+	public void testMultiGetContacts() throws Exception {
+		logger.info("*** Teste de busca de v\u00e1rios contatos por ID ***");
+		
+		var small = countStatements("/contacts?ids=2,999999&expand=addresses,phones");
+		var large = countStatements("/contacts?ids=1,2,3,4,5,6,7,8,9,10,999999&expand=addresses,phones");
+		
+		logger.info("Foram executadas {} e {} queries para buscas de 2 e 11 contatos", small, large);
+		
+		assertEquals(small, large, "Quantidade de queries cresce com a quantidade de IDs");
+		
+		mvc.perform(get("/contacts?ids=3,999999,1,3"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(2))
+			.andExpect(jsonPath("$._embedded.contactList[0].id").value(3))
+			.andExpect(jsonPath("$._embedded.contactList[1].id").value(1))
+			.andExpect(jsonPath("$.missing[0]").value(999999));
+		mvc.perform(post("/contacts/_mget?expand=addresses")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[1, 2]"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList[0]._embedded.addresses[0].street").value("PAULISTA"))
+			.andExpect(jsonPath("$.missing").doesNotExist());
+		
+		mvc.perform(get("/contacts?ids=")).andExpect(status().isBadRequest());
+		mvc.perform(post("/contacts/_mget").contentType(MediaType.APPLICATION_JSON).content("[]"))
+			.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void testSearchContacts() throws Exception {
+		logger.info("*** Teste de busca de contatos ***");
+		
+		var contact = new Contact();
+		contact.setName("BUSCA POR CIDADE");
+		contact.setCpf("12345678909");
+		contact = service.addContact(contact);
+		
+		for (var neighborhood : List.of("CENTRO", "CENTRO", "BELA VISTA")) {
+			var address = new Address();
+			address.setContact(contact);
+			address.setStreet("DIREITA");
+			address.setNeighborhood(neighborhood);
+			address.setCity("CAMPINAS");
+			address.setZipCode("13010-000");
+			service.addAddress(address);
+		}
+		
+		mvc.perform(get("/contacts/search?city=CAMPINAS"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(1))
+			.andExpect(jsonPath("$._embedded.contactList[0].id").value(contact.getId()));
+		mvc.perform(get("/contacts/search?name=busca&neighborhood=CENTRO&zipCode=13010-000"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(1));
+		mvc.perform(get("/contacts/search?cpf=12345678909&city=SAO PAULO"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded").doesNotExist());
+		mvc.perform(get("/contacts/search?name=BUSCA_"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded").doesNotExist());
+		mvc.perform(get("/contacts/search?city=SAO PAULO&limit=10"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(10))
+			.andExpect(jsonPath("$._links.next.href").exists());
+		
+		mvc.perform(get("/contacts/search")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void testSearchContactsByCep() throws Exception {
+		logger.info("*** Teste de busca de contatos por faixa e prefixo de CEP ***");
+		
+		var mergePatch = MediaType.valueOf("application/merge-patch+json");
+		var addresses = new ArrayList<Address>();
+		
+		for (var zipCode : List.of("13400-100", "13400-900", "13499-999")) {
+			var contact = new Contact();
+			contact.setName("BUSCA POR CEP");
+			contact = service.addContact(contact);
+			
+			var address = new Address();
+			address.setContact(contact);
+			address.setStreet("DO ROSARIO");
+			address.setCity("PIRACICABA");
+			address.setZipCode(zipCode);
+			addresses.add(service.addAddress(address));
+		}
+		
+		mvc.perform(get("/contacts/search?cepFrom=13400-000&cepTo=13400-999"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(2));
+		mvc.perform(get("/contacts/search?cepPrefix=134"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(3));
+		mvc.perform(get("/contacts/search?cepPrefix=1340&cepTo=13400-500"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(1))
+			.andExpect(jsonPath("$._embedded.contactList[0].id").value(addresses.get(0).getContact().getId()));
+		
+		var moved = addresses.get(2);
+		
+		mvc.perform(patch("/contacts/" + moved.getContact().getId() + "/address/" + moved.getId())
+				.contentType(mergePatch).content("{\"zipCode\":\"13500-000\"}"))
+			.andExpect(status().isOk());
+		mvc.perform(get("/contacts/search?cepPrefix=134"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(2));
+		mvc.perform(get("/contacts/search?cepPrefix=13500000"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(1));
+		
+		mvc.perform(get("/contacts/search?cepFrom=1340")).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts/search?cepPrefix=13-4")).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts/search?cepPrefix=134000000")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void testSearchQueriesUseIndexes() {
+		logger.info("*** Teste de uso dos \u00edndices pela busca de contatos ***");
+		
+		var plans = Map.of(
+				"select c.id from CONTACT c where c.id > 0 and c.cpf = '1' order by c.id", "UK_CONTACT_CPF",
+				"select c.id from CONTACT c where c.id > 0 and c.name like 'JO%' order by c.id", "IDX_CONTACT_NAME_ID",
+				"select c.id from CONTACT c where c.id > 0 and c.id in (select a.owner from ADDRESS a where a.city = 'X') order by c.id", "IDX_ADDRESS_CITY_OWNER",
+				"select c.id from CONTACT c where c.id > 0 and c.id in (select a.owner from ADDRESS a where a.neighborhood = 'X') order by c.id", "IDX_ADDRESS_NEIGHBORHOOD_OWNER",
+				"select c.id from CONTACT c where c.id > 0 and c.id in (select a.owner from ADDRESS a where a.zip_code = 'X') order by c.id", "IDX_ADDRESS_ZIP_CODE_OWNER",
+				"select c.id from CONTACT c where c.id > 0 and c.id in (select a.owner from ADDRESS a where a.cep between 13400000 and 13499999) order by c.id", "IDX_ADDRESS_CEP_OWNER",
+				"select distinct p.owner from PHONE p where p.e164 = 5511987654321", "IDX_PHONE_E164_OWNER");
+		
+		plans.forEach((sql, index) -> {
+			var plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+			
+			logger.info("Plano de execu\u00e7\u00e3o: {}", plan);
+			
+			assertTrue(plan.contains(index), "Busca n\u00e3o usa o \u00edndice " + index);
+		});
+	}
+	
+	@Test
+	public void testContactsByCpf() throws Exception {
+		logger.info("*** Teste de busca e unicidade de CPF ***");
+		
+		var cpfQuery = "select c.id from Contact c where c.cpf = :cpf";
+		var contact = new Contact();
+		contact.setName("DONO DO CPF");
+		contact.setCpf("39053344705");
+		
+		var probes = statistics.getQueryStatistics(cpfQuery).getExecutionCount();
+		contact = service.addContact(contact);
+		
+		var other = new Contact();
+		other.setName("CONTATO SEM CPF");
+		other = service.addContact(other);
+		
+		assertEquals(probes, statistics.getQueryStatistics(cpfQuery).getExecutionCount(),
+					 "CPF novo foi consultado no banco");
+		
+		mvc.perform(get("/contacts/by-cpf/39053344705"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.id").value(contact.getId()))
+			.andExpect(jsonPath("$._links.self.href").value("http://localhost/contacts/" + contact.getId()));
+		mvc.perform(get("/contacts/by-cpf/11144477735")).andExpect(status().isNotFound());
+		
+		mvc.perform(post("/contacts").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"OUTRO DONO DO CPF\",\"cpf\":\"39053344705\"}"))
+			.andExpect(status().isConflict());
+		mvc.perform(patch("/contacts/" + other.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"cpf\":\"39053344705\"}"))
+			.andExpect(status().isConflict());
+		mvc.perform(patch("/contacts/" + contact.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"cpf\":\"39053344705\",\"name\":\"DONO DO MESMO CPF\"}"))
+			.andExpect(status().isOk());
+		
+		mvc.perform(post("/contacts/import").contentType("application/x-ndjson")
+				.content("{\"name\":\"IMPORTADO COM CPF\",\"cpf\":\"93541134780\"}\n"
+						+ "{\"name\":\"IMPORTADO REPETIDO\",\"cpf\":\"93541134780\"}\n"
+						+ "{\"name\":\"IMPORTADO JA EXISTENTE\",\"cpf\":\"39053344705\"}\n"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.imported").value(1))
+			.andExpect(jsonPath("$.rejected").value(2))
+			.andExpect(jsonPath("$.errors[0].record").value(2))
+			.andExpect(jsonPath("$.errors[1].record").value(3));
+		mvc.perform(get("/contacts/by-cpf/93541134780"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("IMPORTADO COM CPF"));
+		
+		mvc.perform(delete("/contacts/" + contact.getId())).andExpect(status().isOk());
+		mvc.perform(get("/contacts/by-cpf/39053344705")).andExpect(status().isNotFound());
+	}
+	
+	@Test
+	public void testLookupPhoneOwners() throws Exception {
+		logger.info("*** Teste de busca reversa de telefone ***");
+		
+		var owners = new ArrayList<Contact>();
+		var phones = new ArrayList<Phone>();
+		
+		for (var ddi : List.of("055", "55")) {
+			var contact = new Contact();
+			contact.setName("DONO DO TELEFONE");
+			contact = service.addContact(contact);
+			owners.add(contact);
+			
+			var phone = new Phone();
+			phone.setContact(contact);
+			phone.setPhoneType(PhoneType.MOBILE);
+			phone.setDdi(ddi);
+			phone.setDdd("21");
+			phone.setNumber("912345678");
+			phones.add(service.addPhone(phone));
+		}
+		
+		mvc.perform(get("/phones/lookup").param("e164", "+55 (21) 91234-5678"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(2))
+			.andExpect(jsonPath("$._embedded.contactList[0]._links.phones.href").exists());
+		
+		var mergePatch = MediaType.valueOf("application/merge-patch+json");
+		
+		mvc.perform(patch("/contacts/" + owners.get(1).getId() + "/phone/" + phones.get(1).getId())
+				.contentType(mergePatch).content("{\"number\":\"988887777\"}"))
+			.andExpect(status().isOk());
+		assertEquals(5521988887777L, jdbcTemplate.queryForObject("select e164 from PHONE where id = ?",
+				Long.class, phones.get(1).getId()));
+		mvc.perform(get("/phones/lookup").param("e164", "+5521988887777"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(1))
+			.andExpect(jsonPath("$._embedded.contactList[0].id").value(owners.get(1).getId()));
+		
+		mvc.perform(delete("/contacts/" + owners.get(0).getId())).andExpect(status().isOk());
+		mvc.perform(get("/phones/lookup").param("e164", "+5521912345678"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded").doesNotExist());
+		
+		mvc.perform(delete("/contacts/" + owners.get(1).getId() + "/phone/" + phones.get(1).getId()))
+			.andExpect(status().isOk());
+		mvc.perform(get("/phones/lookup").param("e164", "+5521988887777"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded").doesNotExist());
+		
+		mvc.perform(get("/phones/lookup").param("e164", "+55 21 ABC")).andExpect(status().isBadRequest());
+		mvc.perform(get("/phones/lookup")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void testSuggestContacts() throws Exception {
+		logger.info("*** Teste de sugest\u00e3o de contatos por nome ***");
+		
+		var names = List.of("JO\u00c3O DA SILVA SUGERIDO", "JOAQUIM SUGERIDO", "MARIA JO\u00c3O SUGERIDA");
+		var ids = new ArrayList<Long>();
+		
+		for (var name : names) {
+			var contact = new Contact();
+			contact.setName(name);
+			ids.add(service.addContact(contact).getId());
+		}
+		
+		mvc.perform(get("/contacts/suggest?q=joao da sil"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList[0].id").value(ids.get(0)));
+		mvc.perform(get("/contacts/suggest?q=joa&limit=2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList.length()").value(2));
+		
+		mvc.perform(patch("/contacts/" + ids.get(1))
+				.contentType("application/merge-patch+json")
+				.content("{\"name\":\"TEREZA SUGERIDA\"}"))
+			.andExpect(status().isOk());
+		mvc.perform(delete("/contacts/" + ids.get(0))).andExpect(status().isOk());
+		mvc.perform(get("/contacts/suggest?q=tereza"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.contactList[0].id").value(ids.get(1)));
+		mvc.perform(get("/contacts/suggest?q=joaquim sugerido"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded").doesNotExist());
+		mvc.perform(get("/contacts/suggest?q=joao da silva"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded").doesNotExist());
+		
+		mvc.perform(get("/contacts/suggest")).andExpect(status().isBadRequest());
+		mvc.perform(get("/contacts/suggest?q=joao&limit=0")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void testDeleteContacts() throws Exception {
+		logger.info("*** Teste de exclus\u00e3o de contatos em lote ***");
+		
+		assertFalse(service.loadContactAddresses(21L).isEmpty(), "Contato sem endere\u00e7os");
+		
+		mvc.perform(delete("/contacts?ids=21,22,999999"))
+			.andExpect(status().isOk())
+			.andExpect(header().string("X-Deleted-Count", "2"));
+		mvc.perform(get("/contacts/21")).andExpect(status().isNotFound());
+		mvc.perform(get("/contacts/22")).andExpect(status().isNotFound());
+		assertTrue(service.loadAddressesByContactIds(List.of(21L)).isEmpty(), "Endere\u00e7os do contato exclu\u00eddo permanecem");
+		assertTrue(service.loadPhonesByContactIds(List.of(22L)).isEmpty(), "Telefones do contato exclu\u00eddo permanecem");
+		
+		mvc.perform(delete("/contacts?ids=")).andExpect(status().isBadRequest());
+		mvc.perform(delete("/contacts?ids=X")).andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,115 @@
+package br.com.silvio.everis.contacts.id;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SequenceIncrementAlignerTest {
+	private static final Logger logger = LoggerFactory.getLogger(SequenceIncrementAlignerTest.class);
+	
+	private JdbcTemplate jdbcTemplate;
+	
+	@BeforeEach
+	public void createDatabase() {
+		jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource("jdbc:h2:mem:", true));
+		
+		// as left by the schema migrations
+		for (var table : new String[] {"CONTACT", "ADDRESS", "PHONE"}) {
+			jdbcTemplate.execute("create table " + table + " (id bigint primary key)");
+		}
+		
+		jdbcTemplate.execute("create sequence SEQCONTACTS start with 1 increment by 50");
+		jdbcTemplate.execute("create sequence SEQADDRESSES start with 1 increment by 50");
+		jdbcTemplate.execute("create sequence SEQPHONES start with 1 increment by 50");
+	}
+	
+	private void align(String strategy) {
+		final var aligner = new SequenceIncrementAligner();
+		
+		ReflectionTestUtils.setField(aligner, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(aligner, "strategy", strategy);
+		ReflectionTestUtils.setField(aligner, "blockSize", 50L);
+		aligner.afterPropertiesSet();
+	}
+	
+	private long increment(String sequence) {
+		return jdbcTemplate.queryForObject(
+				"select INCREMENT from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_NAME = ?", Long.class, sequence);
+	}
+	
+	private long nextValue(String sequence) {
+		return jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+	}
+	
+	private void insertIds(String table, long from, long to) {
+		for (var id = from; id <= to; id++) {
+			jdbcTemplate.update("insert into " + table + " (id) values (?)", id);
+		}
+	}
+	
+	private long maxId(String table) {
+		return jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+	}
+	
+	@Test
+	public void testSwitchingStrategiesRestartsAfterMaxId() {
+		logger.info("*** Teste de realinhamento das sequences ao trocar de estratégia ***");
+		
+		// sequence: one ID per call
+		align("sequence");
+		assertEquals(1, increment("SEQCONTACTS"));
+		insertIds("CONTACT", 1, 3);
+		assertEquals(1, nextValue("SEQCONTACTS"));
+		
+		// rows written beyond the sequence (e.g. by a previous snowflake or a manual load)
+		insertIds("CONTACT", 4, 120);
+		
+		// sequence -> pooled-lo: each call hands out the block [value, value + 49]
+		align("pooled-lo");
+		assertEquals(50, increment("SEQCONTACTS"));
+		
+		final var lo = nextValue("SEQCONTACTS");
+		
+		assertTrue(lo > maxId("CONTACT"), "Bloco pooled-lo sobrepõe IDs existentes: " + lo);
+		insertIds("CONTACT", lo, lo + 49);
+		
+		// a block handed out but not used yet must not be reused either
+		final var pending = nextValue("SEQCONTACTS");
+		
+		assertTrue(pending > lo + 49);
+		
+		// pooled-lo -> sequence
+		align("sequence");
+		assertEquals(1, increment("SEQCONTACTS"));
+		
+		final var next = nextValue("SEQCONTACTS");
+		
+		assertTrue(next > maxId("CONTACT"), "Sequence reiniciada sobre IDs existentes: " + next);
+		assertTrue(next > pending + 49, "Sequence reiniciada sobre bloco já entregue: " + next);
+		
+		// aligning again with the same strategy keeps the sequence
+		align("sequence");
+		assertEquals(next + 1, nextValue("SEQCONTACTS"));
+	}
+	
+	@Test
+	public void testSnowflakeAlignsWithIncrementOne() {
+		logger.info("*** Teste de realinhamento das sequences na estratégia snowflake ***");
+		
+		insertIds("ADDRESS", 1, 10);
+		align("snowflake");
+		
+		for (var sequence : new String[] {"SEQCONTACTS", "SEQADDRESSES", "SEQPHONES"}) {
+			assertEquals(1, increment(sequence), "Sequence não realinhada: " + sequence);
+		}
+		
+		assertEquals(11, nextValue("SEQADDRESSES"));
+		assertEquals(1, nextValue("SEQPHONES"));
+	}
+}
@@ -0,0 +1,118 @@
+package br.com.silvio.everis.contacts.id;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+public class SnowflakeIdGeneratorTest {
+	private static final Logger logger = LoggerFactory.getLogger(SnowflakeIdGeneratorTest.class);
+	
+	private static final int SEQUENCE_BITS = SnowflakeIdGenerator.SEQUENCE_BITS;
+	
+	private static final int TIMESTAMP_SHIFT = SnowflakeIdGenerator.NODE_BITS + SEQUENCE_BITS;
+	
+	private static long nodeOf(long id) {
+		return (id >>> SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE;
+	}
+	
+	@Test
+	public void testIdsAreUniqueAndMonotonicAcrossThreads() throws Exception {
+		logger.info("*** Teste de IDs únicos e crescentes entre threads ***");
+		
+		final var generator = new SnowflakeIdGenerator(1);
+		final var threads = 8;
+		final var perThread = 20000;
+		final var ids = ConcurrentHashMap.<Long>newKeySet();
+		final var executor = Executors.newFixedThreadPool(threads);
+		final var results = new ArrayList<Future<Boolean>>();
+		
+		try {
+			for (var i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					var monotonic = true;
+					var last = Long.MIN_VALUE;
+					
+					for (var j = 0; j < perThread; j++) {
+						final var id = generator.nextId();
+						
+						monotonic &= (id > last);
+						last = id;
+						ids.add(id);
+					}
+					return monotonic;
+				}));
+			}
+			
+			for (var result : results) {
+				assertTrue(result.get(30, TimeUnit.SECONDS), "IDs fora de ordem em uma thread");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		assertEquals(threads * perThread, ids.size(), "IDs repetidos entre threads");
+	}
+	
+	@Test
+	public void testMoreThan4096IdsInOneMillisecond() {
+		logger.info("*** Teste de mais de 4096 IDs no mesmo milissegundo ***");
+		
+		final var generator = new SnowflakeIdGenerator(3);
+		
+		// a clock one minute ahead: the real clock stays behind it during the whole test
+		final var millis = System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH + 60000;
+		
+		((AtomicLong) ReflectionTestUtils.getField(generator, "state")).set(millis << SEQUENCE_BITS);
+		
+		final var ids = new ArrayList<Long>();
+		
+		for (var i = 0; i < 3 * 4096; i++) {
+			ids.add(generator.nextId());
+		}
+		
+		for (var i = 1; i < ids.size(); i++) {
+			assertTrue(ids.get(i) > ids.get(i - 1), "IDs fora de ordem após esgotar a sequência do milissegundo");
+		}
+		
+		assertEquals(List.of(millis, 1L), List.of(ids.get(0) >>> TIMESTAMP_SHIFT, ids.get(0) & 4095));
+		assertEquals(millis + 1, ids.get(4095) >>> TIMESTAMP_SHIFT, "Sequência não passou ao milissegundo seguinte");
+		assertEquals(0, ids.get(4095) & 4095);
+		assertEquals(millis + 3, ids.get(ids.size() - 1) >>> TIMESTAMP_SHIFT);
+		ids.forEach(id -> assertEquals(3, nodeOf(id), "Nó corrompido pela sequência"));
+	}
+	
+	@Test
+	public void testNodeBits() {
+		logger.info("*** Teste da posição dos bits do nó ***");
+		
+		final var before = System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH;
+		
+		for (var node : List.of(0L, 1L, 512L, SnowflakeIdGenerator.MAX_NODE)) {
+			final var id = new SnowflakeIdGenerator(node).nextId();
+			final var millis = id >>> TIMESTAMP_SHIFT;
+			
+			assertEquals(node, nodeOf(id), "Nó fora de sua posição");
+			assertEquals(0, id & 4095, "Primeiro ID do milissegundo com sequência");
+			assertTrue((millis >= before) && (millis <= System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH),
+					   "Milissegundos fora de sua posição");
+			assertTrue(id > 0, "ID negativo");
+		}
+		
+		assertSame(SnowflakeIdGenerator.forNode(7), SnowflakeIdGenerator.forNode(7));
+		assertThrows(Invalid.class, () -> new SnowflakeIdGenerator(-1));
+		assertThrows(Invalid.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE + 1));
+	}
+}
@@ -0,0 +1,446 @@
+package br.com.silvio.everis.contacts.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import br.com.silvio.everis.contacts.EverisChallengeApplication;
+import br.com.silvio.everis.contacts.benchmark.ContactDataGenerator;
+import br.com.silvio.everis.contacts.enums.ContactSort;
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+import br.com.silvio.everis.contacts.paging.ContactCursor;
+import br.com.silvio.everis.contacts.service.ContactImportService;
+
+/**
+ * HTTP load driver of the contacts API.
+ * Boots the application on a random port, against an in-memory H2 filled
+ * with generated contacts, and sends a workload mix at a fixed arrival rate
+ * (open model). Each latency is measured from the time the request was due,
+ * not from the time it was sent, so a slow server cannot hide its own delay
+ * (coordinated omission). The latencies are kept in HdrHistograms, one per
+ * operation, printed as percentiles and written as .hgrm files.
+ *
+ * Options (--name=value): contacts, rate (requests/s), duration and warmup
+ * (seconds), mix (see {@link Workload}), outstanding (maximum requests in
+ * flight) and output (.hgrm directory). Any other option is passed to the
+ * application, like --contacts.cache.spec=maximumSize=0.
+ *
+ * @author silvio.araujo
+ *
+ */
+public class LoadDriver {
+
+	private static final long SEED = 2020L;
+	
+	private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(10);
+	
+	private static final String HAL_JSON = "application/hal+json";
+	
+	private final Map<String, String> options = new LinkedHashMap<>(Map.of(
+			"contacts", "10000",
+			"rate", "100",
+			"duration", "60",
+			"warmup", "10",
+			"mix", "read-heavy",
+			"outstanding", "1024",
+			"output", "target/load"));
+	
+	private final List<String> applicationArgs = new ArrayList<>();
+	
+	private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+	
+	private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+	
+	private final Map<Operation, LongAdder> skipped = new EnumMap<>(Operation.class);
+	
+	private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+	
+	private final AtomicLong nextIndex = new AtomicLong();
+	
+	private Workload workload;
+	
+	private ConfigurableApplicationContext context;
+	
+	private ObjectMapper mapper;
+	
+	private ContactDataGenerator generator;
+	
+	private HttpClient client;
+	
+	private String base;
+	
+	private long[] contactIds;
+	
+	private String[] contactNames;
+	
+	private String[] contactCpfs;
+	
+	private long[] addressOwners;
+	
+	private long[] phoneOwners;
+	
+	/**
+	 * Class constructor.
+	 *
+	 * @param args	the options.
+	 * @throws	Invalid.
+	 */
+	public LoadDriver(String... args) {
+		for (var arg : args) {
+			final var separator = arg.indexOf('=');
+			
+			if ((!arg.startsWith("--")) || (separator < 0)) {
+				throw new Invalid("load option " + arg);
+			}
+			
+			final var name = arg.substring(2, separator);
+			
+			if (options.containsKey(name)) {
+				options.put(name, arg.substring(separator + 1));
+			} else {
+				applicationArgs.add(arg);
+			}
+		}
+		
+		workload = Workload.of(options.get("mix"));
+		
+		for (var operation : Operation.values()) {
+			histograms.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY, 3));
+			errors.put(operation, new LongAdder());
+			skipped.put(operation, new LongAdder());
+		}
+	}
+	
+	/**
+	 * Runs the load driver.
+	 *
+	 * @param args	the options.
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		final var driver = new LoadDriver(args);
+		
+		try {
+			driver.start();
+			driver.drive();
+			driver.report(System.out);
+		} finally {
+			driver.stop();
+		}
+	}
+	
+	/**
+	 * Boots the application and fills the database.
+	 */
+	public void start() {
+		final var args = new ArrayList<>(List.of(
+				"--spring.datasource.url=jdbc:h2:mem:load",
+				"--server.port=0",
+				"--logging.level.root=WARN"));
+		final var contacts = Long.parseLong(options.get("contacts"));
+		
+		args.addAll(applicationArgs);
+		// devtools reads it before the arguments, and would restart (run again) the driver
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		context = new SpringApplication(EverisChallengeApplication.class).run(args.toArray(new String[0]));
+		mapper = context.getBean(ObjectMapper.class);
+		generator = new ContactDataGenerator(SEED, 3, 3);
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/contacts";
+		
+		final var report = generator.fill(context.getBean(ContactImportService.class), mapper, 0, contacts);
+		final var jdbcTemplate = context.getBean(JdbcTemplate.class);
+		final var rows = jdbcTemplate.queryForList("select id, name, cpf from contact");
+		
+		System.out.printf("Filled %d contacts (%d rows/s)%n", report.getImported(), report.getRowsPerSecond());
+		
+		contactIds = new long[rows.size()];
+		contactNames = new String[rows.size()];
+		contactCpfs = new String[rows.size()];
+		
+		for (var i = 0; i < rows.size(); i++) {
+			contactIds[i] = ((Number) rows.get(i).get("id")).longValue();
+			contactNames[i] = (String) rows.get(i).get("name");
+			contactCpfs[i] = (String) rows.get(i).get("cpf");
+		}
+		
+		addressOwners = jdbcTemplate.queryForList("select distinct owner from address", Long.class)
+				.stream().mapToLong(Long::longValue).toArray();
+		phoneOwners = jdbcTemplate.queryForList("select distinct owner from phone", Long.class)
+				.stream().mapToLong(Long::longValue).toArray();
+		nextIndex.set(contacts);
+	}
+	
+	/**
+	 * Stops the application.
+	 */
+	public void stop() {
+		if (context != null) {
+			context.close();
+		}
+	}
+	
+	/**
+	 * Sends the workload at the fixed arrival rate, during the warmup and
+	 * the measured duration, and waits for the requests in flight.
+	 */
+	public void drive() {
+		final var rate = Double.parseDouble(options.get("rate"));
+		final var interval = Math.round(TimeUnit.SECONDS.toNanos(1) / rate);
+		final var maxOutstanding = Integer.parseInt(options.get("outstanding"));
+		final var outstanding = new Semaphore(maxOutstanding);
+		final var start = System.nanoTime();
+		final var measureFrom = start + TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmup")));
+		final var end = measureFrom + TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("duration")));
+		
+		for (var i = 0L; ; i++) {
+			final var due = start + i * interval;
+			
+			if (due >= end) {
+				break;
+			}
+			
+			for (var now = System.nanoTime(); now < due; now = System.nanoTime()) {
+				LockSupport.parkNanos(due - now);
+			}
+			
+			final var operation = workload.next();
+			final var request = request(operation);
+			final var measured = due >= measureFrom;
+			
+			if (request == null) {
+				if (measured) {
+					skipped.get(operation).increment();
+				}
+				
+				continue;
+			}
+			
+			// a full pipe delays the sending, but not the due time the latency is measured from
+			outstanding.acquireUninterruptibly();
+			client.sendAsync(request, BodyHandlers.ofString()).whenComplete((response, error) -> {
+				final var latency = System.nanoTime() - due;
+				
+				outstanding.release();
+				complete(operation, response, error, measured);
+				
+				if (measured) {
+					histograms.get(operation).recordValue(
+							Math.min(TimeUnit.NANOSECONDS.toMicros(latency), HIGHEST_LATENCY));
+				}
+			});
+		}
+		
+		outstanding.acquireUninterruptibly(maxOutstanding);
+	}
+	
+	/**
+	 * Builds the request of an operation.
+	 *
+	 * @param operation	the operation.
+	 * @return	the request, or null when it cannot be done now.
+	 */
+	private HttpRequest request(Operation operation) {
+		final var random = ThreadLocalRandom.current();
+		final var i = random.nextInt(contactIds.length);
+		
+		switch (operation) {
+			case LIST_CONTACTS:
+				return get("");
+			case LIST_CONTACTS_BY_NAME:
+				return get("?sort=name&cursor="
+						+ new ContactCursor(ContactSort.NAME, contactIds[i], contactNames[i]).encode());
+			case LIST_CONTACTS_EXPANDED:
+				return get("?expand=addresses,phones");
+			case GET_CONTACT:
+				return get("/" + contactIds[i]);
+			case GET_CONTACT_EXPANDED:
+				return get("/" + contactIds[i] + "?expand=addresses,phones");
+			case GET_ADDRESSES:
+				return get("/" + addressOwners[random.nextInt(addressOwners.length)] + "/addresses");
+			case GET_PHONES:
+				return get("/" + phoneOwners[random.nextInt(phoneOwners.length)] + "/phones");
+			case ADD_CONTACT:
+				return send("POST", "", json(generator.record(nextIndex.getAndIncrement()).getContact(), null));
+			case UPDATE_CONTACT:
+				return send("PUT", "", mapper.createObjectNode()
+						.put("id", contactIds[i])
+						.put("name", contactNames[i])
+						.put("cpf", contactCpfs[i]).toString());
+			case ADD_ADDRESS:
+				return send("POST", "/" + contactIds[i] + "/address",
+						json(generator.address(0, new SplittableRandom(random.nextLong())), null));
+			case ADD_PHONE:
+				return send("POST", "/" + contactIds[i] + "/phone",
+						json(generator.phone(0, new SplittableRandom(random.nextLong())), null));
+			case DELETE_CONTACT:
+				// only contacts created by the driver are deleted, so the reads keep finding theirs
+				final var contactId = created.poll();
+				
+				return (contactId != null) ? send("DELETE", "/" + contactId, null) : null;
+			default:
+				throw new IllegalArgumentException(operation.toString());
+		}
+	}
+	
+	/**
+	 * Handles a response: counts errors, and keeps the created contacts.
+	 *
+	 * @param operation	the operation.
+	 * @param response	the response, or null on errors.
+	 * @param error	the error, if any.
+	 * @param measured	whether the request is out of the warmup.
+	 */
+	private void complete(Operation operation, HttpResponse<String> response, Throwable error, boolean measured) {
+		if ((error != null) || (response.statusCode() >= 400)) {
+			if (measured) {
+				errors.get(operation).increment();
+			}
+		} else if (operation == Operation.ADD_CONTACT) {
+			try {
+				created.add(mapper.readTree(response.body()).get("id").asLong());
+			} catch (IOException e) {
+				errors.get(operation).increment();
+			}
+		}
+	}
+	
+	/**
+	 * Prints the percentiles of each operation, in milliseconds, and writes
+	 * their full distributions as .hgrm files.
+	 *
+	 * @param out	the output.
+	 * @throws IOException
+	 */
+	public void report(PrintStream out) throws IOException {
+		final var output = Paths.get(options.get("output"));
+		final var all = new Histogram(HIGHEST_LATENCY, 3);
+		
+		Files.createDirectories(output);
+		out.printf("%nWorkload %s, %s requests/s for %s s (after %s s of warmup), %s contacts%n",
+				workload.getName(), options.get("rate"), options.get("duration"),
+				options.get("warmup"), options.get("contacts"));
+		out.printf("%-22s %8s %7s %7s %9s %9s %9s %9s %9s%n",
+				"Operation", "Count", "Errors", "Skipped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+		
+		for (var operation : workload.getOperations()) {
+			final var histogram = histograms.get(operation);
+			
+			all.add(histogram);
+			print(out, operation.getDescription(), histogram,
+					errors.get(operation).sum(), skipped.get(operation).sum());
+			write(output.resolve(workload.getName().replaceAll("\\W+", "_") + "-" + operation + ".hgrm"), histogram);
+		}
+		
+		print(out, "all", all, errors.values().stream().mapToLong(LongAdder::sum).sum(),
+				skipped.values().stream().mapToLong(LongAdder::sum).sum());
+		write(output.resolve(workload.getName().replaceAll("\\W+", "_") + "-all.hgrm"), all);
+	}
+	
+	/**
+	 * Prints a line of the report.
+	 *
+	 * @param out	the output.
+	 * @param name	the operation name.
+	 * @param histogram	the latencies, in microseconds.
+	 * @param errors	the number of errors.
+	 * @param skipped	the number of skipped requests.
+	 */
+	private static void print(PrintStream out, String name, Histogram histogram, long errors, long skipped) {
+		out.printf("%-22s %8d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+				name, histogram.getTotalCount(), errors, skipped,
+				histogram.getValueAtPercentile(50) / 1000.0,
+				histogram.getValueAtPercentile(90) / 1000.0,
+				histogram.getValueAtPercentile(99) / 1000.0,
+				histogram.getValueAtPercentile(99.9) / 1000.0,
+				histogram.getMaxValue() / 1000.0);
+	}
+	
+	/**
+	 * Writes the percentile distribution of a histogram, in milliseconds.
+	 *
+	 * @param file	the file.
+	 * @param histogram	the latencies, in microseconds.
+	 * @throws IOException
+	 */
+	private static void write(Path file, Histogram histogram) throws IOException {
+		try (var out = new PrintStream(Files.newOutputStream(file))) {
+			histogram.outputPercentileDistribution(out, 1000.0);
+		}
+	}
+	
+	/**
+	 * Builds a GET.
+	 *
+	 * @param path	the path, after /contacts.
+	 * @return	the request.
+	 */
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create(base + path))
+				.header("Accept", HAL_JSON)
+				.GET()
+				.build();
+	}
+	
+	/**
+	 * Builds a request with a JSON body, if any.
+	 *
+	 * @param method	the method.
+	 * @param path	the path, after /contacts.
+	 * @param json	the body, or null.
+	 * @return	the request.
+	 */
+	private HttpRequest send(String method, String path, String json) {
+		return HttpRequest.newBuilder(URI.create(base + path))
+				.header("Content-Type", "application/json")
+				.header("Accept", HAL_JSON)
+				.method(method, (json != null) ? BodyPublishers.ofString(json) : BodyPublishers.noBody())
+				.build();
+	}
+	
+	/**
+	 * Writes an entity as request JSON, without links.
+	 *
+	 * @param entity	the entity.
+	 * @param id	the ID, or null for new ones.
+	 * @return	the JSON.
+	 */
+	private String json(Object entity, Long id) {
+		final ObjectNode node = mapper.valueToTree(entity);
+		
+		node.remove("links");
+		node.put("id", id);
+		
+		return node.toString();
+	}
+}
@@ -0,0 +1,57 @@
+package br.com.silvio.everis.contacts.load;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+/**
+ * Operations of the load driver, one for each kind of call to the
+ * contacts API.
+ *
+ * @author silvio.araujo
+ *
+ */
+public enum Operation {
+	LIST_CONTACTS("listContacts"),
+	LIST_CONTACTS_BY_NAME("listContactsByName"),
+	LIST_CONTACTS_EXPANDED("listContactsExpanded"),
+	GET_CONTACT("getContact"),
+	GET_CONTACT_EXPANDED("getContactExpanded"),
+	GET_ADDRESSES("getAddresses"),
+	GET_PHONES("getPhones"),
+	ADD_CONTACT("addContact"),
+	UPDATE_CONTACT("updateContact"),
+	ADD_ADDRESS("addAddress"),
+	ADD_PHONE("addPhone"),
+	DELETE_CONTACT("deleteContact");
+	
+	private String description;
+	
+	Operation(String description) {
+		this.description = description;
+	}
+	
+	/**
+	 * Gets the operation of a given description.
+	 *
+	 * @param description	the description.
+	 * @return	the operation.
+	 * @throws	Invalid.
+	 */
+	public static Operation of(String description) {
+		for (var operation : values()) {
+			if (operation.description.equalsIgnoreCase(description)) {
+				return operation;
+			}
+		}
+		
+		throw new Invalid("load operation");
+	}
+	
+	public String getDescription() {
+		return this.description;
+	}
+	
+	@Override
+	public String toString() {
+		return this.getDescription();
+	}
+}
@@ -0,0 +1,110 @@
+package br.com.silvio.everis.contacts.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+
+/**
+ * Workload mix: the weight of each operation in the traffic.
+ *
+ * It is either one of the presets (read-heavy, write-heavy, list-heavy)
+ * or a list of operations and weights, like "getContact:80,addContact:20".
+ *
+ * @author silvio.araujo
+ *
+ */
+public class Workload {
+
+	private static final Map<String, String> PRESETS = Map.of(
+			"read-heavy", "getContact:40,getContactExpanded:10,getAddresses:10,getPhones:10,listContacts:15,"
+					+ "addContact:5,updateContact:5,addAddress:2,addPhone:2,deleteContact:1",
+			"write-heavy", "addContact:30,updateContact:20,addAddress:10,addPhone:10,deleteContact:10,"
+					+ "getContact:15,listContacts:5",
+			"list-heavy", "listContacts:30,listContactsByName:20,listContactsExpanded:20,getContact:20,"
+					+ "addContact:5,updateContact:5");
+	
+	private final String name;
+	
+	private final Operation[] operations;
+	
+	private final int[] cumulativeWeights;
+	
+	/**
+	 * Class constructor.
+	 *
+	 * @param name	the preset name or the mix itself.
+	 * @param weights	the weight of each operation.
+	 */
+	private Workload(String name, Map<Operation, Integer> weights) {
+		this.name = name;
+		this.operations = weights.keySet().toArray(new Operation[0]);
+		this.cumulativeWeights = new int[operations.length];
+		
+		var sum = 0;
+		
+		for (var i = 0; i < operations.length; i++) {
+			sum += weights.get(operations[i]);
+			cumulativeWeights[i] = sum;
+		}
+	}
+	
+	/**
+	 * Parses a workload mix.
+	 *
+	 * @param mix	a preset name, or a list of operations and weights.
+	 * @return	the workload.
+	 * @throws	Invalid.
+	 */
+	public static Workload of(String mix) {
+		final var weights = new EnumMap<Operation, Integer>(Operation.class);
+		
+		try {
+			for (var entry : PRESETS.getOrDefault(mix, mix).split(",")) {
+				final var parts = entry.split(":");
+				final var weight = Integer.parseInt(parts[1].trim());
+				
+				if (weight < 0) {
+					throw new Invalid("workload weight");
+				}
+				
+				weights.merge(Operation.of(parts[0].trim()), weight, Integer::sum);
+			}
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			throw new Invalid("workload mix");
+		}
+		
+		weights.values().removeIf(weight -> weight == 0);
+		
+		if (weights.isEmpty()) {
+			throw new Invalid("workload mix");
+		}
+		
+		return new Workload(mix, weights);
+	}
+	
+	/**
+	 * Picks the next operation at random, by weight.
+	 *
+	 * @return	the operation.
+	 */
+	public Operation next() {
+		final var roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		var i = 0;
+		
+		while (roll >= cumulativeWeights[i]) {
+			i++;
+		}
+		
+		return operations[i];
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public Operation[] getOperations() {
+		return operations.clone();
+	}
+}
@@ -0,0 +1,159 @@
+package br.com.silvio.everis.contacts.schema;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationState;
+import org.flywaydb.core.api.MigrationType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.service.ContactService;
+
+@SpringBootTest(properties={"spring.datasource.url=" + SchemaMigrationTest.LEGACY_URL})
+public class SchemaMigrationTest {
+	private static final Logger logger = LoggerFactory.getLogger(SchemaMigrationTest.class);
+	
+	static final String LEGACY_URL = "jdbc:h2:mem:legacy_schema_test;DB_CLOSE_DELAY=-1";
+	private static final String FRESH_URL = "jdbc:h2:mem:fresh_schema_test;DB_CLOSE_DELAY=-1";
+	
+	// schema and rows left by the former ddl-auto=update, before any migration
+	private static final List<String> LEGACY_DATABASE = List.of(
+			"create sequence seqaddresses start with 1 increment by 1",
+			"create sequence seqcontacts start with 1 increment by 1",
+			"create sequence seqphones start with 1 increment by 1",
+			"create table address (id bigint not null, address_type integer, city varchar(255), complement varchar(255), "
+			+ "neighborhood varchar(255), number varchar(255), street varchar(255), street_type integer, zip_code varchar(255), "
+			+ "owner bigint not null, primary key (id))",
+			"create table contact (id bigint not null, birthdate timestamp, cpf varchar(255), name varchar(255), primary key (id))",
+			"create table phone (id bigint not null, ddd varchar(255), ddi varchar(255), extension varchar(255), number varchar(255), "
+			+ "phone_type integer, owner bigint not null, primary key (id))",
+			"alter table phone add constraint FKj57ej5qcgxq60fogm8rjlhv1c foreign key (owner) references contact",
+			"alter table address add constraint FKmndv09vjw3qmma29rdi1dij5b foreign key (owner) references contact",
+			"insert into contact (id, name, cpf) values (1, 'JOAO DA SILVA', '52998224725'), (2, 'MARIA DAS DORES', null), "
+			+ "(3, 'JOSE DE ALENCAR', '11144477735'), "
+			+ "(4, 'JOAO DA SILVA FILHO', '52998224725'), (5, 'JOAO DA SILVA NETO', '52998224725')",
+			"insert into address (id, city, zip_code, owner) values (1, 'SAO PAULO', '01311-000', 1)",
+			"insert into phone (id, ddi, ddd, number, owner) values (1, '55', '11', '987654321', 1)",
+			"alter sequence seqcontacts restart with 6",
+			"alter sequence seqaddresses restart with 2",
+			"alter sequence seqphones restart with 2");
+	
+	@Autowired
+	private Flyway flyway;
+	
+	@Autowired
+	private ContactService service;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@BeforeAll
+	public static void createLegacyDatabase() throws Exception {
+		try (var connection = DriverManager.getConnection(LEGACY_URL, "sa", "sa"); var statement = connection.createStatement()) {
+			for (var sql : LEGACY_DATABASE) {
+				statement.execute(sql);
+			}
+		}
+	}
+	
+	private static Map<String, List<Map<String, Object>>> describe(JdbcTemplate jdbcTemplate) {
+		return Map.of(
+				"columns", jdbcTemplate.queryForList(
+						"select TABLE_NAME, COLUMN_NAME, TYPE_NAME, IS_NULLABLE, COLUMN_DEFAULT from INFORMATION_SCHEMA.COLUMNS "
+						+ "where TABLE_SCHEMA = SCHEMA() and TABLE_NAME in ('CONTACT', 'ADDRESS', 'PHONE') order by 1, 2"),
+				"indexes", jdbcTemplate.queryForList(
+						"select TABLE_NAME, INDEX_NAME, COLUMN_NAME, ORDINAL_POSITION, NON_UNIQUE from INFORMATION_SCHEMA.INDEXES "
+						+ "where TABLE_SCHEMA = SCHEMA() and (INDEX_NAME like 'IDX\\_%' or INDEX_NAME like 'UK\\_%') order by 1, 2, 4"),
+				"keys", jdbcTemplate.queryForList(
+						"select FK_NAME, FKTABLE_NAME, FKCOLUMN_NAME, PKTABLE_NAME, DELETE_RULE from INFORMATION_SCHEMA.CROSS_REFERENCES "
+						+ "where FKTABLE_SCHEMA = SCHEMA() order by 1"),
+				"sequences", jdbcTemplate.queryForList(
+						"select SEQUENCE_NAME, INCREMENT from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_SCHEMA = SCHEMA() order by 1"));
+	}
+	
+	@Test
+	public void testLegacyDatabaseIsBaselined() {
+		logger.info("*** Teste de migração de banco criado pelo ddl-auto=update ***");
+		
+		final var applied = flyway.info().applied();
+		
+		assertEquals(MigrationType.BASELINE, applied[0].getType(), "Banco existente não foi marcado na versão de base");
+		assertEquals("1", applied[0].getVersion().getVersion());
+		assertEquals(0, flyway.info().pending().length, "Migrações pendentes");
+		
+		final var versions = List.of(applied).stream().map(migration -> migration.getVersion().getVersion()).collect(Collectors.toList());
+		
+		assertTrue(versions.containsAll(List.of("1.1", "1.2", "1.3")), "Migrações posteriores à base não aplicadas: " + versions);
+		
+		for (var migration : applied) {
+			assertTrue(migration.getState() == MigrationState.BASELINE || migration.getState() == MigrationState.SUCCESS,
+					   "Migração falhou: " + migration.getVersion());
+		}
+	}
+	
+	@Test
+	public void testSchemaMatchesNewDatabase() {
+		logger.info("*** Teste do esquema migrado contra o de um banco novo ***");
+		
+		final var fresh = Flyway.configure()
+				.dataSource(FRESH_URL, "sa", "sa")
+				.locations(flyway.getConfiguration().getLocations())
+				.load();
+		
+		fresh.migrate();
+		
+		final var expected = describe(new JdbcTemplate(new DriverManagerDataSource(FRESH_URL, "sa", "sa")));
+		final var actual = describe(jdbcTemplate);
+		
+		for (var part : expected.keySet()) {
+			assertEquals(expected.get(part), actual.get(part), "Esquema migrado difere do banco novo: " + part);
+		}
+	}
+	
+	@Test
+	public void testRepeatedCpfsAreAudited() {
+		logger.info("*** Teste dos CPFs repetidos retirados na migração ***");
+		
+		assertEquals("52998224725", jdbcTemplate.queryForObject("select cpf from CONTACT where id = 1", String.class),
+					 "CPF retirado do contato mais antigo");
+		assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from CONTACT where id in (4, 5) and cpf is not null", Long.class),
+					 "CPF repetido mantido");
+		
+		final var audited = jdbcTemplate.queryForList("select contact_id, cpf, kept_by from CONTACT_CPF_AUDIT order by contact_id");
+		
+		assertEquals(List.of(Map.of("CONTACT_ID", 4L, "CPF", "52998224725", "KEPT_BY", 1L),
+							 Map.of("CONTACT_ID", 5L, "CPF", "52998224725", "KEPT_BY", 1L)),
+					 audited, "CPFs retirados não registrados");
+	}
+	
+	@Test
+	public void testLegacyRowsAreUsable() {
+		logger.info("*** Teste dos registros de um banco migrado ***");
+		
+		assertEquals(0L, service.loadContactById(1L).getVersion(), "Versão dos registros existentes não iniciada");
+		assertEquals(1, service.loadContactAddresses(1L).size());
+		
+		var contact = new Contact();
+		contact.setName("PEDRO ALVARES CABRAL");
+		
+		assertTrue(service.addContact(contact).getId() > 5, "Sequence não reiniciada após os IDs existentes");
+		
+		// cascaded by the recreated foreign keys
+		service.deleteContact(1L);
+		assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from ADDRESS where owner = 1", Long.class), "Endereço do contato mantido");
+		assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from PHONE where owner = 1", Long.class), "Telefone do contato mantido");
+	}
+}
@@ -0,0 +1,101 @@
+package br.com.silvio.everis.contacts.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BloomFilterTest {
+	private static final Logger logger = LoggerFactory.getLogger(BloomFilterTest.class);
+	
+	private static String cpf(long value) {
+		return String.format("%011d", value);
+	}
+	
+	@Test
+	public void testNoFalseNegatives() {
+		logger.info("*** Teste de ausência de falsos negativos ***");
+		
+		var filter = new BloomFilter(10000, 0.01);
+		
+		assertEquals(10000, filter.getCapacity());
+		assertFalse(filter.mightContain(cpf(0)), "Filtro vazio contém CPF");
+		
+		// sequential CPFs, and twice the capacity
+		for (var i = 0L; i < 20000; i++) {
+			filter.add(cpf(i * 7));
+		}
+		
+		for (var i = 0L; i < 20000; i++) {
+			assertTrue(filter.mightContain(cpf(i * 7)), "Falso negativo: " + cpf(i * 7));
+		}
+		
+		var tiny = new BloomFilter(0, 0.01);
+		
+		tiny.add("");
+		tiny.add("12345678909");
+		assertTrue(tiny.mightContain(""));
+		assertTrue(tiny.mightContain("12345678909"));
+	}
+	
+	@Test
+	public void testFalsePositiveRate() {
+		logger.info("*** Teste da taxa de falsos positivos ***");
+		
+		var filter = new BloomFilter(10000, 0.01);
+		
+		for (var i = 0L; i < 10000; i++) {
+			filter.add(cpf(i));
+		}
+		
+		var falsePositives = 0;
+		
+		for (var i = 10000L; i < 110000; i++) {
+			if (filter.mightContain(cpf(i))) {
+				falsePositives++;
+			}
+		}
+		
+		// 1% expected; twice that would mean badly spread bits
+		assertTrue(falsePositives < 2000, "Taxa de falsos positivos acima do esperado: " + falsePositives + " em 100000");
+	}
+	
+	@Test
+	public void testConcurrentAdds() throws Exception {
+		logger.info("*** Teste de inclusões concorrentes ***");
+		
+		final var filter = new BloomFilter(1000, 0.01);
+		final var threads = 8;
+		final var executor = Executors.newFixedThreadPool(threads);
+		final var results = new ArrayList<Future<?>>();
+		
+		// few bits for many strings, so threads keep racing on the same words
+		try {
+			for (var t = 0; t < threads; t++) {
+				final var first = t * 20000L;
+				
+				results.add(executor.submit(() -> {
+					for (var i = first; i < first + 20000; i++) {
+						filter.add(cpf(i));
+					}
+				}));
+			}
+			
+			for (var result : results) {
+				result.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		for (var i = 0L; i < threads * 20000L; i++) {
+			assertTrue(filter.mightContain(cpf(i)), "Bit perdido em inclusão concorrente: " + cpf(i));
+		}
+	}
+}
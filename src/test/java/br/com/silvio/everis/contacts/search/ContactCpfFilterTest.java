@@ -0,0 +1,175 @@
+package br.com.silvio.everis.contacts.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import br.com.silvio.everis.contacts.dao.ContactDao;
+
+public class ContactCpfFilterTest {
+	private static final Logger logger = LoggerFactory.getLogger(ContactCpfFilterTest.class);
+	private static final String NEW_CPF = "39053344705";
+	
+	private final List<String> cpfs = new ArrayList<>(List.of("12345678909", "52998224725", "11144477735"));
+	
+	private ContactDao contactDao;
+	
+	private ContactCpfFilter filter;
+	
+	// runs while the CPFs are streamed by a rebuild, after the snapshot is taken
+	private Runnable duringRebuild;
+	
+	@BeforeEach
+	public void createFilter() {
+		contactDao = mock(ContactDao.class);
+		when(contactDao.countCpfs()).thenAnswer(invocation -> (long) cpfs.size());
+		when(contactDao.streamCpfs()).thenAnswer(invocation -> {
+			final var snapshot = List.copyOf(cpfs);
+			final var hook = duringRebuild;
+			
+			duringRebuild = null;
+			return Stream.concat(snapshot.stream().limit(1),
+					Stream.of("").flatMap(ignored -> {
+						if (hook != null) {
+							hook.run();
+						}
+						return snapshot.stream().skip(1);
+					}));
+		});
+		
+		filter = new ContactCpfFilter();
+		filter.contactDao = contactDao;
+		filter.transactionManager = mock(PlatformTransactionManager.class);
+		ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+		ReflectionTestUtils.setField(filter, "minCapacity", 1024L);
+	}
+	
+	@AfterEach
+	public void stopFilter() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		
+		filter.stopRebuilder();
+	}
+	
+	// commits a write: runs its after commit callbacks, as the transaction manager would
+	private static void commit() {
+		final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+	}
+	
+	@Test
+	public void testUnbuiltFilterProbesEveryCpf() {
+		logger.info("*** Teste do filtro de CPFs antes de sua construção ***");
+		
+		assertTrue(filter.mightExist(NEW_CPF), "CPF descartado sem o filtro construído");
+		
+		filter.build();
+		
+		cpfs.forEach(cpf -> assertTrue(filter.mightExist(cpf), "CPF do banco fora do filtro: " + cpf));
+		assertFalse(filter.mightExist(NEW_CPF), "CPF novo consta do filtro");
+	}
+	
+	@Test
+	public void testIsTakenProbesOnlyCpfsTheFilterMightHaveSeen() {
+		logger.info("*** Teste de consulta ao banco apenas dos CPFs que o filtro pode ter visto ***");
+		
+		when(contactDao.findIdByCpf("12345678909")).thenReturn(1L);
+		filter.build();
+		
+		assertFalse(filter.isTaken(NEW_CPF, null));
+		verify(contactDao, never()).findIdByCpf(anyString());
+		
+		assertTrue(filter.isTaken("12345678909", null));
+		assertTrue(filter.isTaken("12345678909", 2L));
+		assertFalse(filter.isTaken("12345678909", 1L), "CPF do próprio contato dado como ocupado");
+		assertFalse(filter.isTaken(null, null));
+	}
+	
+	@Test
+	public void testCpfIsAddedOnlyAfterCommit() {
+		logger.info("*** Teste de inclusão de CPF no filtro após o commit ***");
+		
+		filter.build();
+		
+		TransactionSynchronizationManager.initSynchronization();
+		filter.add(NEW_CPF);
+		assertFalse(filter.mightExist(NEW_CPF), "CPF incluído antes do commit");
+		TransactionSynchronizationManager.clearSynchronization();
+		assertFalse(filter.mightExist(NEW_CPF), "CPF de transação desfeita incluído");
+		
+		TransactionSynchronizationManager.initSynchronization();
+		filter.add(NEW_CPF);
+		commit();
+		assertTrue(filter.mightExist(NEW_CPF), "CPF não incluído após o commit");
+	}
+	
+	@Test
+	public void testWriteCommittedDuringRebuildIsKept() {
+		logger.info("*** Teste de CPF gravado durante a reconstrução do filtro ***");
+		
+		filter.build();
+		
+		// the write begins before the rebuild, and commits after its snapshot
+		TransactionSynchronizationManager.initSynchronization();
+		filter.add(NEW_CPF);
+		duringRebuild = () -> {
+			cpfs.add(NEW_CPF);
+			commit();
+		};
+		filter.build();
+		
+		assertNull(duringRebuild, "Reconstrução não leu os CPFs");
+		assertTrue(filter.mightExist(NEW_CPF), "CPF gravado durante a reconstrução foi perdido");
+		
+		// a write out of a transaction, during the rebuild
+		final var other = "87748248800";
+		
+		duringRebuild = () -> {
+			cpfs.add(other);
+			filter.add(other);
+		};
+		filter.build();
+		
+		assertTrue(filter.mightExist(other), "CPF gravado durante a reconstrução foi perdido");
+		assertTrue(filter.mightExist(NEW_CPF));
+	}
+	
+	@Test
+	public void testFilterIsRebuiltWhenOutgrown() {
+		logger.info("*** Teste de reconstrução do filtro ao exceder sua capacidade ***");
+		
+		ReflectionTestUtils.setField(filter, "minCapacity", 4L);
+		filter.build();
+		
+		final var written = new ArrayList<String>();
+		
+		for (var i = 0; i < 8; i++) {
+			written.add(String.format("%011d", i));
+		}
+		
+		cpfs.addAll(written);
+		written.forEach(filter::add);
+		
+		verify(contactDao, timeout(5000).atLeast(2)).streamCpfs();
+		
+		cpfs.forEach(cpf -> assertTrue(filter.mightExist(cpf), "CPF perdido na reconstrução: " + cpf));
+	}
+}
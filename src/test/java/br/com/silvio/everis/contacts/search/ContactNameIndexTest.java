@@ -0,0 +1,158 @@
+package br.com.silvio.everis.contacts.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import br.com.silvio.everis.contacts.dao.ContactDao;
+
+public class ContactNameIndexTest {
+	private static final Logger logger = LoggerFactory.getLogger(ContactNameIndexTest.class);
+	
+	private final List<Object[]> rows = new ArrayList<>(List.of(
+			new Object[] {1L, "JOÃO DA SILVA"},
+			new Object[] {2L, "JOAQUIM BARBOSA"},
+			new Object[] {3L, "MARIA JOÃO"},
+			new Object[] {4L, "JOSÉ SILVA"}));
+	
+	private ContactNameIndex index;
+	
+	@BeforeEach
+	public void createIndex() {
+		var contactDao = mock(ContactDao.class);
+		when(contactDao.streamNames()).thenAnswer(invocation -> List.copyOf(rows).stream());
+		
+		index = new ContactNameIndex();
+		index.contactDao = contactDao;
+		index.transactionManager = mock(PlatformTransactionManager.class);
+		index.build();
+	}
+	
+	@AfterEach
+	public void clearTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	@Test
+	public void testFold() {
+		logger.info("*** Teste de normalização dos nomes ***");
+		
+		assertArrayEquals(ContactNameIndex.fold("JOAO DA SILVA"), ContactNameIndex.fold("  João da-Silva! "),
+						  "Acentos, caixa ou separadores alteram o nome normalizado");
+		assertArrayEquals(new byte[] {1, 0, 2, 27, 36}, ContactNameIndex.fold("a, B09"));
+		assertEquals(0, ContactNameIndex.fold(null).length);
+		assertEquals(0, ContactNameIndex.fold("!?").length);
+		
+		// the first trigram of each word is anchored at its start
+		assertEquals(1, ContactNameIndex.trigrams(ContactNameIndex.fold("DA"), Integer.MAX_VALUE).length);
+		assertEquals(0, ContactNameIndex.trigrams(ContactNameIndex.fold("A E I"), Integer.MAX_VALUE).length);
+		assertEquals(3, ContactNameIndex.trigrams(ContactNameIndex.fold("ANA ANA LU"), Integer.MAX_VALUE).length,
+					 "Trigramas repetidos");
+		assertEquals(2, ContactNameIndex.trigrams(ContactNameIndex.fold("JOAQUIM"), 2).length);
+	}
+	
+	@Test
+	public void testSuggestRanking() {
+		logger.info("*** Teste de ordenação das sugestões ***");
+		
+		assertEquals(1L, index.suggest("joao da sil", 10).get(0));
+		assertEquals(List.of(3L), index.suggest("JOAO MARIA", 10), "Ordem das palavras altera a sugestão");
+		assertEquals(2L, index.suggest("joaquin barbosa", 10).get(0), "Erro de digitação não tolerado");
+		
+		// same matches: names starting with the query first, then the shortest ones
+		assertEquals(List.of(4L, 1L, 2L, 3L), index.suggest("jo", 10));
+		assertEquals(List.of(4L, 1L), index.suggest("jo", 2));
+		
+		assertTrue(index.suggest("", 10).isEmpty());
+		assertTrue(index.suggest("!?", 10).isEmpty());
+		assertTrue(index.suggest("pedro", 10).isEmpty());
+	}
+	
+	@Test
+	public void testWritesOutOfTransaction() {
+		logger.info("*** Teste de alterações do índice fora de transação ***");
+		
+		index.put(2L, "TEREZA BARBOSA");
+		assertEquals(List.of(2L), index.suggest("tereza", 10));
+		assertTrue(index.suggest("joaquim barbosa", 10).isEmpty(), "Nome antigo mantido no índice");
+		
+		index.put(4L, "JOSÉ SILVA");
+		index.put(4L, "JOSE SILVA");
+		assertEquals(List.of(4L, 1L), index.suggest("jose silva", 10), "Nome igual indexado duas vezes");
+		
+		index.remove(List.of(1L, 99L));
+		assertTrue(index.suggest("joao da silva", 10).isEmpty(), "Contato removido mantido no índice");
+		assertEquals(List.of(3L), index.suggest("maria joao", 10));
+	}
+	
+	@Test
+	public void testWritesAfterCommit() {
+		logger.info("*** Teste de alterações do índice após o commit ***");
+		
+		TransactionSynchronizationManager.initSynchronization();
+		index.put(5L, "PEDRO ALVARES");
+		index.remove(List.of(4L));
+		assertTrue(index.suggest("pedro", 10).isEmpty(), "Nome incluído antes do commit");
+		TransactionSynchronizationManager.clearSynchronization();
+		
+		assertTrue(index.suggest("pedro", 10).isEmpty(), "Nome de transação desfeita incluído");
+		assertEquals(4L, index.suggest("jose silva", 10).get(0), "Contato removido por transação desfeita");
+		
+		TransactionSynchronizationManager.initSynchronization();
+		index.put(5L, "PEDRO ALVARES");
+		index.remove(List.of(4L));
+		
+		final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+		
+		assertEquals(List.of(5L), index.suggest("pedro", 10));
+		assertFalse(index.suggest("jose silva", 10).contains(4L));
+	}
+	
+	@Test
+	public void testCompaction() {
+		logger.info("*** Teste de compactação do índice ***");
+		
+		for (var id = 100L; id < 3100L; id++) {
+			index.put(id, "CONTATO " + id);
+		}
+		
+		for (var id = 100L; id < 2600L; id++) {
+			if (id % 5 == 0) {
+				index.put(id, "RENOMEADO " + id);
+			} else {
+				index.remove(List.of(id));
+			}
+		}
+		
+		assertTrue((int) ReflectionTestUtils.getField(index, "size") < 3000 + 4, "Índice não foi compactado");
+		
+		for (var id = 100L; id < 3100L; id += 7) {
+			final var renamed = (id < 2600L) && (id % 5 == 0);
+			final var live = (id >= 2600L) || renamed;
+			
+			final var found = index.suggest((renamed ? "renomeado " : "contato ") + id, 10);
+			
+			assertEquals(live, found.contains(id), "Sugestão errada após compactação: " + id);
+			assertTrue(!live || (found.get(0) == id), "Sugestão fora de ordem após compactação: " + id);
+		}
+		
+		assertEquals(List.of(4L, 1L, 2L, 3L), index.suggest("jo", 10));
+	}
+}
@@ -0,0 +1,96 @@
+package br.com.silvio.everis.contacts.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LongIntHashMapTest {
+	private static final Logger logger = LoggerFactory.getLogger(LongIntHashMapTest.class);
+	private static final int MISSING = -1;
+	
+	@Test
+	public void testPutGetRemove() {
+		logger.info("*** Teste de inclusão, consulta e remoção de chaves ***");
+		
+		var map = new LongIntHashMap(4);
+		
+		assertEquals(MISSING, map.get(1L, MISSING));
+		assertEquals(MISSING, map.remove(1L, MISSING));
+		
+		map.put(1L, 10);
+		map.put(-5L, 50);
+		map.put(0L, 0);
+		map.put(Long.MAX_VALUE, 7);
+		map.put(1L, 11);
+		
+		assertEquals(4, map.size(), "Chave repetida contada duas vezes");
+		assertEquals(11, map.get(1L, MISSING), "Valor não substituído");
+		assertEquals(50, map.get(-5L, MISSING));
+		assertEquals(0, map.get(0L, MISSING));
+		assertEquals(7, map.get(Long.MAX_VALUE, MISSING));
+		
+		assertEquals(50, map.remove(-5L, MISSING));
+		assertEquals(MISSING, map.get(-5L, MISSING));
+		assertEquals(MISSING, map.remove(-5L, MISSING));
+		assertEquals(3, map.size());
+		
+		map.clear(100);
+		assertEquals(0, map.size());
+		assertEquals(MISSING, map.get(1L, MISSING), "Chave mantida após limpeza");
+	}
+	
+	@Test
+	public void testMatchesHashMapAcrossGrowthAndRemovals() {
+		logger.info("*** Teste do mapa contra um HashMap, com crescimento e remoções ***");
+		
+		var random = new Random(42);
+		var map = new LongIntHashMap(16);
+		var expected = new HashMap<Long, Integer>();
+		
+		// few distinct keys, so removals shift back long probe chains
+		for (var i = 0; i < 200000; i++) {
+			final var key = (long) random.nextInt(5000);
+			
+			if (random.nextInt(3) == 0) {
+				final var removed = expected.remove(key);
+				
+				assertEquals((removed == null) ? MISSING : removed, map.remove(key, MISSING), "Remoção da chave " + key);
+			} else {
+				expected.put(key, i);
+				map.put(key, i);
+			}
+		}
+		
+		assertEquals(expected.size(), map.size());
+		
+		for (var key = 0L; key < 5000; key++) {
+			assertEquals(expected.getOrDefault(key, MISSING), map.get(key, MISSING), "Valor da chave " + key);
+		}
+	}
+	
+	@Test
+	public void testSequentialKeys() {
+		logger.info("*** Teste de chaves sequenciais, como os IDs ***");
+		
+		var map = new LongIntHashMap(1);
+		
+		for (var id = 1; id <= 100000; id++) {
+			map.put(id, id);
+		}
+		
+		for (var id = 1; id <= 100000; id += 2) {
+			assertEquals(id, map.remove(id, MISSING));
+		}
+		
+		assertEquals(50000, map.size());
+		
+		for (var id = 1; id <= 100000; id++) {
+			assertEquals((id % 2 == 0) ? id : MISSING, map.get(id, MISSING), "Valor da chave " + id);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package br.com.silvio.everis.contacts.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import br.com.silvio.everis.contacts.dao.PhoneDao;
+
+public class PhoneOwnerIndexTest {
+	private static final Logger logger = LoggerFactory.getLogger(PhoneOwnerIndexTest.class);
+	private static final long MOBILE = 5511987654321L;
+	private static final long FIX = 551132654321L;
+	
+	// phone ID, owner ID and packed E.164, as streamed from database
+	private final List<Object[]> rows = new ArrayList<>(List.of(
+			new Object[] {1L, 10L, MOBILE},
+			new Object[] {2L, 20L, MOBILE},
+			new Object[] {3L, 20L, FIX},
+			new Object[] {4L, 30L, MOBILE}));
+	
+	private PhoneOwnerIndex index;
+	
+	@BeforeEach
+	public void createIndex() {
+		var phoneDao = mock(PhoneDao.class);
+		when(phoneDao.streamE164s()).thenAnswer(invocation -> List.copyOf(rows).stream());
+		
+		index = new PhoneOwnerIndex();
+		index.phoneDao = phoneDao;
+		index.transactionManager = mock(PlatformTransactionManager.class);
+	}
+	
+	@AfterEach
+	public void clearTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	@Test
+	public void testBuildAndLookup() {
+		logger.info("*** Teste de construção e consulta do índice de telefones ***");
+		
+		assertFalse(index.isBuilt(), "Índice dado como construído antes do build");
+		
+		index.build();
+		
+		assertTrue(index.isBuilt());
+		assertEquals(Set.of(10L, 20L, 30L), index.ownersOf(MOBILE));
+		assertEquals(Set.of(20L), index.ownersOf(FIX));
+		assertTrue(index.ownersOf(5521912345678L).isEmpty());
+		
+		// a second phone of the same owner and number lists the owner once
+		index.put(5L, 10L, MOBILE);
+		assertEquals(Set.of(10L, 20L, 30L), index.ownersOf(MOBILE));
+	}
+	
+	@Test
+	public void testWritesOutOfTransaction() {
+		logger.info("*** Teste de alterações do índice de telefones fora de transação ***");
+		
+		index.build();
+		
+		// the middle of the chain of a number
+		index.put(2L, 20L, 5521988887777L);
+		assertEquals(Set.of(10L, 30L), index.ownersOf(MOBILE));
+		assertEquals(Set.of(20L), index.ownersOf(5521988887777L));
+		
+		index.put(2L, 40L, 5521988887777L);
+		assertEquals(Set.of(40L), index.ownersOf(5521988887777L), "Dono antigo mantido no índice");
+		
+		index.put(2L, 40L, 5521988887777L);
+		assertEquals(Set.of(40L), index.ownersOf(5521988887777L));
+		
+		index.put(4L, 30L, null);
+		assertEquals(Set.of(10L), index.ownersOf(MOBILE), "Telefone sem E.164 mantido no índice");
+		
+		index.remove(1L);
+		index.remove(99L);
+		assertTrue(index.ownersOf(MOBILE).isEmpty(), "Telefone removido mantido no índice");
+		
+		index.put(6L, 20L, MOBILE);
+		index.removeOwners(List.of(20L, 99L));
+		assertTrue(index.ownersOf(MOBILE).isEmpty(), "Telefone de dono removido mantido no índice");
+		assertTrue(index.ownersOf(FIX).isEmpty(), "Telefone de dono removido mantido no índice");
+		assertEquals(Set.of(40L), index.ownersOf(5521988887777L));
+	}
+	
+	@Test
+	public void testWritesAfterCommit() {
+		logger.info("*** Teste de alterações do índice de telefones após o commit ***");
+		
+		index.build();
+		
+		TransactionSynchronizationManager.initSynchronization();
+		index.put(5L, 50L, FIX);
+		index.removeOwners(List.of(10L));
+		assertEquals(Set.of(20L), index.ownersOf(FIX), "Telefone incluído antes do commit");
+		TransactionSynchronizationManager.clearSynchronization();
+		
+		assertEquals(Set.of(20L), index.ownersOf(FIX), "Telefone de transação desfeita incluído");
+		assertEquals(Set.of(10L, 20L, 30L), index.ownersOf(MOBILE), "Telefone removido por transação desfeita");
+		
+		TransactionSynchronizationManager.initSynchronization();
+		index.put(5L, 50L, FIX);
+		index.removeOwners(List.of(10L));
+		
+		final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+		
+		assertEquals(Set.of(20L, 50L), index.ownersOf(FIX));
+		assertEquals(Set.of(20L, 30L), index.ownersOf(MOBILE));
+	}
+	
+	@Test
+	public void testSlotsAreReused() {
+		logger.info("*** Teste de reaproveitamento das posições do índice de telefones ***");
+		
+		index.build();
+		
+		// past the initial capacity, all of them on the same number
+		for (var phoneId = 100L; phoneId < 3100L; phoneId++) {
+			index.put(phoneId, phoneId, FIX);
+		}
+		
+		assertEquals(3001, index.ownersOf(FIX).size());
+		
+		final var size = (int) ReflectionTestUtils.getField(index, "size");
+		
+		for (var phoneId = 100L; phoneId < 3100L; phoneId += 2) {
+			index.remove(phoneId);
+		}
+		
+		for (var phoneId = 5000L; phoneId < 6500L; phoneId++) {
+			index.put(phoneId, phoneId, MOBILE);
+		}
+		
+		assertEquals(size, ReflectionTestUtils.getField(index, "size"), "Posições liberadas não foram reaproveitadas");
+		assertEquals(1501, index.ownersOf(FIX).size());
+		assertEquals(1503, index.ownersOf(MOBILE).size());
+		assertTrue(index.ownersOf(FIX).contains(101L));
+		assertFalse(index.ownersOf(FIX).contains(100L));
+	}
+}
@@ -0,0 +1,168 @@
+package br.com.silvio.everis.contacts.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import br.com.silvio.everis.contacts.bulk.ImportError;
+import br.com.silvio.everis.contacts.bulk.ImportReport;
+import br.com.silvio.everis.contacts.enums.ImportFormat;
+import br.com.silvio.everis.contacts.exceptions.AlreadyExists;
+import br.com.silvio.everis.contacts.model.Contact;
+
+@SpringBootTest(properties={"spring.datasource.url=jdbc:h2:mem:contact_import_test",
+							"contacts.import.chunk.size=3",
+							"contacts.import.errors.max=5"})
+@AutoConfigureMockMvc
+public class ContactImportServiceImplTest {
+	private static final Logger logger = LoggerFactory.getLogger(ContactImportServiceImplTest.class);
+	
+	@Autowired
+	private MockMvc mvc;
+	
+	@Autowired
+	private ContactImportService importService;
+	
+	@Autowired
+	private ContactService service;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	private ImportReport importLines(String... lines) {
+		var body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+		
+		return importService.importContacts(ImportFormat.NDJSON, new ByteArrayInputStream(body));
+	}
+	
+	private static Map<Long, String> errorsByRecord(ImportReport report) {
+		return report.getErrors().stream().collect(Collectors.toMap(ImportError::getRecord, ImportError::getMessage));
+	}
+	
+	private long countNamed(String name) {
+		return jdbcTemplate.queryForObject("select count(*) from CONTACT where name = ?", Long.class, name);
+	}
+	
+	@Test
+	public void testImportMixedRecords() throws Exception {
+		logger.info("*** Teste de importação de registros válidos e inválidos ***");
+		
+		var body = String.join("\n",
+				"{\"name\":\"IMPORTADO VALIDO UM\"}",
+				"{\"name\":\"nome invalido\"}",
+				"{\"name\":\"IMPORTADO COM FILHOS\",\"addresses\":[{\"street\":\"AUGUSTA\",\"city\":\"SAO PAULO\"}],"
+						+ "\"phones\":[{\"phoneType\":\"Móvel\",\"ddi\":\"55\",\"ddd\":\"11\",\"number\":\"987654321\"}]}",
+				"{\"name\":\"IMPORTADO DATA RUIM\",\"birthdate\":\"ontem\"}",
+				"{\"name\":\"IMPORTADO SEM RUA\",\"addresses\":[{\"city\":\"SAO PAULO\"}]}",
+				"{\"name\":\"IMPORTADO VALIDO DOIS\"}");
+		
+		mvc.perform(post("/contacts/import")
+				.contentType("application/x-ndjson")
+				.content(body.getBytes(StandardCharsets.UTF_8)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.records").value(6))
+			.andExpect(jsonPath("$.imported").value(3))
+			.andExpect(jsonPath("$.rejected").value(3))
+			.andExpect(jsonPath("$.errors.length()").value(3))
+			.andExpect(jsonPath("$.errors[?(@.record == 2)].message").value("Invalid input: contact name is invalid"))
+			.andExpect(jsonPath("$.errors[?(@.record == 4)]").exists())
+			.andExpect(jsonPath("$.errors[?(@.record == 5)].message").value("Invalid input: address street is mandatory"))
+			.andExpect(jsonPath("$._links.contacts.href").exists());
+		
+		assertEquals(1, countNamed("IMPORTADO VALIDO UM"));
+		assertEquals(1, countNamed("IMPORTADO VALIDO DOIS"));
+		assertEquals(0, countNamed("IMPORTADO SEM RUA"), "Registro rejeitado foi gravado");
+		
+		var contactId = jdbcTemplate.queryForObject("select id from CONTACT where name = ?", Long.class,
+													"IMPORTADO COM FILHOS");
+		
+		assertEquals(1, service.loadContactAddresses(contactId).size());
+		assertEquals(1, service.loadContactPhones(contactId).size());
+	}
+	
+	@Test
+	public void testImportDuplicateCpfs() {
+		logger.info("*** Teste de importação de CPFs repetidos ***");
+		
+		var contact = new Contact();
+		contact.setName("DONO DO CPF NO BANCO");
+		contact.setCpf("12345678909");
+		service.addContact(contact);
+		
+		var report = importLines(
+				"{\"name\":\"IMPORTADO CPF NOVO\",\"cpf\":\"52998224725\"}",
+				"{\"name\":\"IMPORTADO CPF DO LOTE\",\"cpf\":\"52998224725\"}",
+				"{\"name\":\"IMPORTADO CPF DO BANCO\",\"cpf\":\"12345678909\"}",
+				"{\"name\":\"IMPORTADO CPF DE OUTRO LOTE\",\"cpf\":\"52998224725\"}",
+				"{\"name\":\"IMPORTADO OUTRO CPF NOVO\",\"cpf\":\"11144477735\"}");
+		var duplicate = new AlreadyExists(Contact.class, "CPF").getMessage();
+		var errors = errorsByRecord(report);
+		
+		assertEquals(2, report.getImported());
+		assertEquals(3, report.getRejected());
+		assertEquals(Map.of(2L, duplicate, 3L, duplicate, 4L, duplicate), errors,
+					 "CPF repetido no lote, no banco ou em lote anterior foi aceito");
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from CONTACT where cpf = ?", Long.class,
+													"52998224725"));
+	}
+	
+	@Test
+	public void testImportErrorsAreCapped() {
+		logger.info("*** Teste de limite de erros listados na importação ***");
+		
+		var lines = new String[8];
+		
+		for (var i = 0; i < lines.length; i++) {
+			lines[i] = "{\"name\":\"invalido\"}";
+		}
+		
+		var report = importLines(lines);
+		
+		assertEquals(8, report.getRecords());
+		assertEquals(0, report.getImported());
+		assertEquals(8, report.getRejected(), "Erros além do limite não foram contados");
+		assertEquals(5, report.getErrors().size(), "Erros listados além de contacts.import.errors.max");
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L),
+					 report.getErrors().stream().map(ImportError::getRecord).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void testImportChunkRollback() {
+		logger.info("*** Teste de desfazimento de um lote da importação ***");
+		
+		// valid, but longer than the column: it only fails when the chunk is flushed
+		var complement = "X".repeat(300);
+		var report = importLines(
+				"{\"name\":\"IMPORTADO LOTE DESFEITO\"}",
+				"{\"name\":\"lote desfeito\"}",
+				"{\"name\":\"IMPORTADO COMPLEMENTO LONGO\",\"addresses\":[{\"street\":\"AUGUSTA\","
+						+ "\"city\":\"SAO PAULO\",\"complement\":\"" + complement + "\"}]}",
+				"{\"name\":\"IMPORTADO LOTE SEGUINTE\"}");
+		var errors = errorsByRecord(report);
+		
+		assertEquals(1, report.getImported());
+		assertEquals(3, report.getRejected());
+		assertEquals(Map.of(1L, errors.get(3L), 2L, "Invalid input: contact name is invalid", 3L, errors.get(3L)), errors,
+					 "Registros do lote desfeito não foram todos rejeitados");
+		assertNotEquals("Invalid input: contact name is invalid", errors.get(3L));
+		assertEquals(0, countNamed("IMPORTADO LOTE DESFEITO"), "Registro de lote desfeito foi gravado");
+		assertEquals(0, countNamed("IMPORTADO COMPLEMENTO LONGO"), "Registro de lote desfeito foi gravado");
+		assertEquals(1, countNamed("IMPORTADO LOTE SEGUINTE"));
+	}
+}
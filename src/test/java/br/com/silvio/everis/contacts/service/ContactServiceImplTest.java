@@ -3,8 +3,10 @@ package br.com.silvio.everis.contacts.service;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -14,12 +16,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import br.com.silvio.everis.contacts.dao.ContactDao;
 import br.com.silvio.everis.contacts.exceptions.*;
 import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.search.ContactCpfFilter;
 
-@SpringBootTest
+@SpringBootTest(properties={"spring.datasource.url=jdbc:h2:mem:contact_service_test"})
 @TestMethodOrder(OrderAnnotation.class)
 public class ContactServiceImplTest {
 	private static final Logger logger = LoggerFactory.getLogger(ContactServiceImplTest.class);
@@ -31,6 +35,9 @@ public class ContactServiceImplTest {
 	@Autowired
 	private ContactDao contactDao;
 	
+	@Autowired
+	private ContactCpfFilter cpfFilter;
+	
 	private static List<Contact> contacts;
 
 	private void logAndFail(String msg) {
@@ -38,6 +45,15 @@ public class ContactServiceImplTest {
 		fail(msg);
 	}
 	
+	@BeforeEach
+	public void addContactIfNone() {
+		if (contactDao.count() == 0) {
+			var contact = new Contact();
+			contact.setName("CONTATO DE TESTE");
+			service.addContact(contact);
+		}
+	}
+	
 	@Test
 	@Order(1)
 	public void testLoadContacts() {
@@ -231,9 +247,41 @@ public class ContactServiceImplTest {
 			Assertions.assertThrows(Invalid.class, executable, "Inclusão de registro com CPF alfanumérico foi aceita");
 			
 			contact.setCpf("12345678901");
+			Assertions.assertThrows(Invalid.class, executable, "Inclusão de registro com dígitos verificadores de CPF errados foi aceita");
+			
+			contact.setCpf("12345678909");
 			executable.execute();
+			
+			contact.setId(null);
+			Assertions.assertThrows(AlreadyExists.class, executable, "Inclusão de registro com CPF repetido foi aceita");
 		} catch (RuntimeException e) {
 			logAndFail(e.getMessage());
 		}
 	}
+	
+	@Test
+	public void testDeletedCpfsAreDiscarded() {
+		logger.info("*** Teste da contagem de CPFs excluídos ***");
+		
+		final var stale = (AtomicLong) ReflectionTestUtils.getField(cpfFilter, "stale");
+		final var ids = new Long[4];
+		
+		for (var i = 0; i < ids.length; i++) {
+			var contact = new Contact();
+			contact.setName("CONTATO EXCLUIDO");
+			contact.setCpf(new String[] {null, "52998224725", null, "11144477735"}[i]);
+			ids[i] = service.addContact(contact).getId();
+		}
+		
+		final var before = stale.get();
+		
+		service.deleteContact(ids[0]);
+		assertEquals(before, stale.get(), "Contato sem CPF contado como CPF excluído");
+		
+		service.deleteContact(ids[1]);
+		assertEquals(before + 1, stale.get());
+		
+		assertEquals(2, service.deleteContacts(List.of(ids[2], ids[3])));
+		assertEquals(before + 2, stale.get(), "Contatos sem CPF contados como CPFs excluídos");
+	}
 }
@@ -0,0 +1,163 @@
+package br.com.silvio.everis.contacts.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.silvio.everis.contacts.enums.PhoneType;
+import br.com.silvio.everis.contacts.exceptions.Invalid;
+import br.com.silvio.everis.contacts.exceptions.InvalidFields;
+import br.com.silvio.everis.contacts.exceptions.InvalidInput;
+import br.com.silvio.everis.contacts.exceptions.Mandatory;
+import br.com.silvio.everis.contacts.model.Address;
+import br.com.silvio.everis.contacts.model.Contact;
+import br.com.silvio.everis.contacts.model.Phone;
+
+@SpringBootTest(classes=ContactValidator.class)
+public class ContactValidatorTest {
+	private static final Logger logger = LoggerFactory.getLogger(ContactValidatorTest.class);
+	
+	@Autowired
+	private ContactValidator validator;
+	
+	private static Contact contact(String name, String cpf) {
+		var contact = new Contact();
+		contact.setName(name);
+		contact.setCpf(cpf);
+		return contact;
+	}
+	
+	private static Phone phone(PhoneType phoneType, String ddi, String ddd, String number) {
+		var phone = new Phone();
+		phone.setPhoneType(phoneType);
+		phone.setDdi(ddi);
+		phone.setDdd(ddd);
+		phone.setNumber(number);
+		return phone;
+	}
+	
+	private static List<String> whatsWrong(InvalidFields errors) {
+		return errors.getErrors().stream().map(InvalidInput::getWhatsWrong).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void testAccentedNames() {
+		logger.info("*** Teste de nomes acentuados, pela REGEX de application.properties ***");
+		
+		for (var name : List.of("JOSÉ DA SILVA", "JOÃO ARAÚJO", "LÚCIA SIMÕES", "ÂNGELA INÍCIO")) {
+			assertDoesNotThrow(() -> validator.validateContact(contact(name, null)), "Nome válido rejeitado: " + name);
+		}
+		
+		assertThrows(Invalid.class, () -> validator.validateContact(contact("josé da silva", null)));
+		assertThrows(Invalid.class, () -> validator.validateContact(contact("JOS\uFFFD DA SILVA", null)));
+	}
+	
+	@Test
+	public void testCpfCheckDigits() {
+		logger.info("*** Teste dos dígitos verificadores do CPF ***");
+		
+		for (var cpf : List.of("12345678909", "52998224725", "11144477735", "39053344705", "123.456.789-09")) {
+			assertTrue(ContactValidator.hasCpfCheckDigits(cpf), "CPF válido rejeitado: " + cpf);
+		}
+		
+		for (var cpf : List.of("12345678900", "12345678919", "52998224752", "1234567890", "123456789091", "")) {
+			assertFalse(ContactValidator.hasCpfCheckDigits(cpf), "CPF inválido aceito: " + cpf);
+		}
+		
+		// repeated digits pass the check digit math, but are not valid CPFs
+		for (var digit = '0'; digit <= '9'; digit++) {
+			final var cpf = String.valueOf(digit).repeat(11);
+			
+			assertFalse(ContactValidator.hasCpfCheckDigits(cpf), "CPF de dígitos repetidos aceito: " + cpf);
+			assertThrows(Invalid.class, () -> validator.validateContact(contact("JOSE DA SILVA", cpf)));
+		}
+		
+		assertDoesNotThrow(() -> validator.validateContact(contact("JOSE DA SILVA", "52998224725")));
+		assertThrows(Invalid.class, () -> validator.validateContact(contact("JOSE DA SILVA", "52998224752")));
+		
+		// the default rule takes only the digits
+		assertThrows(Invalid.class, () -> validator.validateContact(contact("JOSE DA SILVA", "123.456.789-09")));
+	}
+	
+	@Test
+	public void testSeveralErrorsReportedTogether() {
+		logger.info("*** Teste de vários erros de um registro informados juntos ***");
+		
+		var contactErrors = assertThrows(InvalidFields.class,
+				() -> validator.validateContact(contact("jose", "12345678900")));
+		
+		assertEquals(List.of("contact name is invalid", "contact CPF is invalid"), whatsWrong(contactErrors));
+		assertEquals("Invalid input: contact name is invalid, contact CPF is invalid", contactErrors.getMessage());
+		
+		var address = new Address();
+		address.setZipCode("01311000");
+		
+		var addressErrors = assertThrows(InvalidFields.class, () -> validator.validateAddress(address));
+		
+		assertEquals(List.of("address street is mandatory", "address city is mandatory", "address zip code is invalid"),
+					 whatsWrong(addressErrors));
+		
+		var phoneErrors = assertThrows(InvalidFields.class,
+				() -> validator.validatePhone(phone(PhoneType.MOBILE, null, "119", "32654321")));
+		
+		assertEquals(List.of("phone ddi is mandatory", "phone ddd is invalid", "phone number is invalid"),
+					 whatsWrong(phoneErrors));
+		
+		// a single error is thrown as is
+		assertThrows(Mandatory.class, () -> validator.validateContact(contact(null, "12345678909")));
+		
+		// only the given fields are validated
+		var nameOnly = assertThrows(Invalid.class,
+				() -> validator.validateContact(contact("jose", "12345678900"), Set.of("name")));
+		
+		assertEquals("contact name is invalid", nameOnly.getWhatsWrong());
+		assertDoesNotThrow(() -> validator.validatePhone(phone(PhoneType.FIX, null, "11", "32654321"), Set.of("number")));
+	}
+	
+	@Test
+	public void testCustomRegexUsesCompiledPattern() {
+		logger.info("*** Teste de REGEX configurada diferente da padrão ***");
+		
+		var custom = new ContactValidator();
+		
+		ReflectionTestUtils.setField(custom, "regexContactName", "[A-Z ]{3,}");
+		ReflectionTestUtils.setField(custom, "regexContactCpf", "\\d{3}\\.\\d{3}\\.\\d{3}-\\d{2}");
+		ReflectionTestUtils.setField(custom, "regexAddressZipCode", "\\d{8}");
+		ReflectionTestUtils.setField(custom, "regexPhoneFix", "[2-5]\\d{7}");
+		ReflectionTestUtils.setField(custom, "regexPhoneMobile", "9?\\d{8}");
+		ReflectionTestUtils.setField(custom, "regexPhoneDdi", "\\+\\d{1,3}");
+		ReflectionTestUtils.setField(custom, "regexPhoneDdd", "\\d{2}");
+		custom.init();
+		
+		// the custom rules replace the hand written checks of the default ones
+		assertDoesNotThrow(() -> custom.validateContact(contact("ANA", "123.456.789-09")));
+		assertThrows(Invalid.class, () -> custom.validateContact(contact("ANA", "12345678909")));
+		assertThrows(Invalid.class, () -> validator.validateContact(contact("ANA", null)));
+		
+		// check digits are verified whatever the rule
+		assertThrows(Invalid.class, () -> custom.validateContact(contact("ANA", "123.456.789-00")));
+		
+		var address = new Address();
+		address.setStreet("AUGUSTA");
+		address.setCity("SAO PAULO");
+		address.setZipCode("01311000");
+		assertDoesNotThrow(() -> custom.validateAddress(address));
+		address.setZipCode("01311-000");
+		assertThrows(Invalid.class, () -> custom.validateAddress(address));
+		assertDoesNotThrow(() -> validator.validateAddress(address));
+		
+		assertDoesNotThrow(() -> custom.validatePhone(phone(PhoneType.MOBILE, "+55", "11", "87654321")));
+		assertThrows(Invalid.class, () -> custom.validatePhone(phone(PhoneType.MOBILE, "55", "11", "987654321")));
+		assertThrows(Invalid.class, () -> custom.validatePhone(phone(PhoneType.FIX, "+55", "1", "32654321")));
+		assertThrows(Invalid.class, () -> validator.validatePhone(phone(PhoneType.MOBILE, "55", "11", "87654321")));
+	}
+}
@@ -0,0 +1,135 @@
+package br.com.silvio.everis.contacts.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ResponseCacheTest {
+	private static final Logger logger = LoggerFactory.getLogger(ResponseCacheTest.class);
+	
+	private static ResponseCache cache(String spec) {
+		var cache = new ResponseCache();
+		
+		cache.meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(cache, "spec", spec);
+		cache.init();
+		
+		return cache;
+	}
+	
+	private static CachedResponse response(ResponseCache cache, Long contactId, int length) {
+		return new CachedResponse(contactId, cache.generation(contactId), "application/hal+json", "\"1\"", new byte[length]);
+	}
+	
+	@AfterEach
+	public void clearTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	@Test
+	public void testEvictContact() {
+		logger.info("*** Teste de remoção das respostas de um contato ***");
+		
+		var cache = cache("maximumWeight=1048576");
+		var contact = response(cache, 1L, 10);
+		
+		cache.put("/contacts/1", contact);
+		cache.put("/contacts/1/addresses", response(cache, 1L, 10));
+		cache.put("/contacts/2", response(cache, 2L, 10));
+		
+		assertSame(contact, cache.get("/contacts/1"));
+		assertNull(cache.get("/contacts/3"));
+		
+		cache.evictContact(1L);
+		
+		assertNull(cache.get("/contacts/1"), "Resposta do contato alterado mantida");
+		assertNull(cache.get("/contacts/1/addresses"), "Resposta de filho do contato alterado mantida");
+		assertNotNull(cache.get("/contacts/2"), "Resposta de outro contato removida");
+		
+		cache.evictContacts(List.of(2L, 3L));
+		assertNull(cache.get("/contacts/2"));
+	}
+	
+	@Test
+	public void testStaleGenerationIsNeverServed() {
+		logger.info("*** Teste de resposta anterior a uma alteração ***");
+		
+		var cache = cache("maximumWeight=1048576");
+		
+		// rendered before the write, cached after it
+		var stale = response(cache, 1L, 10);
+		
+		cache.evictContact(1L);
+		cache.put("/contacts/1", stale);
+		assertNull(cache.get("/contacts/1"), "Resposta anterior à alteração armazenada");
+		
+		// a contact sharing its generation stripe is evicted along
+		cache.put("/contacts/1", response(cache, 1L, 10));
+		cache.evictContact(1L + 1024);
+		assertNull(cache.get("/contacts/1"), "Resposta servida com a geração vencida");
+	}
+	
+	@Test
+	public void testEvictedAgainAfterTransaction() {
+		logger.info("*** Teste de remoção das respostas ao fim da transação ***");
+		
+		var cache = cache("maximumWeight=1048576");
+		
+		TransactionSynchronizationManager.initSynchronization();
+		cache.evictContact(1L);
+		cache.evictContacts(List.of(2L));
+		
+		// read before the commit, seeing the data of the transaction not committed yet
+		cache.put("/contacts/1", response(cache, 1L, 10));
+		cache.put("/contacts/2", response(cache, 2L, 10));
+		assertNotNull(cache.get("/contacts/1"));
+		
+		final var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+		
+		assertNull(cache.get("/contacts/1"), "Resposta lida durante a transação mantida");
+		assertNull(cache.get("/contacts/2"), "Resposta lida durante a transação mantida");
+	}
+	
+	@Test
+	public void testBoundedByBytes() {
+		logger.info("*** Teste do limite de bytes do cache de respostas ***");
+		
+		var cache = cache("maximumWeight=4096");
+		
+		for (var contactId = 1L; contactId <= 100; contactId++) {
+			cache.put("/contacts/" + contactId, response(cache, contactId, 1000));
+		}
+		
+		var cached = 0;
+		
+		for (var contactId = 1L; contactId <= 100; contactId++) {
+			cached += (cache.get("/contacts/" + contactId) != null) ? 1 : 0;
+		}
+		
+		assertTrue(cached <= 4, "Respostas além do limite de bytes: " + cached);
+		assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(cache, "keysByContact")).size() <= 4,
+				   "Chaves de respostas descartadas mantidas no índice por contato");
+		
+		var disabled = cache("maximumWeight=0");
+		
+		disabled.put("/contacts/1", response(disabled, 1L, 10));
+		assertNull(disabled.get("/contacts/1"), "Cache desligado armazenou resposta");
+	}
+}